@@ -18,6 +18,9 @@
  ******************************************************************************/
 package com.syncleus.dann.attributes.hat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import com.syncleus.dann.graph.DirectedEdge;
 import com.syncleus.dann.graph.MutableTreeAdjacencyGraph;
 
@@ -44,6 +47,26 @@ public class MutableAttributeTreeAdjacencyGraph<N extends AbstractHierarchicalAt
 		return false;
 	}
 
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		if( newEdges == null )
+			throw new IllegalArgumentException("newEdges can not be null");
+
+		final List<E> absentEdges = new ArrayList<E>(newEdges.size());
+		for(final E newEdge : newEdges)
+			if( !this.getEdges().contains(newEdge) )
+				absentEdges.add(newEdge);
+
+		if( !super.addAll(newEdges) )
+			return false;
+
+		for(final E absentEdge : absentEdges)
+			if( this.getEdges().contains(absentEdge) )
+				absentEdge.getDestinationNode().setParent(absentEdge.getSourceNode());
+		return true;
+	}
+
 	@Override
 	public boolean remove(final E edgeToRemove)
 	{
@@ -56,4 +79,24 @@ public class MutableAttributeTreeAdjacencyGraph<N extends AbstractHierarchicalAt
 		return false;
 	}
 
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		if( edgesToRemove == null )
+			throw new IllegalArgumentException("edgesToRemove can not be null");
+
+		final List<E> presentEdges = new ArrayList<E>(edgesToRemove.size());
+		for(final E edgeToRemove : edgesToRemove)
+			if( this.getEdges().contains(edgeToRemove) )
+				presentEdges.add(edgeToRemove);
+
+		if( !super.removeAll(edgesToRemove) )
+			return false;
+
+		for(final E presentEdge : presentEdges)
+			if( !this.getEdges().contains(presentEdge) )
+				presentEdge.getDestinationNode().setParent(null);
+		return true;
+	}
+
 }
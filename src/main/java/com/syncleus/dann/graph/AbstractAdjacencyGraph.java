@@ -19,13 +19,20 @@
 package com.syncleus.dann.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
 import com.syncleus.dann.graph.context.ContextGraphElement;
 import com.syncleus.dann.graph.xml.*;
 import com.syncleus.dann.xml.NameXml;
@@ -43,13 +50,15 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
  * @param <E> The type of edge for the given node type
  */
 @XmlJavaTypeAdapter( com.syncleus.dann.xml.XmlSerializableAdapter.class )
-public abstract class AbstractAdjacencyGraph<N, E extends TraversableCloud<N>> implements Graph<N, E>
+public abstract class AbstractAdjacencyGraph<N, E extends TraversableCloud<N>> implements ObservableGraph<N, E>
 {
 	private static final Logger LOGGER = Logger.getLogger(AbstractAdjacencyGraph.class);
+	private static final int MINIMUM_TASK_EDGES = 4096;
 	private Set<E> edges;
 	private Map<N, Set<E>> adjacentEdges = new HashMap<N, Set<E>>();
 	private Map<N, List<N>> adjacentNodes = new HashMap<N, List<N>>();
 	private final boolean contextEnabled;
+	private transient List<GraphListener<N, E>> listeners;
 
 
 	/**
@@ -218,12 +227,437 @@ public abstract class AbstractAdjacencyGraph<N, E extends TraversableCloud<N>> i
 		return this.adjacentNodes;
 	}
 
+	/**
+	 * Adds a batch of edges on the calling thread.
+	 * @param newEdges The edges to add
+	 * @return true if at least one edge was added
+	 * @see #addInternalEdges(Collection, ExecutorService)
+	 * @since 2.2
+	 */
+	protected boolean addInternalEdges(final Collection<? extends E> newEdges)
+	{
+		return this.addInternalEdges(newEdges, null);
+	}
+
+	/**
+	 * Adds a batch of edges whose end points are already nodes of this graph.
+	 * Every edge is checked before the graph is changed, then the context of
+	 * each new edge is asked to join in a single pass. Edges already in the
+	 * graph, repeated in the batch or refused by their context are skipped.
+	 * The adjacency of the edges which joined is filled in one pass without
+	 * copying their node lists, and only then are listeners told of each added
+	 * edge. When an executor is given the adjacency is filled by tasks which
+	 * each own a disjoint stripe of the nodes, so no locking is needed; the
+	 * context callbacks and listeners always run on the calling thread.
+	 * @param newEdges The edges to add
+	 * @param executor The executor used to fill the adjacency, or null to fill
+	 *   it on the calling thread
+	 * @return true if at least one edge was added
+	 * @throws IllegalArgumentException if newEdges is or contains null, or if
+	 *   an edge has an end point which is not part of this graph
+	 * @since 2.2
+	 */
+	protected boolean addInternalEdges(final Collection<? extends E> newEdges, final ExecutorService executor)
+	{
+		if( newEdges == null )
+			throw new IllegalArgumentException("newEdges can not be null");
+		for(final E newEdge : newEdges)
+		{
+			if( newEdge == null )
+				throw new IllegalArgumentException("newEdges can not contain null");
+			if( !this.adjacentEdges.keySet().containsAll(newEdge.getNodes()) )
+				throw new IllegalArgumentException("newEdges has a node as an end point that is not part of the graph");
+		}
+
+		final List<E> addedEdges = new ArrayList<E>(newEdges.size());
+		for(final E newEdge : newEdges)
+		{
+			if( this.edges.contains(newEdge) )
+				continue;
+
+			// if context is enabled lets check if it can join
+			if( this.contextEnabled && (newEdge instanceof ContextGraphElement)
+					&& !((ContextGraphElement)newEdge).joiningGraph(this) )
+				continue;
+
+			this.edges.add(newEdge);
+			addedEdges.add(newEdge);
+		}
+		if( addedEdges.isEmpty() )
+			return false;
+
+		final int taskCount = (executor == null ? 1 : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), addedEdges.size() / MINIMUM_TASK_EDGES)));
+		if( taskCount == 1 )
+			this.fillAdjacency(addedEdges, 0, 1);
+		else
+		{
+			final List<Callable<Void>> fills = new ArrayList<Callable<Void>>(taskCount);
+			for(int stripe = 0; stripe < taskCount; stripe++)
+				fills.add(new AdjacencyFill(addedEdges, stripe, taskCount));
+
+			try
+			{
+				for(final Future<Void> future : executor.invokeAll(fills))
+					future.get();
+			}
+			catch(InterruptedException caught)
+			{
+				LOGGER.warn("adjacency fill was unexpectedly interrupted", caught);
+				throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+			}
+			catch(ExecutionException caught)
+			{
+				if( caught.getCause() instanceof RuntimeException )
+					throw (RuntimeException) caught.getCause();
+				LOGGER.error("adjacency fill had an unexpected problem executing.", caught);
+				throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+			}
+		}
+
+		for(final E addedEdge : addedEdges)
+			this.fireEdgeAdded(addedEdge);
+		return true;
+	}
+
+	/**
+	 * Removes a batch of edges. The context of each edge in the graph is asked
+	 * to leave in a single pass, and edges which are not in the graph, are
+	 * repeated in the batch or are refused by their context are skipped. Each
+	 * node touched by the batch then has its adjacent node list compacted once
+	 * instead of once per removed edge, and only then are listeners told of
+	 * each removed edge.
+	 * @param edgesToRemove The edges to remove
+	 * @return true if at least one edge was removed
+	 * @throws IllegalArgumentException if edgesToRemove is or contains null
+	 * @since 2.2
+	 */
+	protected boolean removeInternalEdges(final Collection<? extends E> edgesToRemove)
+	{
+		if( edgesToRemove == null )
+			throw new IllegalArgumentException("edgesToRemove can not be null");
+		for(final E edgeToRemove : edgesToRemove)
+			if( edgeToRemove == null )
+				throw new IllegalArgumentException("edgesToRemove can not contain null");
+
+		final List<E> removedEdges = new ArrayList<E>(edgesToRemove.size());
+		for(final E edgeToRemove : edgesToRemove)
+		{
+			if( !this.edges.contains(edgeToRemove) )
+				continue;
+
+			// if context is enabled lets check if it can leave
+			if( this.contextEnabled && (edgeToRemove instanceof ContextGraphElement)
+					&& !((ContextGraphElement)edgeToRemove).leavingGraph(this) )
+				continue;
+
+			this.edges.remove(edgeToRemove);
+			removedEdges.add(edgeToRemove);
+		}
+		if( removedEdges.isEmpty() )
+			return false;
+
+		//count how many times each neighbor leaves each node's adjacent nodes
+		final Map<N, Map<N, Integer>> removedNeighbors = new HashMap<N, Map<N, Integer>>();
+		for(final E removedEdge : removedEdges)
+		{
+			for(final N currentNode : removedEdge.getNodes())
+			{
+				this.adjacentEdges.get(currentNode).remove(removedEdge);
+
+				Map<N, Integer> neighborCounts = removedNeighbors.get(currentNode);
+				if( neighborCounts == null )
+				{
+					neighborCounts = new HashMap<N, Integer>();
+					removedNeighbors.put(currentNode, neighborCounts);
+				}
+
+				boolean passedCurrent = false;
+				for(final N neighborNode : removedEdge.getNodes())
+				{
+					if( !passedCurrent && (neighborNode == currentNode) )
+					{
+						passedCurrent = true;
+						continue;
+					}
+
+					final Integer count = neighborCounts.get(neighborNode);
+					neighborCounts.put(neighborNode, (count == null ? 1 : count + 1));
+				}
+			}
+		}
+
+		for(final Map.Entry<N, Map<N, Integer>> entry : removedNeighbors.entrySet())
+		{
+			final Map<N, Integer> neighborCounts = entry.getValue();
+			final List<N> neighbors = this.adjacentNodes.get(entry.getKey());
+			int keptCount = 0;
+			for(int neighborIndex = 0; neighborIndex < neighbors.size(); neighborIndex++)
+			{
+				final N neighborNode = neighbors.get(neighborIndex);
+				final Integer count = neighborCounts.get(neighborNode);
+				if( (count != null) && (count > 0) )
+				{
+					neighborCounts.put(neighborNode, count - 1);
+					continue;
+				}
+				neighbors.set(keptCount++, neighborNode);
+			}
+			neighbors.subList(keptCount, neighbors.size()).clear();
+		}
+
+		for(final E removedEdge : removedEdges)
+			this.fireEdgeRemoved(removedEdge);
+		return true;
+	}
+
+	/**
+	 * Takes an edge of this graph out of the sets which hold it, before its end
+	 * points are changed in place. Since the hash of the edge may depend on its
+	 * end points it has to be taken out while they are still the ones it was
+	 * added with. No context is consulted and no listener is told.
+	 * @param edge The edge about to change
+	 * @see #relinkInternalEdge(TraversableCloud, Collection)
+	 * @since 2.2
+	 */
+	protected void unlinkInternalEdge(final E edge)
+	{
+		this.edges.remove(edge);
+		for(final N currentNode : edge.getNodes())
+			this.adjacentEdges.get(currentNode).remove(edge);
+	}
+
+	/**
+	 * Takes an edge of this graph out like unlinkInternalEdge, and also takes
+	 * out the adjacent nodes it contributed, so the graph looks as it would
+	 * after the edge was removed. Use this instead when listeners will be told
+	 * of the removal before the edge is put back; relinkInternalEdge with no
+	 * old end points then puts all of its adjacency back.
+	 * @param edge The edge about to change
+	 * @see #unlinkInternalEdge(TraversableCloud)
+	 * @since 2.2
+	 */
+	protected void detachInternalEdge(final E edge)
+	{
+		final Collection<N> oldNodes = edge.getNodes();
+		this.unlinkInternalEdge(edge);
+		for(final N currentNode : oldNodes)
+		{
+			final List<N> neighbors = this.adjacentNodes.get(currentNode);
+			boolean passedCurrent = false;
+			for(final N neighborNode : oldNodes)
+			{
+				if( !passedCurrent && neighborNode.equals(currentNode) )
+				{
+					passedCurrent = true;
+					continue;
+				}
+				neighbors.remove(neighborNode);
+			}
+		}
+	}
+
+	/**
+	 * Puts back an edge taken out by unlinkInternalEdge once its end points
+	 * have been changed in place. Only the adjacent nodes of the end points
+	 * which were gained or lost, and of the end points they shared the edge
+	 * with, are changed. No context is consulted and no listener is told.
+	 * @param edge The edge which changed
+	 * @param oldNodes The end points the edge had before it changed
+	 * @throws IllegalArgumentException if the edge gained an end point which is
+	 *   not part of this graph
+	 * @since 2.2
+	 */
+	protected void relinkInternalEdge(final E edge, final Collection<N> oldNodes)
+	{
+		final Collection<N> newNodes = edge.getNodes();
+		final List<N> lostNodes = new ArrayList<N>(oldNodes);
+		final List<N> gainedNodes = new ArrayList<N>();
+		final List<N> keptNodes = new ArrayList<N>(newNodes.size());
+		for(final N newNode : newNodes)
+		{
+			if( lostNodes.remove(newNode) )
+				keptNodes.add(newNode);
+			else
+				gainedNodes.add(newNode);
+		}
+		if( !this.adjacentEdges.keySet().containsAll(gainedNodes) )
+			throw new IllegalArgumentException("edge has a node as an end point that is not part of the graph");
+
+		this.edges.add(edge);
+		for(final N currentNode : newNodes)
+			this.adjacentEdges.get(currentNode).add(edge);
+
+		//a lost end point loses every other old end point, and the kept end points lose it
+		for(final N lostNode : lostNodes)
+		{
+			final List<N> lostNeighbors = this.adjacentNodes.get(lostNode);
+			boolean passedCurrent = false;
+			for(final N oldNode : oldNodes)
+			{
+				if( !passedCurrent && oldNode.equals(lostNode) )
+				{
+					passedCurrent = true;
+					continue;
+				}
+				lostNeighbors.remove(oldNode);
+			}
+			for(final N keptNode : keptNodes)
+				this.adjacentNodes.get(keptNode).remove(lostNode);
+		}
+
+		//a gained end point gains every other new end point, and the kept end points gain it
+		for(final N gainedNode : gainedNodes)
+		{
+			final List<N> gainedNeighbors = this.adjacentNodes.get(gainedNode);
+			boolean passedCurrent = false;
+			for(final N newNode : newNodes)
+			{
+				if( !passedCurrent && newNode.equals(gainedNode) )
+				{
+					passedCurrent = true;
+					continue;
+				}
+				gainedNeighbors.add(newNode);
+			}
+			for(final N keptNode : keptNodes)
+				this.adjacentNodes.get(keptNode).add(gainedNode);
+		}
+	}
+
+	/**
+	 * Adds the given edges to the adjacency of every end point which falls in
+	 * the given stripe of nodes. Stripes are disjoint, so fills of different
+	 * stripes never touch the same adjacency set or list.
+	 */
+	private void fillAdjacency(final List<E> addedEdges, final int stripe, final int stripeCount)
+	{
+		for(final E addedEdge : addedEdges)
+		{
+			for(final N currentNode : addedEdge.getNodes())
+			{
+				if( (stripeCount > 1) && (((currentNode.hashCode() & Integer.MAX_VALUE) % stripeCount) != stripe) )
+					continue;
+
+				final List<N> neighbors = this.adjacentNodes.get(currentNode);
+				boolean passedCurrent = false;
+				for(final N neighborNode : addedEdge.getNodes())
+				{
+					if( !passedCurrent && (neighborNode == currentNode) )
+					{
+						passedCurrent = true;
+						continue;
+					}
+					neighbors.add(neighborNode);
+				}
+				this.adjacentEdges.get(currentNode).add(addedEdge);
+			}
+		}
+	}
+
+	private final class AdjacencyFill implements Callable<Void>
+	{
+		private final List<E> addedEdges;
+		private final int stripe;
+		private final int stripeCount;
+
+		private AdjacencyFill(final List<E> addedEdges, final int stripe, final int stripeCount)
+		{
+			this.addedEdges = addedEdges;
+			this.stripe = stripe;
+			this.stripeCount = stripeCount;
+		}
+
+		@Override
+		public Void call()
+		{
+			AbstractAdjacencyGraph.this.fillAdjacency(this.addedEdges, this.stripe, this.stripeCount);
+			return null;
+		}
+	}
+
 	@Override
 	public boolean isContextEnabled()
 	{
 		return this.contextEnabled;
 	}
 
+	@Override
+	public void addGraphListener(final GraphListener<N, E> listener)
+	{
+		if( listener == null )
+			throw new IllegalArgumentException("listener can not be null");
+		this.getListeners().add(listener);
+	}
+
+	@Override
+	public boolean removeGraphListener(final GraphListener<N, E> listener)
+	{
+		return this.getListeners().remove(listener);
+	}
+
+	/**
+	 * Determines if any listener is registered, so implementations can skip
+	 * keeping the graph consistent at points only a listener could observe.
+	 * @return true if at least one listener is registered
+	 * @since 2.2
+	 */
+	protected boolean hasGraphListeners()
+	{
+		return !this.getListeners().isEmpty();
+	}
+
+	private synchronized List<GraphListener<N, E>> getListeners()
+	{
+		// listeners are transient so they may be missing after deserialization
+		if( this.listeners == null )
+			this.listeners = new CopyOnWriteArrayList<GraphListener<N, E>>();
+		return this.listeners;
+	}
+
+	/**
+	 * Notifies all registered listeners that a node was added. Should be called
+	 * by implementations after the node has been added.
+	 * @param node The node which was added
+	 */
+	protected void fireNodeAdded(final N node)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.nodeAdded(this, node);
+	}
+
+	/**
+	 * Notifies all registered listeners that a node was removed. Should be
+	 * called by implementations after the node has been removed.
+	 * @param node The node which was removed
+	 */
+	protected void fireNodeRemoved(final N node)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.nodeRemoved(this, node);
+	}
+
+	/**
+	 * Notifies all registered listeners that an edge was added. Should be called
+	 * by implementations after the edge has been added.
+	 * @param edge The edge which was added
+	 */
+	protected void fireEdgeAdded(final E edge)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.edgeAdded(this, edge);
+	}
+
+	/**
+	 * Notifies all registered listeners that an edge was removed. Should be
+	 * called by implementations after the edge has been removed.
+	 * @param edge The edge which was removed
+	 */
+	protected void fireEdgeRemoved(final E edge)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.edgeRemoved(this, edge);
+	}
+
 	/**
 	 * Gets all nodes in the map.
 	 * @return The unmodifiable set of nodes
@@ -312,6 +746,7 @@ public abstract class AbstractAdjacencyGraph<N, E extends TraversableCloud<N>> i
 			final AbstractAdjacencyGraph<N, E> cloneGraph = (AbstractAdjacencyGraph<N, E>) super.clone();
 
 			//lets instantiate some new data structures for our clone
+			cloneGraph.listeners = null;
 			cloneGraph.adjacentEdges = new HashMap<N, Set<E>>();
 			cloneGraph.adjacentNodes = new HashMap<N, List<N>>();
 
@@ -70,7 +70,8 @@ public abstract class AbstractBidirectedAdjacencyGraph<N, E extends BidirectedEd
 	public Set<E> getInEdges(final N node)
 	{
 		final Set<E> inEdges = new HashSet<E>();
-		for(final E edge : this.getEdges())
+		//only the edges adjacent to the node can traverse to it
+		for(final E edge : this.getAdjacentEdges(node))
 		{
 			final List<N> adjacentNodes = new ArrayList<N>(edge.getNodes());
 			adjacentNodes.remove(node);
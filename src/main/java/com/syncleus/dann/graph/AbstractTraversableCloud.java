@@ -98,7 +98,7 @@ public abstract class AbstractTraversableCloud<N> extends AbstractContextGraphEl
 		final List<N> newNodes = new ArrayList<N>(this.nodes);
 		newNodes.add(node);
 
-		return createDeepCopy(newNodes);
+		return (this.isMutable() ? this.changeInPlace(newNodes) : this.createDeepCopy(newNodes));
 	}
 
 	protected AbstractTraversableCloud<N> add(final List<N> addNodes)
@@ -108,7 +108,7 @@ public abstract class AbstractTraversableCloud<N> extends AbstractContextGraphEl
 		final List<N> newNodes = new ArrayList<N>(this.nodes);
 		newNodes.addAll(addNodes);
 
-		return createDeepCopy(newNodes);
+		return (this.isMutable() ? this.changeInPlace(newNodes) : this.createDeepCopy(newNodes));
 	}
 
 	protected AbstractTraversableCloud<N> remove(final N node)
@@ -121,7 +121,7 @@ public abstract class AbstractTraversableCloud<N> extends AbstractContextGraphEl
 		final List<N> newNodes = new ArrayList<N>(this.nodes);
 		newNodes.remove(node);
 
-		return createDeepCopy(newNodes);
+		return (this.isMutable() ? this.changeInPlace(newNodes) : this.createDeepCopy(newNodes));
 	}
 
 	protected AbstractTraversableCloud<N> remove(final List<N> removeNodes)
@@ -134,7 +134,54 @@ public abstract class AbstractTraversableCloud<N> extends AbstractContextGraphEl
 		for(final N node : removeNodes)
 			newNodes.remove(node);
 
-		return createDeepCopy(newNodes);
+		return (this.isMutable() ? this.changeInPlace(newNodes) : this.createDeepCopy(newNodes));
+	}
+
+	/**
+	 * Determines if adding or removing end points changes this edge in place
+	 * instead of creating a changed copy of it. This is false unless a
+	 * subclass opts in. An edge which changes in place must not be shared
+	 * between graphs, and while it is part of a graph its end points should
+	 * only be changed through that graph so its adjacency can be kept up to
+	 * date; see MutableHyperAdjacencyGraph#connect.
+	 * @return true if this edge changes in place, false otherwise.
+	 * @since 2.2
+	 */
+	protected boolean isMutable()
+	{
+		return false;
+	}
+
+	/**
+	 * Changes the end points of this edge in place. Only the end points which
+	 * are gained or lost are asked for their context, the rest stay connected.
+	 * @param newNodes the end points to use instead of the current ones, this
+	 *   list is kept by the edge.
+	 * @return this edge.
+	 */
+	private AbstractTraversableCloud<N> changeInPlace(final List<N> newNodes)
+	{
+		if( !this.contextEnabled )
+		{
+			this.nodes = Collections.unmodifiableList(newNodes);
+			return this;
+		}
+
+		final List<N> lostNodes = new ArrayList<N>(this.nodes);
+		final List<N> changedNodes = new ArrayList<N>(newNodes.size());
+		for(final N newNode : newNodes)
+		{
+			if( !lostNodes.remove(newNode)
+					&& (newNode instanceof ContextNode) && ( !((ContextNode)newNode).connectingEdge(this) ) )
+				continue;
+			changedNodes.add(newNode);
+		}
+		for(final N lostNode : lostNodes)
+			if( (lostNode instanceof ContextNode) && ( !((ContextNode)lostNode).disconnectingEdge(this) ) )
+				changedNodes.add(lostNode);
+
+		this.nodes = Collections.unmodifiableList(changedNodes);
+		return this;
 	}
 
 	/**
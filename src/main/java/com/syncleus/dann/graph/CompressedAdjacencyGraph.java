@@ -0,0 +1,852 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.graph.xml.*;
+import com.syncleus.dann.xml.NameXml;
+import com.syncleus.dann.xml.NamedValueXml;
+import com.syncleus.dann.xml.Namer;
+import com.syncleus.dann.xml.XmlSerializable;
+import org.apache.log4j.Logger;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+/**
+ * An immutable graph which interns its nodes and edges to dense indexes and
+ * stores all of its adjacency in compressed sparse row arrays. Every node has a
+ * contiguous run of entries in each array, so adjacency is held in a handful of
+ * primitive arrays rather than a set or list per node. The collections returned
+ * by this graph are unmodifiable views over those arrays and are never copied.
+ *
+ * A CompressedAdjacencyGraph can be created from any graph, in which case it
+ * is a snapshot of that graph's adjacency and traversability at the time of
+ * creation. Context is not enabled; nodes and edges are not notified when they
+ * become part of this graph.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+@XmlJavaTypeAdapter( com.syncleus.dann.xml.XmlSerializableAdapter.class )
+public class CompressedAdjacencyGraph<N, E extends TraversableCloud<N>> implements IndexedGraph<N, E>
+{
+	private static final long serialVersionUID = 4290127586317324093L;
+	private static final Logger LOGGER = Logger.getLogger(CompressedAdjacencyGraph.class);
+	private static final int EMPTY_SLOT = 0;
+	private static final int INITIAL_RUN_CAPACITY = 16;
+
+	private final Object[] nodes;
+	// open addressed hash table holding node index + 1, or EMPTY_SLOT
+	private final int[] nodeSlots;
+	// null when no node is weighted, NaN for nodes which are not weighted
+	private final double[] nodeWeights;
+	private final Object[] edges;
+	// null when no edge is weighted, NaN for edges which are not weighted
+	private final double[] edgeWeights;
+	private final int[] adjacentOffsets;
+	private final int[] adjacentNodeIndexes;
+	private final int[] adjacentEdgeOffsets;
+	private final int[] adjacentEdgeIndexes;
+	private final int[] traversableOffsets;
+	private final int[] traversableNodeIndexes;
+	private final int[] traversableEdgeIndexes;
+	private final int[] inOffsets;
+	private final int[] inNodeIndexes;
+	private final int[] inEdgeIndexes;
+	// the inward runs hold an entry per source, these hold each edge once
+	private final int[] inEdgeSetOffsets;
+	private final int[] inEdgeSetIndexes;
+
+	/**
+	 * Supplies the adjacency of each node while the arrays are being built.
+	 */
+	private interface AdjacencySource<N, E extends TraversableCloud<N>>
+	{
+		Collection<N> getAdjacentNodes(N node);
+		Collection<E> getAdjacentEdges(N node);
+		Collection<E> getTraversableEdges(N node);
+	}
+
+	private static final class GraphAdjacencySource<N, E extends TraversableCloud<N>> implements AdjacencySource<N, E>
+	{
+		private final Graph<N, E> graph;
+
+		public GraphAdjacencySource(final Graph<N, E> graph)
+		{
+			if( graph == null )
+				throw new IllegalArgumentException("copyGraph can not be null");
+			this.graph = graph;
+		}
+
+		@Override
+		public Collection<N> getAdjacentNodes(final N node)
+		{
+			return this.graph.getAdjacentNodes(node);
+		}
+
+		@Override
+		public Collection<E> getAdjacentEdges(final N node)
+		{
+			return this.graph.getAdjacentEdges(node);
+		}
+
+		@Override
+		public Collection<E> getTraversableEdges(final N node)
+		{
+			return this.graph.getTraversableEdges(node);
+		}
+	}
+
+	/**
+	 * Calculates adjacency directly from the edges the same way an
+	 * AbstractAdjacencyGraph does.
+	 */
+	private static final class EdgeAdjacencySource<N, E extends TraversableCloud<N>> implements AdjacencySource<N, E>
+	{
+		private final Map<N, List<E>> adjacentEdges;
+		private final Map<N, List<N>> adjacentNodes;
+
+		public EdgeAdjacencySource(final Set<N> nodes, final Set<E> edges)
+		{
+			if( nodes == null )
+				throw new IllegalArgumentException("nodes can not be null");
+			if( edges == null )
+				throw new IllegalArgumentException("edges can not be null");
+
+			this.adjacentEdges = new HashMap<N, List<E>>(nodes.size() * 2);
+			this.adjacentNodes = new HashMap<N, List<N>>(nodes.size() * 2);
+			for(final N node : nodes)
+			{
+				this.adjacentEdges.put(node, new ArrayList<E>());
+				this.adjacentNodes.put(node, new ArrayList<N>());
+			}
+
+			for(final E edge : edges)
+			{
+				for(final N currentNode : edge.getNodes())
+				{
+					final List<E> currentEdges = this.adjacentEdges.get(currentNode);
+					if( currentEdges == null )
+						throw new IllegalArgumentException("A node that is an end point in one of the edges was not in the nodes list");
+					// loops visit the same node more than once
+					if( currentEdges.isEmpty() || (currentEdges.get(currentEdges.size() - 1) != edge) )
+						currentEdges.add(edge);
+
+					boolean passedCurrent = false;
+					for(final N neighborNode : edge.getNodes())
+					{
+						if( !passedCurrent && (neighborNode == currentNode) )
+						{
+							passedCurrent = true;
+							continue;
+						}
+						this.adjacentNodes.get(currentNode).add(neighborNode);
+					}
+				}
+			}
+		}
+
+		@Override
+		public Collection<N> getAdjacentNodes(final N node)
+		{
+			return this.adjacentNodes.get(node);
+		}
+
+		@Override
+		public Collection<E> getAdjacentEdges(final N node)
+		{
+			return this.adjacentEdges.get(node);
+		}
+
+		@Override
+		public Collection<E> getTraversableEdges(final N node)
+		{
+			final List<E> traversableEdges = new ArrayList<E>();
+			for(final E adjacentEdge : this.adjacentEdges.get(node))
+				if( adjacentEdge.isTraversable(node) )
+					traversableEdges.add(adjacentEdge);
+			return traversableEdges;
+		}
+	}
+
+	/**
+	 * A growable int array used while the runs are being built.
+	 */
+	private static final class IntRun
+	{
+		private int[] values = new int[INITIAL_RUN_CAPACITY];
+		private int size;
+
+		public void add(final int value)
+		{
+			if( this.size == this.values.length )
+			{
+				final int[] grown = new int[this.values.length * 2];
+				System.arraycopy(this.values, 0, grown, 0, this.size);
+				this.values = grown;
+			}
+			this.values[this.size++] = value;
+		}
+
+		public int size()
+		{
+			return this.size;
+		}
+
+		public int[] toArray()
+		{
+			final int[] trimmed = new int[this.size];
+			System.arraycopy(this.values, 0, trimmed, 0, this.size);
+			return trimmed;
+		}
+	}
+
+	/**
+	 * Creates a compressed snapshot of the specified graph. The adjacency and
+	 * traversability of each node is taken from the graph itself, so any
+	 * specialized behavior of the graph is preserved.
+	 *
+	 * @param copyGraph The Graph to copy
+	 */
+	public CompressedAdjacencyGraph(final Graph<N, E> copyGraph)
+	{
+		this(new GraphAdjacencySource<N, E>(copyGraph), copyGraph.getNodes(), copyGraph.getEdges());
+	}
+
+	/**
+	 * Creates a new graph from the given set of nodes and the given set of edges.
+	 *
+	 * @param nodes The set of all nodes
+	 * @param edges The set of all edges
+	 */
+	public CompressedAdjacencyGraph(final Set<N> nodes, final Set<E> edges)
+	{
+		this(new EdgeAdjacencySource<N, E>(nodes, edges), nodes, edges);
+	}
+
+	private CompressedAdjacencyGraph(final AdjacencySource<N, E> source, final Collection<N> ourNodes, final Collection<E> ourEdges)
+	{
+		// intern the nodes
+		final int nodeCount = ourNodes.size();
+		this.nodes = ourNodes.toArray();
+		this.nodeSlots = new int[slotCount(nodeCount)];
+		boolean nodesWeighted = false;
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			this.nodeSlots[this.findSlot(this.nodes[nodeIndex])] = nodeIndex + 1;
+			nodesWeighted |= (this.nodes[nodeIndex] instanceof Weighted);
+		}
+		this.nodeWeights = (nodesWeighted ? new double[nodeCount] : null);
+		if( nodesWeighted )
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				this.nodeWeights[nodeIndex] = (this.nodes[nodeIndex] instanceof Weighted ? ((Weighted) this.nodes[nodeIndex]).getWeight() : Double.NaN);
+
+		// intern the edges, the map is only needed while building
+		final int edgeCount = ourEdges.size();
+		this.edges = ourEdges.toArray();
+		final Map<Object, Integer> edgeIndexes = new HashMap<Object, Integer>(edgeCount * 2);
+		boolean edgesWeighted = false;
+		for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+		{
+			edgeIndexes.put(this.edges[edgeIndex], edgeIndex);
+			edgesWeighted |= (this.edges[edgeIndex] instanceof Weighted);
+		}
+		this.edgeWeights = (edgesWeighted ? new double[edgeCount] : null);
+		if( edgesWeighted )
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+				this.edgeWeights[edgeIndex] = (this.edges[edgeIndex] instanceof Weighted ? ((Weighted) this.edges[edgeIndex]).getWeight() : Double.NaN);
+
+		// lay out the runs for each node in index order
+		this.adjacentOffsets = new int[nodeCount + 1];
+		this.adjacentEdgeOffsets = new int[nodeCount + 1];
+		this.traversableOffsets = new int[nodeCount + 1];
+		final IntRun adjacentNodeRun = new IntRun();
+		final IntRun adjacentEdgeRun = new IntRun();
+		final IntRun traversableNodeRun = new IntRun();
+		final IntRun traversableEdgeRun = new IntRun();
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			final N node = (N) this.nodes[nodeIndex];
+
+			this.adjacentOffsets[nodeIndex] = adjacentNodeRun.size();
+			for(final N adjacentNode : source.getAdjacentNodes(node))
+				adjacentNodeRun.add(this.requireNodeIndex(adjacentNode));
+
+			this.adjacentEdgeOffsets[nodeIndex] = adjacentEdgeRun.size();
+			for(final E adjacentEdge : source.getAdjacentEdges(node))
+				adjacentEdgeRun.add(requireEdgeIndex(edgeIndexes, adjacentEdge));
+
+			this.traversableOffsets[nodeIndex] = traversableNodeRun.size();
+			for(final E traversableEdge : source.getTraversableEdges(node))
+			{
+				final int edgeIndex = requireEdgeIndex(edgeIndexes, traversableEdge);
+				for(final N traversableNode : traversableEdge.getTraversableNodes(node))
+				{
+					traversableNodeRun.add(this.requireNodeIndex(traversableNode));
+					traversableEdgeRun.add(edgeIndex);
+				}
+			}
+		}
+		this.adjacentOffsets[nodeCount] = adjacentNodeRun.size();
+		this.adjacentEdgeOffsets[nodeCount] = adjacentEdgeRun.size();
+		this.traversableOffsets[nodeCount] = traversableNodeRun.size();
+		this.adjacentNodeIndexes = adjacentNodeRun.toArray();
+		this.adjacentEdgeIndexes = adjacentEdgeRun.toArray();
+		this.traversableNodeIndexes = traversableNodeRun.toArray();
+		this.traversableEdgeIndexes = traversableEdgeRun.toArray();
+
+		// the inward runs are the traversable runs reversed, count the entries
+		// for each node and then scatter them in source order
+		this.inOffsets = new int[nodeCount + 1];
+		for(final int traversableNodeIndex : this.traversableNodeIndexes)
+			this.inOffsets[traversableNodeIndex + 1]++;
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			this.inOffsets[nodeIndex + 1] += this.inOffsets[nodeIndex];
+		this.inNodeIndexes = new int[this.traversableNodeIndexes.length];
+		this.inEdgeIndexes = new int[this.traversableNodeIndexes.length];
+		final int[] inFill = new int[nodeCount];
+		System.arraycopy(this.inOffsets, 0, inFill, 0, nodeCount);
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			for(int entry = this.traversableOffsets[nodeIndex]; entry < this.traversableOffsets[nodeIndex + 1]; entry++)
+			{
+				final int inEntry = inFill[this.traversableNodeIndexes[entry]]++;
+				this.inNodeIndexes[inEntry] = nodeIndex;
+				this.inEdgeIndexes[inEntry] = this.traversableEdgeIndexes[entry];
+			}
+		}
+
+		// a hyperedge reaches a node from several sources so its entries are
+		// scattered across the inward run, mark each edge with the last node
+		// it was recorded for to keep a single entry per node
+		this.inEdgeSetOffsets = new int[nodeCount + 1];
+		final IntRun inEdgeSetRun = new IntRun();
+		final int[] lastInNode = new int[edgeCount];
+		Arrays.fill(lastInNode, -1);
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			this.inEdgeSetOffsets[nodeIndex] = inEdgeSetRun.size();
+			for(int entry = this.inOffsets[nodeIndex]; entry < this.inOffsets[nodeIndex + 1]; entry++)
+			{
+				final int edgeIndex = this.inEdgeIndexes[entry];
+				if( lastInNode[edgeIndex] != nodeIndex )
+				{
+					lastInNode[edgeIndex] = nodeIndex;
+					inEdgeSetRun.add(edgeIndex);
+				}
+			}
+		}
+		this.inEdgeSetOffsets[nodeCount] = inEdgeSetRun.size();
+		this.inEdgeSetIndexes = inEdgeSetRun.toArray();
+	}
+
+	private static int slotCount(final int nodeCount)
+	{
+		// keep the table at most half full
+		return Integer.highestOneBit(Math.max(nodeCount, 1)) * 4;
+	}
+
+	private static int spread(final int hashCode)
+	{
+		final int spreadHash = hashCode ^ (hashCode >>> 16);
+		return spreadHash ^ (spreadHash >>> 7);
+	}
+
+	/**
+	 * Finds the slot the node occupies, or the empty slot it would occupy.
+	 */
+	private int findSlot(final Object node)
+	{
+		final int mask = this.nodeSlots.length - 1;
+		int slot = spread(node.hashCode()) & mask;
+		while( (this.nodeSlots[slot] != EMPTY_SLOT) && !this.nodes[this.nodeSlots[slot] - 1].equals(node) )
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private int requireNodeIndex(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			throw new IllegalArgumentException("A node adjacent to one of the nodes was not in the nodes list");
+		return nodeIndex;
+	}
+
+	private static int requireEdgeIndex(final Map<Object, Integer> edgeIndexes, final Object edge)
+	{
+		final Integer edgeIndex = edgeIndexes.get(edge);
+		if( edgeIndex == null )
+			throw new IllegalArgumentException("An edge adjacent to one of the nodes was not in the edges list");
+		return edgeIndex;
+	}
+
+	@Override
+	public boolean isContextEnabled()
+	{
+		return false;
+	}
+
+	@Override
+	public int getNodeCount()
+	{
+		return this.nodes.length;
+	}
+
+	@Override
+	public N getNode(final int nodeIndex)
+	{
+		return (N) this.nodes[nodeIndex];
+	}
+
+	@Override
+	public int getNodeIndex(final N node)
+	{
+		if( node == null )
+			return -1;
+		return this.nodeSlots[this.findSlot(node)] - 1;
+	}
+
+	@Override
+	public double getNodeWeight(final int nodeIndex, final double unweightedValue)
+	{
+		if( (this.nodeWeights == null) || Double.isNaN(this.nodeWeights[nodeIndex]) )
+			return unweightedValue;
+		return this.nodeWeights[nodeIndex];
+	}
+
+	@Override
+	public int getEdgeCount()
+	{
+		return this.edges.length;
+	}
+
+	@Override
+	public E getEdge(final int edgeIndex)
+	{
+		return (E) this.edges[edgeIndex];
+	}
+
+	@Override
+	public int getEdgeIndex(final E edge)
+	{
+		if( (edge == null) || edge.getNodes().isEmpty() )
+			return -1;
+		// every edge is adjacent to its own end points
+		final int nodeIndex = this.getNodeIndex(edge.getNodes().iterator().next());
+		if( nodeIndex < 0 )
+			return -1;
+		for(int entry = this.adjacentEdgeOffsets[nodeIndex]; entry < this.adjacentEdgeOffsets[nodeIndex + 1]; entry++)
+			if( this.edges[this.adjacentEdgeIndexes[entry]].equals(edge) )
+				return this.adjacentEdgeIndexes[entry];
+		return -1;
+	}
+
+	@Override
+	public double getEdgeWeight(final int edgeIndex, final double unweightedValue)
+	{
+		if( (this.edgeWeights == null) || Double.isNaN(this.edgeWeights[edgeIndex]) )
+			return unweightedValue;
+		return this.edgeWeights[edgeIndex];
+	}
+
+	@Override
+	public int getAdjacentOffset(final int nodeIndex)
+	{
+		return this.adjacentOffsets[nodeIndex];
+	}
+
+	@Override
+	public int getAdjacentNodeIndex(final int entry)
+	{
+		return this.adjacentNodeIndexes[entry];
+	}
+
+	@Override
+	public int getAdjacentEdgeOffset(final int nodeIndex)
+	{
+		return this.adjacentEdgeOffsets[nodeIndex];
+	}
+
+	@Override
+	public int getAdjacentEdgeIndex(final int entry)
+	{
+		return this.adjacentEdgeIndexes[entry];
+	}
+
+	@Override
+	public int getTraversableOffset(final int nodeIndex)
+	{
+		return this.traversableOffsets[nodeIndex];
+	}
+
+	@Override
+	public int getTraversableNodeIndex(final int entry)
+	{
+		return this.traversableNodeIndexes[entry];
+	}
+
+	@Override
+	public int getTraversableEdgeIndex(final int entry)
+	{
+		return this.traversableEdgeIndexes[entry];
+	}
+
+	@Override
+	public int getInOffset(final int nodeIndex)
+	{
+		return this.inOffsets[nodeIndex];
+	}
+
+	@Override
+	public int getInNodeIndex(final int entry)
+	{
+		return this.inNodeIndexes[entry];
+	}
+
+	@Override
+	public int getInEdgeIndex(final int entry)
+	{
+		return this.inEdgeIndexes[entry];
+	}
+
+	/**
+	 * Gets all nodes in the graph.
+	 * @return An unmodifiable view of the nodes
+	 */
+	@Override
+	public Set<N> getNodes()
+	{
+		return new NodeSet();
+	}
+
+	/**
+	 * Gets all edges in the graph.
+	 * @return An unmodifiable view of the edges
+	 */
+	@Override
+	public Set<E> getEdges()
+	{
+		return new EdgeSet();
+	}
+
+	@Override
+	public List<N> getAdjacentNodes(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<N>emptyList();
+		return new NodeRunList(this.adjacentNodeIndexes, this.adjacentOffsets[nodeIndex], this.adjacentOffsets[nodeIndex + 1]);
+	}
+
+	@Override
+	public Set<E> getAdjacentEdges(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<E>emptySet();
+		return new EdgeRunSet(this.adjacentEdgeIndexes, this.adjacentEdgeOffsets[nodeIndex], this.adjacentEdgeOffsets[nodeIndex + 1]);
+	}
+
+	@Override
+	public List<N> getTraversableNodes(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<N>emptyList();
+		return new NodeRunList(this.traversableNodeIndexes, this.traversableOffsets[nodeIndex], this.traversableOffsets[nodeIndex + 1]);
+	}
+
+	@Override
+	public Set<E> getTraversableEdges(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<E>emptySet();
+		return new EdgeRunSet(this.traversableEdgeIndexes, this.traversableOffsets[nodeIndex], this.traversableOffsets[nodeIndex + 1]);
+	}
+
+	/**
+	 * Get all edges which traverse to the specified node.
+	 *
+	 * @param node The destination node the returned edges will traverse to.
+	 * @return An unmodifiable view of all edges which traverse to the node.
+	 */
+	public Set<E> getInEdges(final N node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<E>emptySet();
+		return new EdgeRunSet(this.inEdgeSetIndexes, this.inEdgeSetOffsets[nodeIndex], this.inEdgeSetOffsets[nodeIndex + 1]);
+	}
+
+	private final class NodeSet extends AbstractSet<N>
+	{
+		@Override
+		public Iterator<N> iterator()
+		{
+			return new NodeRunList(null, 0, nodes.length).iterator();
+		}
+
+		@Override
+		public int size()
+		{
+			return nodes.length;
+		}
+
+		@Override
+		public boolean contains(final Object node)
+		{
+			return getNodeIndex((N) node) >= 0;
+		}
+	}
+
+	private final class EdgeSet extends AbstractSet<E>
+	{
+		@Override
+		public Iterator<E> iterator()
+		{
+			return new EdgeRunSet(null, 0, edges.length).iterator();
+		}
+
+		@Override
+		public int size()
+		{
+			return edges.length;
+		}
+
+		@Override
+		public boolean contains(final Object edge)
+		{
+			return (edge instanceof TraversableCloud) && (getEdgeIndex((E) edge) >= 0);
+		}
+	}
+
+	/**
+	 * A list view over a run of node indexes, a null run views the nodes
+	 * themselves.
+	 */
+	private final class NodeRunList extends AbstractList<N> implements RandomAccess
+	{
+		private final int[] run;
+		private final int start;
+		private final int end;
+
+		public NodeRunList(final int[] run, final int start, final int end)
+		{
+			this.run = run;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public N get(final int index)
+		{
+			if( (index < 0) || (index >= this.size()) )
+				throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size());
+			return (N) nodes[(this.run == null ? this.start + index : this.run[this.start + index])];
+		}
+
+		@Override
+		public int size()
+		{
+			return this.end - this.start;
+		}
+	}
+
+	/**
+	 * A set view over a run of edge indexes, a null run views the edges
+	 * themselves. Entries for a single edge must be contiguous within a run,
+	 * repeated entries are skipped by comparing against the previous entry.
+	 */
+	private final class EdgeRunSet extends AbstractSet<E>
+	{
+		private final int[] run;
+		private final int start;
+		private final int end;
+
+		public EdgeRunSet(final int[] run, final int start, final int end)
+		{
+			this.run = run;
+			this.start = start;
+			this.end = end;
+		}
+
+		private int edgeAt(final int entry)
+		{
+			return (this.run == null ? entry : this.run[entry]);
+		}
+
+		@Override
+		public Iterator<E> iterator()
+		{
+			return new Iterator<E>()
+			{
+				private int entry = start;
+
+				@Override
+				public boolean hasNext()
+				{
+					return this.entry < end;
+				}
+
+				@Override
+				public E next()
+				{
+					if( !this.hasNext() )
+						throw new NoSuchElementException();
+					final int edgeIndex = edgeAt(this.entry);
+					do
+						this.entry++;
+					while( (this.entry < end) && (edgeAt(this.entry) == edgeIndex) );
+					return (E) edges[edgeIndex];
+				}
+
+				@Override
+				public void remove()
+				{
+					throw new UnsupportedOperationException("graph is immutable");
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			int size = 0;
+			for(int entry = this.start; entry < this.end; entry++)
+				if( (entry == this.start) || (this.edgeAt(entry) != this.edgeAt(entry - 1)) )
+					size++;
+			return size;
+		}
+
+		@Override
+		public boolean contains(final Object edge)
+		{
+			for(int entry = this.start; entry < this.end; entry++)
+				if( edges[this.edgeAt(entry)].equals(edge) )
+					return true;
+			return false;
+		}
+	}
+
+	/**
+	 * Clones the current object. Since the graph is immutable the clone shares
+	 * all of its arrays with this graph.
+	 * @return A clone of the current object, with no changes
+	 */
+	@Override
+	public CompressedAdjacencyGraph<N, E> clone()
+	{
+		try
+		{
+			return (CompressedAdjacencyGraph<N, E>) super.clone();
+		}
+		catch(CloneNotSupportedException caught)
+		{
+			LOGGER.error("Unexpectedly could not clone Graph.", caught);
+			throw new UnexpectedDannError("Unexpectedly could not clone graph", caught);
+		}
+	}
+
+	/**
+	 * Converts the current graph to a GraphXML.
+	 * @return The GraphXML representation of this graph
+	 */
+	@Override
+	public GraphXml toXml()
+	{
+		final GraphElementXml xml = new GraphElementXml();
+		final Namer<Object> namer = new Namer<Object>();
+
+		xml.setNodeInstances(new GraphElementXml.NodeInstances());
+		for(final Object node : this.nodes)
+		{
+			final String nodeName = namer.getNameOrCreate(node);
+
+			final Object nodeXml;
+			if(node instanceof XmlSerializable)
+				nodeXml = ((XmlSerializable)node).toXml(namer);
+			else
+				// if the object is not XmlSerializable lets try to just
+				// serialize it as a regular JAXB object
+				nodeXml = node;
+
+			final NamedValueXml encapsulation = new NamedValueXml();
+			encapsulation.setName(nodeName);
+			encapsulation.setValue(nodeXml);
+
+			xml.getNodeInstances().getNodes().add(encapsulation);
+		}
+
+		this.toXml(xml, namer);
+		return xml;
+	}
+
+	@Override
+	public GraphXml toXml(final Namer<Object> namer)
+	{
+		if(namer == null)
+			throw new IllegalArgumentException("namer can not be null");
+
+		final GraphXml xml = new GraphXml();
+		this.toXml(xml, namer);
+		return xml;
+	}
+
+	@Override
+	public void toXml(final GraphXml jaxbObject, final Namer<Object> namer)
+	{
+		if(namer == null)
+			throw new IllegalArgumentException("nodeNames can not be null");
+		if(jaxbObject == null)
+			throw new IllegalArgumentException("jaxbObject can not be null");
+
+		for(final Object node : this.nodes)
+		{
+			final NameXml encapsulation = new NameXml();
+			encapsulation.setName(namer.getNameOrCreate(node));
+
+			if( jaxbObject.getNodes() == null )
+				jaxbObject.setNodes(new GraphXml.Nodes());
+			jaxbObject.getNodes().getNodes().add(encapsulation);
+		}
+
+		for(final Object edge : this.edges)
+		{
+			final EdgeXml edgeXml = ((E) edge).toXml(namer);
+
+			if( jaxbObject.getEdges() == null )
+				jaxbObject.setEdges(new GraphXml.Edges());
+			jaxbObject.getEdges().getEdges().add(edgeXml);
+		}
+	}
+}
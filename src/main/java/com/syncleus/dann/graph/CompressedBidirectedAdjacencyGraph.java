@@ -0,0 +1,51 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.Set;
+
+/**
+ * An immutable bidirected graph which stores its adjacency in compressed
+ * sparse row arrays.
+ *
+ * @see CompressedAdjacencyGraph
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class CompressedBidirectedAdjacencyGraph<N, E extends BidirectedEdge<N>> extends CompressedAdjacencyGraph<N, E> implements BidirectedGraph<N, E>
+{
+	private static final long serialVersionUID = -1872273985240157296L;
+
+	public CompressedBidirectedAdjacencyGraph(final Graph<N, E> copyGraph)
+	{
+		super(copyGraph);
+	}
+
+	public CompressedBidirectedAdjacencyGraph(final Set<N> nodes, final Set<E> edges)
+	{
+		super(nodes, edges);
+	}
+
+	@Override
+	public CompressedBidirectedAdjacencyGraph<N, E> clone()
+	{
+		return (CompressedBidirectedAdjacencyGraph<N, E>) super.clone();
+	}
+}
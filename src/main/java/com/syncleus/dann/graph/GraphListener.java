@@ -0,0 +1,65 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+/**
+ * Receives notification of structural changes made to an ObservableGraph.
+ * Notifications are only sent after a change has actually been applied to the
+ * graph, so a node or edge which refused to join or leave a graph through its
+ * context will not produce a notification.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public interface GraphListener<N, E extends TraversableCloud<N>>
+{
+	/**
+	 * Called after a node has been added to the graph.
+	 *
+	 * @param graph the graph which changed.
+	 * @param node the node which was added.
+	 * @since 2.2
+	 */
+	void nodeAdded(Graph<N, E> graph, N node);
+	/**
+	 * Called after a node has been removed from the graph.
+	 *
+	 * @param graph the graph which changed.
+	 * @param node the node which was removed.
+	 * @since 2.2
+	 */
+	void nodeRemoved(Graph<N, E> graph, N node);
+	/**
+	 * Called after an edge has been added to the graph.
+	 *
+	 * @param graph the graph which changed.
+	 * @param edge the edge which was added.
+	 * @since 2.2
+	 */
+	void edgeAdded(Graph<N, E> graph, E edge);
+	/**
+	 * Called after an edge has been removed from the graph.
+	 *
+	 * @param graph the graph which changed.
+	 * @param edge the edge which was removed.
+	 * @since 2.2
+	 */
+	void edgeRemoved(Graph<N, E> graph, E edge);
+}
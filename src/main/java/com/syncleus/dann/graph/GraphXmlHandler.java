@@ -0,0 +1,55 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import com.syncleus.dann.graph.xml.EdgeXml;
+import com.syncleus.dann.xml.NameXml;
+import com.syncleus.dann.xml.NamedValueXml;
+
+/**
+ * Receives the records of a Graph document from a GraphXmlStreamReader in
+ * document order, each as soon as it has been read. Records are not kept by
+ * the reader once they have been handled.
+ *
+ * @since 2.2
+ */
+public interface GraphXmlHandler
+{
+	/**
+	 * Handles the name of a node in the graph.
+	 *
+	 * @param node the node name.
+	 */
+	void handleNode(NameXml node);
+
+	/**
+	 * Handles an edge of the graph, a BidirectedEdgeXml if the edge was written
+	 * as a BidirectedEdge.
+	 *
+	 * @param edge the edge.
+	 */
+	void handleEdge(EdgeXml edge);
+
+	/**
+	 * Handles the instance of a named node.
+	 *
+	 * @param nodeInstance the node name and its value.
+	 */
+	void handleNodeInstance(NamedValueXml nodeInstance);
+}
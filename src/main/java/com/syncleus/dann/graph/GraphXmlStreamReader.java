@@ -0,0 +1,269 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import com.syncleus.dann.graph.xml.BidirectedEdgeXml;
+import com.syncleus.dann.graph.xml.EdgeXml;
+import com.syncleus.dann.xml.NameXml;
+import com.syncleus.dann.xml.NamedValueXml;
+import com.syncleus.dann.xml.XmlValueStreamer;
+
+/**
+ * Reads a Graph document from a StAX stream, passing each node name, edge and
+ * node instance to a GraphXmlHandler as soon as it has been read rather than
+ * building the whole JAXB tree first. Only one record is held at a time.
+ * Documents of any type extending Graph can be read, elements the reader does
+ * not know are skipped.
+ *
+ * Subclasses can read the extra sections of such documents, or read
+ * particular node values themselves.
+ *
+ * @since 2.2
+ */
+public class GraphXmlStreamReader
+{
+	private final XMLStreamReader reader;
+	private final XmlValueStreamer valueStreamer;
+
+	/**
+	 * Creates a reader which reads from the specified stream.
+	 *
+	 * @param reader the stream to read the document from.
+	 * @param valueStreamer reads the node instances.
+	 */
+	public GraphXmlStreamReader(final XMLStreamReader reader, final XmlValueStreamer valueStreamer)
+	{
+		if( reader == null )
+			throw new IllegalArgumentException("reader can not be null");
+		if( valueStreamer == null )
+			throw new IllegalArgumentException("valueStreamer can not be null");
+
+		this.reader = reader;
+		this.valueStreamer = valueStreamer;
+	}
+
+	protected final XMLStreamReader getReader()
+	{
+		return this.reader;
+	}
+
+	protected final XmlValueStreamer getValueStreamer()
+	{
+		return this.valueStreamer;
+	}
+
+	/**
+	 * Reads the graph element the stream is positioned on, or the root element
+	 * if it is at the start of the document. The stream is left on the end of
+	 * the graph element.
+	 *
+	 * @param handler receives the records of the graph.
+	 * @throws XMLStreamException if the graph could not be read.
+	 */
+	public void read(final GraphXmlHandler handler) throws XMLStreamException
+	{
+		if( handler == null )
+			throw new IllegalArgumentException("handler can not be null");
+
+		if( !this.reader.isStartElement() )
+			this.reader.nextTag();
+		while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			final String section = this.reader.getLocalName();
+			if( "nodes".equals(section) )
+			{
+				while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					handler.handleNode(this.readName());
+			}
+			else if( "edges".equals(section) )
+			{
+				while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					handler.handleEdge(this.readEdge());
+			}
+			else if( "nodeInstances".equals(section) )
+			{
+				while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					handler.handleNodeInstance(this.readNamedValue(handler, true));
+			}
+			else
+				this.readSection(section, handler);
+		}
+	}
+
+	/**
+	 * Reads a section of the document the reader does not know, by default it
+	 * is skipped.
+	 *
+	 * @param section the local name of the section element, which the stream
+	 *   is positioned on.
+	 * @param handler the handler passed to read.
+	 * @throws XMLStreamException if the section could not be read.
+	 */
+	protected void readSection(final String section, final GraphXmlHandler handler) throws XMLStreamException
+	{
+		this.skipElement();
+	}
+
+	private EdgeXml readEdge() throws XMLStreamException
+	{
+		final EdgeXml edge;
+		final String leftNode = this.reader.getAttributeValue(null, "leftNode");
+		if( leftNode == null )
+			edge = new EdgeXml();
+		else
+		{
+			final BidirectedEdgeXml bidirectedEdge = new BidirectedEdgeXml();
+			bidirectedEdge.setLeftNode(leftNode);
+			bidirectedEdge.setRightNode(this.reader.getAttributeValue(null, "rightNode"));
+			bidirectedEdge.setLeftDirection(this.reader.getAttributeValue(null, "leftDirection"));
+			bidirectedEdge.setRightDirection(this.reader.getAttributeValue(null, "rightDirection"));
+			edge = bidirectedEdge;
+		}
+
+		edge.setConnections(new EdgeXml.Connections());
+		while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			if( "connections".equals(this.reader.getLocalName()) )
+			{
+				while( this.reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					edge.getConnections().getNodes().add(this.readName());
+			}
+			else
+				this.skipElement();
+		}
+		return edge;
+	}
+
+	/**
+	 * Reads an element of the NamedValue type, leaving the stream on its end.
+	 *
+	 * @param handler the handler passed to read.
+	 * @param isNode true if the value is a node instance, which is read by
+	 *   readNodeValue, false if it is read by the value streamer.
+	 * @return the name and value read.
+	 * @throws XMLStreamException if the element could not be read.
+	 */
+	protected final NamedValueXml readNamedValue(final GraphXmlHandler handler, final boolean isNode) throws XMLStreamException
+	{
+		final NamedValueXml namedValue = new NamedValueXml();
+		namedValue.setName(this.reader.getAttributeValue(null, "name"));
+		int event = this.reader.nextTag();
+		while( event == XMLStreamConstants.START_ELEMENT )
+		{
+			if( "value".equals(this.reader.getLocalName()) )
+			{
+				namedValue.setValue(isNode ? this.readNodeValue(namedValue.getName(), handler) : this.valueStreamer.readValue(this.reader));
+				event = this.toTag();
+			}
+			else
+			{
+				this.skipElement();
+				event = this.reader.nextTag();
+			}
+		}
+		return namedValue;
+	}
+
+	/**
+	 * Reads the value of a node instance. By default it is read by the value
+	 * streamer.
+	 *
+	 * @param nodeName the name of the node.
+	 * @param handler the handler passed to read.
+	 * @return the value of the node.
+	 * @throws XMLStreamException if the value could not be read.
+	 */
+	protected Object readNodeValue(final String nodeName, final GraphXmlHandler handler) throws XMLStreamException
+	{
+		return this.valueStreamer.readValue(this.reader);
+	}
+
+	/**
+	 * Reads an element of the Name type, leaving the stream on its end.
+	 *
+	 * @return the name read.
+	 * @throws XMLStreamException if the name could not be read.
+	 */
+	protected final NameXml readName() throws XMLStreamException
+	{
+		final NameXml name = new NameXml();
+		name.setName(this.reader.getAttributeValue(null, "name"));
+		this.skipElement();
+		return name;
+	}
+
+	/**
+	 * Gets the xsi:type of the element the stream is positioned on.
+	 *
+	 * @return the type, or null if the element has none.
+	 */
+	protected final QName getType()
+	{
+		final String type = this.reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+		if( type == null )
+			return null;
+		final int separator = type.indexOf(':');
+		final String prefix = (separator < 0 ? XMLConstants.DEFAULT_NS_PREFIX : type.substring(0, separator));
+		return new QName(this.reader.getNamespaceURI(prefix), type.substring(separator + 1));
+	}
+
+	/**
+	 * Moves past the element the stream is positioned on, leaving the stream on
+	 * its end.
+	 *
+	 * @throws XMLStreamException if the stream could not be read.
+	 */
+	protected final void skipElement() throws XMLStreamException
+	{
+		int depth = 1;
+		while( depth > 0 )
+		{
+			final int event = this.reader.next();
+			if( event == XMLStreamConstants.START_ELEMENT )
+				depth++;
+			else if( event == XMLStreamConstants.END_ELEMENT )
+				depth--;
+		}
+	}
+
+	/**
+	 * Moves to the next tag unless the stream is already on one, as it may be
+	 * after the value streamer has read a value.
+	 *
+	 * @return the event of the tag.
+	 * @throws XMLStreamException if the stream could not be read.
+	 */
+	protected final int toTag() throws XMLStreamException
+	{
+		if( this.reader.isStartElement() || this.reader.isEndElement() )
+		{
+			// a value streamer which stops on the end of the value has not
+			// moved past it yet
+			if( this.reader.isEndElement() && "value".equals(this.reader.getLocalName()) )
+				return this.reader.nextTag();
+			return this.reader.getEventType();
+		}
+		return this.reader.nextTag();
+	}
+}
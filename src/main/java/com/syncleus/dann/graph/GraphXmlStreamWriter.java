@@ -0,0 +1,251 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import com.syncleus.dann.xml.Namer;
+import com.syncleus.dann.xml.XmlSerializable;
+import com.syncleus.dann.xml.XmlValueStreamer;
+
+/**
+ * Writes a graph as a Graph document in the same layout toXml produces, but
+ * record by record straight to a StAX stream rather than by building the whole
+ * JAXB tree first. Only the names given to the nodes are held while writing.
+ * The instance values are written through an XmlValueStreamer, one at a time.
+ *
+ * Subclasses can write other documents which extend the Graph type by changing
+ * the root element, adding instances after the node instances, or writing
+ * particular node values themselves.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class GraphXmlStreamWriter<N, E extends TraversableCloud<N>>
+{
+	public static final String GRAPH_NAMESPACE = "http://127.0.0.1:8080/Aide/com/syncleus/dann/graph/xml";
+	public static final String GRAPH_PREFIX = "graph";
+	public static final String XSI_PREFIX = "xsi";
+
+	private final XMLStreamWriter writer;
+	private final XmlValueStreamer valueStreamer;
+
+	/**
+	 * Creates a writer which writes to the specified stream.
+	 *
+	 * @param writer the stream to write the document to.
+	 * @param valueStreamer writes the node instances.
+	 */
+	public GraphXmlStreamWriter(final XMLStreamWriter writer, final XmlValueStreamer valueStreamer)
+	{
+		if( writer == null )
+			throw new IllegalArgumentException("writer can not be null");
+		if( valueStreamer == null )
+			throw new IllegalArgumentException("valueStreamer can not be null");
+
+		this.writer = writer;
+		this.valueStreamer = valueStreamer;
+	}
+
+	protected final XMLStreamWriter getWriter()
+	{
+		return this.writer;
+	}
+
+	protected final XmlValueStreamer getValueStreamer()
+	{
+		return this.valueStreamer;
+	}
+
+	/**
+	 * Writes the graph as a complete document and flushes the stream.
+	 *
+	 * @param graph the graph to write.
+	 * @throws XMLStreamException if the graph could not be written.
+	 */
+	public void write(final Graph<N, E> graph) throws XMLStreamException
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+
+		final Namer<Object> namer = new Namer<Object>();
+		this.writer.writeStartDocument();
+		this.writeStartRoot(graph);
+		this.writeGraph(graph, namer);
+		this.writeInstances(graph, namer);
+		this.writer.writeEndElement();
+		this.writer.writeEndDocument();
+		this.writer.flush();
+	}
+
+	/**
+	 * Starts the root element and declares the namespaces used in the document.
+	 *
+	 * @param graph the graph being written.
+	 * @throws XMLStreamException if the element could not be written.
+	 */
+	protected void writeStartRoot(final Graph<N, E> graph) throws XMLStreamException
+	{
+		this.writer.writeStartElement(GRAPH_PREFIX, "Graph", GRAPH_NAMESPACE);
+		this.writeNamespaces();
+	}
+
+	/**
+	 * Declares the namespaces used in the document on the root element.
+	 *
+	 * @throws XMLStreamException if the namespaces could not be written.
+	 */
+	protected void writeNamespaces() throws XMLStreamException
+	{
+		this.writer.writeNamespace(GRAPH_PREFIX, GRAPH_NAMESPACE);
+		this.writer.writeNamespace(XSI_PREFIX, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+	}
+
+	/**
+	 * Writes the node names and edges of the Graph type.
+	 *
+	 * @param graph the graph to write.
+	 * @param namer names the nodes.
+	 * @throws XMLStreamException if the graph could not be written.
+	 */
+	protected void writeGraph(final Graph<N, E> graph, final Namer<Object> namer) throws XMLStreamException
+	{
+		if( !graph.getNodes().isEmpty() )
+		{
+			this.writer.writeStartElement("nodes");
+			for(final N node : graph.getNodes())
+				this.writeName("node", namer.getNameOrCreate(node));
+			this.writer.writeEndElement();
+		}
+
+		if( !graph.getEdges().isEmpty() )
+		{
+			this.writer.writeStartElement("edges");
+			for(final E edge : graph.getEdges())
+				this.writeEdge(edge, namer);
+			this.writer.writeEndElement();
+		}
+	}
+
+	/**
+	 * Writes a single edge, as a BidirectedEdge if it is one.
+	 *
+	 * @param edge the edge to write.
+	 * @param namer names the nodes.
+	 * @throws XMLStreamException if the edge could not be written.
+	 */
+	protected void writeEdge(final E edge, final Namer<Object> namer) throws XMLStreamException
+	{
+		this.writer.writeStartElement("edge");
+		if( edge instanceof BidirectedEdge )
+		{
+			final BidirectedEdge<N> bidirectedEdge = (BidirectedEdge<N>) edge;
+			this.writeType(GRAPH_PREFIX, "BidirectedEdge");
+			this.writer.writeAttribute("leftNode", namer.getNameOrCreate(bidirectedEdge.getLeftNode()));
+			this.writer.writeAttribute("rightNode", namer.getNameOrCreate(bidirectedEdge.getRightNode()));
+			this.writer.writeAttribute("leftDirection", bidirectedEdge.getLeftEndState().toString().toLowerCase());
+			this.writer.writeAttribute("rightDirection", bidirectedEdge.getRightEndState().toString().toLowerCase());
+		}
+
+		this.writer.writeStartElement("connections");
+		for(final N node : edge.getNodes())
+			this.writeName("connection", namer.getNameOrCreate(node));
+		this.writer.writeEndElement();
+		this.writer.writeEndElement();
+	}
+
+	/**
+	 * Writes the instances which follow the graph, by default the node
+	 * instances.
+	 *
+	 * @param graph the graph being written.
+	 * @param namer names the nodes.
+	 * @throws XMLStreamException if the instances could not be written.
+	 */
+	protected void writeInstances(final Graph<N, E> graph, final Namer<Object> namer) throws XMLStreamException
+	{
+		this.writer.writeStartElement("nodeInstances");
+		for(final N node : graph.getNodes())
+		{
+			this.writer.writeStartElement("node");
+			this.writer.writeAttribute("name", namer.getNameOrCreate(node));
+			this.writeNodeValue(node, namer);
+			this.writer.writeEndElement();
+		}
+		this.writer.writeEndElement();
+	}
+
+	/**
+	 * Writes the value element of a node instance. By default the value is the
+	 * XML form of the node if it is XmlSerializable, otherwise the node itself,
+	 * and it is written by the value streamer.
+	 *
+	 * @param node the node to write.
+	 * @param namer names the nodes.
+	 * @throws XMLStreamException if the node could not be written.
+	 */
+	protected void writeNodeValue(final N node, final Namer<Object> namer) throws XMLStreamException
+	{
+		this.writeValue(node, namer);
+	}
+
+	/**
+	 * Writes the value element of any instance the same way toXml does.
+	 *
+	 * @param instance the instance to write.
+	 * @param namer names the nodes.
+	 * @throws XMLStreamException if the instance could not be written.
+	 */
+	protected final void writeValue(final Object instance, final Namer<Object> namer) throws XMLStreamException
+	{
+		if( instance instanceof XmlSerializable )
+			this.valueStreamer.writeValue(this.writer, ((XmlSerializable) instance).toXml(namer));
+		else
+			// if the object is not XmlSerializable lets try to just
+			// serialize it as a regular JAXB object
+			this.valueStreamer.writeValue(this.writer, instance);
+	}
+
+	/**
+	 * Writes an empty element of the Name type.
+	 *
+	 * @param localName the name of the element.
+	 * @param name the name it holds.
+	 * @throws XMLStreamException if the element could not be written.
+	 */
+	protected final void writeName(final String localName, final String name) throws XMLStreamException
+	{
+		this.writer.writeEmptyElement(localName);
+		this.writer.writeAttribute("name", name);
+	}
+
+	/**
+	 * Writes the xsi:type of the current element.
+	 *
+	 * @param prefix the prefix declared for the namespace of the type.
+	 * @param typeName the local name of the type.
+	 * @throws XMLStreamException if the attribute could not be written.
+	 */
+	protected final void writeType(final String prefix, final String typeName) throws XMLStreamException
+	{
+		this.writer.writeAttribute(XSI_PREFIX, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type", prefix + ":" + typeName);
+	}
+}
@@ -0,0 +1,198 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+/**
+ * A graph whose nodes and edges are numbered with dense indexes, from 0 to one
+ * less than the node or edge count, and whose adjacency can be walked through
+ * those indexes without creating any collections. Adjacency is laid out in
+ * runs: the entries for a node start at its offset and end just before the
+ * offset of the next node, so the entries for nodeIndex are
+ * getTraversableOffset(nodeIndex) inclusive to
+ * getTraversableOffset(nodeIndex + 1) exclusive.
+ *
+ * Algorithms can use this to work on primitive arrays indexed by node rather
+ * than maps keyed by node. Indexes are only meaningful for the graph which
+ * issued them.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public interface IndexedGraph<N, E extends TraversableCloud<N>> extends Graph<N, E>
+{
+	/**
+	 * Gets the number of nodes in the graph.
+	 *
+	 * @return the number of nodes in the graph.
+	 * @since 2.2
+	 */
+	int getNodeCount();
+	/**
+	 * Gets the node with the specified index.
+	 *
+	 * @param nodeIndex the index of the node.
+	 * @return the node with the specified index.
+	 * @since 2.2
+	 */
+	N getNode(int nodeIndex);
+	/**
+	 * Gets the index of the specified node.
+	 *
+	 * @param node the node to find.
+	 * @return the index of the node, -1 if the node is not in the graph.
+	 * @since 2.2
+	 */
+	int getNodeIndex(N node);
+	/**
+	 * Gets the weight of the node with the specified index.
+	 *
+	 * @param nodeIndex the index of the node.
+	 * @param unweightedValue the value to return if the node is not Weighted.
+	 * @return the weight of the node, or unweightedValue if it has none.
+	 * @since 2.2
+	 */
+	double getNodeWeight(int nodeIndex, double unweightedValue);
+	/**
+	 * Gets the number of edges in the graph.
+	 *
+	 * @return the number of edges in the graph.
+	 * @since 2.2
+	 */
+	int getEdgeCount();
+	/**
+	 * Gets the edge with the specified index.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the edge with the specified index.
+	 * @since 2.2
+	 */
+	E getEdge(int edgeIndex);
+	/**
+	 * Gets the index of the specified edge.
+	 *
+	 * @param edge the edge to find.
+	 * @return the index of the edge, -1 if the edge is not in the graph.
+	 * @since 2.2
+	 */
+	int getEdgeIndex(E edge);
+	/**
+	 * Gets the weight of the edge with the specified index.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @param unweightedValue the value to return if the edge is not Weighted.
+	 * @return the weight of the edge, or unweightedValue if it has none.
+	 * @since 2.2
+	 */
+	double getEdgeWeight(int edgeIndex, double unweightedValue);
+	/**
+	 * Gets the first adjacent node entry of the specified node. The entries
+	 * correspond exactly to the list returned by getAdjacentNodes.
+	 *
+	 * @param nodeIndex the index of the node, or the node count to get the end
+	 *   of the last run.
+	 * @return the first adjacent node entry of the node.
+	 * @since 2.2
+	 */
+	int getAdjacentOffset(int nodeIndex);
+	/**
+	 * Gets the index of the node at the specified adjacent node entry.
+	 *
+	 * @param entry the adjacent node entry.
+	 * @return the index of the adjacent node.
+	 * @since 2.2
+	 */
+	int getAdjacentNodeIndex(int entry);
+	/**
+	 * Gets the first adjacent edge entry of the specified node. The entries
+	 * correspond exactly to the set returned by getAdjacentEdges.
+	 *
+	 * @param nodeIndex the index of the node, or the node count to get the end
+	 *   of the last run.
+	 * @return the first adjacent edge entry of the node.
+	 * @since 2.2
+	 */
+	int getAdjacentEdgeOffset(int nodeIndex);
+	/**
+	 * Gets the index of the edge at the specified adjacent edge entry.
+	 *
+	 * @param entry the adjacent edge entry.
+	 * @return the index of the adjacent edge.
+	 * @since 2.2
+	 */
+	int getAdjacentEdgeIndex(int entry);
+	/**
+	 * Gets the first traversable entry of the specified node. There is one entry
+	 * for every hop that can be made from the node, so the target nodes of the
+	 * entries correspond exactly to the list returned by getTraversableNodes.
+	 * All the entries for a single edge are contiguous.
+	 *
+	 * @param nodeIndex the index of the node, or the node count to get the end
+	 *   of the last run.
+	 * @return the first traversable entry of the node.
+	 * @since 2.2
+	 */
+	int getTraversableOffset(int nodeIndex);
+	/**
+	 * Gets the index of the node which can be traversed to at the specified
+	 * traversable entry.
+	 *
+	 * @param entry the traversable entry.
+	 * @return the index of the target node.
+	 * @since 2.2
+	 */
+	int getTraversableNodeIndex(int entry);
+	/**
+	 * Gets the index of the edge traversed at the specified traversable entry.
+	 *
+	 * @param entry the traversable entry.
+	 * @return the index of the traversed edge.
+	 * @since 2.2
+	 */
+	int getTraversableEdgeIndex(int entry);
+	/**
+	 * Gets the first inward entry of the specified node. There is one entry for
+	 * every hop that can be made to the node, these are exactly the traversable
+	 * entries of the graph reversed. All the entries for a single edge are
+	 * contiguous.
+	 *
+	 * @param nodeIndex the index of the node, or the node count to get the end
+	 *   of the last run.
+	 * @return the first inward entry of the node.
+	 * @since 2.2
+	 */
+	int getInOffset(int nodeIndex);
+	/**
+	 * Gets the index of the node which can traverse to this node at the
+	 * specified inward entry.
+	 *
+	 * @param entry the inward entry.
+	 * @return the index of the source node.
+	 * @since 2.2
+	 */
+	int getInNodeIndex(int entry);
+	/**
+	 * Gets the index of the edge traversed at the specified inward entry.
+	 *
+	 * @param entry the inward entry.
+	 * @return the index of the traversed edge.
+	 * @since 2.2
+	 */
+	int getInEdgeIndex(int entry);
+}
@@ -0,0 +1,1123 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Graph algorithm kernels which work entirely on the dense indexes of an
+ * IndexedGraph. Nodes and edges are referred to by index and all book keeping
+ * is done in primitive arrays, so no maps, sets or step objects are created and
+ * equals() and hashCode() are never called while the algorithms run.
+ *
+ * The generic algorithms in the search, tree and topological packages dispatch
+ * to these kernels whenever the graph they are given is an IndexedGraph, any
+ * graph can be given that ability by wrapping it in a CompressedAdjacencyGraph.
+ *
+ * @since 2.2
+ */
+public final class IndexedGraphKernels
+{
+	/**
+	 * Estimates the remaining cost from a node to the goal of a search.
+	 *
+	 * @since 2.2
+	 */
+	public interface HeuristicCost
+	{
+		/**
+		 * Gets the estimated cost of reaching the goal from the specified node.
+		 *
+		 * @param nodeIndex the index of the node.
+		 * @return the estimated cost from the node to the goal.
+		 */
+		double getHeuristicCost(int nodeIndex);
+	}
+
+	private static final int UNVISITED = -1;
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	// this is an utility class so we cant instantiate it, make default constructor private
+	private IndexedGraphKernels()
+	{
+		throw new IllegalStateException("This is an utility class, it can not be instantiated");
+	}
+
+	/**
+	 * Visits every node reachable from the begin node in breadth first order.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param traversableOnly true to follow traversable nodes, false to follow
+	 *   adjacent nodes.
+	 * @return the indexes of the visited nodes in the order they were visited,
+	 *   beginning with the begin node.
+	 */
+	public static int[] breadthFirstSearch(final IndexedGraph<?, ?> graph, final int begin, final boolean traversableOnly)
+	{
+		final boolean[] visited = new boolean[graph.getNodeCount()];
+		final int[] queue = new int[graph.getNodeCount()];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = begin;
+		visited[begin] = true;
+		while( head < tail )
+		{
+			final int current = queue[head++];
+			final int end = nextOffset(graph, current, traversableOnly);
+			for(int entry = offset(graph, current, traversableOnly); entry < end; entry++)
+			{
+				final int neighbor = neighbor(graph, entry, traversableOnly);
+				if( !visited[neighbor] )
+				{
+					visited[neighbor] = true;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return trim(queue, tail);
+	}
+
+	/**
+	 * Visits every node reachable from the begin node in depth first order.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param traversableOnly true to follow traversable nodes, false to follow
+	 *   adjacent nodes.
+	 * @return the indexes of the visited nodes in the order they were first
+	 *   visited, beginning with the begin node.
+	 */
+	public static int[] depthFirstSearch(final IndexedGraph<?, ?> graph, final int begin, final boolean traversableOnly)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final boolean[] visited = new boolean[nodeCount];
+		final int[] order = new int[nodeCount];
+		int visitedCount = 0;
+		// the stack holds each open node along with the next entry to explore
+		final int[] stackNodes = new int[nodeCount];
+		final int[] stackEntries = new int[nodeCount];
+		int depth = 0;
+
+		visited[begin] = true;
+		order[visitedCount++] = begin;
+		stackNodes[depth] = begin;
+		stackEntries[depth++] = offset(graph, begin, traversableOnly);
+		while( depth > 0 )
+		{
+			final int current = stackNodes[depth - 1];
+			final int entry = stackEntries[depth - 1];
+			if( entry >= nextOffset(graph, current, traversableOnly) )
+			{
+				depth--;
+				continue;
+			}
+			stackEntries[depth - 1]++;
+
+			final int neighbor = neighbor(graph, entry, traversableOnly);
+			if( !visited[neighbor] )
+			{
+				visited[neighbor] = true;
+				order[visitedCount++] = neighbor;
+				stackNodes[depth] = neighbor;
+				stackEntries[depth++] = offset(graph, neighbor, traversableOnly);
+			}
+		}
+		return trim(order, visitedCount);
+	}
+
+	/**
+	 * Determines if there is a path of at least one step from the begin node to
+	 * the end node.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param end the index of the node to find.
+	 * @param traversableOnly true to follow traversable nodes, false to follow
+	 *   adjacent nodes.
+	 * @return true if the end node can be reached from the begin node.
+	 */
+	public static boolean isReachable(final IndexedGraph<?, ?> graph, final int begin, final int end, final boolean traversableOnly)
+	{
+		final boolean[] visited = new boolean[graph.getNodeCount()];
+		final int[] queue = new int[graph.getNodeCount()];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = begin;
+		visited[begin] = true;
+		while( head < tail )
+		{
+			final int current = queue[head++];
+			final int currentEnd = nextOffset(graph, current, traversableOnly);
+			for(int entry = offset(graph, current, traversableOnly); entry < currentEnd; entry++)
+			{
+				final int neighbor = neighbor(graph, entry, traversableOnly);
+				if( neighbor == end )
+					return true;
+				if( !visited[neighbor] )
+				{
+					visited[neighbor] = true;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Labels each node with the strongly connected component it belongs to,
+	 * using an iterative form of Tarjan's algorithm.
+	 *
+	 * @param graph the graph to label.
+	 * @return the component of each node by node index, components are
+	 *   numbered from 0 in the reverse topological order of the condensed graph.
+	 */
+	public static int[] stronglyConnectedComponents(final IndexedGraph<?, ?> graph)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int[] components = new int[nodeCount];
+		final int[] discovered = new int[nodeCount];
+		final int[] lowLinks = new int[nodeCount];
+		final boolean[] onStack = new boolean[nodeCount];
+		final int[] componentStack = new int[nodeCount];
+		int componentStackSize = 0;
+		final int[] callNodes = new int[nodeCount];
+		final int[] callEntries = new int[nodeCount];
+		int discoveredCount = 0;
+		int componentCount = 0;
+
+		Arrays.fill(discovered, UNVISITED);
+		for(int root = 0; root < nodeCount; root++)
+		{
+			if( discovered[root] != UNVISITED )
+				continue;
+
+			int depth = 0;
+			callNodes[depth] = root;
+			callEntries[depth++] = graph.getTraversableOffset(root);
+			discovered[root] = lowLinks[root] = discoveredCount++;
+			componentStack[componentStackSize++] = root;
+			onStack[root] = true;
+			while( depth > 0 )
+			{
+				final int current = callNodes[depth - 1];
+				final int entry = callEntries[depth - 1];
+				if( entry < graph.getTraversableOffset(current + 1) )
+				{
+					callEntries[depth - 1]++;
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					if( discovered[neighbor] == UNVISITED )
+					{
+						discovered[neighbor] = lowLinks[neighbor] = discoveredCount++;
+						componentStack[componentStackSize++] = neighbor;
+						onStack[neighbor] = true;
+						callNodes[depth] = neighbor;
+						callEntries[depth++] = graph.getTraversableOffset(neighbor);
+					}
+					else if( onStack[neighbor] )
+						lowLinks[current] = Math.min(lowLinks[current], discovered[neighbor]);
+					continue;
+				}
+
+				// all neighbors explored, close the node
+				depth--;
+				if( depth > 0 )
+				{
+					final int parent = callNodes[depth - 1];
+					lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[current]);
+				}
+				if( lowLinks[current] == discovered[current] )
+				{
+					int member;
+					do
+					{
+						member = componentStack[--componentStackSize];
+						onStack[member] = false;
+						components[member] = componentCount;
+					}
+					while( member != current );
+					componentCount++;
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Labels each node with the weakly connected component it belongs to.
+	 *
+	 * @param graph the graph to label.
+	 * @return the component of each node by node index, components are
+	 *   numbered from 0.
+	 */
+	public static int[] weaklyConnectedComponents(final IndexedGraph<?, ?> graph)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int[] components = new int[nodeCount];
+		Arrays.fill(components, UNVISITED);
+		final int[] queue = new int[nodeCount];
+		int componentCount = 0;
+		for(int root = 0; root < nodeCount; root++)
+		{
+			if( components[root] != UNVISITED )
+				continue;
+
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = root;
+			components[root] = componentCount;
+			while( head < tail )
+			{
+				final int current = queue[head++];
+				for(int entry = graph.getAdjacentOffset(current); entry < graph.getAdjacentOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getAdjacentNodeIndex(entry);
+					if( components[neighbor] == UNVISITED )
+					{
+						components[neighbor] = componentCount;
+						queue[tail++] = neighbor;
+					}
+				}
+			}
+			componentCount++;
+		}
+		return components;
+	}
+
+	/**
+	 * Counts the distinct components in a labeling.
+	 *
+	 * @param components the component of each node.
+	 * @return the number of components.
+	 */
+	public static int countComponents(final int[] components)
+	{
+		int componentCount = 0;
+		for(final int component : components)
+			componentCount = Math.max(componentCount, component + 1);
+		return componentCount;
+	}
+
+	/**
+	 * Groups the nodes of the graph into topological levels using Kahn's
+	 * algorithm. The first level holds all nodes nothing traverses to, each
+	 * following level holds the nodes whose every inward traversal comes from a
+	 * previous level.
+	 *
+	 * @param graph the graph to rank.
+	 * @return the node indexes in each level, or null if the graph has a cycle.
+	 */
+	public static int[][] topologicalLevels(final IndexedGraph<?, ?> graph)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int[] inDegrees = new int[nodeCount];
+		// nodes are appended in level order, levels are delimited separately
+		final int[] ordered = new int[nodeCount];
+		int orderedCount = 0;
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			inDegrees[nodeIndex] = graph.getInOffset(nodeIndex + 1) - graph.getInOffset(nodeIndex);
+			if( inDegrees[nodeIndex] == 0 )
+				ordered[orderedCount++] = nodeIndex;
+		}
+
+		final List<int[]> levels = new ArrayList<int[]>();
+		int levelStart = 0;
+		while( levelStart < orderedCount )
+		{
+			final int levelEnd = orderedCount;
+			for(int position = levelStart; position < levelEnd; position++)
+			{
+				final int current = ordered[position];
+				for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					if( --inDegrees[neighbor] == 0 )
+						ordered[orderedCount++] = neighbor;
+				}
+			}
+			final int[] level = new int[levelEnd - levelStart];
+			System.arraycopy(ordered, levelStart, level, 0, level.length);
+			levels.add(level);
+			levelStart = levelEnd;
+		}
+
+		if( orderedCount < nodeCount )
+			return null;
+		return levels.toArray(new int[levels.size()][]);
+	}
+
+	/**
+	 * Finds the cheapest path between two nodes using A*, or Dijkstra's
+	 * algorithm when no heuristic is given. Stepping across an edge costs the
+	 * weight of the edge, 0 if it is not weighted, plus the weight of the node
+	 * stepped on to, 1 if it is not weighted. Candidates are kept in an
+	 * IndexedPriorityHeap so a cheaper path is a decrease-key, and nodes are
+	 * closed for good once polled.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param end the index of the goal node.
+	 * @param heuristic an admissible estimate of the cost to the goal, may be
+	 *   null.
+	 * @return the edge indexes along the path in order, or null if the goal can
+	 *   not be reached.
+	 */
+	public static int[] bestFirstPath(final IndexedGraph<?, ?> graph, final int begin, final int end, final HeuristicCost heuristic)
+	{
+		return bestFirstPath(graph, begin, end, heuristic, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Finds the cheapest path between two nodes, giving up on the goal once
+	 * every remaining candidate is estimated to cost more than the maximum.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param end the index of the goal node.
+	 * @param heuristic an admissible estimate of the cost to the goal, may be
+	 *   null.
+	 * @param maximumCost the most a path may cost.
+	 * @return the edge indexes along the path in order, or null if the goal can
+	 *   not be reached within the maximum cost.
+	 * @see #bestFirstPath(IndexedGraph, int, int, HeuristicCost)
+	 */
+	public static int[] bestFirstPath(final IndexedGraph<?, ?> graph, final int begin, final int end, final HeuristicCost heuristic, final double maximumCost)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final double[] pathWeights = new double[nodeCount];
+		final double[] heuristicCosts = new double[nodeCount];
+		final int[] parentNodes = new int[nodeCount];
+		final int[] parentEntries = new int[nodeCount];
+		Arrays.fill(pathWeights, Double.POSITIVE_INFINITY);
+		Arrays.fill(heuristicCosts, Double.NaN);
+		final BitSet closed = new BitSet(nodeCount);
+
+		final IndexedPriorityHeap candidates = new IndexedPriorityHeap(nodeCount);
+		pathWeights[begin] = 0.0;
+		candidates.offer(begin, heuristicCost(heuristic, heuristicCosts, begin));
+		while( !candidates.isEmpty() && (candidates.peekPriority() <= maximumCost) )
+		{
+			final int current = candidates.poll();
+			if( current == end )
+				return walk(graph, parentNodes, parentEntries, begin, end);
+			closed.set(current);
+
+			for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+			{
+				final int neighbor = graph.getTraversableNodeIndex(entry);
+				if( (neighbor == begin) || (neighbor == current) || closed.get(neighbor) )
+					continue;
+				final double stepWeight = graph.getEdgeWeight(graph.getTraversableEdgeIndex(entry), 0.0) + graph.getNodeWeight(neighbor, 1.0);
+				final double neighborWeight = pathWeights[current] + stepWeight;
+				if( neighborWeight < pathWeights[neighbor] )
+				{
+					pathWeights[neighbor] = neighborWeight;
+					parentNodes[neighbor] = current;
+					parentEntries[neighbor] = entry;
+					candidates.offer(neighbor, neighborWeight + heuristicCost(heuristic, heuristicCosts, neighbor));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Settles nodes in order of their path cost from the begin node using
+	 * Dijkstra's algorithm, stopping as soon as every target has been settled
+	 * or the next node would cost more than the maximum. Costs are the same as
+	 * bestFirstPath.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param targets the indexes of the nodes to settle, null to settle every
+	 *   reachable node.
+	 * @param maximumCost the most a path may cost.
+	 * @return the traversable entry each node was reached through, by node
+	 *   index, UNVISITED (-1) for the begin node and nodes which were not
+	 *   settled.
+	 * @see #walkEntries(IndexedGraph, int[], int, int)
+	 */
+	public static int[] shortestPathTree(final IndexedGraph<?, ?> graph, final int begin, final int[] targets, final double maximumCost)
+	{
+		return shortestPathTree(graph, begin, targets, maximumCost, new double[graph.getNodeCount()]);
+	}
+
+	/**
+	 * Settles nodes in order of their path cost from the begin node, also
+	 * recording the cost of each settled node.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param targets the indexes of the nodes to settle, null to settle every
+	 *   reachable node.
+	 * @param maximumCost the most a path may cost.
+	 * @param pathWeights filled with the path cost of each node by node index,
+	 *   positive infinity for nodes which were not settled.
+	 * @return the traversable entry each node was reached through, by node
+	 *   index, UNVISITED (-1) for the begin node and nodes which were not
+	 *   settled.
+	 * @see #shortestPathTree(IndexedGraph, int, int[], double)
+	 */
+	public static int[] shortestPathTree(final IndexedGraph<?, ?> graph, final int begin, final int[] targets, final double maximumCost, final double[] pathWeights)
+	{
+		return shortestPathTree(graph, begin, targets, maximumCost, pathWeights, null);
+	}
+
+	/**
+	 * Settles nodes in order of their path cost from the begin node, weighing
+	 * each edge by the given weights instead of the graph's own.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param targets the indexes of the nodes to settle, null to settle every
+	 *   reachable node.
+	 * @param maximumCost the most a path may cost.
+	 * @param pathWeights filled with the path cost of each node by node index,
+	 *   positive infinity for nodes which were not settled.
+	 * @param edgeWeights the weight of each edge by edge index, none of which
+	 *   may be negative, or null to use the weights of the graph.
+	 * @return the traversable entry each node was reached through, by node
+	 *   index, UNVISITED (-1) for the begin node and nodes which were not
+	 *   settled.
+	 * @see #shortestPathPotentials(IndexedGraph)
+	 */
+	public static int[] shortestPathTree(final IndexedGraph<?, ?> graph, final int begin, final int[] targets, final double maximumCost, final double[] pathWeights, final double[] edgeWeights)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int[] parentEntries = new int[nodeCount];
+		Arrays.fill(pathWeights, Double.POSITIVE_INFINITY);
+		Arrays.fill(parentEntries, UNVISITED);
+		final BitSet settled = new BitSet(nodeCount);
+
+		final BitSet remainingTargets = new BitSet(nodeCount);
+		if( targets != null )
+			for(final int target : targets)
+				remainingTargets.set(target);
+		remainingTargets.clear(begin);
+
+		final IndexedPriorityHeap candidates = new IndexedPriorityHeap(nodeCount);
+		pathWeights[begin] = 0.0;
+		candidates.offer(begin, 0.0);
+		while( !candidates.isEmpty() && (candidates.peekPriority() <= maximumCost) )
+		{
+			final int current = candidates.poll();
+			settled.set(current);
+			remainingTargets.clear(current);
+			if( (targets != null) && remainingTargets.isEmpty() )
+				break;
+
+			for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+			{
+				final int neighbor = graph.getTraversableNodeIndex(entry);
+				if( (neighbor == begin) || settled.get(neighbor) )
+					continue;
+				final int edgeIndex = graph.getTraversableEdgeIndex(entry);
+				final double edgeWeight = (edgeWeights == null ? graph.getEdgeWeight(edgeIndex, 0.0) : edgeWeights[edgeIndex]);
+				final double neighborWeight = pathWeights[current] + edgeWeight + graph.getNodeWeight(neighbor, 1.0);
+				if( neighborWeight < pathWeights[neighbor] )
+				{
+					pathWeights[neighbor] = neighborWeight;
+					parentEntries[neighbor] = entry;
+					candidates.offer(neighbor, neighborWeight);
+				}
+			}
+		}
+
+		// anything still queued was reached but never settled
+		while( !candidates.isEmpty() )
+		{
+			final int unsettled = candidates.poll();
+			parentEntries[unsettled] = UNVISITED;
+			pathWeights[unsettled] = Double.POSITIVE_INFINITY;
+		}
+		return parentEntries;
+	}
+
+	/**
+	 * Walks the path to a node back through the entries of a shortest path
+	 * tree.
+	 *
+	 * @param graph the graph the tree was built from.
+	 * @param parentEntries the traversable entry each node was reached through.
+	 * @param begin the index of the root of the tree.
+	 * @param end the index of the node to walk to.
+	 * @return the edge indexes along the path in order, or null if the node was
+	 *   not reached.
+	 */
+	public static int[] walkEntries(final IndexedGraph<?, ?> graph, final int[] parentEntries, final int begin, final int end)
+	{
+		if( end == begin )
+			return new int[0];
+		if( parentEntries[end] == UNVISITED )
+			return null;
+
+		int length = 0;
+		for(int current = end; current != begin; current = getTraversableSource(graph, parentEntries[current]))
+			length++;
+		final int[] path = new int[length];
+		for(int current = end; current != begin; current = getTraversableSource(graph, parentEntries[current]))
+			path[--length] = graph.getTraversableEdgeIndex(parentEntries[current]);
+		return path;
+	}
+
+	/**
+	 * Finds the cheapest path between two nodes by running Dijkstra's
+	 * algorithm forward from the begin node along traversable entries and
+	 * backward from the end node along in entries at the same time, always
+	 * expanding the cheaper frontier. The search stops once the frontiers
+	 * together can not beat the cheapest path found where they meet. Costs are
+	 * the same as bestFirstPath.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param end the index of the goal node.
+	 * @param maximumCost the most a path may cost.
+	 * @return the edge indexes along the path in order, or null if the goal can
+	 *   not be reached within the maximum cost.
+	 */
+	public static int[] bidirectionalPath(final IndexedGraph<?, ?> graph, final int begin, final int end, final double maximumCost)
+	{
+		if( begin == end )
+			return new int[0];
+
+		final int nodeCount = graph.getNodeCount();
+		final double[] forwardWeights = new double[nodeCount];
+		final double[] backwardWeights = new double[nodeCount];
+		Arrays.fill(forwardWeights, Double.POSITIVE_INFINITY);
+		Arrays.fill(backwardWeights, Double.POSITIVE_INFINITY);
+		final int[] forwardParentNodes = new int[nodeCount];
+		final int[] forwardParentEdges = new int[nodeCount];
+		final int[] backwardParentNodes = new int[nodeCount];
+		final int[] backwardParentEdges = new int[nodeCount];
+		final BitSet forwardSettled = new BitSet(nodeCount);
+		final BitSet backwardSettled = new BitSet(nodeCount);
+		final IndexedPriorityHeap forward = new IndexedPriorityHeap(nodeCount);
+		final IndexedPriorityHeap backward = new IndexedPriorityHeap(nodeCount);
+		forwardWeights[begin] = 0.0;
+		backwardWeights[end] = 0.0;
+		forward.offer(begin, 0.0);
+		backward.offer(end, 0.0);
+
+		// the cheapest meeting found so far, across the edge from meetSource to meetTarget
+		double bestWeight = Double.POSITIVE_INFINITY;
+		int meetSource = UNVISITED;
+		int meetTarget = UNVISITED;
+		int meetEdge = UNVISITED;
+		while( !forward.isEmpty() && !backward.isEmpty() )
+		{
+			final double frontierWeight = forward.peekPriority() + backward.peekPriority();
+			if( (frontierWeight >= bestWeight) || (frontierWeight > maximumCost) )
+				break;
+
+			if( forward.peekPriority() <= backward.peekPriority() )
+			{
+				final int current = forward.poll();
+				forwardSettled.set(current);
+				for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					if( (neighbor == begin) || (neighbor == current) )
+						continue;
+					final int edgeIndex = graph.getTraversableEdgeIndex(entry);
+					final double stepWeight = graph.getEdgeWeight(edgeIndex, 0.0) + graph.getNodeWeight(neighbor, 1.0);
+					final double neighborWeight = forwardWeights[current] + stepWeight;
+					if( !forwardSettled.get(neighbor) && (neighborWeight < forwardWeights[neighbor]) )
+					{
+						forwardWeights[neighbor] = neighborWeight;
+						forwardParentNodes[neighbor] = current;
+						forwardParentEdges[neighbor] = edgeIndex;
+						forward.offer(neighbor, neighborWeight);
+					}
+					if( neighborWeight + backwardWeights[neighbor] < bestWeight )
+					{
+						bestWeight = neighborWeight + backwardWeights[neighbor];
+						meetSource = current;
+						meetTarget = neighbor;
+						meetEdge = edgeIndex;
+					}
+				}
+			}
+			else
+			{
+				final int current = backward.poll();
+				backwardSettled.set(current);
+				// stepping on to the current node costs its own weight
+				final double nodeWeight = graph.getNodeWeight(current, 1.0);
+				for(int entry = graph.getInOffset(current); entry < graph.getInOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getInNodeIndex(entry);
+					if( (neighbor == end) || (neighbor == current) )
+						continue;
+					final int edgeIndex = graph.getInEdgeIndex(entry);
+					final double stepWeight = graph.getEdgeWeight(edgeIndex, 0.0) + nodeWeight;
+					final double neighborWeight = backwardWeights[current] + stepWeight;
+					if( !backwardSettled.get(neighbor) && (neighborWeight < backwardWeights[neighbor]) )
+					{
+						backwardWeights[neighbor] = neighborWeight;
+						backwardParentNodes[neighbor] = current;
+						backwardParentEdges[neighbor] = edgeIndex;
+						backward.offer(neighbor, neighborWeight);
+					}
+					if( forwardWeights[neighbor] + neighborWeight < bestWeight )
+					{
+						bestWeight = forwardWeights[neighbor] + neighborWeight;
+						meetSource = neighbor;
+						meetTarget = current;
+						meetEdge = edgeIndex;
+					}
+				}
+			}
+		}
+
+		if( (meetEdge == UNVISITED) || (bestWeight > maximumCost) )
+			return null;
+
+		int forwardLength = 0;
+		for(int current = meetSource; current != begin; current = forwardParentNodes[current])
+			forwardLength++;
+		int backwardLength = 0;
+		for(int current = meetTarget; current != end; current = backwardParentNodes[current])
+			backwardLength++;
+		final int[] path = new int[forwardLength + 1 + backwardLength];
+		int position = forwardLength;
+		for(int current = meetSource; current != begin; current = forwardParentNodes[current])
+			path[--position] = forwardParentEdges[current];
+		path[forwardLength] = meetEdge;
+		position = forwardLength + 1;
+		for(int current = meetTarget; current != end; current = backwardParentNodes[current])
+			path[position++] = backwardParentEdges[current];
+		return path;
+	}
+
+	/**
+	 * Calculates the cheapest path from the begin node to every other node
+	 * using the Bellman-Ford algorithm, allowing negative weights. Stepping
+	 * across an edge costs the weight of the edge, 1 if it is not weighted, plus
+	 * the weight of the node stepped on to, 0 if it is not weighted.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @return the traversable entry each node was reached through, by node
+	 *   index, UNVISITED (-1) for the begin node and unreachable nodes; or null
+	 *   if a negative-weight cycle is reachable from the begin node.
+	 */
+	public static int[] shortestPathEntries(final IndexedGraph<?, ?> graph, final int begin)
+	{
+		return shortestPathEntries(graph, begin, new double[graph.getNodeCount()]);
+	}
+
+	/**
+	 * Calculates the cheapest path from the begin node to every other node
+	 * using the Bellman-Ford algorithm, also recording the cost of each path.
+	 *
+	 * @param graph the graph to search.
+	 * @param begin the index of the node to start from.
+	 * @param pathWeights filled with the path cost of each node by node index,
+	 *   positive infinity for unreachable nodes.
+	 * @return the traversable entry each node was reached through, or null if
+	 *   a negative-weight cycle is reachable from the begin node.
+	 * @see #shortestPathEntries(IndexedGraph, int)
+	 */
+	public static int[] shortestPathEntries(final IndexedGraph<?, ?> graph, final int begin, final double[] pathWeights)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int[] parentEntries = new int[nodeCount];
+		Arrays.fill(pathWeights, Double.POSITIVE_INFINITY);
+		Arrays.fill(parentEntries, UNVISITED);
+		pathWeights[begin] = 0.0;
+
+		// the extra round checks for negative-weight cycles
+		for(int round = 0; round < nodeCount; round++)
+		{
+			boolean relaxed = false;
+			for(int current = 0; current < nodeCount; current++)
+			{
+				if( pathWeights[current] == Double.POSITIVE_INFINITY )
+					continue;
+				for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					if( neighbor == begin )
+						continue;
+					final double stepWeight = graph.getEdgeWeight(graph.getTraversableEdgeIndex(entry), 1.0) + graph.getNodeWeight(neighbor, 0.0);
+					if( pathWeights[current] + stepWeight < pathWeights[neighbor] )
+					{
+						pathWeights[neighbor] = pathWeights[current] + stepWeight;
+						parentEntries[neighbor] = entry;
+						relaxed = true;
+					}
+				}
+			}
+			if( !relaxed )
+				return parentEntries;
+		}
+		return null;
+	}
+
+	/**
+	 * Calculates the potential of every node used to reweight a graph with
+	 * negative edges, as in Johnson's algorithm. The potential of a node is the
+	 * cheapest sum of edge weights, 1 for unweighted edges, over any path
+	 * ending at it, or 0 if none is cheaper. Adding the potential of the source
+	 * and subtracting that of the destination from each edge's weight leaves
+	 * no negative edges, and changes the cost of every path between two nodes
+	 * by the same amount.
+	 *
+	 * @param graph the graph to calculate potentials for.
+	 * @return the potential of each node by node index, or null if the graph
+	 *   has a negative-weight cycle.
+	 */
+	public static double[] shortestPathPotentials(final IndexedGraph<?, ?> graph)
+	{
+		final int nodeCount = graph.getNodeCount();
+		// every node starts as if reached from a common source by a free edge
+		final double[] potentials = new double[nodeCount];
+
+		// the extra round checks for negative-weight cycles
+		for(int round = 0; round <= nodeCount; round++)
+		{
+			boolean relaxed = false;
+			for(int current = 0; current < nodeCount; current++)
+			{
+				for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					final double neighborPotential = potentials[current] + graph.getEdgeWeight(graph.getTraversableEdgeIndex(entry), 1.0);
+					if( neighborPotential < potentials[neighbor] )
+					{
+						potentials[neighbor] = neighborPotential;
+						relaxed = true;
+					}
+				}
+			}
+			if( !relaxed )
+				return potentials;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the source node of a traversable entry.
+	 *
+	 * @param graph the graph the entry belongs to.
+	 * @param entry the traversable entry.
+	 * @return the index of the node whose run holds the entry.
+	 */
+	public static int getTraversableSource(final IndexedGraph<?, ?> graph, final int entry)
+	{
+		int low = 0;
+		int high = graph.getNodeCount() - 1;
+		// find the last node whose run begins at or before the entry
+		while( low < high )
+		{
+			final int middle = (low + high + 1) >>> 1;
+			if( graph.getTraversableOffset(middle) <= entry )
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Finds a minimum spanning tree, or forest, using Kruskal's algorithm with
+	 * a disjoint set forest. Edges which are not weighted weigh 0.
+	 *
+	 * @param graph the graph to span.
+	 * @return the indexes of the spanning edges, or null if the graph is not
+	 *   connected.
+	 */
+	public static int[] kruskalSpanningEdges(final IndexedGraph<?, ?> graph)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final int edgeCount = graph.getEdgeCount();
+
+		// gather the end points of each edge from the adjacency runs
+		final int[] endPointOffsets = new int[edgeCount + 1];
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			for(int entry = graph.getAdjacentEdgeOffset(nodeIndex); entry < graph.getAdjacentEdgeOffset(nodeIndex + 1); entry++)
+				endPointOffsets[graph.getAdjacentEdgeIndex(entry) + 1]++;
+		for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+			endPointOffsets[edgeIndex + 1] += endPointOffsets[edgeIndex];
+		final int[] endPoints = new int[endPointOffsets[edgeCount]];
+		final int[] endPointFill = new int[edgeCount];
+		System.arraycopy(endPointOffsets, 0, endPointFill, 0, edgeCount);
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			for(int entry = graph.getAdjacentEdgeOffset(nodeIndex); entry < graph.getAdjacentEdgeOffset(nodeIndex + 1); entry++)
+				endPoints[endPointFill[graph.getAdjacentEdgeIndex(entry)]++] = nodeIndex;
+
+		// sort the edge indexes by weight in primitive arrays
+		final double[] sortedWeights = new double[edgeCount];
+		final int[] sortedEdges = new int[edgeCount];
+		for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+		{
+			sortedWeights[edgeIndex] = graph.getEdgeWeight(edgeIndex, 0.0);
+			sortedEdges[edgeIndex] = edgeIndex;
+		}
+		sortByKey(sortedWeights, sortedEdges, 0, edgeCount - 1);
+
+		final DisjointSets components = new DisjointSets(nodeCount);
+		final int[] spanningEdges = new int[Math.max(nodeCount - 1, 0)];
+		int spanningCount = 0;
+		int nextEdge = 0;
+		while( components.getSetCount() > 1 )
+		{
+			if( nextEdge == edgeCount )
+				return null;
+			final int edgeIndex = sortedEdges[nextEdge++];
+			boolean merged = false;
+			for(int endPoint = endPointOffsets[edgeIndex] + 1; endPoint < endPointOffsets[edgeIndex + 1]; endPoint++)
+				merged |= components.union(endPoints[endPointOffsets[edgeIndex]], endPoints[endPoint]);
+			if( merged )
+				spanningEdges[spanningCount++] = edgeIndex;
+		}
+		return trim(spanningEdges, spanningCount);
+	}
+
+	/**
+	 * Finds a minimum spanning tree using Prim's algorithm, growing the tree
+	 * along traversable edges from the start node. Each node is queued once,
+	 * a cheaper connecting edge lowers its priority in place. Nodes which can not be
+	 * reached start a new tree, so a spanning forest is returned for
+	 * disconnected graphs. Edges which are not weighted weigh 0.
+	 *
+	 * @param graph the graph to span.
+	 * @param start the index of the node to grow the tree from.
+	 * @return the indexes of the spanning edges.
+	 */
+	public static int[] primSpanningEdges(final IndexedGraph<?, ?> graph, final int start)
+	{
+		final int nodeCount = graph.getNodeCount();
+		final boolean[] spanned = new boolean[nodeCount];
+		final double[] connectingWeights = new double[nodeCount];
+		final int[] connectingEdges = new int[nodeCount];
+		Arrays.fill(connectingWeights, Double.MAX_VALUE);
+		Arrays.fill(connectingEdges, UNVISITED);
+		final int[] spanningEdges = new int[Math.max(nodeCount - 1, 0)];
+		int spanningCount = 0;
+
+		final IndexedPriorityHeap candidates = new IndexedPriorityHeap(nodeCount);
+		int nextRoot = 0;
+		int root = start;
+		while( root >= 0 )
+		{
+			candidates.offer(root, 0.0);
+			while( !candidates.isEmpty() )
+			{
+				final int current = candidates.poll();
+				spanned[current] = true;
+				if( connectingEdges[current] != UNVISITED )
+					spanningEdges[spanningCount++] = connectingEdges[current];
+
+				for(int entry = graph.getTraversableOffset(current); entry < graph.getTraversableOffset(current + 1); entry++)
+				{
+					final int neighbor = graph.getTraversableNodeIndex(entry);
+					final int edgeIndex = graph.getTraversableEdgeIndex(entry);
+					final double edgeWeight = graph.getEdgeWeight(edgeIndex, 0.0);
+					if( !spanned[neighbor] && (edgeWeight < connectingWeights[neighbor]) )
+					{
+						connectingWeights[neighbor] = edgeWeight;
+						connectingEdges[neighbor] = edgeIndex;
+						candidates.offer(neighbor, edgeWeight);
+					}
+				}
+			}
+
+			// continue with any node the tree could not reach
+			while( (nextRoot < nodeCount) && spanned[nextRoot] )
+				nextRoot++;
+			root = (nextRoot < nodeCount ? nextRoot : -1);
+		}
+		return trim(spanningEdges, spanningCount);
+	}
+
+	private static int offset(final IndexedGraph<?, ?> graph, final int nodeIndex, final boolean traversableOnly)
+	{
+		return (traversableOnly ? graph.getTraversableOffset(nodeIndex) : graph.getAdjacentOffset(nodeIndex));
+	}
+
+	private static int nextOffset(final IndexedGraph<?, ?> graph, final int nodeIndex, final boolean traversableOnly)
+	{
+		return offset(graph, nodeIndex + 1, traversableOnly);
+	}
+
+	private static int neighbor(final IndexedGraph<?, ?> graph, final int entry, final boolean traversableOnly)
+	{
+		return (traversableOnly ? graph.getTraversableNodeIndex(entry) : graph.getAdjacentNodeIndex(entry));
+	}
+
+	private static double heuristicCost(final HeuristicCost heuristic, final double[] heuristicCosts, final int nodeIndex)
+	{
+		if( heuristic == null )
+			return 0.0;
+		if( Double.isNaN(heuristicCosts[nodeIndex]) )
+			heuristicCosts[nodeIndex] = heuristic.getHeuristicCost(nodeIndex);
+		return heuristicCosts[nodeIndex];
+	}
+
+	private static int[] walk(final IndexedGraph<?, ?> graph, final int[] parentNodes, final int[] parentEntries, final int begin, final int end)
+	{
+		int length = 0;
+		for(int current = end; current != begin; current = parentNodes[current])
+			length++;
+		final int[] path = new int[length];
+		for(int current = end; current != begin; current = parentNodes[current])
+			path[--length] = graph.getTraversableEdgeIndex(parentEntries[current]);
+		return path;
+	}
+
+	/**
+	 * Sorts a range of keys in ascending order, moving the value at each
+	 * position along with its key. A quicksort which recurses into the smaller
+	 * partition only, finishing short ranges with an insertion sort.
+	 */
+	private static void sortByKey(final double[] keys, final int[] values, final int first, final int last)
+	{
+		int low = first;
+		int high = last;
+		while( high - low >= INSERTION_SORT_THRESHOLD )
+		{
+			final int middle = (low + high) >>> 1;
+			if( keys[middle] < keys[low] )
+				swap(keys, values, middle, low);
+			if( keys[high] < keys[low] )
+				swap(keys, values, high, low);
+			if( keys[high] < keys[middle] )
+				swap(keys, values, high, middle);
+			final double pivot = keys[middle];
+
+			int left = low;
+			int right = high;
+			while( left <= right )
+			{
+				while( keys[left] < pivot )
+					left++;
+				while( keys[right] > pivot )
+					right--;
+				if( left <= right )
+					swap(keys, values, left++, right--);
+			}
+
+			if( right - low < high - left )
+			{
+				sortByKey(keys, values, low, right);
+				low = left;
+			}
+			else
+			{
+				sortByKey(keys, values, left, high);
+				high = right;
+			}
+		}
+
+		for(int unsorted = low + 1; unsorted <= high; unsorted++)
+		{
+			final double key = keys[unsorted];
+			final int value = values[unsorted];
+			int position = unsorted;
+			while( (position > low) && (keys[position - 1] > key) )
+			{
+				keys[position] = keys[position - 1];
+				values[position] = values[position - 1];
+				position--;
+			}
+			keys[position] = key;
+			values[position] = value;
+		}
+	}
+
+	private static void swap(final double[] keys, final int[] values, final int first, final int second)
+	{
+		final double key = keys[first];
+		keys[first] = keys[second];
+		keys[second] = key;
+		final int value = values[first];
+		values[first] = values[second];
+		values[second] = value;
+	}
+
+	private static int[] trim(final int[] values, final int length)
+	{
+		if( values.length == length )
+			return values;
+		final int[] trimmed = new int[length];
+		System.arraycopy(values, 0, trimmed, 0, length);
+		return trimmed;
+	}
+
+	/**
+	 * A disjoint set forest with path halving and union by size.
+	 */
+	private static final class DisjointSets
+	{
+		private final int[] parents;
+		private final int[] sizes;
+		private int setCount;
+
+		public DisjointSets(final int elementCount)
+		{
+			this.parents = new int[elementCount];
+			this.sizes = new int[elementCount];
+			for(int element = 0; element < elementCount; element++)
+			{
+				this.parents[element] = element;
+				this.sizes[element] = 1;
+			}
+			this.setCount = elementCount;
+		}
+
+		public int getSetCount()
+		{
+			return this.setCount;
+		}
+
+		public int find(final int element)
+		{
+			int current = element;
+			while( this.parents[current] != current )
+			{
+				this.parents[current] = this.parents[this.parents[current]];
+				current = this.parents[current];
+			}
+			return current;
+		}
+
+		public boolean union(final int first, final int second)
+		{
+			int firstRoot = this.find(first);
+			int secondRoot = this.find(second);
+			if( firstRoot == secondRoot )
+				return false;
+			if( this.sizes[firstRoot] < this.sizes[secondRoot] )
+			{
+				final int swap = firstRoot;
+				firstRoot = secondRoot;
+				secondRoot = swap;
+			}
+			this.parents[secondRoot] = firstRoot;
+			this.sizes[firstRoot] += this.sizes[secondRoot];
+			this.setCount--;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min heap of int values, each ordered by a double priority, which
+ * tracks the position of every value so a queued value can have its priority
+ * changed in place. Values are small non-negative ints such as the dense
+ * indexes of an IndexedGraph; the heap grows to fit the largest value offered.
+ * Changing a priority, including the decrease-key of Dijkstra and A*, costs
+ * O(log n) rather than the O(n) remove of java.util.PriorityQueue.
+ *
+ * @since 2.2
+ */
+public class IndexedPriorityHeap
+{
+	private static final int ARITY = 4;
+	private static final int ABSENT = -1;
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] heap;
+	private double[] priorities;
+	// position of each value in the heap, ABSENT when it is not queued
+	private int[] positions;
+	private int size;
+
+	public IndexedPriorityHeap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty heap sized for values below the given capacity.
+	 *
+	 * @param capacity the expected number of distinct values.
+	 */
+	public IndexedPriorityHeap(final int capacity)
+	{
+		if( capacity < 0 )
+			throw new IllegalArgumentException("capacity can not be negative");
+		final int initialCapacity = Math.max(capacity, 1);
+		this.heap = new int[initialCapacity];
+		this.priorities = new double[initialCapacity];
+		this.positions = new int[initialCapacity];
+		Arrays.fill(this.positions, ABSENT);
+	}
+
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	/**
+	 * Determines if the value is currently queued.
+	 *
+	 * @param value the value to check.
+	 * @return true if the value is queued.
+	 */
+	public boolean contains(final int value)
+	{
+		return (value >= 0) && (value < this.positions.length) && (this.positions[value] != ABSENT);
+	}
+
+	/**
+	 * Gets the priority of a queued value.
+	 *
+	 * @param value the queued value.
+	 * @return the priority of the value.
+	 */
+	public double getPriority(final int value)
+	{
+		if( !this.contains(value) )
+			throw new NoSuchElementException("value is not queued");
+		return this.priorities[value];
+	}
+
+	/**
+	 * Queues the value with the given priority, if the value is already queued
+	 * its priority is changed instead.
+	 *
+	 * @param value the value to queue, can not be negative.
+	 * @param priority the priority of the value, lower values are polled first.
+	 * @return true if the value was not already queued.
+	 */
+	public boolean offer(final int value, final double priority)
+	{
+		if( value < 0 )
+			throw new IllegalArgumentException("value can not be negative");
+		if( value >= this.positions.length )
+			this.growValues(value + 1);
+
+		final int position = this.positions[value];
+		if( position == ABSENT )
+		{
+			if( this.size == this.heap.length )
+				this.heap = Arrays.copyOf(this.heap, this.size * 2);
+			this.priorities[value] = priority;
+			this.siftUp(this.size++, value);
+			return true;
+		}
+
+		final double oldPriority = this.priorities[value];
+		this.priorities[value] = priority;
+		if( priority < oldPriority )
+			this.siftUp(position, value);
+		else if( priority > oldPriority )
+			this.siftDown(position, value);
+		return false;
+	}
+
+	/**
+	 * Gets the value with the lowest priority without removing it.
+	 *
+	 * @return the value with the lowest priority.
+	 */
+	public int peek()
+	{
+		if( this.size == 0 )
+			throw new NoSuchElementException("heap is empty");
+		return this.heap[0];
+	}
+
+	/**
+	 * Gets the lowest priority in the heap.
+	 *
+	 * @return the priority of the value which will be polled next.
+	 */
+	public double peekPriority()
+	{
+		return this.priorities[this.peek()];
+	}
+
+	/**
+	 * Removes the value with the lowest priority.
+	 *
+	 * @return the value with the lowest priority.
+	 */
+	public int poll()
+	{
+		final int polled = this.peek();
+		this.positions[polled] = ABSENT;
+		final int last = this.heap[--this.size];
+		if( this.size > 0 )
+			this.siftDown(0, last);
+		return polled;
+	}
+
+	/**
+	 * Removes a value from the heap if it is queued.
+	 *
+	 * @param value the value to remove.
+	 * @return true if the value was queued.
+	 */
+	public boolean remove(final int value)
+	{
+		if( !this.contains(value) )
+			return false;
+		final int position = this.positions[value];
+		this.positions[value] = ABSENT;
+		final int last = this.heap[--this.size];
+		if( position < this.size )
+		{
+			this.siftDown(position, last);
+			if( this.heap[position] == last )
+				this.siftUp(position, last);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes every value from the heap.
+	 */
+	public void clear()
+	{
+		for(int position = 0; position < this.size; position++)
+			this.positions[this.heap[position]] = ABSENT;
+		this.size = 0;
+	}
+
+	private void growValues(final int minimumCapacity)
+	{
+		final int oldCapacity = this.positions.length;
+		final int newCapacity = Math.max(minimumCapacity, oldCapacity * 2);
+		this.positions = Arrays.copyOf(this.positions, newCapacity);
+		Arrays.fill(this.positions, oldCapacity, newCapacity, ABSENT);
+		this.priorities = Arrays.copyOf(this.priorities, newCapacity);
+	}
+
+	private void siftUp(final int startPosition, final int value)
+	{
+		final double priority = this.priorities[value];
+		int position = startPosition;
+		while( position > 0 )
+		{
+			final int parentPosition = (position - 1) / ARITY;
+			final int parent = this.heap[parentPosition];
+			if( this.priorities[parent] <= priority )
+				break;
+			this.place(position, parent);
+			position = parentPosition;
+		}
+		this.place(position, value);
+	}
+
+	private void siftDown(final int startPosition, final int value)
+	{
+		final double priority = this.priorities[value];
+		int position = startPosition;
+		while( true )
+		{
+			final int firstChild = (position * ARITY) + 1;
+			if( firstChild >= this.size )
+				break;
+			// find the child with the lowest priority
+			int bestChild = firstChild;
+			final int lastChild = Math.min(firstChild + ARITY, this.size);
+			for(int child = firstChild + 1; child < lastChild; child++)
+				if( this.priorities[this.heap[child]] < this.priorities[this.heap[bestChild]] )
+					bestChild = child;
+			if( this.priorities[this.heap[bestChild]] >= priority )
+				break;
+			this.place(position, this.heap[bestChild]);
+			position = bestChild;
+		}
+		this.place(position, value);
+	}
+
+	private void place(final int position, final int value)
+	{
+		this.heap[position] = value;
+		this.positions[value] = position;
+	}
+}
@@ -0,0 +1,729 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.graph.xml.GraphXml;
+import com.syncleus.dann.xml.Namer;
+import org.apache.log4j.Logger;
+
+/**
+ * An immutable graph read straight out of a memory mapped binary snapshot. The
+ * snapshot holds the node and edge tables as fixed width records, followed by
+ * the same compressed sparse row runs a CompressedAdjacencyGraph builds, so
+ * opening one only maps the file and reads a short header; nothing is parsed
+ * and the adjacency is paged in by the operating system as it is walked.
+ *
+ * Snapshots are written by write(Graph, File) from any graph whose edges are
+ * all directed or undirected. Nodes are not stored, the nodes of a mapped graph
+ * are the Integer indexes the written graph assigned them. Edges are recreated
+ * from their records the first time they are asked for and are then kept, so
+ * the same edge object is always returned for an index. Node and edge weights
+ * are kept if any node or edge was Weighted.
+ *
+ * The file is closed once mapped, the mapping itself stays valid until the
+ * graph is garbage collected. Serializing a mapped graph writes a
+ * CompressedBidirectedAdjacencyGraph copy of it.
+ *
+ * <p>All numbers are big endian. The snapshot is laid out as:</p>
+ * <pre>
+ * header        magic, version, flags, node count, edge count,
+ *               adjacent node count, adjacent edge count and traversable count
+ * edges         left node, right node and 1 if directed from left to right
+ * node weights  a double per node, only present if flags has NODE_WEIGHTS
+ * edge weights  a double per edge, only present if flags has EDGE_WEIGHTS
+ * runs          offsets and indexes of the adjacent nodes, adjacent edges,
+ *               traversable and inward entries in turn
+ * </pre>
+ *
+ * @since 2.2
+ */
+public class MappedAdjacencyGraph implements IndexedGraph<Integer, BidirectedEdge<Integer>>, BidirectedGraph<Integer, BidirectedEdge<Integer>>
+{
+	private static final long serialVersionUID = -3641709482563417217L;
+	private static final Logger LOGGER = Logger.getLogger(MappedAdjacencyGraph.class);
+	private static final int MAGIC = 0x64414E4E;
+	private static final int VERSION = 1;
+	private static final int NODE_WEIGHTS = 1;
+	private static final int EDGE_WEIGHTS = 2;
+	private static final int HEADER_INTS = 8;
+	private static final int EDGE_RECORD_INTS = 3;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final int nodeCount;
+	private final int edgeCount;
+	private final transient IntBuffer edgeRecords;
+	// null when no node is weighted, NaN for nodes which are not weighted
+	private final transient DoubleBuffer nodeWeights;
+	// null when no edge is weighted, NaN for edges which are not weighted
+	private final transient DoubleBuffer edgeWeights;
+	private final transient IntBuffer adjacentOffsets;
+	private final transient IntBuffer adjacentNodeIndexes;
+	private final transient IntBuffer adjacentEdgeOffsets;
+	private final transient IntBuffer adjacentEdgeIndexes;
+	private final transient IntBuffer traversableOffsets;
+	private final transient IntBuffer traversableNodeIndexes;
+	private final transient IntBuffer traversableEdgeIndexes;
+	private final transient IntBuffer inOffsets;
+	private final transient IntBuffer inNodeIndexes;
+	private final transient IntBuffer inEdgeIndexes;
+	// shared with clones so an index always gives the same edge object
+	private final transient AtomicReference<AtomicReferenceArray<BidirectedEdge<Integer>>> edges;
+
+	/**
+	 * Maps the runs of a snapshot one section at a time, so the file may be
+	 * larger than a single mapping can hold.
+	 */
+	private static final class SectionMapper
+	{
+		private final FileChannel channel;
+		private long position;
+
+		public SectionMapper(final FileChannel channel, final long position)
+		{
+			this.channel = channel;
+			this.position = position;
+		}
+
+		public IntBuffer mapInts(final long count) throws IOException
+		{
+			return this.map(count * 4).asIntBuffer();
+		}
+
+		public DoubleBuffer mapDoubles(final long count) throws IOException
+		{
+			return this.map(count * 8).asDoubleBuffer();
+		}
+
+		private MappedByteBuffer map(final long size) throws IOException
+		{
+			if( size > Integer.MAX_VALUE )
+				throw new IOException("snapshot section is too large to map");
+			if( this.position + size > this.channel.size() )
+				throw new IOException("snapshot is truncated");
+			final MappedByteBuffer section = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+			this.position += size;
+			return section;
+		}
+
+		public long getPosition()
+		{
+			return this.position;
+		}
+	}
+
+	/**
+	 * Opens a snapshot written by write(Graph, File).
+	 *
+	 * @param snapshotFile the snapshot to map.
+	 * @throws IOException if the file can not be mapped or is not a graph
+	 *   snapshot.
+	 */
+	public MappedAdjacencyGraph(final File snapshotFile) throws IOException
+	{
+		if( snapshotFile == null )
+			throw new IllegalArgumentException("snapshotFile can not be null");
+
+		final RandomAccessFile file = new RandomAccessFile(snapshotFile, "r");
+		try
+		{
+			final FileChannel channel = file.getChannel();
+			final SectionMapper mapper = new SectionMapper(channel, 0L);
+			final IntBuffer header = mapper.mapInts(HEADER_INTS);
+			if( header.get(0) != MAGIC )
+				throw new IOException("file is not a graph snapshot");
+			if( header.get(1) != VERSION )
+				throw new IOException("unsupported graph snapshot version " + header.get(1));
+			final int flags = header.get(2);
+			this.nodeCount = header.get(3);
+			this.edgeCount = header.get(4);
+			final int adjacentCount = header.get(5);
+			final int adjacentEdgeCount = header.get(6);
+			final int traversableCount = header.get(7);
+
+			this.edgeRecords = mapper.mapInts(((long) this.edgeCount) * EDGE_RECORD_INTS);
+			this.nodeWeights = ((flags & NODE_WEIGHTS) != 0 ? mapper.mapDoubles(this.nodeCount) : null);
+			this.edgeWeights = ((flags & EDGE_WEIGHTS) != 0 ? mapper.mapDoubles(this.edgeCount) : null);
+			this.adjacentOffsets = mapper.mapInts(this.nodeCount + 1L);
+			this.adjacentNodeIndexes = mapper.mapInts(adjacentCount);
+			this.adjacentEdgeOffsets = mapper.mapInts(this.nodeCount + 1L);
+			this.adjacentEdgeIndexes = mapper.mapInts(adjacentEdgeCount);
+			this.traversableOffsets = mapper.mapInts(this.nodeCount + 1L);
+			this.traversableNodeIndexes = mapper.mapInts(traversableCount);
+			this.traversableEdgeIndexes = mapper.mapInts(traversableCount);
+			this.inOffsets = mapper.mapInts(this.nodeCount + 1L);
+			this.inNodeIndexes = mapper.mapInts(traversableCount);
+			this.inEdgeIndexes = mapper.mapInts(traversableCount);
+			if( mapper.getPosition() != channel.size() )
+				throw new IOException("snapshot has unexpected trailing data");
+		}
+		finally
+		{
+			file.close();
+		}
+
+		this.edges = new AtomicReference<AtomicReferenceArray<BidirectedEdge<Integer>>>();
+	}
+
+	/**
+	 * Writes a snapshot of the specified graph to a file, replacing its
+	 * contents.
+	 *
+	 * @param <N> The node type
+	 * @param <E> The type of edge for the given node type
+	 * @param graph the graph to write.
+	 * @param snapshotFile the file to write to.
+	 * @throws IOException if the snapshot could not be written.
+	 */
+	public static <N, E extends BidirectedEdge<N>> void write(final Graph<N, E> graph, final File snapshotFile) throws IOException
+	{
+		if( snapshotFile == null )
+			throw new IllegalArgumentException("snapshotFile can not be null");
+
+		final OutputStream output = new FileOutputStream(snapshotFile);
+		try
+		{
+			write(graph, output);
+		}
+		finally
+		{
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the specified graph to a stream. The stream is
+	 * flushed but not closed.
+	 *
+	 * @param <N> The node type
+	 * @param <E> The type of edge for the given node type
+	 * @param graph the graph to write.
+	 * @param output the stream to write to.
+	 * @throws IOException if the snapshot could not be written.
+	 */
+	public static <N, E extends BidirectedEdge<N>> void write(final Graph<N, E> graph, final OutputStream output) throws IOException
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( output == null )
+			throw new IllegalArgumentException("output can not be null");
+
+		final IndexedGraph<N, E> indexedGraph;
+		if( graph instanceof IndexedGraph )
+			indexedGraph = (IndexedGraph<N, E>) graph;
+		else
+			indexedGraph = new CompressedAdjacencyGraph<N, E>(graph);
+
+		final int nodeCount = indexedGraph.getNodeCount();
+		final int edgeCount = indexedGraph.getEdgeCount();
+		boolean nodesWeighted = false;
+		for(int nodeIndex = 0; (nodeIndex < nodeCount) && !nodesWeighted; nodeIndex++)
+			nodesWeighted = !Double.isNaN(indexedGraph.getNodeWeight(nodeIndex, Double.NaN));
+		boolean edgesWeighted = false;
+		for(int edgeIndex = 0; (edgeIndex < edgeCount) && !edgesWeighted; edgeIndex++)
+			edgesWeighted = !Double.isNaN(indexedGraph.getEdgeWeight(edgeIndex, Double.NaN));
+
+		final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt((nodesWeighted ? NODE_WEIGHTS : 0) | (edgesWeighted ? EDGE_WEIGHTS : 0));
+		data.writeInt(nodeCount);
+		data.writeInt(edgeCount);
+		data.writeInt(indexedGraph.getAdjacentOffset(nodeCount));
+		data.writeInt(indexedGraph.getAdjacentEdgeOffset(nodeCount));
+		data.writeInt(indexedGraph.getTraversableOffset(nodeCount));
+
+		for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+		{
+			final E edge = indexedGraph.getEdge(edgeIndex);
+			if( edge instanceof DirectedEdge )
+			{
+				final DirectedEdge<N> directedEdge = (DirectedEdge<N>) edge;
+				data.writeInt(indexedGraph.getNodeIndex(directedEdge.getSourceNode()));
+				data.writeInt(indexedGraph.getNodeIndex(directedEdge.getDestinationNode()));
+				data.writeInt(1);
+			}
+			else if( (edge.getLeftEndState() == BidirectedEdge.EndState.NONE) && (edge.getRightEndState() == BidirectedEdge.EndState.NONE) )
+			{
+				data.writeInt(indexedGraph.getNodeIndex(edge.getLeftNode()));
+				data.writeInt(indexedGraph.getNodeIndex(edge.getRightNode()));
+				data.writeInt(0);
+			}
+			else
+				throw new IllegalArgumentException("only directed and undirected edges can be written to a snapshot");
+		}
+
+		if( nodesWeighted )
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				data.writeDouble(indexedGraph.getNodeWeight(nodeIndex, Double.NaN));
+		if( edgesWeighted )
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+				data.writeDouble(indexedGraph.getEdgeWeight(edgeIndex, Double.NaN));
+
+		for(int nodeIndex = 0; nodeIndex <= nodeCount; nodeIndex++)
+			data.writeInt(indexedGraph.getAdjacentOffset(nodeIndex));
+		for(int entry = 0; entry < indexedGraph.getAdjacentOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getAdjacentNodeIndex(entry));
+		for(int nodeIndex = 0; nodeIndex <= nodeCount; nodeIndex++)
+			data.writeInt(indexedGraph.getAdjacentEdgeOffset(nodeIndex));
+		for(int entry = 0; entry < indexedGraph.getAdjacentEdgeOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getAdjacentEdgeIndex(entry));
+		for(int nodeIndex = 0; nodeIndex <= nodeCount; nodeIndex++)
+			data.writeInt(indexedGraph.getTraversableOffset(nodeIndex));
+		for(int entry = 0; entry < indexedGraph.getTraversableOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getTraversableNodeIndex(entry));
+		for(int entry = 0; entry < indexedGraph.getTraversableOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getTraversableEdgeIndex(entry));
+		for(int nodeIndex = 0; nodeIndex <= nodeCount; nodeIndex++)
+			data.writeInt(indexedGraph.getInOffset(nodeIndex));
+		for(int entry = 0; entry < indexedGraph.getInOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getInNodeIndex(entry));
+		for(int entry = 0; entry < indexedGraph.getInOffset(nodeCount); entry++)
+			data.writeInt(indexedGraph.getInEdgeIndex(entry));
+		data.flush();
+	}
+
+	@Override
+	public boolean isContextEnabled()
+	{
+		return false;
+	}
+
+	@Override
+	public int getNodeCount()
+	{
+		return this.nodeCount;
+	}
+
+	@Override
+	public Integer getNode(final int nodeIndex)
+	{
+		if( (nodeIndex < 0) || (nodeIndex >= this.nodeCount) )
+			throw new IndexOutOfBoundsException("nodeIndex: " + nodeIndex + ", node count: " + this.nodeCount);
+		return Integer.valueOf(nodeIndex);
+	}
+
+	@Override
+	public int getNodeIndex(final Integer node)
+	{
+		if( (node == null) || (node < 0) || (node >= this.nodeCount) )
+			return -1;
+		return node;
+	}
+
+	@Override
+	public double getNodeWeight(final int nodeIndex, final double unweightedValue)
+	{
+		if( (this.nodeWeights == null) || Double.isNaN(this.nodeWeights.get(nodeIndex)) )
+			return unweightedValue;
+		return this.nodeWeights.get(nodeIndex);
+	}
+
+	@Override
+	public int getEdgeCount()
+	{
+		return this.edgeCount;
+	}
+
+	@Override
+	public BidirectedEdge<Integer> getEdge(final int edgeIndex)
+	{
+		AtomicReferenceArray<BidirectedEdge<Integer>> createdEdges = this.edges.get();
+		if( createdEdges == null )
+		{
+			// only allocated once an edge is needed, keeping opening cheap
+			this.edges.compareAndSet(null, new AtomicReferenceArray<BidirectedEdge<Integer>>(this.edgeCount));
+			createdEdges = this.edges.get();
+		}
+
+		final BidirectedEdge<Integer> edge = createdEdges.get(edgeIndex);
+		if( edge != null )
+			return edge;
+		// if another thread created the edge first then use theirs
+		createdEdges.compareAndSet(edgeIndex, null, this.createEdge(edgeIndex));
+		return createdEdges.get(edgeIndex);
+	}
+
+	private BidirectedEdge<Integer> createEdge(final int edgeIndex)
+	{
+		final int record = edgeIndex * EDGE_RECORD_INTS;
+		final Integer leftNode = Integer.valueOf(this.edgeRecords.get(record));
+		final Integer rightNode = Integer.valueOf(this.edgeRecords.get(record + 1));
+		final boolean directed = (this.edgeRecords.get(record + 2) != 0);
+		final double weight = this.getEdgeWeight(edgeIndex, Double.NaN);
+		if( Double.isNaN(weight) )
+			return (directed ? new ImmutableDirectedEdge<Integer>(leftNode, rightNode) : new ImmutableUndirectedEdge<Integer>(leftNode, rightNode));
+		return (directed ? new ImmutableWeightedDirectedEdge<Integer>(leftNode, rightNode, weight) : new ImmutableWeightedUndirectedEdge<Integer>(leftNode, rightNode, weight));
+	}
+
+	@Override
+	public int getEdgeIndex(final BidirectedEdge<Integer> edge)
+	{
+		if( edge == null )
+			return -1;
+		// every edge is adjacent to its own end points
+		final int nodeIndex = this.getNodeIndex(edge.getLeftNode());
+		if( nodeIndex < 0 )
+			return -1;
+		for(int entry = this.adjacentEdgeOffsets.get(nodeIndex); entry < this.adjacentEdgeOffsets.get(nodeIndex + 1); entry++)
+			if( this.getEdge(this.adjacentEdgeIndexes.get(entry)).equals(edge) )
+				return this.adjacentEdgeIndexes.get(entry);
+		return -1;
+	}
+
+	@Override
+	public double getEdgeWeight(final int edgeIndex, final double unweightedValue)
+	{
+		if( (this.edgeWeights == null) || Double.isNaN(this.edgeWeights.get(edgeIndex)) )
+			return unweightedValue;
+		return this.edgeWeights.get(edgeIndex);
+	}
+
+	@Override
+	public int getAdjacentOffset(final int nodeIndex)
+	{
+		return this.adjacentOffsets.get(nodeIndex);
+	}
+
+	@Override
+	public int getAdjacentNodeIndex(final int entry)
+	{
+		return this.adjacentNodeIndexes.get(entry);
+	}
+
+	@Override
+	public int getAdjacentEdgeOffset(final int nodeIndex)
+	{
+		return this.adjacentEdgeOffsets.get(nodeIndex);
+	}
+
+	@Override
+	public int getAdjacentEdgeIndex(final int entry)
+	{
+		return this.adjacentEdgeIndexes.get(entry);
+	}
+
+	@Override
+	public int getTraversableOffset(final int nodeIndex)
+	{
+		return this.traversableOffsets.get(nodeIndex);
+	}
+
+	@Override
+	public int getTraversableNodeIndex(final int entry)
+	{
+		return this.traversableNodeIndexes.get(entry);
+	}
+
+	@Override
+	public int getTraversableEdgeIndex(final int entry)
+	{
+		return this.traversableEdgeIndexes.get(entry);
+	}
+
+	@Override
+	public int getInOffset(final int nodeIndex)
+	{
+		return this.inOffsets.get(nodeIndex);
+	}
+
+	@Override
+	public int getInNodeIndex(final int entry)
+	{
+		return this.inNodeIndexes.get(entry);
+	}
+
+	@Override
+	public int getInEdgeIndex(final int entry)
+	{
+		return this.inEdgeIndexes.get(entry);
+	}
+
+	/**
+	 * Gets all nodes in the graph, the indexes from 0 to one less than the node
+	 * count.
+	 * @return An unmodifiable view of the nodes
+	 */
+	@Override
+	public Set<Integer> getNodes()
+	{
+		return new AbstractSet<Integer>()
+		{
+			@Override
+			public Iterator<Integer> iterator()
+			{
+				return new NodeRunList(null, 0, nodeCount).iterator();
+			}
+
+			@Override
+			public int size()
+			{
+				return nodeCount;
+			}
+
+			@Override
+			public boolean contains(final Object node)
+			{
+				return (node instanceof Integer) && (getNodeIndex((Integer) node) >= 0);
+			}
+		};
+	}
+
+	/**
+	 * Gets all edges in the graph.
+	 * @return An unmodifiable view of the edges
+	 */
+	@Override
+	public Set<BidirectedEdge<Integer>> getEdges()
+	{
+		return new EdgeRunSet(null, 0, this.edgeCount)
+		{
+			@Override
+			public boolean contains(final Object edge)
+			{
+				return (edge instanceof BidirectedEdge) && (getEdgeIndex((BidirectedEdge<Integer>) edge) >= 0);
+			}
+		};
+	}
+
+	@Override
+	public List<Integer> getAdjacentNodes(final Integer node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<Integer>emptyList();
+		return new NodeRunList(this.adjacentNodeIndexes, this.adjacentOffsets.get(nodeIndex), this.adjacentOffsets.get(nodeIndex + 1));
+	}
+
+	@Override
+	public Set<BidirectedEdge<Integer>> getAdjacentEdges(final Integer node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<BidirectedEdge<Integer>>emptySet();
+		return new EdgeRunSet(this.adjacentEdgeIndexes, this.adjacentEdgeOffsets.get(nodeIndex), this.adjacentEdgeOffsets.get(nodeIndex + 1));
+	}
+
+	@Override
+	public List<Integer> getTraversableNodes(final Integer node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<Integer>emptyList();
+		return new NodeRunList(this.traversableNodeIndexes, this.traversableOffsets.get(nodeIndex), this.traversableOffsets.get(nodeIndex + 1));
+	}
+
+	@Override
+	public Set<BidirectedEdge<Integer>> getTraversableEdges(final Integer node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<BidirectedEdge<Integer>>emptySet();
+		return new EdgeRunSet(this.traversableEdgeIndexes, this.traversableOffsets.get(nodeIndex), this.traversableOffsets.get(nodeIndex + 1));
+	}
+
+	@Override
+	public Set<BidirectedEdge<Integer>> getInEdges(final Integer node)
+	{
+		final int nodeIndex = this.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			return Collections.<BidirectedEdge<Integer>>emptySet();
+		return new EdgeRunSet(this.inEdgeIndexes, this.inOffsets.get(nodeIndex), this.inOffsets.get(nodeIndex + 1));
+	}
+
+	/**
+	 * A list view over a run of node indexes, a null run views the nodes
+	 * themselves.
+	 */
+	private static final class NodeRunList extends AbstractList<Integer> implements RandomAccess
+	{
+		private final IntBuffer run;
+		private final int start;
+		private final int end;
+
+		public NodeRunList(final IntBuffer run, final int start, final int end)
+		{
+			this.run = run;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public Integer get(final int index)
+		{
+			if( (index < 0) || (index >= this.size()) )
+				throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size());
+			return Integer.valueOf(this.run == null ? this.start + index : this.run.get(this.start + index));
+		}
+
+		@Override
+		public int size()
+		{
+			return this.end - this.start;
+		}
+	}
+
+	/**
+	 * A set view over a run of edge indexes, a null run views the edges
+	 * themselves. Entries for a single edge are always contiguous within a run
+	 * so repeated entries are skipped by comparing against the previous entry.
+	 */
+	private class EdgeRunSet extends AbstractSet<BidirectedEdge<Integer>>
+	{
+		private final IntBuffer run;
+		private final int start;
+		private final int end;
+
+		public EdgeRunSet(final IntBuffer run, final int start, final int end)
+		{
+			this.run = run;
+			this.start = start;
+			this.end = end;
+		}
+
+		private int edgeAt(final int entry)
+		{
+			return (this.run == null ? entry : this.run.get(entry));
+		}
+
+		@Override
+		public Iterator<BidirectedEdge<Integer>> iterator()
+		{
+			return new Iterator<BidirectedEdge<Integer>>()
+			{
+				private int entry = start;
+
+				@Override
+				public boolean hasNext()
+				{
+					return this.entry < end;
+				}
+
+				@Override
+				public BidirectedEdge<Integer> next()
+				{
+					if( !this.hasNext() )
+						throw new NoSuchElementException();
+					final int edgeIndex = edgeAt(this.entry);
+					do
+						this.entry++;
+					while( (this.entry < end) && (edgeAt(this.entry) == edgeIndex) );
+					return getEdge(edgeIndex);
+				}
+
+				@Override
+				public void remove()
+				{
+					throw new UnsupportedOperationException("graph is immutable");
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			int size = 0;
+			for(int entry = this.start; entry < this.end; entry++)
+				if( (entry == this.start) || (this.edgeAt(entry) != this.edgeAt(entry - 1)) )
+					size++;
+			return size;
+		}
+
+		@Override
+		public boolean contains(final Object edge)
+		{
+			for(int entry = this.start; entry < this.end; entry++)
+				if( getEdge(this.edgeAt(entry)).equals(edge) )
+					return true;
+			return false;
+		}
+	}
+
+	/**
+	 * Clones the current object. Since the graph is immutable the clone shares
+	 * its mapping and its edges with this graph.
+	 * @return A clone of the current object, with no changes
+	 */
+	@Override
+	public MappedAdjacencyGraph clone()
+	{
+		try
+		{
+			return (MappedAdjacencyGraph) super.clone();
+		}
+		catch(CloneNotSupportedException caught)
+		{
+			LOGGER.error("Unexpectedly could not clone Graph.", caught);
+			throw new UnexpectedDannError("Unexpectedly could not clone graph", caught);
+		}
+	}
+
+	/**
+	 * The mapping can not be serialized, so a compressed copy of the graph is
+	 * serialized in its place.
+	 * @return the object to serialize instead of this graph.
+	 */
+	protected Object writeReplace()
+	{
+		return new CompressedBidirectedAdjacencyGraph<Integer, BidirectedEdge<Integer>>(this);
+	}
+
+	/**
+	 * Converts the current graph to a GraphXML.
+	 * @return The GraphXML representation of this graph
+	 */
+	@Override
+	public GraphXml toXml()
+	{
+		return new CompressedAdjacencyGraph<Integer, BidirectedEdge<Integer>>(this).toXml();
+	}
+
+	@Override
+	public GraphXml toXml(final Namer<Object> namer)
+	{
+		return new CompressedAdjacencyGraph<Integer, BidirectedEdge<Integer>>(this).toXml(namer);
+	}
+
+	@Override
+	public void toXml(final GraphXml jaxbObject, final Namer<Object> namer)
+	{
+		new CompressedAdjacencyGraph<Integer, BidirectedEdge<Integer>>(this).toXml(jaxbObject, namer);
+	}
+}
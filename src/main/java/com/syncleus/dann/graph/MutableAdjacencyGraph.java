@@ -19,9 +19,11 @@
 package com.syncleus.dann.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import com.syncleus.dann.graph.context.ContextGraphElement;
 
 public class MutableAdjacencyGraph<N, E extends TraversableCloud<N>> extends AbstractAdjacencyGraph<N, E> implements MutableGraph<N, E>
@@ -67,6 +69,7 @@ public class MutableAdjacencyGraph<N, E extends TraversableCloud<N>> extends Abs
 				for(final N newAdjacentNode : newAdjacentNodes)
 					this.getInternalAdjacencyNodes().get(currentNode).add(newAdjacentNode);
 			}
+			this.fireEdgeAdded(newEdge);
 			return true;
 		}
 
@@ -89,6 +92,7 @@ public class MutableAdjacencyGraph<N, E extends TraversableCloud<N>> extends Abs
 
 		this.getInternalAdjacencyEdges().put(newNode, new HashSet<E>());
 		this.getInternalAdjacencyNodes().put(newNode, new ArrayList<N>());
+		this.fireNodeAdded(newNode);
 		return true;
 	}
 
@@ -119,6 +123,7 @@ public class MutableAdjacencyGraph<N, E extends TraversableCloud<N>> extends Abs
 			for(final N removeAdjacentNode : removeAdjacentNodes)
 				this.getInternalAdjacencyNodes().get(removeNode).remove(removeAdjacentNode);
 		}
+		this.fireEdgeRemoved(edgeToRemove);
 		return true;
 	}
 
@@ -161,10 +166,38 @@ public class MutableAdjacencyGraph<N, E extends TraversableCloud<N>> extends Abs
 		//remove the node itself
 		this.getInternalAdjacencyEdges().remove(nodeToRemove);
 		this.getInternalAdjacencyNodes().remove(nodeToRemove);
+		this.fireNodeRemoved(nodeToRemove);
 
 		return true;
 	}
 
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		return this.addInternalEdges(newEdges);
+	}
+
+	/**
+	 * Adds a batch of edges, filling the adjacency of their end points on the
+	 * given executor. Context callbacks and listeners still run on the calling
+	 * thread.
+	 * @param newEdges The edges to add
+	 * @param executor The executor used to fill the adjacency, or null to fill
+	 *   it on the calling thread
+	 * @return true if at least one edge was added
+	 * @since 2.2
+	 */
+	public boolean addAll(final Collection<? extends E> newEdges, final ExecutorService executor)
+	{
+		return this.addInternalEdges(newEdges, executor);
+	}
+
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		return this.removeInternalEdges(edgesToRemove);
+	}
+
 	@Override
 	public boolean clear()
 	{
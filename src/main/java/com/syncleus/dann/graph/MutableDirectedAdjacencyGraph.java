@@ -19,6 +19,7 @@
 package com.syncleus.dann.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -67,6 +68,7 @@ public class MutableDirectedAdjacencyGraph<N, E extends DirectedEdge<N>> extends
 				for(final N newAdjacentNode : newAdjacentNodes)
 					this.getInternalAdjacencyNodes().get(currentNode).add(newAdjacentNode);
 			}
+			this.fireEdgeAdded(newEdge);
 			return true;
 		}
 
@@ -89,6 +91,7 @@ public class MutableDirectedAdjacencyGraph<N, E extends DirectedEdge<N>> extends
 
 		this.getInternalAdjacencyEdges().put(newNode, new HashSet<E>());
 		this.getInternalAdjacencyNodes().put(newNode, new ArrayList<N>());
+		this.fireNodeAdded(newNode);
 		return true;
 	}
 
@@ -119,6 +122,7 @@ public class MutableDirectedAdjacencyGraph<N, E extends DirectedEdge<N>> extends
 			for(final N removeAdjacentNode : removeAdjacentNodes)
 				this.getInternalAdjacencyNodes().get(removeNode).remove(removeAdjacentNode);
 		}
+		this.fireEdgeRemoved(edgeToRemove);
 		return true;
 	}
 
@@ -161,10 +165,23 @@ public class MutableDirectedAdjacencyGraph<N, E extends DirectedEdge<N>> extends
 		//remove the node itself
 		this.getInternalAdjacencyEdges().remove(nodeToRemove);
 		this.getInternalAdjacencyNodes().remove(nodeToRemove);
+		this.fireNodeRemoved(nodeToRemove);
 
 		return true;
 	}
 
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		return this.addInternalEdges(newEdges);
+	}
+
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		return this.removeInternalEdges(edgesToRemove);
+	}
+
 	@Override
 	public boolean clear()
 	{
@@ -18,11 +18,15 @@
  ******************************************************************************/
 package com.syncleus.dann.graph;
 
+import java.util.Collection;
+
 public interface MutableGraph<N, E extends TraversableCloud<N>> extends Graph<N, E>
 {
 	boolean add(E newEdge);
 	boolean add(N newNode);
 	boolean remove(E edgeToRemove);
 	boolean remove(N nodeToRemove);
+	boolean addAll(Collection<? extends E> newEdges);
+	boolean removeAll(Collection<? extends E> edgesToRemove);
 	boolean clear();
 }
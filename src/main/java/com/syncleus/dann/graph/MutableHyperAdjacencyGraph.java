@@ -19,6 +19,8 @@
 package com.syncleus.dann.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -67,6 +69,7 @@ public class MutableHyperAdjacencyGraph<N, E extends Hyperedge<N>> extends Abstr
 				for(final N newAdjacentNode : newAdjacentNodes)
 					this.getInternalAdjacencyNodes().get(currentNode).add(newAdjacentNode);
 			}
+			this.fireEdgeAdded(newEdge);
 			return true;
 		}
 
@@ -89,6 +92,7 @@ public class MutableHyperAdjacencyGraph<N, E extends Hyperedge<N>> extends Abstr
 
 		this.getInternalAdjacencyEdges().put(newNode, new HashSet<E>());
 		this.getInternalAdjacencyNodes().put(newNode, new ArrayList<N>());
+		this.fireNodeAdded(newNode);
 		return true;
 	}
 
@@ -119,6 +123,7 @@ public class MutableHyperAdjacencyGraph<N, E extends Hyperedge<N>> extends Abstr
 			for(final N removeAdjacentNode : removeAdjacentNodes)
 				this.getInternalAdjacencyNodes().get(removeNode).remove(removeAdjacentNode);
 		}
+		this.fireEdgeRemoved(edgeToRemove);
 		return true;
 	}
 
@@ -161,10 +166,118 @@ public class MutableHyperAdjacencyGraph<N, E extends Hyperedge<N>> extends Abstr
 		//remove the node itself
 		this.getInternalAdjacencyEdges().remove(nodeToRemove);
 		this.getInternalAdjacencyNodes().remove(nodeToRemove);
+		this.fireNodeRemoved(nodeToRemove);
 
 		return true;
 	}
 
+	/**
+	 * Connects an edge of this graph to another node of this graph. An edge
+	 * which changes in place, such as a MutableHyperedge, is changed and has
+	 * only the adjacency it gained patched. If listeners are registered they
+	 * are told it was removed and added again, and in between the graph looks
+	 * as it would without the edge. Any other edge is replaced by its
+	 * connected copy.
+	 * @param edge The edge to connect
+	 * @param node The node to connect it to
+	 * @return The edge which now connects the node; the given edge if it
+	 *   changed in place or context kept it in this graph, otherwise its copy,
+	 *   or null if context kept the copy out of this graph
+	 * @since 2.2
+	 */
+	public E connect(final E edge, final N node)
+	{
+		if( edge == null )
+			throw new IllegalArgumentException("edge can not be null");
+		if( node == null )
+			throw new IllegalArgumentException("node can not be null");
+		if( !this.getInternalEdges().contains(edge) )
+			throw new IllegalArgumentException("edge is not part of this graph");
+		if( !this.getInternalAdjacencyEdges().containsKey(node) )
+			throw new IllegalArgumentException("node is not part of this graph");
+		if( edge.getNodes().contains(node) )
+			throw new IllegalArgumentException("node is already connected");
+
+		if( (edge instanceof AbstractTraversableCloud) && ((AbstractTraversableCloud)edge).isMutable() )
+			return this.changeInPlace(edge, node, true);
+
+		return this.replace(edge, (E) edge.connect(node));
+	}
+
+	/**
+	 * Disconnects an edge of this graph from one of its end points, in place
+	 * when the edge allows it.
+	 * @param edge The edge to disconnect
+	 * @param node The end point to disconnect it from
+	 * @return The edge without the node; the given edge if it changed in
+	 *   place or context kept it in this graph, otherwise its copy, or null if
+	 *   context kept the copy out of this graph
+	 * @see #connect(Hyperedge, Object)
+	 * @since 2.2
+	 */
+	public E disconnect(final E edge, final N node)
+	{
+		if( edge == null )
+			throw new IllegalArgumentException("edge can not be null");
+		if( node == null )
+			throw new IllegalArgumentException("node can not be null");
+		if( !this.getInternalEdges().contains(edge) )
+			throw new IllegalArgumentException("edge is not part of this graph");
+		if( !edge.getNodes().contains(node) )
+			throw new IllegalArgumentException("node is not currently connected to");
+
+		if( (edge instanceof AbstractTraversableCloud) && ((AbstractTraversableCloud)edge).isMutable() )
+			return this.changeInPlace(edge, node, false);
+
+		return this.replace(edge, (E) edge.disconnect(node));
+	}
+
+	private E changeInPlace(final E edge, final N node, final boolean connecting)
+	{
+		// a listener may read the graph while told of the removal, so then it
+		// must look as it would after remove(E); otherwise only the adjacency
+		// which changed is patched
+		final boolean observed = this.hasGraphListeners();
+		final Collection<N> oldNodes = edge.getNodes();
+		if( observed )
+		{
+			this.detachInternalEdge(edge);
+			this.fireEdgeRemoved(edge);
+		}
+		else
+			this.unlinkInternalEdge(edge);
+
+		if( connecting )
+			edge.connect(node);
+		else
+			edge.disconnect(node);
+
+		this.relinkInternalEdge(edge, (observed ? Collections.<N>emptyList() : oldNodes));
+		this.fireEdgeAdded(edge);
+		return edge;
+	}
+
+	private E replace(final E edge, final E changedEdge)
+	{
+		if( !this.remove(edge) )
+			return edge;
+		if( (changedEdge == null) || !this.add(changedEdge) )
+			return null;
+		return changedEdge;
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		return this.addInternalEdges(newEdges);
+	}
+
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		return this.removeInternalEdges(edgesToRemove);
+	}
+
 	@Override
 	public boolean clear()
 	{
@@ -0,0 +1,89 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A hyperedge whose end points are changed in place, so connecting or
+ * disconnecting a node neither allocates a new edge nor asks the end points
+ * which are kept for their context again. A mutable hyperedge can only ever
+ * join a single graph, and while it is part of one its end points should be
+ * changed through MutableHyperAdjacencyGraph#connect and
+ * MutableHyperAdjacencyGraph#disconnect, which keep the adjacency of the graph
+ * up to date.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ */
+public final class MutableHyperedge<N> extends AbstractHyperedge<N>
+{
+	private static final long serialVersionUID = 4415946063914120573L;
+
+	public MutableHyperedge(final Collection<N> nodes)
+	{
+		super(nodes, false, true);
+	}
+
+	public MutableHyperedge(final N... nodes)
+	{
+		super(false, true, nodes);
+	}
+
+	public MutableHyperedge(final Collection<N> nodes, final boolean contextEnabled)
+	{
+		super(nodes, false, contextEnabled);
+	}
+
+	public MutableHyperedge(final boolean contextEnabled, final N... nodes)
+	{
+		super(false, contextEnabled, nodes);
+	}
+
+	@Override
+	protected boolean isMutable()
+	{
+		return true;
+	}
+
+	@Override
+	public MutableHyperedge<N> connect(final N node)
+	{
+		return (MutableHyperedge<N>) super.connect(node);
+	}
+
+	@Override
+	public MutableHyperedge<N> connect(final List<N> nodes)
+	{
+		return (MutableHyperedge<N>) super.connect(nodes);
+	}
+
+	@Override
+	public MutableHyperedge<N> disconnect(final N node)
+	{
+		return (MutableHyperedge<N>) super.disconnect(node);
+	}
+
+	@Override
+	public MutableHyperedge<N> disconnect(final List<N> nodes)
+	{
+		return (MutableHyperedge<N>) super.disconnect(nodes);
+	}
+}
@@ -21,6 +21,7 @@ package com.syncleus.dann.graph;
 import com.syncleus.dann.graph.context.ContextGraphElement;
 import com.syncleus.dann.graph.tree.Trees;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -76,6 +77,7 @@ public class MutableTreeAdjacencyGraph<N, E extends BidirectedEdge<N>> extends A
 				for(final N newAdjacentNode : newAdjacentNodes)
 					this.getInternalAdjacencyNodes().get(currentNode).add(newAdjacentNode);
 			}
+			this.fireEdgeAdded(newEdge);
 			return true;
 		}
 
@@ -98,6 +100,7 @@ public class MutableTreeAdjacencyGraph<N, E extends BidirectedEdge<N>> extends A
 
 		this.getInternalAdjacencyEdges().put(newNode, new HashSet<E>());
 		this.getInternalAdjacencyNodes().put(newNode, new ArrayList<N>());
+		this.fireNodeAdded(newNode);
 		return true;
 	}
 
@@ -128,6 +131,7 @@ public class MutableTreeAdjacencyGraph<N, E extends BidirectedEdge<N>> extends A
 			for(final N removeAdjacentNode : removeAdjacentNodes)
 				this.getInternalAdjacencyNodes().get(removeNode).remove(removeAdjacentNode);
 		}
+		this.fireEdgeRemoved(edgeToRemove);
 		return true;
 	}
 
@@ -170,10 +174,40 @@ public class MutableTreeAdjacencyGraph<N, E extends BidirectedEdge<N>> extends A
 		//remove the node itself
 		this.getInternalAdjacencyEdges().remove(nodeToRemove);
 		this.getInternalAdjacencyNodes().remove(nodeToRemove);
+		this.fireNodeRemoved(nodeToRemove);
 
 		return true;
 	}
 
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		if( newEdges == null )
+			throw new IllegalArgumentException("newEdges can not be null");
+		for(final E newEdge : newEdges)
+		{
+			if( newEdge == null )
+				throw new IllegalArgumentException("newEdges can not contain null");
+			if( !this.getNodes().containsAll(newEdge.getNodes()) )
+				throw new IllegalArgumentException("newEdges has a node as an end point that is not part of the graph");
+		}
+
+		//make sure after we add the whole batch this will still be a tree
+		final Set<E> testEdges = new HashSet<E>(this.getEdges());
+		testEdges.addAll(newEdges);
+		final Graph<N, E> testGraph = new ImmutableAdjacencyGraph(this.getNodes(), testEdges);
+		if( !Trees.isTree(testGraph) )
+			throw new IllegalArgumentException("newEdges can not be added because this graph would no longer be a tree");
+
+		return this.addInternalEdges(newEdges);
+	}
+
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		return this.removeInternalEdges(edgesToRemove);
+	}
+
 	@Override
 	public boolean clear()
 	{
@@ -0,0 +1,50 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+/**
+ * A graph which notifies registered listeners whenever a node or edge is added
+ * or removed. Algorithms which cache derived data about a graph can use this
+ * to invalidate their caches rather than rebuilding them on every use. A graph
+ * which can never change may implement this without ever sending a
+ * notification.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public interface ObservableGraph<N, E extends TraversableCloud<N>> extends Graph<N, E>
+{
+	/**
+	 * Registers a listener to be notified of changes to this graph. Listeners are
+	 * not serialized or cloned along with the graph.
+	 *
+	 * @param listener the listener to register.
+	 * @since 2.2
+	 */
+	void addGraphListener(GraphListener<N, E> listener);
+	/**
+	 * Unregisters a listener previously registered with addGraphListener.
+	 *
+	 * @param listener the listener to unregister.
+	 * @return true if the listener was registered, false otherwise.
+	 * @since 2.2
+	 */
+	boolean removeGraphListener(GraphListener<N, E> listener);
+}
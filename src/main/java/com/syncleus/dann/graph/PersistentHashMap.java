@@ -0,0 +1,453 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map which is changed by creating new maps that share all
+ * but the changed path with the map they were made from. Entries are held in a
+ * hash array mapped trie branching on five bits of the key hash per level, so
+ * lookups, puts and removes touch and copy at most seven small arrays no matter
+ * how large the map is. Keys whose whole hashes collide share a leaf which is
+ * searched linearly. Neither keys nor values may be null.
+ *
+ * @since 2.2
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class PersistentHashMap<K, V>
+{
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<Object, Object>(null, 0);
+
+	// null when the map is empty
+	private final TrieNode root;
+	private final int size;
+
+	private PersistentHashMap(final TrieNode root, final int size)
+	{
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Gets the empty map, every map is built up from it.
+	 * @param <K> The key type
+	 * @param <V> The value type
+	 * @return The empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty()
+	{
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return (this.size == 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(final Object key)
+	{
+		if( (key == null) || (this.root == null) )
+			return null;
+		return (V) this.root.find(hash(key), 0, key);
+	}
+
+	public boolean containsKey(final Object key)
+	{
+		return (this.get(key) != null);
+	}
+
+	/**
+	 * Creates a map with the given key mapped to the given value.
+	 * @param key The key to map
+	 * @param value The value to map it to
+	 * @return The new map, or this map if the key was already mapped to the
+	 *   very same value
+	 */
+	public PersistentHashMap<K, V> put(final K key, final V value)
+	{
+		if( key == null )
+			throw new IllegalArgumentException("key can not be null");
+		if( value == null )
+			throw new IllegalArgumentException("value can not be null");
+
+		final boolean[] added = new boolean[1];
+		final TrieNode newRoot = (this.root == null ? BitmapNode.EMPTY : this.root).assoc(hash(key), 0, key, value, added);
+		if( newRoot == this.root )
+			return this;
+		return new PersistentHashMap<K, V>(newRoot, (added[0] ? this.size + 1 : this.size));
+	}
+
+	/**
+	 * Creates a map without the given key.
+	 * @param key The key to remove
+	 * @return The new map, or this map if the key was not mapped
+	 */
+	public PersistentHashMap<K, V> remove(final Object key)
+	{
+		if( (key == null) || (this.root == null) )
+			return this;
+
+		final TrieNode newRoot = this.root.without(hash(key), 0, key);
+		if( newRoot == this.root )
+			return this;
+		if( newRoot == null )
+			return empty();
+		return new PersistentHashMap<K, V>(newRoot, this.size - 1);
+	}
+
+	/**
+	 * Gets an unmodifiable view of the keys. Since the map never changes
+	 * neither does the view.
+	 * @return The keys of this map
+	 */
+	public Set<K> keySet()
+	{
+		return new AbstractSet<K>()
+		{
+			@Override
+			public Iterator<K> iterator()
+			{
+				return new KeyIterator<K>(root);
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+
+			@Override
+			public boolean contains(final Object key)
+			{
+				return containsKey(key);
+			}
+		};
+	}
+
+	private static int hash(final Object key)
+	{
+		final int hash = key.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int bit(final int hash, final int shift)
+	{
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	/**
+	 * A trie node keeps its entries as pairs in a single array. A pair with a
+	 * null key holds a child node in place of a value.
+	 */
+	private abstract static class TrieNode
+	{
+		protected final Object[] pairs;
+
+		protected TrieNode(final Object[] pairs)
+		{
+			this.pairs = pairs;
+		}
+
+		public abstract Object find(int hash, int shift, Object key);
+
+		public abstract TrieNode assoc(int hash, int shift, Object key, Object value, boolean[] added);
+
+		/**
+		 * @return this node if the key was not found, null if the node would be
+		 *   left empty.
+		 */
+		public abstract TrieNode without(int hash, int shift, Object key);
+
+		protected static Object[] copySet(final Object[] pairs, final int index, final Object value)
+		{
+			final Object[] copy = pairs.clone();
+			copy[index] = value;
+			return copy;
+		}
+
+		protected static Object[] removePair(final Object[] pairs, final int pair)
+		{
+			final Object[] copy = new Object[pairs.length - 2];
+			System.arraycopy(pairs, 0, copy, 0, 2 * pair);
+			System.arraycopy(pairs, 2 * (pair + 1), copy, 2 * pair, copy.length - (2 * pair));
+			return copy;
+		}
+	}
+
+	/**
+	 * A branch holding up to one pair for each of the 32 values of the five
+	 * hash bits at its level, the pairs which are present are flagged in a
+	 * bitmap and packed in order.
+	 */
+	private static final class BitmapNode extends TrieNode
+	{
+		private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap;
+
+		public BitmapNode(final int bitmap, final Object[] pairs)
+		{
+			super(pairs);
+			this.bitmap = bitmap;
+		}
+
+		private int pairOf(final int bit)
+		{
+			return Integer.bitCount(this.bitmap & (bit - 1));
+		}
+
+		@Override
+		public Object find(final int hash, final int shift, final Object key)
+		{
+			final int bit = bit(hash, shift);
+			if( (this.bitmap & bit) == 0 )
+				return null;
+			final int pair = this.pairOf(bit);
+			final Object pairKey = this.pairs[2 * pair];
+			final Object pairValue = this.pairs[2 * pair + 1];
+			if( pairKey == null )
+				return ((TrieNode) pairValue).find(hash, shift + BITS, key);
+			return (key.equals(pairKey) ? pairValue : null);
+		}
+
+		@Override
+		public TrieNode assoc(final int hash, final int shift, final Object key, final Object value, final boolean[] added)
+		{
+			final int bit = bit(hash, shift);
+			final int pair = this.pairOf(bit);
+			if( (this.bitmap & bit) == 0 )
+			{
+				added[0] = true;
+				final Object[] newPairs = new Object[this.pairs.length + 2];
+				System.arraycopy(this.pairs, 0, newPairs, 0, 2 * pair);
+				newPairs[2 * pair] = key;
+				newPairs[2 * pair + 1] = value;
+				System.arraycopy(this.pairs, 2 * pair, newPairs, 2 * (pair + 1), this.pairs.length - (2 * pair));
+				return new BitmapNode(this.bitmap | bit, newPairs);
+			}
+
+			final Object pairKey = this.pairs[2 * pair];
+			final Object pairValue = this.pairs[2 * pair + 1];
+			if( pairKey == null )
+			{
+				final TrieNode child = ((TrieNode) pairValue).assoc(hash, shift + BITS, key, value, added);
+				if( child == pairValue )
+					return this;
+				return new BitmapNode(this.bitmap, copySet(this.pairs, 2 * pair + 1, child));
+			}
+			if( key.equals(pairKey) )
+			{
+				if( value == pairValue )
+					return this;
+				return new BitmapNode(this.bitmap, copySet(this.pairs, 2 * pair + 1, value));
+			}
+
+			added[0] = true;
+			final Object[] newPairs = copySet(this.pairs, 2 * pair, null);
+			newPairs[2 * pair + 1] = createNode(shift + BITS, pairKey, pairValue, hash, key, value);
+			return new BitmapNode(this.bitmap, newPairs);
+		}
+
+		@Override
+		public TrieNode without(final int hash, final int shift, final Object key)
+		{
+			final int bit = bit(hash, shift);
+			if( (this.bitmap & bit) == 0 )
+				return this;
+			final int pair = this.pairOf(bit);
+			final Object pairKey = this.pairs[2 * pair];
+			final Object pairValue = this.pairs[2 * pair + 1];
+			if( pairKey == null )
+			{
+				final TrieNode child = ((TrieNode) pairValue).without(hash, shift + BITS, key);
+				if( child == pairValue )
+					return this;
+				if( child != null )
+					return new BitmapNode(this.bitmap, copySet(this.pairs, 2 * pair + 1, child));
+			}
+			else if( !key.equals(pairKey) )
+				return this;
+
+			if( this.bitmap == bit )
+				return null;
+			return new BitmapNode(this.bitmap ^ bit, removePair(this.pairs, pair));
+		}
+
+		private static TrieNode createNode(final int shift, final Object firstKey, final Object firstValue, final int secondHash, final Object secondKey, final Object secondValue)
+		{
+			final int firstHash = hash(firstKey);
+			if( firstHash == secondHash )
+				return new CollisionNode(firstHash, new Object[] {firstKey, firstValue, secondKey, secondValue});
+			final boolean[] added = new boolean[1];
+			return EMPTY.assoc(firstHash, shift, firstKey, firstValue, added).assoc(secondHash, shift, secondKey, secondValue, added);
+		}
+	}
+
+	/**
+	 * A leaf holding every key whose whole hash is the same.
+	 */
+	private static final class CollisionNode extends TrieNode
+	{
+		private final int hash;
+
+		public CollisionNode(final int hash, final Object[] pairs)
+		{
+			super(pairs);
+			this.hash = hash;
+		}
+
+		private int pairOf(final Object key)
+		{
+			for(int pair = 0; pair < this.pairs.length / 2; pair++)
+				if( key.equals(this.pairs[2 * pair]) )
+					return pair;
+			return -1;
+		}
+
+		@Override
+		public Object find(final int hash, final int shift, final Object key)
+		{
+			final int pair = this.pairOf(key);
+			return (pair < 0 ? null : this.pairs[2 * pair + 1]);
+		}
+
+		@Override
+		public TrieNode assoc(final int hash, final int shift, final Object key, final Object value, final boolean[] added)
+		{
+			if( hash != this.hash )
+			{
+				// the new key branches off above this leaf
+				final BitmapNode branch = new BitmapNode(bit(this.hash, shift), new Object[] {null, this});
+				return branch.assoc(hash, shift, key, value, added);
+			}
+
+			final int pair = this.pairOf(key);
+			if( pair >= 0 )
+			{
+				if( this.pairs[2 * pair + 1] == value )
+					return this;
+				return new CollisionNode(this.hash, copySet(this.pairs, 2 * pair + 1, value));
+			}
+
+			added[0] = true;
+			final Object[] newPairs = new Object[this.pairs.length + 2];
+			System.arraycopy(this.pairs, 0, newPairs, 0, this.pairs.length);
+			newPairs[this.pairs.length] = key;
+			newPairs[this.pairs.length + 1] = value;
+			return new CollisionNode(this.hash, newPairs);
+		}
+
+		@Override
+		public TrieNode without(final int hash, final int shift, final Object key)
+		{
+			final int pair = this.pairOf(key);
+			if( pair < 0 )
+				return this;
+			if( this.pairs.length == 2 )
+				return null;
+			return new CollisionNode(this.hash, removePair(this.pairs, pair));
+		}
+	}
+
+	/**
+	 * Walks the trie depth first, keeping the pair arrays still being walked
+	 * on a stack.
+	 */
+	private static final class KeyIterator<K> implements Iterator<K>
+	{
+		private final List<Object[]> pairStack = new ArrayList<Object[]>();
+		private final List<Integer> positionStack = new ArrayList<Integer>();
+		private K nextKey;
+
+		public KeyIterator(final TrieNode root)
+		{
+			if( root != null )
+			{
+				this.pairStack.add(root.pairs);
+				this.positionStack.add(0);
+			}
+			this.advance();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance()
+		{
+			this.nextKey = null;
+			while( !this.pairStack.isEmpty() )
+			{
+				final int top = this.pairStack.size() - 1;
+				final Object[] pairs = this.pairStack.get(top);
+				final int position = this.positionStack.get(top);
+				if( position >= pairs.length )
+				{
+					this.pairStack.remove(top);
+					this.positionStack.remove(top);
+					continue;
+				}
+
+				this.positionStack.set(top, position + 2);
+				if( pairs[position] != null )
+				{
+					this.nextKey = (K) pairs[position];
+					return;
+				}
+				this.pairStack.add(((TrieNode) pairs[position + 1]).pairs);
+				this.positionStack.add(0);
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return (this.nextKey != null);
+		}
+
+		@Override
+		public K next()
+		{
+			if( this.nextKey == null )
+				throw new NoSuchElementException();
+			final K key = this.nextKey;
+			this.advance();
+			return key;
+		}
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException("map is immutable");
+		}
+	}
+}
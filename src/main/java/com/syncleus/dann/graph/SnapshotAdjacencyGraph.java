@@ -0,0 +1,208 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.graph.xml.GraphXml;
+import com.syncleus.dann.xml.Namer;
+import org.apache.log4j.Logger;
+
+/**
+ * An immutable version of a VersionedAdjacencyGraph. A snapshot is taken in
+ * constant time, it shares its adjacency with the graph it was taken from and
+ * with every other version of that graph, and it never changes no matter how
+ * the graph is changed afterwards. Snapshots can therefore be read by any
+ * number of threads, without locking, while the graph is being written.
+ *
+ * Nodes and edges are not told they joined a snapshot, so snapshots report
+ * their context as disabled. Serializing a snapshot writes a
+ * CompressedAdjacencyGraph copy of it.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ * @see VersionedAdjacencyGraph#getSnapshot()
+ */
+public class SnapshotAdjacencyGraph<N, E extends TraversableCloud<N>> implements Graph<N, E>
+{
+	private static final long serialVersionUID = 5137248960418874626L;
+	private static final Logger LOGGER = Logger.getLogger(SnapshotAdjacencyGraph.class);
+
+	private final transient PersistentHashMap<N, PersistentHashMap<E, E>> adjacentEdges;
+	private final transient PersistentHashMap<E, E> edges;
+	private final long version;
+
+	SnapshotAdjacencyGraph(final PersistentHashMap<N, PersistentHashMap<E, E>> adjacentEdges, final PersistentHashMap<E, E> edges, final long version)
+	{
+		this.adjacentEdges = adjacentEdges;
+		this.edges = edges;
+		this.version = version;
+	}
+
+	PersistentHashMap<N, PersistentHashMap<E, E>> getAdjacencyMap()
+	{
+		return this.adjacentEdges;
+	}
+
+	PersistentHashMap<E, E> getEdgeMap()
+	{
+		return this.edges;
+	}
+
+	/**
+	 * Gets the version of the graph this is a snapshot of. Each change to a
+	 * VersionedAdjacencyGraph publishes a version one greater than the last.
+	 * @return The version of this snapshot
+	 */
+	public long getVersion()
+	{
+		return this.version;
+	}
+
+	@Override
+	public boolean isContextEnabled()
+	{
+		return false;
+	}
+
+	@Override
+	public Set<N> getNodes()
+	{
+		return this.adjacentEdges.keySet();
+	}
+
+	@Override
+	public Set<E> getEdges()
+	{
+		return this.edges.keySet();
+	}
+
+	@Override
+	public List<N> getAdjacentNodes(final N node)
+	{
+		final List<N> adjacentNodes = new ArrayList<N>();
+		for(final E adjacentEdge : this.getAdjacentEdges(node))
+		{
+			// an edge which loops back lists its other end points once for
+			// each time it lists the node, as AbstractAdjacencyGraph does
+			int occurrences = 0;
+			for(final N edgeNode : adjacentEdge.getNodes())
+				if( node.equals(edgeNode) )
+					occurrences++;
+			for(int occurrence = 0; occurrence < occurrences; occurrence++)
+			{
+				boolean passedCurrent = false;
+				for(final N neighborNode : adjacentEdge.getNodes())
+				{
+					if( !passedCurrent && node.equals(neighborNode) )
+					{
+						passedCurrent = true;
+						continue;
+					}
+					adjacentNodes.add(neighborNode);
+				}
+			}
+		}
+		return Collections.unmodifiableList(adjacentNodes);
+	}
+
+	@Override
+	public Set<E> getAdjacentEdges(final N node)
+	{
+		final PersistentHashMap<E, E> nodeEdges = this.adjacentEdges.get(node);
+		if( nodeEdges == null )
+			return Collections.<E>emptySet();
+		return nodeEdges.keySet();
+	}
+
+	@Override
+	public List<N> getTraversableNodes(final N node)
+	{
+		final List<N> traversableNodes = new ArrayList<N>();
+		for(final E adjacentEdge : this.getAdjacentEdges(node))
+			traversableNodes.addAll(adjacentEdge.getTraversableNodes(node));
+		return Collections.unmodifiableList(traversableNodes);
+	}
+
+	@Override
+	public Set<E> getTraversableEdges(final N node)
+	{
+		final Set<E> traversableEdges = new HashSet<E>();
+		for(final E adjacentEdge : this.getAdjacentEdges(node))
+			if( adjacentEdge.isTraversable(node) )
+				traversableEdges.add(adjacentEdge);
+		return Collections.unmodifiableSet(traversableEdges);
+	}
+
+	/**
+	 * Clones the current object. Since the snapshot is immutable the clone
+	 * shares all of its adjacency with this snapshot.
+	 * @return A clone of the current object, with no changes
+	 */
+	@Override
+	public SnapshotAdjacencyGraph<N, E> clone()
+	{
+		try
+		{
+			return (SnapshotAdjacencyGraph<N, E>) super.clone();
+		}
+		catch(CloneNotSupportedException caught)
+		{
+			LOGGER.error("Unexpectedly could not clone Graph.", caught);
+			throw new UnexpectedDannError("Unexpectedly could not clone graph", caught);
+		}
+	}
+
+	/**
+	 * The shared adjacency is not serialized, so a compressed copy of the
+	 * snapshot is serialized in its place.
+	 * @return the object to serialize instead of this snapshot.
+	 */
+	protected Object writeReplace()
+	{
+		return new CompressedAdjacencyGraph<N, E>(this);
+	}
+
+	/**
+	 * Converts the current snapshot to a GraphXML.
+	 * @return The GraphXML representation of this snapshot
+	 */
+	@Override
+	public GraphXml toXml()
+	{
+		return new CompressedAdjacencyGraph<N, E>(this).toXml();
+	}
+
+	@Override
+	public GraphXml toXml(final Namer<Object> namer)
+	{
+		return new CompressedAdjacencyGraph<N, E>(this).toXml(namer);
+	}
+
+	@Override
+	public void toXml(final GraphXml jaxbObject, final Namer<Object> namer)
+	{
+		new CompressedAdjacencyGraph<N, E>(this).toXml(jaxbObject, namer);
+	}
+}
@@ -0,0 +1,563 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.graph.context.ContextGraphElement;
+import com.syncleus.dann.graph.xml.GraphXml;
+import com.syncleus.dann.xml.Namer;
+import org.apache.log4j.Logger;
+
+/**
+ * A mutable graph whose every change publishes a new immutable version of
+ * it, so readers can keep reading a consistent graph while it is written.
+ *
+ * <p>Each version is a SnapshotAdjacencyGraph held in persistent hash tries.
+ * A change copies only the trie paths leading to the node and edge entries it
+ * touches, sharing everything else with the previous version, so a change
+ * costs time logarithmic in the size of the graph and getSnapshot() costs
+ * nothing at all. Writers are serialized on this graph; readers never lock.
+ * The read methods of this graph read whichever version is current when they
+ * are called, and the views they return never change afterwards. A reader
+ * which needs several reads to agree should take a snapshot and read that
+ * instead. A bulk change through addAll or removeAll is published as a single
+ * version.</p>
+ *
+ * <p>Context is honored as it is by MutableAdjacencyGraph. The joiningGraph
+ * and leavingGraph callbacks are run on the writing thread before the version
+ * which they concern is published, so they still see the graph as it was
+ * before the change. The listeners are run on the writing thread only after
+ * the version has been published.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class VersionedAdjacencyGraph<N, E extends TraversableCloud<N>> implements MutableGraph<N, E>, ObservableGraph<N, E>
+{
+	private static final long serialVersionUID = 8846311290163257045L;
+	private static final Logger LOGGER = Logger.getLogger(VersionedAdjacencyGraph.class);
+
+	private final boolean contextEnabled;
+	private transient volatile SnapshotAdjacencyGraph<N, E> current;
+	private transient List<GraphListener<N, E>> listeners;
+
+	/**
+	 * Tracks the tries of the version being written, which is published once
+	 * the change is complete.
+	 */
+	private final class Revision
+	{
+		private PersistentHashMap<N, PersistentHashMap<E, E>> adjacentEdges;
+		private PersistentHashMap<E, E> edges;
+
+		public Revision()
+		{
+			this.adjacentEdges = current.getAdjacencyMap();
+			this.edges = current.getEdgeMap();
+		}
+
+		public void addNode(final N node)
+		{
+			this.adjacentEdges = this.adjacentEdges.put(node, PersistentHashMap.<E, E>empty());
+		}
+
+		public void removeNode(final N node)
+		{
+			this.adjacentEdges = this.adjacentEdges.remove(node);
+		}
+
+		public void addEdge(final E edge)
+		{
+			this.edges = this.edges.put(edge, edge);
+			for(final N currentNode : edge.getNodes())
+				this.adjacentEdges = this.adjacentEdges.put(currentNode, this.adjacentEdges.get(currentNode).put(edge, edge));
+		}
+
+		public void removeEdge(final E edge)
+		{
+			this.edges = this.edges.remove(edge);
+			for(final N currentNode : edge.getNodes())
+			{
+				final PersistentHashMap<E, E> nodeEdges = this.adjacentEdges.get(currentNode);
+				if( nodeEdges != null )
+					this.adjacentEdges = this.adjacentEdges.put(currentNode, nodeEdges.remove(edge));
+			}
+		}
+
+		public void publish()
+		{
+			current = new SnapshotAdjacencyGraph<N, E>(this.adjacentEdges, this.edges, current.getVersion() + 1);
+		}
+	}
+
+	/**
+	 * Creates a new empty graph with context enabled.
+	 */
+	public VersionedAdjacencyGraph()
+	{
+		this(true);
+	}
+
+	/**
+	 * Creates a new empty graph.
+	 * @param contextEnabled determines if element context is enabled or not. If
+	 *   enabled then nodes and edges can refuse to join or leave the graph.
+	 */
+	public VersionedAdjacencyGraph(final boolean contextEnabled)
+	{
+		this.contextEnabled = contextEnabled;
+		this.current = new SnapshotAdjacencyGraph<N, E>(PersistentHashMap.<N, PersistentHashMap<E, E>>empty(), PersistentHashMap.<E, E>empty(), 0L);
+	}
+
+	/**
+	 * Creates a new graph as a copy of the specified graph, with context
+	 * enabled.
+	 * @param copyGraph The graph to copy
+	 */
+	public VersionedAdjacencyGraph(final Graph<N, E> copyGraph)
+	{
+		this(copyGraph, true);
+	}
+
+	/**
+	 * Creates a new graph as a copy of the specified graph.
+	 * @param copyGraph The graph to copy
+	 * @param contextEnabled determines if element context is enabled or not. If
+	 *   enabled then nodes and edges can refuse to join or leave the graph.
+	 */
+	public VersionedAdjacencyGraph(final Graph<N, E> copyGraph, final boolean contextEnabled)
+	{
+		this(contextEnabled);
+		if( copyGraph == null )
+			throw new IllegalArgumentException("copyGraph can not be null");
+
+		for(final N node : copyGraph.getNodes())
+			this.add(node);
+		// edges left dangling by a node which refused to join are skipped
+		final List<E> copyEdges = new ArrayList<E>(copyGraph.getEdges().size());
+		for(final E edge : copyGraph.getEdges())
+			if( this.getNodes().containsAll(edge.getNodes()) )
+				copyEdges.add(edge);
+		this.addAll(copyEdges);
+	}
+
+	/**
+	 * Gets the current version of this graph. The snapshot is immutable and
+	 * will not see any later change to this graph.
+	 * @return The current version of this graph
+	 */
+	public SnapshotAdjacencyGraph<N, E> getSnapshot()
+	{
+		return this.current;
+	}
+
+	/**
+	 * Gets the number of the current version of this graph, which grows by one
+	 * with each change.
+	 * @return The number of the current version
+	 */
+	public long getVersion()
+	{
+		return this.current.getVersion();
+	}
+
+	@Override
+	public boolean isContextEnabled()
+	{
+		return this.contextEnabled;
+	}
+
+	@Override
+	public Set<N> getNodes()
+	{
+		return this.current.getNodes();
+	}
+
+	@Override
+	public Set<E> getEdges()
+	{
+		return this.current.getEdges();
+	}
+
+	@Override
+	public List<N> getAdjacentNodes(final N node)
+	{
+		return this.current.getAdjacentNodes(node);
+	}
+
+	@Override
+	public Set<E> getAdjacentEdges(final N node)
+	{
+		return this.current.getAdjacentEdges(node);
+	}
+
+	@Override
+	public List<N> getTraversableNodes(final N node)
+	{
+		return this.current.getTraversableNodes(node);
+	}
+
+	@Override
+	public Set<E> getTraversableEdges(final N node)
+	{
+		return this.current.getTraversableEdges(node);
+	}
+
+	@Override
+	public synchronized boolean add(final E newEdge)
+	{
+		if( newEdge == null )
+			throw new IllegalArgumentException("newEdge can not be null");
+		if( !this.current.getNodes().containsAll(newEdge.getNodes()) )
+			throw new IllegalArgumentException("newEdge has a node as an end point that is not part of the graph");
+		if( this.current.getEdgeMap().containsKey(newEdge) )
+			return false;
+
+		// if context is enabled lets check if it can join
+		if( this.contextEnabled && (newEdge instanceof ContextGraphElement)
+				&& !((ContextGraphElement)newEdge).joiningGraph(this) )
+			return false;
+
+		final Revision revision = new Revision();
+		revision.addEdge(newEdge);
+		revision.publish();
+		this.fireEdgeAdded(newEdge);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean add(final N newNode)
+	{
+		if( newNode == null )
+			throw new IllegalArgumentException("newNode can not be null");
+		if( this.current.getAdjacencyMap().containsKey(newNode) )
+			return false;
+
+		// if context is enabled lets check if it can join
+		if( this.contextEnabled && (newNode instanceof ContextGraphElement)
+				&& !((ContextGraphElement)newNode).joiningGraph(this) )
+			return false;
+
+		final Revision revision = new Revision();
+		revision.addNode(newNode);
+		revision.publish();
+		this.fireNodeAdded(newNode);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean addAll(final Collection<? extends E> newEdges)
+	{
+		if( newEdges == null )
+			throw new IllegalArgumentException("newEdges can not be null");
+		for(final E newEdge : newEdges)
+		{
+			if( newEdge == null )
+				throw new IllegalArgumentException("newEdges can not contain null");
+			if( !this.current.getNodes().containsAll(newEdge.getNodes()) )
+				throw new IllegalArgumentException("newEdges has a node as an end point that is not part of the graph");
+		}
+
+		final Revision revision = new Revision();
+		final List<E> addedEdges = new ArrayList<E>(newEdges.size());
+		for(final E newEdge : newEdges)
+		{
+			if( revision.edges.containsKey(newEdge) )
+				continue;
+
+			// if context is enabled lets check if it can join
+			if( this.contextEnabled && (newEdge instanceof ContextGraphElement)
+					&& !((ContextGraphElement)newEdge).joiningGraph(this) )
+				continue;
+
+			revision.addEdge(newEdge);
+			addedEdges.add(newEdge);
+		}
+		if( addedEdges.isEmpty() )
+			return false;
+
+		revision.publish();
+		for(final E addedEdge : addedEdges)
+			this.fireEdgeAdded(addedEdge);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean remove(final E edgeToRemove)
+	{
+		if( edgeToRemove == null )
+			throw new IllegalArgumentException("edgeToRemove can not be null");
+		if( !this.current.getEdgeMap().containsKey(edgeToRemove) )
+			return false;
+
+		// if context is enabled lets check if it can leave
+		if( this.contextEnabled && (edgeToRemove instanceof ContextGraphElement)
+				&& !((ContextGraphElement)edgeToRemove).leavingGraph(this) )
+			return false;
+
+		final Revision revision = new Revision();
+		revision.removeEdge(edgeToRemove);
+		revision.publish();
+		this.fireEdgeRemoved(edgeToRemove);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		if( edgesToRemove == null )
+			throw new IllegalArgumentException("edgesToRemove can not be null");
+		for(final E edgeToRemove : edgesToRemove)
+			if( edgeToRemove == null )
+				throw new IllegalArgumentException("edgesToRemove can not contain null");
+
+		final Revision revision = new Revision();
+		final List<E> removedEdges = new ArrayList<E>(edgesToRemove.size());
+		for(final E edgeToRemove : edgesToRemove)
+		{
+			if( !revision.edges.containsKey(edgeToRemove) )
+				continue;
+
+			// if context is enabled lets check if it can leave
+			if( this.contextEnabled && (edgeToRemove instanceof ContextGraphElement)
+					&& !((ContextGraphElement)edgeToRemove).leavingGraph(this) )
+				continue;
+
+			revision.removeEdge(edgeToRemove);
+			removedEdges.add(edgeToRemove);
+		}
+		if( removedEdges.isEmpty() )
+			return false;
+
+		revision.publish();
+		for(final E removedEdge : removedEdges)
+			this.fireEdgeRemoved(removedEdge);
+		return true;
+	}
+
+	/**
+	 * Removes a node. Its edges are removed with it, and any of them which
+	 * still connect other nodes once the node is disconnected from them are
+	 * added back in their disconnected form, all in a single version.
+	 * @param nodeToRemove The node to remove
+	 * @return true if the node was removed
+	 */
+	@Override
+	public synchronized boolean remove(final N nodeToRemove)
+	{
+		if( nodeToRemove == null )
+			throw new IllegalArgumentException("nodeToRemove can not be null");
+
+		final PersistentHashMap<E, E> nodeEdges = this.current.getAdjacencyMap().get(nodeToRemove);
+		if( nodeEdges == null )
+			return false;
+
+		// if context is enabled lets check if it can leave
+		if( this.contextEnabled && (nodeToRemove instanceof ContextGraphElement)
+				&& !((ContextGraphElement)nodeToRemove).leavingGraph(this) )
+			return false;
+
+		final Revision revision = new Revision();
+		final List<E> removedEdges = new ArrayList<E>(nodeEdges.size());
+		for(final E removeEdge : nodeEdges.keySet())
+		{
+			// the edge goes whether it likes it or not since its end point does
+			if( this.contextEnabled && (removeEdge instanceof ContextGraphElement) )
+				((ContextGraphElement)removeEdge).leavingGraph(this);
+			revision.removeEdge(removeEdge);
+			removedEdges.add(removeEdge);
+		}
+		revision.removeNode(nodeToRemove);
+
+		final List<E> addedEdges = new ArrayList<E>();
+		for(final E removedEdge : removedEdges)
+		{
+			E newEdge = (E) removedEdge.disconnect(nodeToRemove);
+			while( (newEdge != null) && newEdge.getNodes().contains(nodeToRemove) )
+				newEdge = (E) newEdge.disconnect(nodeToRemove);
+			if( (newEdge == null) || revision.edges.containsKey(newEdge) )
+				continue;
+
+			if( this.contextEnabled && (newEdge instanceof ContextGraphElement)
+					&& !((ContextGraphElement)newEdge).joiningGraph(this) )
+				continue;
+
+			revision.addEdge(newEdge);
+			addedEdges.add(newEdge);
+		}
+		revision.publish();
+
+		for(final E removedEdge : removedEdges)
+			this.fireEdgeRemoved(removedEdge);
+		for(final E addedEdge : addedEdges)
+			this.fireEdgeAdded(addedEdge);
+		this.fireNodeRemoved(nodeToRemove);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean clear()
+	{
+		final SnapshotAdjacencyGraph<N, E> cleared = this.current;
+		if( cleared.getNodes().isEmpty() )
+			return false;
+
+		for(final E edge : cleared.getEdges())
+			if( !this.remove(edge) )
+				throw new IllegalStateException("one of the edges will not allow itself to leave this graph");
+		for(final N node : cleared.getNodes())
+			if( !this.remove(node) )
+				throw new IllegalStateException("one of the nodes will not allow itself to leave this graph");
+		return true;
+	}
+
+	@Override
+	public void addGraphListener(final GraphListener<N, E> listener)
+	{
+		if( listener == null )
+			throw new IllegalArgumentException("listener can not be null");
+		this.getListeners().add(listener);
+	}
+
+	@Override
+	public boolean removeGraphListener(final GraphListener<N, E> listener)
+	{
+		return this.getListeners().remove(listener);
+	}
+
+	private synchronized List<GraphListener<N, E>> getListeners()
+	{
+		// listeners are transient so they may be missing after deserialization
+		if( this.listeners == null )
+			this.listeners = new CopyOnWriteArrayList<GraphListener<N, E>>();
+		return this.listeners;
+	}
+
+	private void fireNodeAdded(final N node)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.nodeAdded(this, node);
+	}
+
+	private void fireNodeRemoved(final N node)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.nodeRemoved(this, node);
+	}
+
+	private void fireEdgeAdded(final E edge)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.edgeAdded(this, edge);
+	}
+
+	private void fireEdgeRemoved(final E edge)
+	{
+		for(final GraphListener<N, E> listener : this.getListeners())
+			listener.edgeRemoved(this, edge);
+	}
+
+	/**
+	 * Clones the current object. Without context the clone starts out sharing
+	 * the current version with this graph; with context each node and edge
+	 * is asked to join the clone as it would be for any other graph.
+	 * @return A clone of the current object, with no changes
+	 */
+	@Override
+	public synchronized VersionedAdjacencyGraph<N, E> clone()
+	{
+		try
+		{
+			final VersionedAdjacencyGraph<N, E> cloneGraph = (VersionedAdjacencyGraph<N, E>) super.clone();
+			cloneGraph.listeners = null;
+			if( this.contextEnabled )
+			{
+				final SnapshotAdjacencyGraph<N, E> copied = this.current;
+				cloneGraph.current = new SnapshotAdjacencyGraph<N, E>(PersistentHashMap.<N, PersistentHashMap<E, E>>empty(), PersistentHashMap.<E, E>empty(), 0L);
+				for(final N node : copied.getNodes())
+					cloneGraph.add(node);
+				final List<E> copyEdges = new ArrayList<E>(copied.getEdges().size());
+				for(final E edge : copied.getEdges())
+					if( cloneGraph.getNodes().containsAll(edge.getNodes()) )
+						copyEdges.add(edge);
+				cloneGraph.addAll(copyEdges);
+			}
+			return cloneGraph;
+		}
+		catch(CloneNotSupportedException caught)
+		{
+			LOGGER.error("Unexpectedly could not clone Graph.", caught);
+			throw new UnexpectedDannError("Unexpectedly could not clone graph", caught);
+		}
+	}
+
+	private synchronized void writeObject(final ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeObject(new ArrayList<N>(this.current.getNodes()));
+		out.writeObject(new ArrayList<E>(this.current.getEdges()));
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		final List<N> nodes = (List<N>) in.readObject();
+		final List<E> edges = (List<E>) in.readObject();
+
+		// the elements already joined this graph before it was written
+		this.current = new SnapshotAdjacencyGraph<N, E>(PersistentHashMap.<N, PersistentHashMap<E, E>>empty(), PersistentHashMap.<E, E>empty(), 0L);
+		final Revision revision = new Revision();
+		for(final N node : nodes)
+			revision.addNode(node);
+		for(final E edge : edges)
+			revision.addEdge(edge);
+		revision.publish();
+	}
+
+	/**
+	 * Converts the current version of this graph to a GraphXML.
+	 * @return The GraphXML representation of this graph
+	 */
+	@Override
+	public GraphXml toXml()
+	{
+		return this.current.toXml();
+	}
+
+	@Override
+	public GraphXml toXml(final Namer<Object> namer)
+	{
+		return this.current.toXml(namer);
+	}
+
+	@Override
+	public void toXml(final GraphXml jaxbObject, final Namer<Object> namer)
+	{
+		this.current.toXml(jaxbObject, namer);
+	}
+}
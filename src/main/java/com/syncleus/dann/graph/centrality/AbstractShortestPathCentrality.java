@@ -0,0 +1,189 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * The common part of the centralities which are found from the shortest paths
+ * out of every node. The sources are divided among parallel tasks when an
+ * executor is given, each task sweeps its sources with its own
+ * ShortestPathSweep into its own centrality array, and the arrays are summed
+ * once every task is done.
+ *
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+abstract class AbstractShortestPathCentrality<N, E extends TraversableCloud<N>>
+{
+	private static final Logger LOGGER = Logger.getLogger(AbstractShortestPathCentrality.class);
+
+	private final IndexedGraph<N, E> graph;
+	private final boolean weighted;
+	private final ExecutorService threadExecutor;
+
+	protected AbstractShortestPathCentrality(final Graph<N, E> graph, final boolean weighted, final ExecutorService threadExecutor)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+
+		if( graph instanceof IndexedGraph )
+			this.graph = (IndexedGraph<N, E>) graph;
+		else
+			this.graph = new CompressedAdjacencyGraph<N, E>(graph);
+		this.weighted = weighted;
+		this.threadExecutor = threadExecutor;
+
+		if( weighted )
+			for(int edgeIndex = 0; edgeIndex < this.graph.getEdgeCount(); edgeIndex++)
+				if( !(this.graph.getEdgeWeight(edgeIndex, 1.0) > 0.0) )
+					throw new IllegalArgumentException("edge weights must all be positive to be followed as distances");
+	}
+
+	/**
+	 * Gets the graph being measured, the arrays returned by
+	 * computeCentralities are indexed by the node indexes of this graph.
+	 *
+	 * @return the graph being measured.
+	 */
+	public IndexedGraph<N, E> getIndexedGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Determines whether edge weights are followed as distances, unweighted
+	 * edges have a distance of 1.
+	 *
+	 * @return true if edge weights are followed as distances, false if every
+	 *   edge has a distance of 1.
+	 */
+	public boolean isWeighted()
+	{
+		return this.weighted;
+	}
+
+	/**
+	 * Gets the centrality of every node.
+	 *
+	 * @return the centrality of every node.
+	 */
+	public Map<N, Double> getCentralities()
+	{
+		final double[] centralities = this.computeCentralities();
+		final Map<N, Double> centralityMap = new HashMap<N, Double>(centralities.length * 2);
+		for(int nodeIndex = 0; nodeIndex < centralities.length; nodeIndex++)
+			centralityMap.put(this.graph.getNode(nodeIndex), centralities[nodeIndex]);
+		return centralityMap;
+	}
+
+	/**
+	 * Computes the centrality of every node by node index.
+	 *
+	 * @return the centrality of every node by node index.
+	 */
+	public double[] computeCentralities()
+	{
+		final int nodeCount = this.graph.getNodeCount();
+		final int taskCount = (this.threadExecutor == null ? 1 : Math.max(1, Math.min(nodeCount, Runtime.getRuntime().availableProcessors())));
+		final List<Sources> tasks = new ArrayList<Sources>(taskCount);
+		for(int task = 0; task < taskCount; task++)
+			tasks.add(new Sources(task, taskCount));
+
+		if( taskCount == 1 )
+			return tasks.get(0).call();
+
+		try
+		{
+			final double[] centralities = new double[nodeCount];
+			for(final Future<double[]> future : this.threadExecutor.invokeAll(tasks))
+			{
+				final double[] taskCentralities = future.get();
+				for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+					centralities[nodeIndex] += taskCentralities[nodeIndex];
+			}
+			return centralities;
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("computing centralities was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			if( caught.getCause() instanceof RuntimeException )
+				throw (RuntimeException) caught.getCause();
+			LOGGER.error("computing centralities had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	/**
+	 * Adds the contribution of the shortest paths out of one source to the
+	 * centralities.
+	 *
+	 * @param sweep the shortest paths out of the source.
+	 * @param source the index of the source node.
+	 * @param centralities the centralities of this task by node index.
+	 */
+	abstract void accumulate(ShortestPathSweep sweep, int source, double[] centralities);
+
+	/**
+	 * Sweeps every source whose index is congruent to the task modulo the task
+	 * count, so that high and low indexes are shared evenly.
+	 */
+	private final class Sources implements Callable<double[]>
+	{
+		private final int task;
+		private final int taskCount;
+
+		public Sources(final int task, final int taskCount)
+		{
+			this.task = task;
+			this.taskCount = taskCount;
+		}
+
+		@Override
+		public double[] call()
+		{
+			final ShortestPathSweep sweep = new ShortestPathSweep(graph, weighted);
+			final double[] centralities = new double[graph.getNodeCount()];
+			for(int source = this.task; source < graph.getNodeCount(); source += this.taskCount)
+			{
+				sweep.sweep(source);
+				accumulate(sweep, source, centralities);
+			}
+			return centralities;
+		}
+	}
+}
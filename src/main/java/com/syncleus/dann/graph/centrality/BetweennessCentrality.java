@@ -0,0 +1,98 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.concurrent.ExecutorService;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * Computes the betweenness centrality of every node with
+ * <a href="http://dx.doi.org/10.1080/0022250X.2001.9990249">Brandes'
+ * algorithm</a>. The betweenness of a node is, summed over every ordered pair
+ * of other nodes, the fraction of the shortest paths from the first to the
+ * second which pass through it, so in a graph of undirected edges every
+ * unordered pair is counted twice. Paths follow the traversable direction of
+ * the edges and parallel edges are counted as distinct paths.
+ *
+ * <p>The shortest paths out of each source are found by a single sweep and
+ * the dependencies of the other nodes on the source are then accumulated in
+ * reverse order of distance, finding the predecessors of each node from its
+ * inward entries rather than keeping lists of them. This takes O(VE) time for
+ * unweighted graphs and O(VE + V<sup>2</sup> log V) for weighted ones, and the
+ * sources are divided among parallel tasks when an executor is given. Graphs
+ * which are not already an IndexedGraph are first copied into a
+ * CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class BetweennessCentrality<N, E extends TraversableCloud<N>> extends AbstractShortestPathCentrality<N, E>
+{
+	/**
+	 * Creates a calculator which counts every edge as one step and runs on the
+	 * calling thread.
+	 *
+	 * @param graph the graph to measure.
+	 */
+	public BetweennessCentrality(final Graph<N, E> graph)
+	{
+		this(graph, false, null);
+	}
+
+	/**
+	 * Creates a calculator.
+	 *
+	 * @param graph the graph to measure.
+	 * @param weighted true to follow the edge weights as distances, which must
+	 *   then all be positive, false to count every edge as one step.
+	 * @param threadExecutor The executor used to sweep sources in parallel,
+	 *   null to compute on the calling thread.
+	 * @throws IllegalArgumentException if weighted and an edge weight is not
+	 *   positive.
+	 */
+	public BetweennessCentrality(final Graph<N, E> graph, final boolean weighted, final ExecutorService threadExecutor)
+	{
+		super(graph, weighted, threadExecutor);
+	}
+
+	@Override
+	void accumulate(final ShortestPathSweep sweep, final int source, final double[] centralities)
+	{
+		final double[] pathCounts = sweep.getPathCounts();
+		final double[] dependencies = sweep.getDependencies();
+		final int[] order = sweep.getOrder();
+		for(int index = sweep.getOrderSize() - 1; index > 0; index--)
+		{
+			final int current = order[index];
+			final double coefficient = (1.0 + dependencies[current]) / pathCounts[current];
+			final int end = sweep.getGraph().getInOffset(current + 1);
+			for(int entry = sweep.getGraph().getInOffset(current); entry < end; entry++)
+			{
+				if( sweep.isShortestStep(entry, current) )
+				{
+					final int predecessor = sweep.getGraph().getInNodeIndex(entry);
+					dependencies[predecessor] += pathCounts[predecessor] * coefficient;
+				}
+			}
+			centralities[current] += dependencies[current];
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.concurrent.ExecutorService;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * Computes the closeness centrality of every node from the distances of the
+ * shortest paths leading out of it. A node which reaches r other nodes of a
+ * graph of n nodes at a total distance of d has a closeness of
+ * (r / d) * (r / (n - 1)), the inverse of its average distance scaled by the
+ * share of the graph it reaches as proposed by Wasserman and Faust, so the
+ * closeness of nodes in different components can be compared. Nodes which
+ * reach nothing have a closeness of 0. Paths follow the traversable direction
+ * of the edges.
+ *
+ * <p>Each node needs a single shortest path sweep, taking O(VE) time in all
+ * for unweighted graphs and O(VE + V<sup>2</sup> log V) for weighted ones,
+ * and the sources are divided among parallel tasks when an executor is given.
+ * Graphs which are not already an IndexedGraph are first copied into a
+ * CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class ClosenessCentrality<N, E extends TraversableCloud<N>> extends AbstractShortestPathCentrality<N, E>
+{
+	/**
+	 * Creates a calculator which counts every edge as one step and runs on the
+	 * calling thread.
+	 *
+	 * @param graph the graph to measure.
+	 */
+	public ClosenessCentrality(final Graph<N, E> graph)
+	{
+		this(graph, false, null);
+	}
+
+	/**
+	 * Creates a calculator.
+	 *
+	 * @param graph the graph to measure.
+	 * @param weighted true to follow the edge weights as distances, which must
+	 *   then all be positive, false to count every edge as one step.
+	 * @param threadExecutor The executor used to sweep sources in parallel,
+	 *   null to compute on the calling thread.
+	 * @throws IllegalArgumentException if weighted and an edge weight is not
+	 *   positive.
+	 */
+	public ClosenessCentrality(final Graph<N, E> graph, final boolean weighted, final ExecutorService threadExecutor)
+	{
+		super(graph, weighted, threadExecutor);
+	}
+
+	@Override
+	void accumulate(final ShortestPathSweep sweep, final int source, final double[] centralities)
+	{
+		final int reachedCount = sweep.getOrderSize() - 1;
+		if( reachedCount == 0 )
+			return;
+
+		final double[] distances = sweep.getDistances();
+		final int[] order = sweep.getOrder();
+		double totalDistance = 0.0;
+		for(int index = 1; index <= reachedCount; index++)
+			totalDistance += distances[order[index]];
+		final int otherCount = sweep.getGraph().getNodeCount() - 1;
+		centralities[source] = (reachedCount / totalDistance) * ((double) reachedCount / otherCount);
+	}
+}
@@ -0,0 +1,376 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * Ranks the nodes of a graph with
+ * <a href="http://ilpubs.stanford.edu:8090/422/">PageRank</a>, computed by
+ * power iteration. Each iteration pulls the rank of every node from the nodes
+ * which can traverse to it, along the inward runs of the graph, so the ranks of
+ * a range of nodes can be computed without touching the rest; when an executor
+ * is given the nodes are divided into such ranges and iterated in parallel.
+ * Every traversable entry carries an equal share of the rank of its source,
+ * and the rank of nodes which can not traverse anywhere is spread over the
+ * graph as the teleport distribution is.
+ *
+ * <p>Iteration stops once the ranks change by less than the tolerance, summed
+ * over all nodes, or after the maximum number of iterations. Personalized
+ * ranks are found by teleporting to a given distribution of preferred nodes
+ * rather than uniformly. Graphs which are not already an IndexedGraph are
+ * first copied into a CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class PageRank<N, E extends TraversableCloud<N>>
+{
+	/**
+	 * The probability of following an edge rather than teleporting.
+	 */
+	public static final double DEFAULT_DAMPING_FACTOR = 0.85;
+	/**
+	 * The total change in rank below which the ranks are considered converged.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1.0e-10;
+	/**
+	 * The number of iterations after which iteration stops regardless.
+	 */
+	public static final int DEFAULT_MAXIMUM_ITERATIONS = 200;
+
+	private static final Logger LOGGER = Logger.getLogger(PageRank.class);
+	// ranges of nodes are only iterated in parallel with at least this many
+	// nodes each
+	private static final int MINIMUM_TASK_NODES = 4096;
+
+	private final IndexedGraph<N, E> graph;
+	private final double dampingFactor;
+	private final double tolerance;
+	private final int maximumIterations;
+	private final ExecutorService threadExecutor;
+	private final int[] outDegrees;
+
+	/**
+	 * Creates a ranker with the default damping factor, tolerance and maximum
+	 * iterations which runs on the calling thread.
+	 *
+	 * @param graph the graph to rank.
+	 */
+	public PageRank(final Graph<N, E> graph)
+	{
+		this(graph, DEFAULT_DAMPING_FACTOR, DEFAULT_TOLERANCE, DEFAULT_MAXIMUM_ITERATIONS, null);
+	}
+
+	/**
+	 * Creates a ranker.
+	 *
+	 * @param graph the graph to rank.
+	 * @param dampingFactor the probability of following an edge rather than
+	 *   teleporting, from 0 to 1 exclusive.
+	 * @param tolerance the total change in rank below which iteration stops.
+	 * @param maximumIterations the number of iterations after which iteration
+	 *   stops regardless of the change in rank.
+	 * @param threadExecutor The executor used to iterate ranges of nodes in
+	 *   parallel, null to iterate on the calling thread.
+	 */
+	public PageRank(final Graph<N, E> graph, final double dampingFactor, final double tolerance, final int maximumIterations, final ExecutorService threadExecutor)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( !(dampingFactor >= 0.0) || !(dampingFactor < 1.0) )
+			throw new IllegalArgumentException("dampingFactor must be at least 0 and less than 1");
+		if( !(tolerance >= 0.0) )
+			throw new IllegalArgumentException("tolerance can not be negative");
+		if( maximumIterations <= 0 )
+			throw new IllegalArgumentException("maximumIterations must be positive");
+
+		if( graph instanceof IndexedGraph )
+			this.graph = (IndexedGraph<N, E>) graph;
+		else
+			this.graph = new CompressedAdjacencyGraph<N, E>(graph);
+		this.dampingFactor = dampingFactor;
+		this.tolerance = tolerance;
+		this.maximumIterations = maximumIterations;
+		this.threadExecutor = threadExecutor;
+
+		final int nodeCount = this.graph.getNodeCount();
+		this.outDegrees = new int[nodeCount];
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			this.outDegrees[nodeIndex] = this.graph.getTraversableOffset(nodeIndex + 1) - this.graph.getTraversableOffset(nodeIndex);
+	}
+
+	/**
+	 * Gets the graph being ranked, the arrays returned by computeRanks are
+	 * indexed by the node indexes of this graph.
+	 *
+	 * @return the graph being ranked.
+	 */
+	public IndexedGraph<N, E> getIndexedGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Gets the rank of every node, teleporting uniformly.
+	 *
+	 * @return the rank of every node, the ranks sum to 1.
+	 */
+	public Map<N, Double> getRanks()
+	{
+		return this.toMap(this.computeRanks(null));
+	}
+
+	/**
+	 * Gets the rank of every node, teleporting only to the preferred nodes in
+	 * proportion to their preference.
+	 *
+	 * @param preferences the preference of each preferred node, nodes not
+	 *   given have no preference.
+	 * @return the personalized rank of every node, the ranks sum to 1.
+	 * @throws IllegalArgumentException if a preferred node is not in the graph,
+	 *   a preference is negative, or the preferences do not have a positive
+	 *   total.
+	 */
+	public Map<N, Double> getPersonalizedRanks(final Map<? extends N, ? extends Number> preferences)
+	{
+		if( preferences == null )
+			throw new IllegalArgumentException("preferences can not be null");
+
+		final double[] teleport = new double[this.graph.getNodeCount()];
+		for(final Map.Entry<? extends N, ? extends Number> preference : preferences.entrySet())
+		{
+			final int nodeIndex = this.graph.getNodeIndex(preference.getKey());
+			if( nodeIndex < 0 )
+				throw new IllegalArgumentException("preferences must all be for nodes in the graph");
+			teleport[nodeIndex] += preference.getValue().doubleValue();
+		}
+		return this.toMap(this.computeRanks(teleport));
+	}
+
+	/**
+	 * Computes the rank of every node by node index.
+	 *
+	 * @param teleport the weight with which each node is teleported to, by
+	 *   node index, which is normalized to sum to 1. null to teleport
+	 *   uniformly.
+	 * @return the rank of every node by node index, the ranks sum to 1.
+	 * @throws IllegalArgumentException if the teleport weights are the wrong
+	 *   length, any is negative, or they do not have a positive total.
+	 */
+	public double[] computeRanks(final double[] teleport)
+	{
+		final int nodeCount = this.graph.getNodeCount();
+		final double[] distribution = new double[nodeCount];
+		if( teleport == null )
+		{
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				distribution[nodeIndex] = 1.0 / nodeCount;
+		}
+		else
+		{
+			if( teleport.length != nodeCount )
+				throw new IllegalArgumentException("teleport must have a weight for every node");
+			double total = 0.0;
+			for(final double weight : teleport)
+			{
+				if( !(weight >= 0.0) )
+					throw new IllegalArgumentException("teleport weights can not be negative");
+				total += weight;
+			}
+			if( !(total > 0.0) || Double.isInfinite(total) )
+				throw new IllegalArgumentException("teleport weights must have a positive total");
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				distribution[nodeIndex] = teleport[nodeIndex] / total;
+		}
+
+		final Ranks ranks = new Ranks(distribution);
+		final int taskCount = (this.threadExecutor == null ? 1 : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), nodeCount / MINIMUM_TASK_NODES)));
+		final List<Callable<double[]>> iterations = new ArrayList<Callable<double[]>>(taskCount);
+		for(int task = 0; task < taskCount; task++)
+		{
+			final int first = (int) (((long) nodeCount * task) / taskCount);
+			final int last = (int) (((long) nodeCount * (task + 1)) / taskCount);
+			iterations.add(ranks.new Iteration(first, last));
+		}
+
+		for(int iteration = 0; iteration < this.maximumIterations; iteration++)
+		{
+			double change = 0.0;
+			double danglingRank = 0.0;
+			for(final double[] result : this.iterate(iterations))
+			{
+				change += result[0];
+				danglingRank += result[1];
+			}
+			ranks.swap(danglingRank);
+			if( change < this.tolerance )
+				break;
+		}
+		return ranks.ranks;
+	}
+
+	private List<double[]> iterate(final List<Callable<double[]>> iterations)
+	{
+		final List<double[]> results = new ArrayList<double[]>(iterations.size());
+		if( iterations.size() == 1 )
+		{
+			try
+			{
+				results.add(iterations.get(0).call());
+			}
+			catch(RuntimeException caught)
+			{
+				throw caught;
+			}
+			catch(Exception caught)
+			{
+				LOGGER.error("ranking had an unexpected problem executing.", caught);
+				throw new UnexpectedDannError("Unexpected checked exception while ranking", caught);
+			}
+			return results;
+		}
+
+		try
+		{
+			for(final Future<double[]> future : this.threadExecutor.invokeAll(iterations))
+				results.add(future.get());
+			return results;
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("ranking was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			if( caught.getCause() instanceof RuntimeException )
+				throw (RuntimeException) caught.getCause();
+			LOGGER.error("ranking had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	private Map<N, Double> toMap(final double[] values)
+	{
+		final Map<N, Double> valueMap = new HashMap<N, Double>(values.length * 2);
+		for(int nodeIndex = 0; nodeIndex < values.length; nodeIndex++)
+			valueMap.put(this.graph.getNode(nodeIndex), values[nodeIndex]);
+		return valueMap;
+	}
+
+	/**
+	 * The ranks of the current and next iteration, along with the share of
+	 * rank each node passes along every one of its traversable entries.
+	 */
+	private final class Ranks
+	{
+		private final double[] teleport;
+		private double[] ranks;
+		private double[] shares;
+		private double[] nextRanks;
+		private double[] nextShares;
+		private double danglingRank;
+
+		public Ranks(final double[] teleport)
+		{
+			final int nodeCount = teleport.length;
+			this.teleport = teleport;
+			this.ranks = teleport.clone();
+			this.shares = new double[nodeCount];
+			this.nextRanks = new double[nodeCount];
+			this.nextShares = new double[nodeCount];
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				if( outDegrees[nodeIndex] == 0 )
+					this.danglingRank += this.ranks[nodeIndex];
+				else
+					this.shares[nodeIndex] = this.ranks[nodeIndex] / outDegrees[nodeIndex];
+			}
+		}
+
+		public void swap(final double nextDanglingRank)
+		{
+			double[] swapped = this.ranks;
+			this.ranks = this.nextRanks;
+			this.nextRanks = swapped;
+			swapped = this.shares;
+			this.shares = this.nextShares;
+			this.nextShares = swapped;
+			this.danglingRank = nextDanglingRank;
+		}
+
+		/**
+		 * Computes the next ranks of a range of nodes, returning the total
+		 * change in their rank and the next rank held by dangling nodes.
+		 */
+		private final class Iteration implements Callable<double[]>
+		{
+			private final int first;
+			private final int last;
+
+			public Iteration(final int first, final int last)
+			{
+				this.first = first;
+				this.last = last;
+			}
+
+			@Override
+			public double[] call()
+			{
+				double change = 0.0;
+				double nextDanglingRank = 0.0;
+				for(int nodeIndex = this.first; nodeIndex < this.last; nodeIndex++)
+				{
+					double inwardRank = 0.0;
+					final int end = graph.getInOffset(nodeIndex + 1);
+					for(int entry = graph.getInOffset(nodeIndex); entry < end; entry++)
+						inwardRank += shares[graph.getInNodeIndex(entry)];
+
+					final double rank = ((1.0 - dampingFactor) * teleport[nodeIndex]) + (dampingFactor * (inwardRank + (danglingRank * teleport[nodeIndex])));
+					nextRanks[nodeIndex] = rank;
+					if( outDegrees[nodeIndex] == 0 )
+					{
+						nextShares[nodeIndex] = 0.0;
+						nextDanglingRank += rank;
+					}
+					else
+						nextShares[nodeIndex] = rank / outDegrees[nodeIndex];
+					change += Math.abs(rank - ranks[nodeIndex]);
+				}
+				return new double[] {change, nextDanglingRank};
+			}
+		}
+	}
+}
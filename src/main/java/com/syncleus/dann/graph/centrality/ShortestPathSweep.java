@@ -0,0 +1,181 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.Arrays;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedPriorityHeap;
+
+/**
+ * Finds the shortest paths from one source at a time, recording the distance
+ * to and the number of shortest paths to every node reached along with the
+ * order in which the nodes were settled. Unweighted sweeps are breadth first
+ * searches, weighted sweeps use Dijkstra's algorithm, both follow the
+ * traversable entries of the graph. The arrays are reused from one source to
+ * the next and only the entries of the nodes reached are reset, so a sweep
+ * costs time proportional to the part of the graph it reaches.
+ */
+final class ShortestPathSweep
+{
+	private final IndexedGraph<?, ?> graph;
+	private final boolean weighted;
+	private final double[] distances;
+	private final double[] pathCounts;
+	private final double[] dependencies;
+	private final int[] order;
+	private final IndexedPriorityHeap heap;
+	private int orderSize;
+
+	public ShortestPathSweep(final IndexedGraph<?, ?> graph, final boolean weighted)
+	{
+		final int nodeCount = graph.getNodeCount();
+		this.graph = graph;
+		this.weighted = weighted;
+		this.distances = new double[nodeCount];
+		Arrays.fill(this.distances, Double.POSITIVE_INFINITY);
+		this.pathCounts = new double[nodeCount];
+		this.dependencies = new double[nodeCount];
+		this.order = new int[nodeCount];
+		this.heap = (weighted ? new IndexedPriorityHeap(nodeCount) : null);
+	}
+
+	/**
+	 * Finds the shortest paths from the source, replacing those of the previous
+	 * sweep.
+	 *
+	 * @param source the index of the node to start from.
+	 */
+	public void sweep(final int source)
+	{
+		for(int index = 0; index < this.orderSize; index++)
+		{
+			final int node = this.order[index];
+			this.distances[node] = Double.POSITIVE_INFINITY;
+			this.pathCounts[node] = 0.0;
+			this.dependencies[node] = 0.0;
+		}
+		this.orderSize = 0;
+
+		this.distances[source] = 0.0;
+		this.pathCounts[source] = 1.0;
+		if( this.weighted )
+			this.sweepWeighted(source);
+		else
+			this.sweepUnweighted(source);
+	}
+
+	private void sweepUnweighted(final int source)
+	{
+		// the order doubles as the queue of the breadth first search
+		this.order[this.orderSize++] = source;
+		for(int head = 0; head < this.orderSize; head++)
+		{
+			final int current = this.order[head];
+			final double nextDistance = this.distances[current] + 1.0;
+			final int end = this.graph.getTraversableOffset(current + 1);
+			for(int entry = this.graph.getTraversableOffset(current); entry < end; entry++)
+			{
+				final int neighbor = this.graph.getTraversableNodeIndex(entry);
+				if( this.distances[neighbor] == Double.POSITIVE_INFINITY )
+				{
+					this.distances[neighbor] = nextDistance;
+					this.order[this.orderSize++] = neighbor;
+				}
+				if( this.distances[neighbor] == nextDistance )
+					this.pathCounts[neighbor] += this.pathCounts[current];
+			}
+		}
+	}
+
+	private void sweepWeighted(final int source)
+	{
+		this.heap.offer(source, 0.0);
+		while( !this.heap.isEmpty() )
+		{
+			final int current = this.heap.poll();
+			this.order[this.orderSize++] = current;
+			final int end = this.graph.getTraversableOffset(current + 1);
+			for(int entry = this.graph.getTraversableOffset(current); entry < end; entry++)
+			{
+				final int neighbor = this.graph.getTraversableNodeIndex(entry);
+				final double distance = this.distances[current] + this.graph.getEdgeWeight(this.graph.getTraversableEdgeIndex(entry), 1.0);
+				if( distance < this.distances[neighbor] )
+				{
+					this.distances[neighbor] = distance;
+					this.pathCounts[neighbor] = this.pathCounts[current];
+					this.heap.offer(neighbor, distance);
+				}
+				else if( distance == this.distances[neighbor] )
+					this.pathCounts[neighbor] += this.pathCounts[current];
+			}
+		}
+	}
+
+	/**
+	 * Determines if the inward entry lies on a shortest path of the last sweep.
+	 *
+	 * @param entry the inward entry of a reached node.
+	 * @param nodeIndex the node the entry leads into.
+	 * @return true if the entry is the last step of a shortest path to the
+	 *   node.
+	 */
+	public boolean isShortestStep(final int entry, final int nodeIndex)
+	{
+		final double step = (this.weighted ? this.graph.getEdgeWeight(this.graph.getInEdgeIndex(entry), 1.0) : 1.0);
+		return ((this.distances[this.graph.getInNodeIndex(entry)] + step) == this.distances[nodeIndex]);
+	}
+
+	public IndexedGraph<?, ?> getGraph()
+	{
+		return this.graph;
+	}
+
+	public double[] getDistances()
+	{
+		return this.distances;
+	}
+
+	public double[] getPathCounts()
+	{
+		return this.pathCounts;
+	}
+
+	/**
+	 * Gets scratch space for the dependencies of the nodes reached, which is
+	 * cleared for every node reached before the next sweep.
+	 */
+	public double[] getDependencies()
+	{
+		return this.dependencies;
+	}
+
+	/**
+	 * Gets the nodes reached by the last sweep, in the order they were settled
+	 * which is also by non decreasing distance.
+	 */
+	public int[] getOrder()
+	{
+		return this.order;
+	}
+
+	public int getOrderSize()
+	{
+		return this.orderSize;
+	}
+}
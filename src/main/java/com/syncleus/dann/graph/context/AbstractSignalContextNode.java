@@ -28,6 +28,7 @@ public abstract class AbstractSignalContextNode<N, E extends TraversableCloud<N>
 {
 	private final Set<SignalingContextCloud<N, S>> contextEdges = new HashSet<SignalingContextCloud<N, S>>();
 	private transient S state = null;
+	private transient SignalDispatcher<N, S> signalDispatcher = null;
 
 	protected AbstractSignalContextNode(final boolean allowJoiningMultipleGraphs)
 	{
@@ -71,10 +72,57 @@ public abstract class AbstractSignalContextNode<N, E extends TraversableCloud<N>
 		return this.state;
 	}
 
+	/**
+	 * Gets the dispatcher which propagates the state changes of this node and
+	 * delivers the signals sent to it.
+	 *
+	 * @return the dispatcher of this node, null if state changes are signaled
+	 *   immediately.
+	 * @since 2.2
+	 */
+	public SignalDispatcher<N, S> getSignalDispatcher()
+	{
+		return this.signalDispatcher;
+	}
+
+	/**
+	 * Sets the dispatcher which propagates the state changes of this node and
+	 * delivers the signals sent to it in ticks. Without a dispatcher every state
+	 * change is signaled to the edges, and through them to the neighbors, before
+	 * setState returns.
+	 *
+	 * @param signalDispatcher the dispatcher to use, null to signal state
+	 *   changes immediately.
+	 * @since 2.2
+	 */
+	public void setSignalDispatcher(final SignalDispatcher<N, S> signalDispatcher)
+	{
+		this.signalDispatcher = signalDispatcher;
+	}
+
 	protected void setState(final S state)
 	{
 		this.state = state;
 
+		if( this.signalDispatcher != null )
+			this.signalDispatcher.stateChanged(this, state);
+		else
+			this.signalEdges(state);
+	}
+
+	/**
+	 * Passes a signal collected by the dispatcher on to
+	 * neighborNodeStateChanged. Only edges of this node post signals to it, so
+	 * the edge is always of the node's edge type.
+	 */
+	@SuppressWarnings("unchecked")
+	void deliverSignal(final TraversableCloud<N> edge, final N node, final S state)
+	{
+		this.neighborNodeStateChanged((E) edge, node, state);
+	}
+
+	void signalEdges(final S state)
+	{
 		//lets notify all edges
 		for(SignalingContextCloud edge : this.contextEdges)
 		{
@@ -34,6 +34,8 @@ public abstract class AbstractSignalingContextCloud<N, S> extends AbstractContex
 
 	/**
 	 * This method will retransmit the state to all traversable nodes even if context is disabled.
+	 * Nodes with a SignalDispatcher receive the state when the dispatcher next ticks rather than
+	 * immediately.
 	 */
 	@Override
 	public void nodeStateChanged(final N node, final S newState)
@@ -43,11 +45,28 @@ public abstract class AbstractSignalingContextCloud<N, S> extends AbstractContex
 
 		for(N traversableNode : this.getTraversableNodes(node))
 		{
-			if( traversableNode instanceof SignalContextNode)
+			final AbstractSignalContextNode<N, ?, S> dispatchedNode = this.getDispatchedNode(traversableNode);
+			if( dispatchedNode != null )
+				dispatchedNode.getSignalDispatcher().post(dispatchedNode, this, node, newState);
+			else if( traversableNode instanceof SignalContextNode)
 				((SignalContextNode)traversableNode).neighborNodeStateChanged(this, node, newState);
 		}
 	}
 
+	/**
+	 * Gets the node as a signal context node if it has a SignalDispatcher. The
+	 * nodes of this edge signal states of type S, so the node's dispatcher does
+	 * too.
+	 */
+	@SuppressWarnings("unchecked")
+	private AbstractSignalContextNode<N, ?, S> getDispatchedNode(final N node)
+	{
+		if( !(node instanceof AbstractSignalContextNode) )
+			return null;
+		final AbstractSignalContextNode<N, ?, S> signalNode = (AbstractSignalContextNode<N, ?, S>) node;
+		return (signalNode.getSignalDispatcher() == null ? null : signalNode);
+	}
+
 	@Override
 	public abstract AbstractSignalingContextCloud<N, S> clone();
 }
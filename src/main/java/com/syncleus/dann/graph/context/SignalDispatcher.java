@@ -0,0 +1,319 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.context;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * Propagates the state changes of signal context nodes in discrete ticks
+ * instead of on the stack of the node which changed. A node given a
+ * dispatcher no longer notifies its edges when its state is set; the change is
+ * held until the next tick, and a node changing state several times before
+ * then is only signaled with its latest state. At the start of a tick every
+ * held change is passed to the edges of its node, and the signals the edges
+ * send to nodes with a dispatcher are collected in a mailbox for each node,
+ * again keeping only the latest state from each edge and node. The mailboxes
+ * are then delivered in batches, on an executor if one is given, with every
+ * mailbox delivered in full by a single thread.
+ *
+ * <p>Changes and signals made while a tick is delivering, which includes
+ * those made by the nodes receiving it, belong to the next tick, so a signal
+ * never travels more than one edge per tick and a cycle of nodes can signal
+ * forever without growing the stack. Because changes are coalesced there is
+ * at most one held change per node and at most one signal per edge and source
+ * in each mailbox, so the queues are bounded by the size of the graph however
+ * often states change. Nodes receiving signals in parallel must only share
+ * state with each other in a thread safe way.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <S> The type of state signaled
+ */
+public class SignalDispatcher<N, S>
+{
+	/**
+	 * The number of mailboxes delivered by each task when no batch size is
+	 * given.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	private static final Logger LOGGER = Logger.getLogger(SignalDispatcher.class);
+
+	private final ExecutorService threadExecutor;
+	private final int batchSize;
+	private final Object lock = new Object();
+	private Map<AbstractSignalContextNode<N, ?, S>, S> changes = new LinkedHashMap<AbstractSignalContextNode<N, ?, S>, S>();
+	private Map<AbstractSignalContextNode<N, ?, S>, Map<Signal<N, S>, Signal<N, S>>> mailboxes = new LinkedHashMap<AbstractSignalContextNode<N, ?, S>, Map<Signal<N, S>, Signal<N, S>>>();
+	private long tickCount;
+
+	/**
+	 * Creates a dispatcher which delivers on the thread calling tick.
+	 */
+	public SignalDispatcher()
+	{
+		this(null, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Creates a dispatcher.
+	 *
+	 * @param threadExecutor The executor used to deliver batches of mailboxes
+	 *   in parallel, null to deliver on the thread calling tick.
+	 * @param batchSize the number of mailboxes delivered by each task.
+	 */
+	public SignalDispatcher(final ExecutorService threadExecutor, final int batchSize)
+	{
+		if( batchSize <= 0 )
+			throw new IllegalArgumentException("batchSize must be positive");
+
+		this.threadExecutor = threadExecutor;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Holds the state change of a node until the next tick, replacing any
+	 * change it made earlier in the same tick.
+	 *
+	 * @param node the node whose state changed.
+	 * @param state the new state of the node.
+	 */
+	void stateChanged(final AbstractSignalContextNode<N, ?, S> node, final S state)
+	{
+		synchronized(this.lock)
+		{
+			// removed first so the change is ordered by its latest occurrence
+			this.changes.remove(node);
+			this.changes.put(node, state);
+		}
+	}
+
+	/**
+	 * Collects a signal in the mailbox of its target until the next tick is
+	 * delivered, replacing any earlier signal from the same edge and node.
+	 *
+	 * @param target the node to signal.
+	 * @param edge the edge the signal travels along.
+	 * @param node the node whose state changed.
+	 * @param state the new state of the node.
+	 */
+	void post(final AbstractSignalContextNode<N, ?, S> target, final TraversableCloud<N> edge, final N node, final S state)
+	{
+		final Signal<N, S> signal = new Signal<N, S>(edge, node, state);
+		synchronized(this.lock)
+		{
+			Map<Signal<N, S>, Signal<N, S>> mailbox = this.mailboxes.get(target);
+			if( mailbox == null )
+			{
+				mailbox = new LinkedHashMap<Signal<N, S>, Signal<N, S>>();
+				this.mailboxes.put(target, mailbox);
+			}
+			mailbox.remove(signal);
+			mailbox.put(signal, signal);
+		}
+	}
+
+	/**
+	 * Determines if there are no held changes or undelivered signals, so a tick
+	 * would have nothing to do.
+	 *
+	 * @return true if there is nothing to dispatch.
+	 */
+	public boolean isQuiescent()
+	{
+		synchronized(this.lock)
+		{
+			return (this.changes.isEmpty() && this.mailboxes.isEmpty());
+		}
+	}
+
+	/**
+	 * Gets the number of ticks run so far.
+	 *
+	 * @return the number of ticks run.
+	 */
+	public long getTickCount()
+	{
+		synchronized(this.lock)
+		{
+			return this.tickCount;
+		}
+	}
+
+	/**
+	 * Runs a single tick: the changes held since the last tick are passed to
+	 * the edges of their nodes, then every mailbox is delivered. This should
+	 * not be called by more than one thread at a time.
+	 *
+	 * @return the number of signals delivered.
+	 */
+	public int tick()
+	{
+		final Map<AbstractSignalContextNode<N, ?, S>, S> tickChanges;
+		synchronized(this.lock)
+		{
+			tickChanges = this.changes;
+			this.changes = new LinkedHashMap<AbstractSignalContextNode<N, ?, S>, S>();
+			this.tickCount++;
+		}
+		for(final Map.Entry<AbstractSignalContextNode<N, ?, S>, S> change : tickChanges.entrySet())
+			change.getKey().signalEdges(change.getValue());
+
+		final Map<AbstractSignalContextNode<N, ?, S>, Map<Signal<N, S>, Signal<N, S>>> tickMailboxes;
+		synchronized(this.lock)
+		{
+			tickMailboxes = this.mailboxes;
+			this.mailboxes = new LinkedHashMap<AbstractSignalContextNode<N, ?, S>, Map<Signal<N, S>, Signal<N, S>>>();
+		}
+
+		final List<Batch> batches = new ArrayList<Batch>();
+		Batch batch = null;
+		for(final Map.Entry<AbstractSignalContextNode<N, ?, S>, Map<Signal<N, S>, Signal<N, S>>> mailbox : tickMailboxes.entrySet())
+		{
+			if( (batch == null) || (batch.targets.size() >= this.batchSize) )
+			{
+				batch = new Batch();
+				batches.add(batch);
+			}
+			batch.targets.add(mailbox.getKey());
+			batch.mailboxes.add(mailbox.getValue().keySet());
+		}
+		return this.deliver(batches);
+	}
+
+	/**
+	 * Runs ticks until there is nothing left to dispatch or the maximum number
+	 * of ticks has been run.
+	 *
+	 * @param maximumTicks the most ticks to run.
+	 * @return the number of ticks run.
+	 */
+	public int run(final int maximumTicks)
+	{
+		int ticks = 0;
+		while( (ticks < maximumTicks) && !this.isQuiescent() )
+		{
+			this.tick();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	private int deliver(final List<Batch> batches)
+	{
+		if( batches.isEmpty() )
+			return 0;
+
+		if( (this.threadExecutor == null) || (batches.size() == 1) )
+		{
+			int delivered = 0;
+			for(final Batch batch : batches)
+				delivered += batch.call();
+			return delivered;
+		}
+
+		try
+		{
+			int delivered = 0;
+			for(final Future<Integer> future : this.threadExecutor.invokeAll(batches))
+				delivered += future.get();
+			return delivered;
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("delivering signals was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			if( caught.getCause() instanceof RuntimeException )
+				throw (RuntimeException) caught.getCause();
+			LOGGER.error("delivering signals had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	/**
+	 * Mailboxes delivered together by one task, each in full before the next.
+	 */
+	private final class Batch implements Callable<Integer>
+	{
+		private final List<AbstractSignalContextNode<N, ?, S>> targets = new ArrayList<AbstractSignalContextNode<N, ?, S>>();
+		private final List<Iterable<Signal<N, S>>> mailboxes = new ArrayList<Iterable<Signal<N, S>>>();
+
+		@Override
+		public Integer call()
+		{
+			int delivered = 0;
+			for(int index = 0; index < this.targets.size(); index++)
+			{
+				final AbstractSignalContextNode<N, ?, S> target = this.targets.get(index);
+				for(final Signal<N, S> signal : this.mailboxes.get(index))
+				{
+					target.deliverSignal(signal.edge, signal.node, signal.state);
+					delivered++;
+				}
+			}
+			return delivered;
+		}
+	}
+
+	/**
+	 * A state change traveling along an edge, identified by the edge and the
+	 * node which changed so a later change replaces an earlier one.
+	 */
+	private static final class Signal<N, S>
+	{
+		private final TraversableCloud<N> edge;
+		private final N node;
+		private final S state;
+
+		public Signal(final TraversableCloud<N> edge, final N node, final S state)
+		{
+			this.edge = edge;
+			this.node = node;
+			this.state = state;
+		}
+
+		@Override
+		public boolean equals(final Object compareWith)
+		{
+			if( !(compareWith instanceof Signal) )
+				return false;
+			final Signal<?, ?> signal = (Signal<?, ?>) compareWith;
+			return ((this.edge == signal.edge) && (this.node == signal.node));
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (System.identityHashCode(this.edge) * 31) + System.identityHashCode(this.node);
+		}
+	}
+}
@@ -18,66 +18,95 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.cycle;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import com.syncleus.dann.graph.TraversableCloud;
+import java.util.BitSet;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
 import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
 
+/**
+ * Detects cycles with a depth first search which colors nodes grey while they
+ * are on the search stack and black once finished; reaching a grey node again
+ * closes a cycle. Each edge is followed at most once, so an undirected edge is
+ * never walked back along. The search is iterative over an explicit stack of
+ * dense node indexes, with the colors and followed edges kept in primitive
+ * arrays, so it runs in time O(V + E) and does not overflow the call stack on
+ * deep graphs. Graphs which are not already an IndexedGraph are first copied
+ * into a CompressedAdjacencyGraph.
+ */
 public class ColoredDepthFirstSearchDetector implements CycleDetector
 {
+	private static final byte WHITE = 0;
+	private static final byte GREY = 1;
+	private static final byte BLACK = 2;
+	private static final int NO_EDGE = -1;
+
 	public <N, E extends TraversableCloud<N>> boolean hasCycle(final Graph<N, E> graph)
 	{
-		//A map of the current Node colors. Key is the node, value is null for
-		//white, false for grey, true for black.
-		final Map<N, Boolean> colorMap = new HashMap<N, Boolean>();
-
-		final Set<E> traversedEdges = new HashSet<E>();
-
-		for(final N node : graph.getNodes())
-		{
-			if( !colorMap.containsKey(node)
-					&& visit(graph, colorMap, traversedEdges, node) )
-				return true;
-		}
-
-		return false;
+		if( graph instanceof IndexedGraph )
+			return detectCycle((IndexedGraph<N, E>) graph);
+		return detectCycle(new CompressedAdjacencyGraph<N, E>(graph));
 	}
 
-	private static <N, E extends TraversableCloud<N>> boolean visit(final Graph<N, E> graph, final Map<N, Boolean> colorMap, final Set<E> traversedEdges, final N node)
+	private static <N, E extends TraversableCloud<N>> boolean detectCycle(final IndexedGraph<N, E> graph)
 	{
-		colorMap.put(node, Boolean.FALSE);
+		final int nodeCount = graph.getNodeCount();
+		final byte[] colors = new byte[nodeCount];
+		final BitSet traversedEdges = new BitSet(graph.getEdgeCount());
+
+		// a node is only ever on the stack once, so the stack never needs to
+		// be deeper than the node count
+		final int[] stackNodes = new int[nodeCount];
+		final int[] stackEntries = new int[nodeCount];
+		final int[] stackEdges = new int[nodeCount];
 
-		final Set<E> traversableEdges = graph.getTraversableEdges(node);
-		for(final E neighborEdge : traversableEdges)
+		for(int rootIndex = 0; rootIndex < nodeCount; rootIndex++)
 		{
-			if( !ColoredDepthFirstSearchDetector.<E>traversed(traversedEdges, neighborEdge) )
+			if( colors[rootIndex] != WHITE )
+				continue;
+
+			colors[rootIndex] = GREY;
+			stackNodes[0] = rootIndex;
+			stackEntries[0] = graph.getTraversableOffset(rootIndex);
+			stackEdges[0] = NO_EDGE;
+			int top = 0;
+			while( top >= 0 )
 			{
-				traversedEdges.add(neighborEdge);
-				final List<N> neighborNodes = new ArrayList<N>(neighborEdge.getNodes());
-				neighborNodes.remove(node);
-				for(final N neighborNode : neighborNodes)
+				final int nodeIndex = stackNodes[top];
+				final int entry = stackEntries[top];
+				if( entry == graph.getTraversableOffset(nodeIndex + 1) )
+				{
+					colors[nodeIndex] = BLACK;
+					top--;
+					continue;
+				}
+				stackEntries[top] = entry + 1;
+
+				// the entries of an edge are contiguous, so every end of an edge
+				// is followed by the node which first traversed it
+				final int edgeIndex = graph.getTraversableEdgeIndex(entry);
+				if( edgeIndex != stackEdges[top] )
+				{
+					if( traversedEdges.get(edgeIndex) )
+						continue;
+					traversedEdges.set(edgeIndex);
+					stackEdges[top] = edgeIndex;
+				}
+
+				final int neighborIndex = graph.getTraversableNodeIndex(entry);
+				if( colors[neighborIndex] == GREY )
+					return true;
+				else if( colors[neighborIndex] == WHITE )
 				{
-					if( colorMap.get(neighborNode) == Boolean.FALSE )
-						return true;
-					else if( !colorMap.containsKey(neighborNode)
-							&& visit(graph, colorMap, traversedEdges, neighborNode) )
-						return true;
+					colors[neighborIndex] = GREY;
+					top++;
+					stackNodes[top] = neighborIndex;
+					stackEntries[top] = graph.getTraversableOffset(neighborIndex);
+					stackEdges[top] = NO_EDGE;
 				}
 			}
 		}
-		colorMap.put(node, Boolean.TRUE);
-		return false;
-	}
 
-	private static <E extends TraversableCloud> boolean traversed(final Set<E> traversedEdges, final E edge)
-	{
-		for(final E traversedEdge : traversedEdges)
-			if( traversedEdge == edge )
-				return true;
 		return false;
 	}
 }
@@ -0,0 +1,42 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.cycle;
+
+import com.syncleus.dann.graph.Cycle;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * Receives cycles one at a time as they are enumerated, so that the cycles of
+ * a graph can be processed without ever holding all of them in memory.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ * @see JohnsonCycleFinder#findCycles(com.syncleus.dann.graph.Graph, CycleVisitor)
+ */
+public interface CycleVisitor<N, E extends TraversableCloud<N>>
+{
+	/**
+	 * Called once for every cycle found.
+	 *
+	 * @param cycle the cycle which was found.
+	 * @return true to continue the enumeration, false to stop it.
+	 */
+	boolean visit(Cycle<N, E> cycle);
+}
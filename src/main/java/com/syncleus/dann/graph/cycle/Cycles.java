@@ -22,7 +22,7 @@ import com.syncleus.dann.graph.Graph;
 
 public final class Cycles
 {
-	private static final CycleFinder EXHAUSTIVE_FINDER = new ExhaustiveDepthFirstSearchCycleFinder();
+	private static final CycleFinder JOHNSON_FINDER = new JohnsonCycleFinder();
 	private static final CycleDetector COLORED_DETECTOR = new ColoredDepthFirstSearchDetector();
 
 	/**
@@ -47,7 +47,7 @@ public final class Cycles
 			}
 		}
 
-		return EXHAUSTIVE_FINDER.cycleCount(graph);
+		return JOHNSON_FINDER.cycleCount(graph);
 	}
 
 	public static boolean isPancyclic(final Graph graph)
@@ -64,7 +64,7 @@ public final class Cycles
 			}
 		}
 
-		return EXHAUSTIVE_FINDER.isPancyclic(graph);
+		return JOHNSON_FINDER.isPancyclic(graph);
 	}
 
 	public static boolean isUnicyclic(final Graph graph)
@@ -81,7 +81,7 @@ public final class Cycles
 			}
 		}
 
-		return EXHAUSTIVE_FINDER.isUnicyclic(graph);
+		return JOHNSON_FINDER.isUnicyclic(graph);
 	}
 
 	public static boolean isAcyclic(final Graph graph)
@@ -115,7 +115,7 @@ public final class Cycles
 			}
 		}
 
-		return EXHAUSTIVE_FINDER.girth(graph);
+		return JOHNSON_FINDER.girth(graph);
 	}
 
 	public static int getCircumference(final Graph graph)
@@ -132,6 +132,6 @@ public final class Cycles
 			}
 		}
 
-		return EXHAUSTIVE_FINDER.circumference(graph);
+		return JOHNSON_FINDER.circumference(graph);
 	}
 }
@@ -0,0 +1,537 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.cycle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Cycle;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.SimpleCycle;
+import com.syncleus.dann.graph.TraversableCloud;
+import com.syncleus.dann.graph.topological.Topography;
+
+/**
+ * Finds cycles using
+ * <a href="http://dx.doi.org/10.1137/0204007">Johnson's elementary circuit
+ * algorithm</a>. Each cycle is found from its lowest indexed node by a search
+ * which blocks nodes that can not currently lead back to the start, so the
+ * cycles are enumerated in time O((V + E)(C + 1)) for C cycles. Cycles are
+ * produced one at a time from an explicit search stack, so they can be
+ * streamed to a CycleVisitor or an Iterator using O(V + E) memory regardless
+ * of how many cycles there are.
+ *
+ * <p>Edges which can be traversed from every one of their nodes, such as
+ * undirected edges, can close a cycle in either direction; such a cycle is only
+ * reported in one direction, and walking straight back along the edge just
+ * taken is never a cycle. The girth is found by breadth first searches rather
+ * than by enumeration. Graphs which are not already an IndexedGraph are first
+ * copied into a CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class JohnsonCycleFinder<N, E extends TraversableCloud<N>> extends ColoredDepthFirstSearchDetector implements CycleFinder<N, E>
+{
+	private static final int NO_EDGE = -1;
+
+	@Override
+	public int cycleCount(final Graph<N, E> graph)
+	{
+		final CycleEnumerator<N, E> cycles = new CycleEnumerator<N, E>(toIndexedGraph(graph));
+		int cycleCount = 0;
+		while( cycles.advance() )
+			cycleCount++;
+		return cycleCount;
+	}
+
+	/**
+	 * Finds all the cycles in the graph. Every cycle is held in memory at once,
+	 * so for graphs with many cycles findCycles(Graph, CycleVisitor) or
+	 * iterateCycles should be used instead.
+	 *
+	 * @param graph the graph to search.
+	 * @return all the cycles in the graph.
+	 */
+	@Override
+	public Set<Cycle<N, E>> findCycles(final Graph<N, E> graph)
+	{
+		final Set<Cycle<N, E>> cycles = new HashSet<Cycle<N, E>>();
+		final Iterator<Cycle<N, E>> cycleIterator = this.iterateCycles(graph);
+		while( cycleIterator.hasNext() )
+			cycles.add(cycleIterator.next());
+		return cycles;
+	}
+
+	/**
+	 * Passes each cycle in the graph to the visitor as soon as it is found,
+	 * stopping early if the visitor asks to.
+	 *
+	 * @param graph the graph to search.
+	 * @param visitor receives each cycle.
+	 * @return false if the visitor stopped the enumeration, true otherwise.
+	 */
+	public boolean findCycles(final Graph<N, E> graph, final CycleVisitor<N, E> visitor)
+	{
+		if( visitor == null )
+			throw new IllegalArgumentException("visitor can not be null");
+
+		final CycleEnumerator<N, E> cycles = new CycleEnumerator<N, E>(toIndexedGraph(graph));
+		while( cycles.advance() )
+			if( !visitor.visit(cycles.toCycle()) )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Gets an iterator which finds the cycles of the graph lazily, one for each
+	 * call to next. The graph should not be changed while it is in use.
+	 *
+	 * @param graph the graph to search.
+	 * @return an iterator over the cycles of the graph.
+	 */
+	public Iterator<Cycle<N, E>> iterateCycles(final Graph<N, E> graph)
+	{
+		return new CycleIterator<N, E>(new CycleEnumerator<N, E>(toIndexedGraph(graph)));
+	}
+
+	@Override
+	public boolean isPancyclic(final Graph<N, E> graph)
+	{
+		if( !Topography.isSimple(graph) )
+			return false;
+
+		final int graphOrder = Topography.getOrder(graph);
+		if( graphOrder < 3 )
+			return false;
+
+		// stop as soon as every length from 3 to the order has been seen
+		final BitSet foundLengths = new BitSet(graphOrder + 1);
+		int missingLengths = graphOrder - 2;
+		final CycleEnumerator<N, E> cycles = new CycleEnumerator<N, E>(toIndexedGraph(graph));
+		while( cycles.advance() )
+		{
+			final int length = cycles.getLength();
+			if( (length >= 3) && !foundLengths.get(length) )
+			{
+				foundLengths.set(length);
+				missingLengths--;
+				if( missingLengths == 0 )
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isUnicyclic(final Graph<N, E> graph)
+	{
+		if( !Topography.isSimple(graph) )
+			return false;
+
+		final CycleEnumerator<N, E> cycles = new CycleEnumerator<N, E>(toIndexedGraph(graph));
+		return (cycles.advance() && !cycles.advance());
+	}
+
+	/**
+	 * Finds the length of the shortest cycle. A breadth first search is run from
+	 * every node for the shortest walk back to it which never walks straight
+	 * back along the edge it arrived by; the shortest such walk over all nodes
+	 * is the shortest cycle. Each search stops once it can no longer beat the
+	 * shortest cycle found so far, and each node is expanded at most twice per
+	 * search, so this takes time O(V (V + E)) at worst.
+	 *
+	 * @param graph the graph to search.
+	 * @return the length of the shortest cycle, or -1 if the graph is acyclic.
+	 */
+	@Override
+	public int girth(final Graph<N, E> graph)
+	{
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		final int nodeCount = indexedGraph.getNodeCount();
+
+		// a node needs to be expanded a second time when it is reached by a
+		// different edge, as that opens up the edge it was first reached by
+		final int[] firstEdges = new int[nodeCount];
+		final int[] expansions = new int[nodeCount];
+		final int[] searches = new int[nodeCount];
+		final int[] queueNodes = new int[nodeCount * 2];
+		final int[] queueEdges = new int[nodeCount * 2];
+		final int[] queueLengths = new int[nodeCount * 2];
+
+		int girth = Integer.MAX_VALUE;
+		for(int startIndex = 0; (startIndex < nodeCount) && (girth > 1); startIndex++)
+		{
+			final int search = startIndex + 1;
+			searches[startIndex] = search;
+			expansions[startIndex] = 2;
+			queueNodes[0] = startIndex;
+			queueEdges[0] = NO_EDGE;
+			queueLengths[0] = 0;
+			int queueHead = 0;
+			int queueTail = 1;
+			searching:
+			while( queueHead < queueTail )
+			{
+				final int nodeIndex = queueNodes[queueHead];
+				final int arrivalEdge = queueEdges[queueHead];
+				final int length = queueLengths[queueHead] + 1;
+				queueHead++;
+				if( length >= girth )
+					break;
+
+				final boolean firstExpansion = (arrivalEdge == firstEdges[nodeIndex]) || (nodeIndex == startIndex);
+				for(int entry = indexedGraph.getTraversableOffset(nodeIndex); entry < indexedGraph.getTraversableOffset(nodeIndex + 1); entry++)
+				{
+					final int edgeIndex = indexedGraph.getTraversableEdgeIndex(entry);
+					if( (edgeIndex == arrivalEdge) || (!firstExpansion && (edgeIndex != firstEdges[nodeIndex])) )
+						continue;
+
+					final int neighborIndex = indexedGraph.getTraversableNodeIndex(entry);
+					if( neighborIndex == startIndex )
+					{
+						girth = length;
+						break searching;
+					}
+					if( searches[neighborIndex] != search )
+					{
+						searches[neighborIndex] = search;
+						expansions[neighborIndex] = 1;
+						firstEdges[neighborIndex] = edgeIndex;
+					}
+					else if( (expansions[neighborIndex] == 1) && (edgeIndex != firstEdges[neighborIndex]) )
+						expansions[neighborIndex] = 2;
+					else
+						continue;
+					queueNodes[queueTail] = neighborIndex;
+					queueEdges[queueTail] = edgeIndex;
+					queueLengths[queueTail] = length;
+					queueTail++;
+				}
+			}
+		}
+		return (girth == Integer.MAX_VALUE ? -1 : girth);
+	}
+
+	/**
+	 * Finds the length of the longest cycle. The cycles are enumerated without
+	 * being kept, stopping once no remaining cycle could be longer than the
+	 * longest found.
+	 *
+	 * @param graph the graph to search.
+	 * @return the length of the longest cycle, or -1 if the graph is acyclic.
+	 */
+	@Override
+	public int circumference(final Graph<N, E> graph)
+	{
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		final CycleEnumerator<N, E> cycles = new CycleEnumerator<N, E>(indexedGraph);
+		int circumference = -1;
+		while( cycles.advance() )
+		{
+			circumference = Math.max(circumference, cycles.getLength());
+			// cycles from this start on can only use nodes from the start up
+			if( circumference >= (indexedGraph.getNodeCount() - cycles.getStart()) )
+				break;
+		}
+		return circumference;
+	}
+
+	private static <N, E extends TraversableCloud<N>> IndexedGraph<N, E> toIndexedGraph(final Graph<N, E> graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( graph instanceof IndexedGraph )
+			return (IndexedGraph<N, E>) graph;
+		return new CompressedAdjacencyGraph<N, E>(graph);
+	}
+
+	/**
+	 * Adapts a CycleEnumerator to an Iterator.
+	 */
+	private static final class CycleIterator<N, E extends TraversableCloud<N>> implements Iterator<Cycle<N, E>>
+	{
+		private final CycleEnumerator<N, E> cycles;
+		private boolean advanced;
+		private boolean hasCycle;
+
+		public CycleIterator(final CycleEnumerator<N, E> cycles)
+		{
+			this.cycles = cycles;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if( !this.advanced )
+			{
+				this.hasCycle = this.cycles.advance();
+				this.advanced = true;
+			}
+			return this.hasCycle;
+		}
+
+		@Override
+		public Cycle<N, E> next()
+		{
+			if( !this.hasNext() )
+				throw new NoSuchElementException("there are no more cycles");
+			this.advanced = false;
+			return this.cycles.toCycle();
+		}
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException("cycles can not be removed");
+		}
+	}
+
+	/**
+	 * The search state of Johnson's algorithm over an IndexedGraph. Each call to
+	 * advance resumes the search until the next cycle is on the stack. The
+	 * blocked state is reset lazily by stamping each node with the start it was
+	 * last touched from.
+	 */
+	private static final class CycleEnumerator<N, E extends TraversableCloud<N>>
+	{
+		private static final int INITIAL_BLOCKERS = 4;
+
+		private final IndexedGraph<N, E> graph;
+		private final BitSet reversibleEdges;
+		private final boolean[] blocked;
+		private final int[] stamps;
+		private final int[][] blockers;
+		private final int[] blockerCounts;
+		private final int[] stackNodes;
+		private final int[] stackEntries;
+		private final int[] stackEdges;
+		private final boolean[] stackFound;
+		private final int[] unblockStack;
+		private int top = -1;
+		private int start = -1;
+		private int closingEdge = NO_EDGE;
+
+		public CycleEnumerator(final IndexedGraph<N, E> graph)
+		{
+			this.graph = graph;
+			final int nodeCount = graph.getNodeCount();
+			this.blocked = new boolean[nodeCount];
+			this.stamps = new int[nodeCount];
+			this.blockers = new int[nodeCount][];
+			this.blockerCounts = new int[nodeCount];
+			this.stackNodes = new int[nodeCount];
+			this.stackEntries = new int[nodeCount];
+			this.stackEdges = new int[nodeCount];
+			this.stackFound = new boolean[nodeCount];
+			this.unblockStack = new int[nodeCount];
+
+			// an edge traversable from all of its nodes can close a cycle either way
+			final int edgeCount = graph.getEdgeCount();
+			this.reversibleEdges = new BitSet(edgeCount);
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+			{
+				final E edge = graph.getEdge(edgeIndex);
+				boolean reversible = true;
+				for(final N node : edge.getNodes())
+					if( !edge.isTraversable(node) )
+						reversible = false;
+				if( reversible )
+					this.reversibleEdges.set(edgeIndex);
+			}
+		}
+
+		public int getStart()
+		{
+			return this.start;
+		}
+
+		public int getLength()
+		{
+			return this.top + 1;
+		}
+
+		public boolean advance()
+		{
+			while( true )
+			{
+				if( this.top < 0 )
+				{
+					this.start++;
+					if( this.start >= this.graph.getNodeCount() )
+						return false;
+					this.touch(this.start);
+					this.push(this.start, NO_EDGE);
+				}
+
+				final int nodeIndex = this.stackNodes[this.top];
+				final int entry = this.stackEntries[this.top];
+				if( entry < this.graph.getTraversableOffset(nodeIndex + 1) )
+				{
+					this.stackEntries[this.top] = entry + 1;
+					final int neighborIndex = this.graph.getTraversableNodeIndex(entry);
+					if( neighborIndex < this.start )
+						continue;
+
+					final int edgeIndex = this.graph.getTraversableEdgeIndex(entry);
+					if( neighborIndex == this.start )
+					{
+						// walking straight back along the first edge is not a
+						// cycle, but it still counts as finding the start so the
+						// node is not blocked from reaching it by another route
+						this.stackFound[this.top] = true;
+						if( ((this.top == 1) && (edgeIndex == this.stackEdges[1])) || !this.isCanonical(edgeIndex) )
+							continue;
+						this.closingEdge = edgeIndex;
+						return true;
+					}
+
+					this.touch(neighborIndex);
+					if( !this.blocked[neighborIndex] )
+						this.push(neighborIndex, edgeIndex);
+					continue;
+				}
+
+				// the node is finished, unblock it if it lead back to the start
+				// otherwise leave it blocked until one of its neighbors is
+				final boolean found = this.stackFound[this.top];
+				if( found )
+					this.unblock(nodeIndex);
+				else
+				{
+					for(int neighborEntry = this.graph.getTraversableOffset(nodeIndex); neighborEntry < this.graph.getTraversableOffset(nodeIndex + 1); neighborEntry++)
+					{
+						final int neighborIndex = this.graph.getTraversableNodeIndex(neighborEntry);
+						if( neighborIndex > this.start )
+							this.addBlocker(neighborIndex, nodeIndex);
+					}
+				}
+				this.top--;
+				if( found && (this.top >= 0) )
+					this.stackFound[this.top] = true;
+			}
+		}
+
+		public Cycle<N, E> toCycle()
+		{
+			final List<N> nodes = new ArrayList<N>(this.top + 2);
+			final List<E> edges = new ArrayList<E>(this.top + 1);
+			for(int depth = 0; depth <= this.top; depth++)
+			{
+				nodes.add(this.graph.getNode(this.stackNodes[depth]));
+				if( depth > 0 )
+					edges.add(this.graph.getEdge(this.stackEdges[depth]));
+			}
+			nodes.add(this.graph.getNode(this.start));
+			edges.add(this.graph.getEdge(this.closingEdge));
+			return new SimpleCycle<N, E>(edges, nodes);
+		}
+
+		/**
+		 * A cycle made only of reversible edges is found in both directions, only
+		 * the direction whose first edge has the lower index is reported.
+		 */
+		private boolean isCanonical(final int lastEdge)
+		{
+			if( this.top == 0 )
+				return true;
+			if( !this.reversibleEdges.get(lastEdge) )
+				return true;
+			for(int depth = 1; depth <= this.top; depth++)
+				if( !this.reversibleEdges.get(this.stackEdges[depth]) )
+					return true;
+			return (this.stackEdges[1] < lastEdge);
+		}
+
+		private void push(final int nodeIndex, final int edgeIndex)
+		{
+			this.blocked[nodeIndex] = true;
+			this.top++;
+			this.stackNodes[this.top] = nodeIndex;
+			this.stackEntries[this.top] = this.graph.getTraversableOffset(nodeIndex);
+			this.stackEdges[this.top] = edgeIndex;
+			this.stackFound[this.top] = false;
+		}
+
+		private void touch(final int nodeIndex)
+		{
+			final int stamp = this.start + 1;
+			if( this.stamps[nodeIndex] != stamp )
+			{
+				this.stamps[nodeIndex] = stamp;
+				this.blocked[nodeIndex] = false;
+				this.blockerCounts[nodeIndex] = 0;
+			}
+		}
+
+		private void addBlocker(final int nodeIndex, final int blockedIndex)
+		{
+			this.touch(nodeIndex);
+			final int count = this.blockerCounts[nodeIndex];
+			int[] nodeBlockers = this.blockers[nodeIndex];
+			for(int blocker = 0; blocker < count; blocker++)
+				if( nodeBlockers[blocker] == blockedIndex )
+					return;
+
+			if( nodeBlockers == null )
+			{
+				nodeBlockers = new int[INITIAL_BLOCKERS];
+				this.blockers[nodeIndex] = nodeBlockers;
+			}
+			else if( count == nodeBlockers.length )
+			{
+				final int[] grownBlockers = new int[count * 2];
+				System.arraycopy(nodeBlockers, 0, grownBlockers, 0, count);
+				nodeBlockers = grownBlockers;
+				this.blockers[nodeIndex] = nodeBlockers;
+			}
+			nodeBlockers[count] = blockedIndex;
+			this.blockerCounts[nodeIndex] = count + 1;
+		}
+
+		private void unblock(final int nodeIndex)
+		{
+			this.blocked[nodeIndex] = false;
+			this.unblockStack[0] = nodeIndex;
+			int unblockTop = 0;
+			while( unblockTop >= 0 )
+			{
+				final int unblockedIndex = this.unblockStack[unblockTop--];
+				for(int blocker = 0; blocker < this.blockerCounts[unblockedIndex]; blocker++)
+				{
+					final int blockedIndex = this.blockers[unblockedIndex][blocker];
+					this.touch(blockedIndex);
+					if( this.blocked[blockedIndex] )
+					{
+						this.blocked[blockedIndex] = false;
+						this.unblockStack[++unblockTop] = blockedIndex;
+					}
+				}
+				this.blockerCounts[unblockedIndex] = 0;
+			}
+		}
+	}
+}
@@ -31,6 +31,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
 import org.apache.log4j.Logger;
 
 /**
@@ -65,6 +67,9 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 	private Map<N, Vector> coordinates = Collections.synchronizedMap(new HashMap<N, Vector>());
 	private static final Random RANDOM = new Random();
 	private final boolean useWeights;
+	// null unless neighbors are being cached
+	private volatile NeighborTableInvalidator invalidator;
+	private volatile NeighborTable<N> neighborTable;
 	private double equilibriumDistance;
 	private double learningRate = DEFAULT_LEARNING_RATE;
 	private double maxMovement = DEFAULT_MAX_MOVEMENT;
@@ -74,20 +79,158 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 	private class Align implements Callable<Vector>
 	{
 		private final N node;
+		private final NeighborTable<N> neighborTable;
 
-		public Align(final N node)
+		public Align(final N node, final NeighborTable<N> neighborTable)
 		{
 			this.node = node;
+			this.neighborTable = neighborTable;
 		}
 
 		@Override
 		public Vector call()
 		{
-			return align(node);
+			return align(node, neighborTable);
 		}
 	}
 
-	public HyperassociativeMap(final G graph, final int dimensions, final double equilibriumDistance, final boolean useWeights, final ExecutorService threadExecutor)
+	/**
+	 * A compact snapshot of the associations of every node in the graph. Each
+	 * node is given a dense index, its associations are stored as contiguous runs
+	 * of neighbor indexes and weights, and the nodes which must not be repelled
+	 * from it are stored as a sorted run of indexes.
+	 */
+	private static final class NeighborTable<N>
+	{
+		private final Object[] nodes;
+		private final Map<N, Integer> indexes;
+		private final int[] neighborOffsets;
+		private final int[] neighbors;
+		private final double[] weights;
+		private final int[] excludedOffsets;
+		private final int[] excluded;
+
+		public NeighborTable(final HyperassociativeMap<?, N> map)
+		{
+			final Graph<N, ?> graph = map.getGraph();
+			final int nodeCount = graph.getNodes().size();
+			this.nodes = new Object[nodeCount];
+			this.indexes = new HashMap<N, Integer>(nodeCount * 2);
+			int nodeIndex = 0;
+			for (final N node : graph.getNodes())
+			{
+				this.nodes[nodeIndex] = node;
+				this.indexes.put(node, nodeIndex);
+				nodeIndex++;
+			}
+
+			// a node is never repelled from anything it associates with, nor from
+			// anything that has it as an adjacent node
+			final List<Set<Integer>> exclusions = new ArrayList<Set<Integer>>(nodeCount);
+			for (nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				exclusions.add(new TreeSet<Integer>());
+			for (nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				for (final N adjacentNode : graph.getAdjacentNodes((N) this.nodes[nodeIndex]))
+					exclusions.get(this.getIndex(adjacentNode)).add(nodeIndex);
+
+			final List<Map<N, Double>> associations = new ArrayList<Map<N, Double>>(nodeCount);
+			int associationCount = 0;
+			for (nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				final Map<N, Double> nodeAssociations = map.getNeighbors((N) this.nodes[nodeIndex]);
+				associations.add(nodeAssociations);
+				associationCount += nodeAssociations.size();
+			}
+
+			this.neighborOffsets = new int[nodeCount + 1];
+			this.neighbors = new int[associationCount];
+			this.weights = new double[associationCount];
+			int neighborIndex = 0;
+			int excludedCount = 0;
+			for (nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				this.neighborOffsets[nodeIndex] = neighborIndex;
+				for (final Entry<N, Double> association : associations.get(nodeIndex).entrySet())
+				{
+					final int associationIndex = this.getIndex(association.getKey());
+					this.neighbors[neighborIndex] = associationIndex;
+					this.weights[neighborIndex] = association.getValue();
+					neighborIndex++;
+					exclusions.get(nodeIndex).add(associationIndex);
+				}
+				exclusions.get(nodeIndex).add(nodeIndex);
+				excludedCount += exclusions.get(nodeIndex).size();
+			}
+			this.neighborOffsets[nodeCount] = neighborIndex;
+
+			this.excludedOffsets = new int[nodeCount + 1];
+			this.excluded = new int[excludedCount];
+			int excludedIndex = 0;
+			for (nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				this.excludedOffsets[nodeIndex] = excludedIndex;
+				for (final Integer exclusion : exclusions.get(nodeIndex))
+					this.excluded[excludedIndex++] = exclusion;
+			}
+			this.excludedOffsets[nodeCount] = excludedIndex;
+		}
+
+		public int getIndex(final N node)
+		{
+			final Integer index = this.indexes.get(node);
+			if (index == null)
+				throw new IllegalStateException("an associated node is not a member of the graph");
+			return index;
+		}
+	}
+
+	/**
+	 * Discards the cached neighbor table whenever the graph changes.
+	 */
+	private class NeighborTableInvalidator implements GraphListener<N, TraversableCloud<N>>
+	{
+		@Override
+		public void nodeAdded(final Graph<N, TraversableCloud<N>> graph, final N node)
+		{
+			invalidateNeighbors();
+		}
+
+		@Override
+		public void nodeRemoved(final Graph<N, TraversableCloud<N>> graph, final N node)
+		{
+			invalidateNeighbors();
+		}
+
+		@Override
+		public void edgeAdded(final Graph<N, TraversableCloud<N>> graph, final TraversableCloud<N> edge)
+		{
+			invalidateNeighbors();
+		}
+
+		@Override
+		public void edgeRemoved(final Graph<N, TraversableCloud<N>> graph, final TraversableCloud<N> edge)
+		{
+			invalidateNeighbors();
+		}
+	}
+
+	/**
+	 * Creates a new HyperassociativeMap for the given graph.
+	 *
+	 * @param graph The graph to draw
+	 * @param dimensions The number of dimensions to draw the graph in
+	 * @param equilibriumDistance The distance associated nodes settle at
+	 * @param useWeights Whether edge weights are used as equilibrium distances
+	 * @param threadExecutor The executor used to align nodes in parallel, null to
+	 *   align nodes on the calling thread
+	 * @param cache If true the neighbors of every node are only calculated once
+	 *   and then reused until the graph notifies the map of a change. Graphs which
+	 *   are not an ObservableGraph have their neighbors recalculated once per
+	 *   alignment regardless. Graphs only notify the map when nodes or edges are
+	 *   added or removed, so a map caching weights will not see an edge's weight
+	 *   change. A caching map stays registered with the graph until disposed.
+	 */
+	public HyperassociativeMap(final G graph, final int dimensions, final double equilibriumDistance, final boolean useWeights, final ExecutorService threadExecutor, final boolean cache)
 	{
 		if (graph == null)
 			throw new IllegalArgumentException("Graph can not be null");
@@ -99,6 +242,11 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 		this.threadExecutor = threadExecutor;
 		this.equilibriumDistance = equilibriumDistance;
 		this.useWeights = useWeights;
+		if (cache && (graph instanceof ObservableGraph))
+		{
+			this.invalidator = new NeighborTableInvalidator();
+			((ObservableGraph) graph).addGraphListener(this.invalidator);
+		}
 
 		// refresh all nodes
 		for (final N node : this.graph.getNodes())
@@ -107,6 +255,11 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 		}
 	}
 
+	public HyperassociativeMap(final G graph, final int dimensions, final double equilibriumDistance, final boolean useWeights, final ExecutorService threadExecutor)
+	{
+		this(graph, dimensions, equilibriumDistance, useWeights, threadExecutor, false);
+	}
+
 	public HyperassociativeMap(final G graph, final int dimensions, final ExecutorService threadExecutor)
 	{
 		this(graph, dimensions, EQUILIBRIUM_DISTANCE, true, threadExecutor);
@@ -136,6 +289,51 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 	public void setEquilibriumDistance(final double equilibriumDistance)
 	{
 		this.equilibriumDistance = equilibriumDistance;
+		// unweighted associations are stored using the equilibrium distance
+		invalidateNeighbors();
+	}
+
+	public boolean isCached()
+	{
+		return (invalidator != null);
+	}
+
+	/**
+	 * Stops caching neighbors and unregisters the map from its graph so the graph
+	 * no longer holds a reference to it. The map can still be aligned afterwards,
+	 * its neighbors are simply recalculated once per alignment.
+	 */
+	public synchronized void dispose()
+	{
+		final NeighborTableInvalidator registered = invalidator;
+		if (registered != null)
+		{
+			invalidator = null;
+			((ObservableGraph) graph).removeGraphListener(registered);
+		}
+		invalidateNeighbors();
+	}
+
+	/**
+	 * Discards any cached neighbors so they are recalculated on the next
+	 * alignment. Subclasses whose associations depend on anything other than the
+	 * graph's structure should call this when that changes.
+	 */
+	protected void invalidateNeighbors()
+	{
+		neighborTable = null;
+	}
+
+	private synchronized NeighborTable<N> getNeighborTable()
+	{
+		NeighborTable<N> table = neighborTable;
+		if (table == null)
+		{
+			table = new NeighborTable<N>(this);
+			if (invalidator != null)
+				neighborTable = table;
+		}
+		return table;
 	}
 
 	public void resetLearning()
@@ -199,15 +397,16 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 
 		totalMovement = DEFAULT_TOTAL_MOVEMENT;
 		maxMovement = DEFAULT_MAX_MOVEMENT;
+		final NeighborTable<N> table = getNeighborTable();
 		Vector center;
 		if (threadExecutor == null)
 		{
-			center = processLocally();
+			center = processLocally(table);
 		}
 		else
 		{
 			// align all nodes in parallel
-			final List<Future<Vector>> futures = submitFutureAligns();
+			final List<Future<Vector>> futures = submitFutureAligns(table);
 
 			// wait for all nodes to finish aligning and calculate new sum of
 			// all the points
@@ -277,18 +476,18 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 		return neighbors;
 	}
 
-	private Vector align(final N nodeToAlign)
+	private Vector align(final N nodeToAlign, final NeighborTable<N> table)
 	{
 		// calculate equilibrium with neighbors
 		final Vector location = coordinates.get(nodeToAlign);
-		final Map<N, Double> neighbors = getNeighbors(nodeToAlign);
+		final int nodeIndex = table.getIndex(nodeToAlign);
 
 		Vector compositeVector = new Vector(location.getDimensions());
 		// align with neighbours
-		for (final Entry<N, Double> neighborEntry : neighbors.entrySet())
+		for (int neighborIndex = table.neighborOffsets[nodeIndex]; neighborIndex < table.neighborOffsets[nodeIndex + 1]; neighborIndex++)
 		{
-			final N neighbor = neighborEntry.getKey();
-			final double associationEquilibriumDistance = neighborEntry.getValue();
+			final N neighbor = (N) table.nodes[table.neighbors[neighborIndex]];
+			final double associationEquilibriumDistance = table.weights[neighborIndex];
 
 			Vector neighborVector = coordinates.get(neighbor).calculateRelativeTo(location);
 			if (Math.abs(neighborVector.getDistance()) > associationEquilibriumDistance)
@@ -313,12 +512,19 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 			}
 			compositeVector = compositeVector.add(neighborVector);
 		}
-		// calculate repulsion with all non-neighbors
-		for (final N node : graph.getNodes())
+		// calculate repulsion with all non-neighbors, the excluded indexes are
+		// sorted so they can be skipped as we walk every node in order
+		int excludedIndex = table.excludedOffsets[nodeIndex];
+		final int excludedEnd = table.excludedOffsets[nodeIndex + 1];
+		for (int otherIndex = 0; otherIndex < table.nodes.length; otherIndex++)
 		{
-			if ((!neighbors.containsKey(node)) && (node != nodeToAlign)
-					&& (!graph.getAdjacentNodes(node).contains(nodeToAlign)))
+			if ((excludedIndex < excludedEnd) && (table.excluded[excludedIndex] == otherIndex))
+			{
+				excludedIndex++;
+			}
+			else
 			{
+				final N node = (N) table.nodes[otherIndex];
 				Vector nodeVector = coordinates.get(node).calculateRelativeTo(location);
 				double newDistance = -EQUILIBRIUM_DISTANCE / Math.pow(nodeVector.getDistance(), REPULSIVE_WEAKNESS);
 				if (Math.abs(newDistance) > Math.abs(equilibriumDistance))
@@ -394,22 +600,22 @@ public class HyperassociativeMap<G extends Graph<N, ?>, N> implements GraphDrawe
 		return Math.log(Math.abs((value + 1.0) / (1.0 - value))) / 2;
 	}
 
-	private List<Future<Vector>> submitFutureAligns()
+	private List<Future<Vector>> submitFutureAligns(final NeighborTable<N> table)
 	{
 		final ArrayList<Future<Vector>> futures = new ArrayList<Future<Vector>>();
 		for (final N node : graph.getNodes())
 		{
-			futures.add(threadExecutor.submit(new Align(node)));
+			futures.add(threadExecutor.submit(new Align(node, table)));
 		}
 		return futures;
 	}
 
-	private Vector processLocally()
+	private Vector processLocally(final NeighborTable<N> table)
 	{
 		Vector pointSum = new Vector(dimensions);
 		for (final N node : graph.getNodes())
 		{
-			final Vector newPoint = align(node);
+			final Vector newPoint = align(node, table);
 			for (int dimensionIndex = 1; dimensionIndex <= dimensions; dimensionIndex++)
 			{
 				pointSum = pointSum.setCoordinate(pointSum.getCoordinate(dimensionIndex) + newPoint.getCoordinate(dimensionIndex), dimensionIndex);
@@ -31,14 +31,9 @@ import com.syncleus.dann.neural.backprop.brain.FeedforwardBackpropBrain;
 
 public class LayeredBrainHyperassociativeMap extends HyperassociativeMap<FeedforwardBackpropBrain<InputBackpropNeuron, OutputBackpropNeuron, BackpropNeuron, Synapse<BackpropNeuron>>, BackpropNeuron>
 {
-	private final boolean cached;
-	private final Map<BackpropNeuron, Map<BackpropNeuron, Double>> neighbors;
-
 	public LayeredBrainHyperassociativeMap(final FeedforwardBackpropBrain graph, final int dimensions, final double equilibriumDistance, final boolean useWeights, final ExecutorService threadExecutor, final boolean cache)
 	{
-		super(graph, dimensions, equilibriumDistance, useWeights, threadExecutor);
-		this.cached = cache;
-		this.neighbors = new HashMap<BackpropNeuron, Map<BackpropNeuron, Double>>();
+		super(graph, dimensions, equilibriumDistance, useWeights, threadExecutor, cache);
 	}
 
 	public LayeredBrainHyperassociativeMap(final FeedforwardBackpropBrain graph, final int dimensions, final ExecutorService threadExecutor, final boolean cache)
@@ -81,11 +76,6 @@ public class LayeredBrainHyperassociativeMap extends HyperassociativeMap<Feedfor
 	{
 		final BackpropNeuron neuronToQuery = nodeToQuery;
 
-		if (cached && (neighbors.containsKey(neuronToQuery)))
-		{
-			return neighbors.get(neuronToQuery);
-		}
-
 		// populate initial associations based off edges
 		final Map<BackpropNeuron, Double> associations = new HashMap<BackpropNeuron, Double>();
 		for (final Synapse<BackpropNeuron> neighborEdge : getGraph().getAdjacentEdges(nodeToQuery))
@@ -119,11 +109,6 @@ public class LayeredBrainHyperassociativeMap extends HyperassociativeMap<Feedfor
 		}
 		associations.remove(nodeToQuery);
 
-		if (cached)
-		{
-			neighbors.put(neuronToQuery, associations);
-		}
-
 		return associations;
 	}
 }
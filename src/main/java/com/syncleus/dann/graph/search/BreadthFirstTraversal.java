@@ -0,0 +1,836 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * A level synchronous breadth first traversal over the dense indexes of an
+ * IndexedGraph. Each level of the search is expanded from the previous one
+ * either top down, by following the runs of every frontier node and claiming
+ * the unvisited nodes they lead to, or bottom up, by scanning the unvisited
+ * nodes for one whose runs lead back into the frontier. The direction is
+ * chosen for each level as in
+ * <a href="http://dx.doi.org/10.1109/SC.2012.50">direction optimizing
+ * breadth first search</a>: a level is expanded bottom up once the frontier
+ * holds a large share of the entries left to explore, and top down again once
+ * the frontier has shrunk to a small share of the nodes.
+ *
+ * <p>The visited nodes and the frontier of a bottom up level are kept as
+ * bitmaps over the node indexes, so a bottom up level skips visited nodes a
+ * word at a time. When an executor is given large levels are divided among
+ * parallel tasks, the frontier for top down levels and the node indexes for
+ * bottom up levels, with nodes claimed atomically so every node is reached
+ * exactly once. The depths found do not depend on how the work was divided.</p>
+ *
+ * <p>Nodes and edges can be excluded from the traversal, which then behaves as
+ * if they had been removed from the graph. Graphs which are not already an
+ * IndexedGraph are first copied into a CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class BreadthFirstTraversal<N, E extends TraversableCloud<N>>
+{
+	/**
+	 * The runs which are followed from each node.
+	 *
+	 * @since 2.2
+	 */
+	public enum Direction
+	{
+		/**
+		 * Follows every adjacent node regardless of the direction of the edges.
+		 */
+		ADJACENT,
+		/**
+		 * Follows the nodes which can be traversed to from each node.
+		 */
+		OUTWARD,
+		/**
+		 * Follows the nodes which can traverse to each node.
+		 */
+		INWARD
+	}
+
+	/**
+	 * The depth given to nodes which were not reached.
+	 */
+	public static final int UNREACHED = -1;
+
+	private static final Logger LOGGER = Logger.getLogger(BreadthFirstTraversal.class);
+	private static final int NO_NODE = -1;
+	// a level is expanded bottom up once its entries exceed this fraction of
+	// the entries left to explore, and top down again once it holds less than
+	// this fraction of the nodes
+	private static final int TOP_DOWN_FRACTION = 14;
+	private static final int BOTTOM_UP_FRACTION = 24;
+	// levels are only divided among tasks with at least this many entries or
+	// nodes each, smaller levels run on the calling thread
+	private static final int MINIMUM_TASK_WORK = 1024;
+	private static final int WORD_BITS = 64;
+
+	private final IndexedGraph<N, E> graph;
+	private final Direction direction;
+	private final BitSet excludedNodes;
+	private final BitSet excludedEdges;
+	private final ExecutorService threadExecutor;
+	private final Runs forward;
+	private final Runs backward;
+
+	/**
+	 * Creates a traversal over the whole graph which runs on the calling
+	 * thread.
+	 *
+	 * @param graph the graph to traverse.
+	 * @param direction the runs to follow from each node.
+	 */
+	public BreadthFirstTraversal(final Graph<N, E> graph, final Direction direction)
+	{
+		this(graph, direction, null, null, null);
+	}
+
+	/**
+	 * Creates a traversal.
+	 *
+	 * @param graph the graph to traverse.
+	 * @param direction the runs to follow from each node.
+	 * @param excludedNodes nodes to treat as removed from the graph, along with
+	 *   their place in every edge, null to exclude none.
+	 * @param excludedEdges edges to treat as removed from the graph, null to
+	 *   exclude none.
+	 * @param threadExecutor The executor used to expand large levels in
+	 *   parallel, null to traverse on the calling thread.
+	 */
+	public BreadthFirstTraversal(final Graph<N, E> graph, final Direction direction, final Set<? extends N> excludedNodes, final Set<? extends E> excludedEdges, final ExecutorService threadExecutor)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( direction == null )
+			throw new IllegalArgumentException("direction can not be null");
+
+		if( graph instanceof IndexedGraph )
+			this.graph = (IndexedGraph<N, E>) graph;
+		else
+			this.graph = new CompressedAdjacencyGraph<N, E>(graph);
+		this.direction = direction;
+		this.threadExecutor = threadExecutor;
+
+		this.excludedNodes = new BitSet(this.graph.getNodeCount());
+		if( excludedNodes != null )
+		{
+			for(final N node : excludedNodes)
+			{
+				final int nodeIndex = this.graph.getNodeIndex(node);
+				if( nodeIndex >= 0 )
+					this.excludedNodes.set(nodeIndex);
+			}
+		}
+
+		final BitSet edgeIndexes = new BitSet(this.graph.getEdgeCount());
+		if( excludedEdges != null )
+		{
+			for(final E edge : excludedEdges)
+			{
+				final int edgeIndex = this.graph.getEdgeIndex(edge);
+				if( edgeIndex >= 0 )
+					edgeIndexes.set(edgeIndex);
+			}
+		}
+		this.excludedEdges = (edgeIndexes.isEmpty() ? null : edgeIndexes);
+
+		switch( direction )
+		{
+		case OUTWARD:
+			this.forward = new TraversableRuns(this.graph);
+			this.backward = new InwardRuns(this.graph);
+			break;
+		case INWARD:
+			this.forward = new InwardRuns(this.graph);
+			this.backward = new TraversableRuns(this.graph);
+			break;
+		default:
+			// adjacency is symmetric so both ways follow the same runs, the
+			// adjacent node runs carry no edges so they can only be used when
+			// no edges are excluded
+			if( this.excludedEdges == null )
+				this.forward = new AdjacentRuns(this.graph);
+			else
+				this.forward = new IncidentRuns<N>(this.graph);
+			this.backward = this.forward;
+		}
+	}
+
+	/**
+	 * Gets the graph being traversed, the depths returned by traverse are
+	 * indexed by the node indexes of this graph.
+	 *
+	 * @return the graph being traversed.
+	 */
+	public IndexedGraph<N, E> getIndexedGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Gets the runs which are followed from each node.
+	 *
+	 * @return the direction of the traversal.
+	 */
+	public Direction getDirection()
+	{
+		return this.direction;
+	}
+
+	/**
+	 * Traverses the graph breadth first from the given roots, handing every
+	 * node reached to the visitor.
+	 *
+	 * @param roots the nodes to start from, excluded roots are ignored.
+	 * @param visitor receives the nodes as they are reached, null to only
+	 *   compute the depths.
+	 * @return the depth of every node by node index of getIndexedGraph(),
+	 *   UNREACHED for the nodes which were not reached before the traversal
+	 *   ended.
+	 * @throws IllegalArgumentException if any of the roots is not in the graph.
+	 */
+	public int[] traverse(final Collection<? extends N> roots, final BreadthFirstVisitor<? super N> visitor)
+	{
+		if( roots == null )
+			throw new IllegalArgumentException("roots can not be null");
+
+		final int[] rootIndexes = new int[roots.size()];
+		int rootCount = 0;
+		for(final N root : roots)
+		{
+			final int rootIndex = this.graph.getNodeIndex(root);
+			if( rootIndex < 0 )
+				throw new IllegalArgumentException("roots must all be in the graph");
+			rootIndexes[rootCount++] = rootIndex;
+		}
+
+		final Search search = new Search();
+		search.run(rootIndexes, NO_NODE, visitor);
+		return search.depths;
+	}
+
+	/**
+	 * Counts the nodes which can be reached from the root, including the root
+	 * itself.
+	 *
+	 * @param root the node to start from.
+	 * @return the number of nodes reached, 0 if the root is excluded.
+	 * @throws IllegalArgumentException if the root is not in the graph.
+	 */
+	public int countReachable(final N root)
+	{
+		final int rootIndex = this.graph.getNodeIndex(root);
+		if( rootIndex < 0 )
+			throw new IllegalArgumentException("root must be in the graph");
+
+		final Search search = new Search();
+		search.run(new int[] {rootIndex}, NO_NODE, null);
+		return search.reachedCount;
+	}
+
+	/**
+	 * Determines if every node which is not excluded can be reached from the
+	 * root.
+	 *
+	 * @param root the node to start from.
+	 * @return true if the traversal from the root spans the graph.
+	 * @throws IllegalArgumentException if the root is not in the graph.
+	 */
+	public boolean isSpanning(final N root)
+	{
+		return (this.countReachable(root) == (this.graph.getNodeCount() - this.excludedNodes.cardinality()));
+	}
+
+	/**
+	 * Determines if there is a path of at least one step from the begin node to
+	 * the end node. The traversal stops as soon as the end node is reached.
+	 *
+	 * @param begin the node to start from.
+	 * @param end the node to find.
+	 * @return true if the end node can be reached from the begin node, false
+	 *   if either node is excluded or not in the graph.
+	 */
+	public boolean isReachable(final N begin, final N end)
+	{
+		final int beginIndex = this.graph.getNodeIndex(begin);
+		final int endIndex = this.graph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) || this.excludedNodes.get(beginIndex) || this.excludedNodes.get(endIndex) )
+			return false;
+
+		final Search search = new Search();
+		if( beginIndex != endIndex )
+		{
+			search.run(new int[] {beginIndex}, endIndex, null);
+			return (search.depths[endIndex] != UNREACHED);
+		}
+
+		// a node reaches itself if it can be reached back from a node it reaches
+		search.run(new int[] {beginIndex}, NO_NODE, null);
+		final int runEnd = this.backward.offset(beginIndex + 1);
+		for(int entry = this.backward.offset(beginIndex); entry < runEnd; entry++)
+			if( !this.isExcludedEdge(this.backward, entry) && (search.depths[this.backward.node(entry)] != UNREACHED) )
+				return true;
+		return false;
+	}
+
+	/**
+	 * Counts the weakly connected components of the nodes which are not
+	 * excluded, by traversing from each node not yet reached in turn.
+	 *
+	 * @return the number of weakly connected components.
+	 * @throws IllegalStateException if the traversal does not follow ADJACENT
+	 *   runs.
+	 */
+	public int countComponents()
+	{
+		if( this.direction != Direction.ADJACENT )
+			throw new IllegalStateException("components can only be counted across adjacent nodes");
+
+		final Search search = new Search();
+		final int[] root = new int[1];
+		int componentCount = 0;
+		for(int nodeIndex = 0; nodeIndex < this.graph.getNodeCount(); nodeIndex++)
+		{
+			if( (search.depths[nodeIndex] == UNREACHED) && !this.excludedNodes.get(nodeIndex) )
+			{
+				root[0] = nodeIndex;
+				search.run(root, NO_NODE, null);
+				componentCount++;
+			}
+		}
+		return componentCount;
+	}
+
+	private boolean isExcludedEdge(final Runs runs, final int entry)
+	{
+		return (this.excludedEdges != null) && this.excludedEdges.get(runs.edge(entry));
+	}
+
+	private int taskCount(final int work)
+	{
+		if( this.threadExecutor == null )
+			return 1;
+		return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), work / MINIMUM_TASK_WORK));
+	}
+
+	private List<Level> expand(final List<Callable<Level>> tasks)
+	{
+		if( tasks.size() == 1 )
+		{
+			final List<Level> levels = new ArrayList<Level>(1);
+			try
+			{
+				levels.add(tasks.get(0).call());
+			}
+			catch(RuntimeException caught)
+			{
+				throw caught;
+			}
+			catch(Exception caught)
+			{
+				LOGGER.error("expanding a level had an unexpected problem executing.", caught);
+				throw new UnexpectedDannError("Unexpected checked exception while expanding a level", caught);
+			}
+			return levels;
+		}
+
+		try
+		{
+			final List<Level> levels = new ArrayList<Level>(tasks.size());
+			for(final Future<Level> future : this.threadExecutor.invokeAll(tasks))
+				levels.add(future.get());
+			return levels;
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("expanding a level was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			if( caught.getCause() instanceof RuntimeException )
+				throw (RuntimeException) caught.getCause();
+			LOGGER.error("expanding a level had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	private static int wordCount(final int bitCount)
+	{
+		return ((bitCount + WORD_BITS - 1) / WORD_BITS);
+	}
+
+	private static boolean claim(final AtomicLongArray bits, final int index)
+	{
+		final int word = index / WORD_BITS;
+		final long bit = 1L << (index % WORD_BITS);
+		while( true )
+		{
+			final long current = bits.get(word);
+			if( (current & bit) != 0 )
+				return false;
+			if( bits.compareAndSet(word, current, current | bit) )
+				return true;
+		}
+	}
+
+	/**
+	 * The state of one traversal: the visited bitmap, the depths and the
+	 * frontier of the current level.
+	 */
+	private final class Search
+	{
+		private final int nodeCount;
+		private final AtomicLongArray visited;
+		private final int[] depths;
+		private final long[] frontierBits;
+		private int[] frontier;
+		private int[] next;
+		private int frontierSize;
+		private long unexploredEntries;
+		private int reachedCount;
+
+		public Search()
+		{
+			this.nodeCount = graph.getNodeCount();
+			this.visited = new AtomicLongArray(wordCount(this.nodeCount));
+			this.depths = new int[this.nodeCount];
+			Arrays.fill(this.depths, UNREACHED);
+			this.frontierBits = new long[wordCount(this.nodeCount)];
+			this.frontier = new int[this.nodeCount];
+			this.next = new int[this.nodeCount];
+			this.unexploredEntries = forward.offset(this.nodeCount) - forward.offset(0);
+
+			// excluded nodes are marked as visited so they are never reached
+			for(int nodeIndex = excludedNodes.nextSetBit(0); nodeIndex >= 0; nodeIndex = excludedNodes.nextSetBit(nodeIndex + 1))
+				claim(this.visited, nodeIndex);
+		}
+
+		/**
+		 * Runs the traversal from the given roots, skipping roots which were
+		 * already reached.
+		 *
+		 * @return false if the traversal was stopped by the visitor or by
+		 *   reaching the target.
+		 */
+		public boolean run(final int[] roots, final int target, final BreadthFirstVisitor<? super N> visitor)
+		{
+			this.frontierSize = 0;
+			long frontierEntries = 0L;
+			for(final int root : roots)
+			{
+				if( claim(this.visited, root) )
+				{
+					this.depths[root] = 0;
+					this.frontier[this.frontierSize++] = root;
+					frontierEntries += forward.offset(root + 1) - forward.offset(root);
+				}
+			}
+			this.unexploredEntries -= frontierEntries;
+			this.reachedCount += this.frontierSize;
+			if( !this.visitFrontier(0, target, visitor) )
+				return false;
+
+			boolean bottomUp = false;
+			int depth = 0;
+			while( this.frontierSize > 0 )
+			{
+				if( bottomUp )
+					bottomUp = (this.frontierSize >= (this.nodeCount / BOTTOM_UP_FRACTION));
+				else
+					bottomUp = (frontierEntries > (this.unexploredEntries / TOP_DOWN_FRACTION));
+				depth++;
+
+				final List<Level> levels = (bottomUp ? this.expandBottomUp(depth) : this.expandTopDown(depth));
+				int nextSize = 0;
+				frontierEntries = 0L;
+				for(final Level level : levels)
+				{
+					System.arraycopy(level.nodes, 0, this.next, nextSize, level.size);
+					nextSize += level.size;
+					frontierEntries += level.entries;
+				}
+				final int[] expanded = this.next;
+				this.next = this.frontier;
+				this.frontier = expanded;
+				this.frontierSize = nextSize;
+				this.unexploredEntries -= frontierEntries;
+				this.reachedCount += nextSize;
+
+				if( !this.visitFrontier(depth, target, visitor) )
+					return false;
+			}
+			return true;
+		}
+
+		private boolean visitFrontier(final int depth, final int target, final BreadthFirstVisitor<? super N> visitor)
+		{
+			if( visitor != null )
+				for(int index = 0; index < this.frontierSize; index++)
+					if( !visitor.visit(graph.getNode(this.frontier[index]), depth) )
+						return false;
+			return ((target == NO_NODE) || (this.depths[target] == UNREACHED));
+		}
+
+		private List<Level> expandTopDown(final int depth)
+		{
+			final int taskCount = taskCount(this.frontierSize);
+			final List<Callable<Level>> tasks = new ArrayList<Callable<Level>>(taskCount);
+			for(int task = 0; task < taskCount; task++)
+			{
+				final int first = (int) (((long) this.frontierSize * task) / taskCount);
+				final int last = (int) (((long) this.frontierSize * (task + 1)) / taskCount);
+				tasks.add(new TopDown(first, last, depth));
+			}
+			return expand(tasks);
+		}
+
+		private List<Level> expandBottomUp(final int depth)
+		{
+			Arrays.fill(this.frontierBits, 0L);
+			for(int index = 0; index < this.frontierSize; index++)
+			{
+				final int node = this.frontier[index];
+				this.frontierBits[node / WORD_BITS] |= 1L << (node % WORD_BITS);
+			}
+
+			// tasks own whole words of the bitmaps so they never share one
+			final int wordCount = this.frontierBits.length;
+			final int taskCount = Math.min(taskCount(this.nodeCount), wordCount);
+			final List<Callable<Level>> tasks = new ArrayList<Callable<Level>>(taskCount);
+			for(int task = 0; task < taskCount; task++)
+			{
+				final int firstWord = (int) (((long) wordCount * task) / taskCount);
+				final int lastWord = (int) (((long) wordCount * (task + 1)) / taskCount);
+				tasks.add(new BottomUp(firstWord, lastWord, depth));
+			}
+			return expand(tasks);
+		}
+
+		/**
+		 * Claims the unvisited nodes the runs of part of the frontier lead to.
+		 */
+		private final class TopDown implements Callable<Level>
+		{
+			private final int first;
+			private final int last;
+			private final int depth;
+
+			public TopDown(final int first, final int last, final int depth)
+			{
+				this.first = first;
+				this.last = last;
+				this.depth = depth;
+			}
+
+			@Override
+			public Level call()
+			{
+				final Level level = new Level(this.last - this.first);
+				for(int index = this.first; index < this.last; index++)
+				{
+					final int current = frontier[index];
+					final int end = forward.offset(current + 1);
+					for(int entry = forward.offset(current); entry < end; entry++)
+					{
+						if( isExcludedEdge(forward, entry) )
+							continue;
+						final int neighbor = forward.node(entry);
+						if( claim(visited, neighbor) )
+						{
+							depths[neighbor] = this.depth;
+							level.add(neighbor, forward.offset(neighbor + 1) - forward.offset(neighbor));
+						}
+					}
+				}
+				return level;
+			}
+		}
+
+		/**
+		 * Scans a range of the unvisited nodes for those whose runs lead back
+		 * into the frontier.
+		 */
+		private final class BottomUp implements Callable<Level>
+		{
+			private final int firstWord;
+			private final int lastWord;
+			private final int depth;
+
+			public BottomUp(final int firstWord, final int lastWord, final int depth)
+			{
+				this.firstWord = firstWord;
+				this.lastWord = lastWord;
+				this.depth = depth;
+			}
+
+			@Override
+			public Level call()
+			{
+				final Level level = new Level(WORD_BITS);
+				for(int word = this.firstWord; word < this.lastWord; word++)
+				{
+					long unvisited = ~visited.get(word);
+					while( unvisited != 0L )
+					{
+						final int current = (word * WORD_BITS) + Long.numberOfTrailingZeros(unvisited);
+						unvisited &= unvisited - 1L;
+						if( current >= nodeCount )
+							break;
+
+						final int end = backward.offset(current + 1);
+						for(int entry = backward.offset(current); entry < end; entry++)
+						{
+							if( isExcludedEdge(backward, entry) )
+								continue;
+							final int parent = backward.node(entry);
+							if( (frontierBits[parent / WORD_BITS] & (1L << (parent % WORD_BITS))) != 0L )
+							{
+								claim(visited, current);
+								depths[current] = this.depth;
+								level.add(current, forward.offset(current + 1) - forward.offset(current));
+								break;
+							}
+						}
+					}
+				}
+				return level;
+			}
+		}
+	}
+
+	/**
+	 * The nodes reached by one task while expanding a level.
+	 */
+	private static final class Level
+	{
+		private int[] nodes;
+		private int size;
+		private long entries;
+
+		public Level(final int capacity)
+		{
+			this.nodes = new int[Math.max(capacity, 1)];
+		}
+
+		public void add(final int node, final int nodeEntries)
+		{
+			if( this.size == this.nodes.length )
+				this.nodes = Arrays.copyOf(this.nodes, this.nodes.length * 2);
+			this.nodes[this.size++] = node;
+			this.entries += nodeEntries;
+		}
+	}
+
+	/**
+	 * The entries followed from each node, laid out in runs as in IndexedGraph.
+	 */
+	private abstract static class Runs
+	{
+		public abstract int offset(int nodeIndex);
+		public abstract int node(int entry);
+		public abstract int edge(int entry);
+	}
+
+	private static final class AdjacentRuns extends Runs
+	{
+		private final IndexedGraph<?, ?> graph;
+
+		public AdjacentRuns(final IndexedGraph<?, ?> graph)
+		{
+			this.graph = graph;
+		}
+
+		@Override
+		public int offset(final int nodeIndex)
+		{
+			return this.graph.getAdjacentOffset(nodeIndex);
+		}
+
+		@Override
+		public int node(final int entry)
+		{
+			return this.graph.getAdjacentNodeIndex(entry);
+		}
+
+		@Override
+		public int edge(final int entry)
+		{
+			throw new UnsupportedOperationException("adjacent node entries do not record their edge");
+		}
+	}
+
+	private static final class TraversableRuns extends Runs
+	{
+		private final IndexedGraph<?, ?> graph;
+
+		public TraversableRuns(final IndexedGraph<?, ?> graph)
+		{
+			this.graph = graph;
+		}
+
+		@Override
+		public int offset(final int nodeIndex)
+		{
+			return this.graph.getTraversableOffset(nodeIndex);
+		}
+
+		@Override
+		public int node(final int entry)
+		{
+			return this.graph.getTraversableNodeIndex(entry);
+		}
+
+		@Override
+		public int edge(final int entry)
+		{
+			return this.graph.getTraversableEdgeIndex(entry);
+		}
+	}
+
+	private static final class InwardRuns extends Runs
+	{
+		private final IndexedGraph<?, ?> graph;
+
+		public InwardRuns(final IndexedGraph<?, ?> graph)
+		{
+			this.graph = graph;
+		}
+
+		@Override
+		public int offset(final int nodeIndex)
+		{
+			return this.graph.getInOffset(nodeIndex);
+		}
+
+		@Override
+		public int node(final int entry)
+		{
+			return this.graph.getInNodeIndex(entry);
+		}
+
+		@Override
+		public int edge(final int entry)
+		{
+			return this.graph.getInEdgeIndex(entry);
+		}
+	}
+
+	/**
+	 * Adjacent node runs which also record the edge of every entry, built from
+	 * the adjacent edges of each node and the end points of each edge.
+	 */
+	private static final class IncidentRuns<N> extends Runs
+	{
+		private final int[] offsets;
+		private final int[] nodes;
+		private final int[] edges;
+
+		public IncidentRuns(final IndexedGraph<N, ? extends TraversableCloud<N>> graph)
+		{
+			final int nodeCount = graph.getNodeCount();
+			final int edgeCount = graph.getEdgeCount();
+
+			final int[] endOffsets = new int[edgeCount + 1];
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+				endOffsets[edgeIndex + 1] = endOffsets[edgeIndex] + graph.getEdge(edgeIndex).getNodes().size();
+			final int[] ends = new int[endOffsets[edgeCount]];
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+			{
+				int end = endOffsets[edgeIndex];
+				for(final N node : graph.getEdge(edgeIndex).getNodes())
+					ends[end++] = graph.getNodeIndex(node);
+			}
+
+			this.offsets = new int[nodeCount + 1];
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				int entryCount = 0;
+				for(int entry = graph.getAdjacentEdgeOffset(nodeIndex); entry < graph.getAdjacentEdgeOffset(nodeIndex + 1); entry++)
+				{
+					final int edgeIndex = graph.getAdjacentEdgeIndex(entry);
+					for(int end = endOffsets[edgeIndex]; end < endOffsets[edgeIndex + 1]; end++)
+						if( ends[end] != nodeIndex )
+							entryCount++;
+				}
+				this.offsets[nodeIndex + 1] = this.offsets[nodeIndex] + entryCount;
+			}
+
+			this.nodes = new int[this.offsets[nodeCount]];
+			this.edges = new int[this.offsets[nodeCount]];
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				int next = this.offsets[nodeIndex];
+				for(int entry = graph.getAdjacentEdgeOffset(nodeIndex); entry < graph.getAdjacentEdgeOffset(nodeIndex + 1); entry++)
+				{
+					final int edgeIndex = graph.getAdjacentEdgeIndex(entry);
+					for(int end = endOffsets[edgeIndex]; end < endOffsets[edgeIndex + 1]; end++)
+					{
+						if( ends[end] != nodeIndex )
+						{
+							this.nodes[next] = ends[end];
+							this.edges[next++] = edgeIndex;
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public int offset(final int nodeIndex)
+		{
+			return this.offsets[nodeIndex];
+		}
+
+		@Override
+		public int node(final int entry)
+		{
+			return this.nodes[entry];
+		}
+
+		@Override
+		public int edge(final int entry)
+		{
+			return this.edges[entry];
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search;
+
+/**
+ * Receives the nodes reached by a BreadthFirstTraversal one at a time, in
+ * order of increasing depth. The visitor is only ever called from the thread
+ * which started the traversal, even when the levels are expanded in parallel.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @see BreadthFirstTraversal#traverse(java.util.Collection, BreadthFirstVisitor)
+ */
+public interface BreadthFirstVisitor<N>
+{
+	/**
+	 * Called once for every node reached.
+	 *
+	 * @param node the node reached.
+	 * @param depth the number of steps from the nearest root, 0 for the roots
+	 *   themselves.
+	 * @return true to continue the traversal, false to stop it.
+	 */
+	boolean visit(N node, int depth);
+}
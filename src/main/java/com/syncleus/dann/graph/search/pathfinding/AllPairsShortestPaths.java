@@ -0,0 +1,499 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * The cheapest paths between every pair of nodes in an IndexedGraph, found by
+ * running a Dijkstra search from every node. The path weight and the
+ * traversable entry each node was reached through are kept for every pair,
+ * either in heap arrays or, when n&sup2; entries are too many for the heap,
+ * in a memory mapped file. On sparse graphs this is considerably faster than
+ * Floyd-Warshall. Costs follow the DijkstraPathFinder: the weight of each edge,
+ * 0 if unweighted, plus the weight of the node stepped on to, 1 if
+ * unweighted.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class AllPairsShortestPaths<N, E extends TraversableCloud<N>> implements PathFinder<N, E>, ShortestPathTreeFinder<N, E>, Closeable
+{
+	private static final Logger LOGGER = Logger.getLogger(AllPairsShortestPaths.class);
+	private static final int SOURCES_PER_TASK = 16;
+	//bytes held for each pair, a double weight and an int entry
+	private static final int PAIR_BYTES = 12;
+
+	private final IndexedGraph<N, E> graph;
+	private final int nodeCount;
+	private final PairStore store;
+	// null to search with the graph's own edge weights
+	private final double[] edgeWeights;
+	// null unless the edge weights were reweighted by node potentials
+	private final double[] potentials;
+
+	/**
+	 * Calculates the paths between every pair of nodes, holding them on the
+	 * heap.
+	 *
+	 * @param graph the graph to find paths in.
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 */
+	public AllPairsShortestPaths(final IndexedGraph<N, E> graph, final ExecutorService threadExecutor)
+	{
+		this(graph, threadExecutor, null, null);
+	}
+
+	/**
+	 * Calculates the paths between every pair of nodes, holding them in a
+	 * memory mapped file. The file is overwritten and grown to
+	 * getStoreSize(nodeCount) bytes.
+	 *
+	 * @param graph the graph to find paths in.
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 * @param storeFile the file to hold the paths in.
+	 * @throws IOException if the file can not be mapped.
+	 */
+	public AllPairsShortestPaths(final IndexedGraph<N, E> graph, final ExecutorService threadExecutor, final File storeFile) throws IOException
+	{
+		this(graph, threadExecutor, storeFile, null, null);
+	}
+
+	/**
+	 * Calculates the paths between every pair of nodes on the heap, searching
+	 * with edge weights which were reweighted by the given node potentials.
+	 * The potentials are taken back out of every path weight, so weights are
+	 * those of the graph itself.
+	 *
+	 * @param graph the graph to find paths in.
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 * @param edgeWeights the weight of each edge by edge index, null to use the
+	 *   weights of the graph.
+	 * @param potentials the potential of each node by node index the edge
+	 *   weights were reweighted with, null if they were not.
+	 * @see IndexedGraphKernels#shortestPathPotentials(IndexedGraph)
+	 */
+	AllPairsShortestPaths(final IndexedGraph<N, E> graph, final ExecutorService threadExecutor, final double[] edgeWeights, final double[] potentials)
+	{
+		this(graph, threadExecutor, new MemoryPairStore(checkGraph(graph).getNodeCount()), edgeWeights, potentials);
+	}
+
+	/**
+	 * Calculates the paths between every pair of nodes in a memory mapped
+	 * file, searching with edge weights which were reweighted by the given
+	 * node potentials.
+	 *
+	 * @param graph the graph to find paths in.
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 * @param storeFile the file to hold the paths in.
+	 * @param edgeWeights the weight of each edge by edge index, null to use the
+	 *   weights of the graph.
+	 * @param potentials the potential of each node by node index the edge
+	 *   weights were reweighted with, null if they were not.
+	 * @throws IOException if the file can not be mapped.
+	 */
+	AllPairsShortestPaths(final IndexedGraph<N, E> graph, final ExecutorService threadExecutor, final File storeFile, final double[] edgeWeights, final double[] potentials) throws IOException
+	{
+		this(graph, threadExecutor, new MappedPairStore(checkGraph(graph).getNodeCount(), storeFile), edgeWeights, potentials);
+	}
+
+	private AllPairsShortestPaths(final IndexedGraph<N, E> graph, final ExecutorService threadExecutor, final PairStore store, final double[] edgeWeights, final double[] potentials)
+	{
+		this.graph = graph;
+		this.nodeCount = graph.getNodeCount();
+		this.store = store;
+		this.edgeWeights = edgeWeights;
+		this.potentials = potentials;
+		this.calculatePaths(threadExecutor);
+	}
+
+	private static <G extends IndexedGraph<?, ?>> G checkGraph(final G graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		return graph;
+	}
+
+	/**
+	 * Gets the number of bytes needed to hold the paths between every pair of
+	 * the given number of nodes.
+	 *
+	 * @param nodeCount the number of nodes in the graph.
+	 * @return the size of the store in bytes.
+	 */
+	public static long getStoreSize(final int nodeCount)
+	{
+		return ((long) nodeCount) * nodeCount * PAIR_BYTES;
+	}
+
+	/**
+	 * Checks if the paths between every pair of the given number of nodes can
+	 * comfortably be held on the heap, taking no more than a quarter of the
+	 * maximum heap size.
+	 *
+	 * @param nodeCount the number of nodes in the graph.
+	 * @return true if the paths should be held on the heap, false if they
+	 *   should be memory mapped.
+	 */
+	public static boolean isStoreInMemory(final int nodeCount)
+	{
+		return (((long) nodeCount) * nodeCount <= Integer.MAX_VALUE) && (getStoreSize(nodeCount) <= Runtime.getRuntime().maxMemory() / 4);
+	}
+
+	private void calculatePaths(final ExecutorService threadExecutor)
+	{
+		final List<Callable<Void>> searches = new ArrayList<Callable<Void>>();
+		for(int source = 0; source < this.nodeCount; source += SOURCES_PER_TASK)
+			searches.add(new Search(source, Math.min(this.nodeCount, source + SOURCES_PER_TASK)));
+
+		if( threadExecutor == null )
+		{
+			for(final Callable<Void> search : searches)
+			{
+				try
+				{
+					search.call();
+				}
+				catch(Exception caught)
+				{
+					throw new UnexpectedDannError("Search had an unexpected problem executing.", caught);
+				}
+			}
+			return;
+		}
+
+		try
+		{
+			for(final Future<Void> future : threadExecutor.invokeAll(searches))
+				future.get();
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("searching all pairs was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			LOGGER.error("Search had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	private class Search implements Callable<Void>
+	{
+		private final int sourceStart;
+		private final int sourceEnd;
+
+		public Search(final int sourceStart, final int sourceEnd)
+		{
+			this.sourceStart = sourceStart;
+			this.sourceEnd = sourceEnd;
+		}
+
+		@Override
+		public Void call()
+		{
+			final double[] pathWeights = new double[AllPairsShortestPaths.this.nodeCount];
+			for(int source = this.sourceStart; source < this.sourceEnd; source++)
+			{
+				final int[] parentEntries = IndexedGraphKernels.shortestPathTree(AllPairsShortestPaths.this.graph, source, null, Double.POSITIVE_INFINITY, pathWeights, AllPairsShortestPaths.this.edgeWeights);
+				// every reweighted path from the source to a target costs
+				// potential(source) - potential(target) more than it should
+				if( AllPairsShortestPaths.this.potentials != null )
+					for(int target = 0; target < pathWeights.length; target++)
+						if( !Double.isInfinite(pathWeights[target]) )
+							pathWeights[target] += AllPairsShortestPaths.this.potentials[target] - AllPairsShortestPaths.this.potentials[source];
+				AllPairsShortestPaths.this.store.putRow(source, pathWeights, parentEntries);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the graph the paths were calculated on.
+	 *
+	 * @return the graph the paths were calculated on.
+	 */
+	public IndexedGraph<N, E> getGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Gets the total cost of the cheapest path between two nodes.
+	 *
+	 * @param begin the node the path begins at.
+	 * @param end the node the path ends at.
+	 * @return the cost of the path, positive infinity if end can not be
+	 *   reached from begin.
+	 */
+	public double getPathWeight(final N begin, final N end)
+	{
+		final int beginIndex = this.graph.getNodeIndex(begin);
+		final int endIndex = this.graph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) )
+			return Double.POSITIVE_INFINITY;
+		return this.store.getWeight(beginIndex, endIndex);
+	}
+
+	@Override
+	public List<E> getBestPath(final N begin, final N end)
+	{
+		final int beginIndex = this.graph.getNodeIndex(begin);
+		final int endIndex = this.graph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) )
+			return null;
+		if( beginIndex == endIndex )
+			return Collections.emptyList();
+		if( this.store.getParentEntry(beginIndex, endIndex) < 0 )
+			return null;
+
+		final List<E> path = new ArrayList<E>();
+		int currentIndex = endIndex;
+		while( currentIndex != beginIndex )
+		{
+			final int parentEntry = this.store.getParentEntry(beginIndex, currentIndex);
+			path.add(this.graph.getEdge(this.graph.getTraversableEdgeIndex(parentEntry)));
+			currentIndex = IndexedGraphKernels.getTraversableSource(this.graph, parentEntry);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	@Override
+	public ShortestPathTree<N, E> getShortestPathTree(final N source)
+	{
+		if( source == null )
+			throw new IllegalArgumentException("source can not be null");
+		final int sourceIndex = this.graph.getNodeIndex(source);
+		if( sourceIndex < 0 )
+			throw new IllegalArgumentException("source is not in the graph");
+
+		final double[] pathWeights = new double[this.nodeCount];
+		final int[] parentEntries = new int[this.nodeCount];
+		this.store.getRow(sourceIndex, pathWeights, parentEntries);
+		return new IndexedShortestPathTree<N, E>(this.graph, sourceIndex, parentEntries, pathWeights);
+	}
+
+	@Override
+	public boolean isReachable(final N begin, final N end)
+	{
+		return !Double.isInfinite(this.getPathWeight(begin, end));
+	}
+
+	@Override
+	public boolean isConnected(final N begin, final N end)
+	{
+		return this.isReachable(begin, end);
+	}
+
+	/**
+	 * Releases the file backing a memory mapped store. The paths can not be
+	 * queried once closed.
+	 *
+	 * @throws IOException if the file could not be closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		this.store.close();
+	}
+
+	/**
+	 * Holds a path weight and parent entry for every pair of nodes. Rows are
+	 * only ever written by one thread each.
+	 */
+	private interface PairStore extends Closeable
+	{
+		void putRow(int source, double[] pathWeights, int[] parentEntries);
+
+		void getRow(int source, double[] pathWeights, int[] parentEntries);
+
+		double getWeight(int source, int target);
+
+		int getParentEntry(int source, int target);
+	}
+
+	private static final class MemoryPairStore implements PairStore
+	{
+		private final int nodeCount;
+		private final double[] weights;
+		private final int[] parentEntries;
+
+		public MemoryPairStore(final int nodeCount)
+		{
+			if( ((long) nodeCount) * nodeCount > Integer.MAX_VALUE )
+				throw new IllegalArgumentException("graph has too many nodes to hold all pairs in memory");
+			this.nodeCount = nodeCount;
+			this.weights = new double[nodeCount * nodeCount];
+			this.parentEntries = new int[nodeCount * nodeCount];
+		}
+
+		@Override
+		public void putRow(final int source, final double[] pathWeights, final int[] parentEntries)
+		{
+			System.arraycopy(pathWeights, 0, this.weights, source * this.nodeCount, this.nodeCount);
+			System.arraycopy(parentEntries, 0, this.parentEntries, source * this.nodeCount, this.nodeCount);
+		}
+
+		@Override
+		public void getRow(final int source, final double[] pathWeights, final int[] parentEntries)
+		{
+			System.arraycopy(this.weights, source * this.nodeCount, pathWeights, 0, this.nodeCount);
+			System.arraycopy(this.parentEntries, source * this.nodeCount, parentEntries, 0, this.nodeCount);
+		}
+
+		@Override
+		public double getWeight(final int source, final int target)
+		{
+			return this.weights[source * this.nodeCount + target];
+		}
+
+		@Override
+		public int getParentEntry(final int source, final int target)
+		{
+			return this.parentEntries[source * this.nodeCount + target];
+		}
+
+		@Override
+		public void close()
+		{
+		}
+	}
+
+	/**
+	 * Lays each row out as the weights of every target followed by their
+	 * parent entries. Since a single mapping can not exceed 2GB the file is
+	 * mapped in segments of whole rows.
+	 */
+	private static final class MappedPairStore implements PairStore
+	{
+		private final int nodeCount;
+		private final int rowBytes;
+		private final int rowsPerSegment;
+		private final RandomAccessFile file;
+		private final MappedByteBuffer[] segments;
+
+		public MappedPairStore(final int nodeCount, final File storeFile) throws IOException
+		{
+			if( storeFile == null )
+				throw new IllegalArgumentException("storeFile can not be null");
+			if( ((long) nodeCount) * PAIR_BYTES > Integer.MAX_VALUE )
+				throw new IllegalArgumentException("graph has too many nodes to map a row of pairs");
+
+			this.nodeCount = nodeCount;
+			this.rowBytes = nodeCount * PAIR_BYTES;
+			this.rowsPerSegment = Math.max(1, Integer.MAX_VALUE / Math.max(1, this.rowBytes));
+			this.file = new RandomAccessFile(storeFile, "rw");
+			try
+			{
+				this.file.setLength(getStoreSize(nodeCount));
+				final FileChannel channel = this.file.getChannel();
+				this.segments = new MappedByteBuffer[(nodeCount + this.rowsPerSegment - 1) / this.rowsPerSegment];
+				for(int segment = 0; segment < this.segments.length; segment++)
+				{
+					final int rows = Math.min(this.rowsPerSegment, nodeCount - segment * this.rowsPerSegment);
+					this.segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, ((long) segment) * this.rowsPerSegment * this.rowBytes, ((long) rows) * this.rowBytes);
+				}
+			}
+			catch(IOException caught)
+			{
+				this.file.close();
+				throw caught;
+			}
+		}
+
+		private ByteBuffer getSegment(final int source)
+		{
+			return this.segments[source / this.rowsPerSegment];
+		}
+
+		private int getRowOffset(final int source)
+		{
+			return (source % this.rowsPerSegment) * this.rowBytes;
+		}
+
+		@Override
+		public void putRow(final int source, final double[] pathWeights, final int[] parentEntries)
+		{
+			//absolute puts never move the shared position, so rows can be
+			//written concurrently
+			final ByteBuffer segment = this.getSegment(source);
+			final int weightOffset = this.getRowOffset(source);
+			final int entryOffset = weightOffset + this.nodeCount * 8;
+			for(int target = 0; target < this.nodeCount; target++)
+			{
+				segment.putDouble(weightOffset + target * 8, pathWeights[target]);
+				segment.putInt(entryOffset + target * 4, parentEntries[target]);
+			}
+		}
+
+		@Override
+		public void getRow(final int source, final double[] pathWeights, final int[] parentEntries)
+		{
+			for(int target = 0; target < this.nodeCount; target++)
+			{
+				pathWeights[target] = this.getWeight(source, target);
+				parentEntries[target] = this.getParentEntry(source, target);
+			}
+		}
+
+		@Override
+		public double getWeight(final int source, final int target)
+		{
+			return this.getSegment(source).getDouble(this.getRowOffset(source) + target * 8);
+		}
+
+		@Override
+		public int getParentEntry(final int source, final int target)
+		{
+			return this.getSegment(source).getInt(this.getRowOffset(source) + this.nodeCount * 8 + target * 4);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			this.file.close();
+		}
+	}
+}
@@ -20,34 +20,41 @@ package com.syncleus.dann.graph.search.pathfinding;
 
 import com.syncleus.dann.graph.TraversableCloud;
 import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import com.syncleus.dann.graph.IndexedPriorityHeap;
 import com.syncleus.dann.graph.Weighted;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFinder<N, E>
 {
-	private final class PathedStep implements Comparable<PathedStep>
+	private final class PathedStep
 	{
 		private final N node;
-		private final N goalNode;
+		private final int id;
+		private final double heuristicCostToGoal;
 		private PathedStep parent;
 		private E parentEdge;
 		private double cachedPathWeight;
 
-		public PathedStep(final N node, final N goalNode)
+		public PathedStep(final N node, final N goalNode, final int id)
 		{
 			if( node == null )
 				throw new IllegalArgumentException("node can not be null");
-			if( goalNode == null )
-				throw new IllegalArgumentException("goalNode can not be null");
 
-			this.goalNode = goalNode;
 			this.node = node;
+			this.id = id;
+			//the heuristic never changes for a node so only ask for it once,
+			//without a single goal there is nothing to estimate
+			this.heuristicCostToGoal = (goalNode == null ? 0.0 : heuristicPathCost.getHeuristicPathCost(node, goalNode));
 		}
 
 		private boolean updateParent(final PathedStep newParent, final E newParentEdge)
@@ -73,6 +80,11 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 			return this.node;
 		}
 
+		public int getId()
+		{
+			return this.id;
+		}
+
 		public PathedStep getParent()
 		{
 			return this.parent;
@@ -85,44 +97,12 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 
 		public double getHeuristicCostToGoal()
 		{
-			return heuristicPathCost.getHeuristicPathCost(this.node, this.goalNode);
+			return this.heuristicCostToGoal;
 		}
 
 		public double getHeuristicOverallCost()
 		{
-			return this.cachedPathWeight + this.getHeuristicCostToGoal();
-		}
-
-		@Override
-		public boolean equals(final Object compareToObj)
-		{
-			if( compareToObj == null )
-				return false;
-
-			if( !(compareToObj.getClass().isInstance(this)) )
-				return false;
-
-			final PathedStep compareTo = (PathedStep) compareToObj;
-			return ((this.node.equals(compareTo)) || (this.node.equals(compareTo.node)));
-		}
-
-		@Override
-		public int hashCode()
-		{
-			return this.node.hashCode();
-		}
-
-		@Override
-		public int compareTo(final PathedStep compareWith)
-		{
-			//the natural ordering is inverse cause the smallest path weight is
-			//the best weight.
-			if( this.getHeuristicOverallCost() < compareWith.getHeuristicOverallCost() )
-				return -1;
-			else if( this.getHeuristicOverallCost() > compareWith.getHeuristicOverallCost() )
-				return 1;
-			else
-				return 0;
+			return this.cachedPathWeight + this.heuristicCostToGoal;
 		}
 
 		public E getParentEdge()
@@ -152,6 +132,24 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 
 	@Override
 	public List<E> getBestPath(final N begin, final N end)
+	{
+		return this.getBestPath(begin, end, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Finds the cheapest path between two nodes which costs no more than the
+	 * given maximum. The search gives up as soon as every candidate is
+	 * estimated to cost more than the maximum, so a low maximum bounds the
+	 * work done on queries with no cheap answer.
+	 *
+	 * @param begin the node to start from.
+	 * @param end the goal node.
+	 * @param maximumCost the most the path may cost.
+	 * @return the edges along the path, or null if there is no path within the
+	 *   maximum cost.
+	 * @since 2.2
+	 */
+	public List<E> getBestPath(final N begin, final N end, final double maximumCost)
 	{
 		if( begin == null )
 			throw new IllegalArgumentException("begin can not be null");
@@ -160,23 +158,109 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 		if( begin.equals(end) )
 			throw new IllegalArgumentException("begin can not be equal to end");
 
+		if( this.graph instanceof IndexedGraph )
+			return this.getIndexedBestPath((IndexedGraph<N, E>) this.graph, begin, end, maximumCost);
+
+		return this.search(begin, end, Collections.singleton(end), maximumCost, null).get(end);
+	}
+
+	/**
+	 * Finds the cheapest paths from one node to several others in a single
+	 * search which stops once every end node has been reached. The heuristic
+	 * is not used since there is no single goal to estimate against.
+	 *
+	 * @param begin the node to start from.
+	 * @param ends the nodes to find paths to.
+	 * @param maximumCost the most a path may cost.
+	 * @return the path to each end node which could be reached within the
+	 *   maximum cost, end nodes which could not be reached are absent.
+	 * @since 2.2
+	 */
+	protected Map<N, List<E>> getBestPaths(final N begin, final Set<N> ends, final double maximumCost)
+	{
+		if( begin == null )
+			throw new IllegalArgumentException("begin can not be null");
+		if( ends == null )
+			throw new IllegalArgumentException("ends can not be null");
+
+		if( this.graph instanceof IndexedGraph )
+			return this.getIndexedBestPaths((IndexedGraph<N, E>) this.graph, begin, ends, maximumCost);
+
+		return this.search(begin, null, ends, maximumCost, null);
+	}
+
+	/**
+	 * Calculates the cheapest path from the source to every node reachable
+	 * from it. The heuristic is not used since there is no single goal.
+	 *
+	 * @param source the node every path begins at.
+	 * @return the tree of cheapest paths from the source.
+	 * @since 2.2
+	 */
+	protected ShortestPathTree<N, E> calculateShortestPathTree(final N source)
+	{
+		if( source == null )
+			throw new IllegalArgumentException("source can not be null");
+
+		if( this.graph instanceof IndexedGraph )
+		{
+			final IndexedGraph<N, E> indexedGraph = (IndexedGraph<N, E>) this.graph;
+			final int sourceIndex = indexedGraph.getNodeIndex(source);
+			if( sourceIndex < 0 )
+				throw new IllegalArgumentException("source is not in the graph");
+			final double[] pathWeights = new double[indexedGraph.getNodeCount()];
+			final int[] parentEntries = IndexedGraphKernels.shortestPathTree(indexedGraph, sourceIndex, null, Double.POSITIVE_INFINITY, pathWeights);
+			return new IndexedShortestPathTree<N, E>(indexedGraph, sourceIndex, parentEntries, pathWeights);
+		}
+
+		final SimpleShortestPathTree<N, E> tree = new SimpleShortestPathTree<N, E>(source);
+		this.search(source, null, null, Double.POSITIVE_INFINITY, tree);
+		return tree;
+	}
+
+	/**
+	 * Searches outward from begin, stopping once every end has been reached.
+	 * When ends is null every reachable node is settled, and when tree is not
+	 * null every settled node is recorded in it.
+	 */
+	private Map<N, List<E>> search(final N begin, final N goal, final Set<N> ends, final double maximumCost, final SimpleShortestPathTree<N, E> tree)
+	{
+		final Map<N, List<E>> paths = new HashMap<N, List<E>>();
+		final Set<N> remainingEnds = (ends == null ? null : new HashSet<N>(ends));
+		if( remainingEnds != null )
+		{
+			remainingEnds.remove(begin);
+			if( remainingEnds.isEmpty() )
+				return paths;
+		}
+
 		//initalize candidate nodes queue containing potential edges as a
-		//solution
+		//solution, steps are numbered as they are discovered so the queue and
+		//the closed set can work on dense ids
 		final Map<N, PathedStep> nodeStepMapping = new HashMap<N, PathedStep>();
-		final PriorityQueue<PathedStep> candidateSteps = new PriorityQueue<PathedStep>();
-		final PathedStep beginStep = new PathedStep(begin, end);
+		final List<PathedStep> steps = new ArrayList<PathedStep>();
+		final IndexedPriorityHeap candidateSteps = new IndexedPriorityHeap();
+		final PathedStep beginStep = new PathedStep(begin, goal, steps.size());
 		nodeStepMapping.put(begin, beginStep);
-		candidateSteps.add(beginStep);
+		steps.add(beginStep);
+		candidateSteps.offer(beginStep.getId(), beginStep.getHeuristicOverallCost());
 
 		//all nodes that have been closed can no longer be traversed
-		final Set<PathedStep> closedSteps = new HashSet<PathedStep>();
+		final BitSet closedSteps = new BitSet();
 
-		//lets iterate through each step from the begining
-		while( !candidateSteps.isEmpty() )
+		//lets iterate through each step from the begining, with an admissible
+		//heuristic nothing left can be cheaper than the head of the queue
+		while( !candidateSteps.isEmpty() && (candidateSteps.peekPriority() <= maximumCost) )
 		{
-			final PathedStep currentStep = candidateSteps.poll();
-			if( currentStep.getNode().equals(end) )
-				return pathedStepToWalk(currentStep);
+			final PathedStep currentStep = steps.get(candidateSteps.poll());
+			if( (tree != null) && (currentStep.getParent() != null) )
+				tree.setParent(currentStep.getNode(), currentStep.getParent().getNode(), currentStep.getParentEdge(), currentStep.getCachedPathWeight());
+			if( (remainingEnds != null) && remainingEnds.remove(currentStep.getNode()) )
+			{
+				paths.put(currentStep.getNode(), pathedStepToWalk(currentStep));
+				if( remainingEnds.isEmpty() )
+					break;
+			}
 
 			for(final E edge : this.graph.getTraversableEdges(currentStep.node))
 			{
@@ -185,30 +269,26 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 					if( neighborNode.equals(currentStep.node) )
 						continue;
 
-					final PathedStep neighborStep;
-					if( nodeStepMapping.containsKey(neighborNode) )
-						neighborStep = nodeStepMapping.get(neighborNode);
-					else
+					PathedStep neighborStep = nodeStepMapping.get(neighborNode);
+					if( neighborStep == null )
 					{
-						neighborStep = new PathedStep(neighborNode, end);
+						neighborStep = new PathedStep(neighborNode, goal, steps.size());
 						nodeStepMapping.put(neighborNode, neighborStep);
+						steps.add(neighborStep);
 					}
 
-					if( !neighborNode.equals(begin) )
-						neighborStep.updateParent(currentStep, edge);
-
-					if( !closedSteps.contains(neighborStep) )
-					{
-						candidateSteps.remove(neighborStep);
-						candidateSteps.add(neighborStep);
-					}
+					//a cheaper path to an open step is a decrease-key
+					if( !neighborNode.equals(begin)
+							&& neighborStep.updateParent(currentStep, edge)
+							&& !closedSteps.get(neighborStep.getId()) )
+						candidateSteps.offer(neighborStep.getId(), neighborStep.getHeuristicOverallCost());
 				}
 			}
 
-			closedSteps.add(currentStep);
+			closedSteps.set(currentStep.getId());
 		}
 
-		return null;
+		return paths;
 	}
 
 	@Override
@@ -223,6 +303,76 @@ public class AstarPathFinder<N, E extends TraversableCloud<N>> implements PathFi
 		return (this.getBestPath(begin, end) != null);
 	}
 
+	private List<E> getIndexedBestPath(final IndexedGraph<N, E> indexedGraph, final N begin, final N end, final double maximumCost)
+	{
+		final int beginIndex = indexedGraph.getNodeIndex(begin);
+		final int endIndex = indexedGraph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) )
+			return null;
+
+		//a zero heuristic is plain dijkstra, no need to ask for it
+		final IndexedGraphKernels.HeuristicCost indexedHeuristic;
+		if( this.heuristicPathCost instanceof DijkstraPathFinder.ZeroHeuristicPathCost )
+			indexedHeuristic = null;
+		else
+			indexedHeuristic = new IndexedGraphKernels.HeuristicCost()
+			{
+				@Override
+				public double getHeuristicCost(final int nodeIndex)
+				{
+					return heuristicPathCost.getHeuristicPathCost(indexedGraph.getNode(nodeIndex), end);
+				}
+			};
+
+		return toEdges(indexedGraph, IndexedGraphKernels.bestFirstPath(indexedGraph, beginIndex, endIndex, indexedHeuristic, maximumCost));
+	}
+
+	private Map<N, List<E>> getIndexedBestPaths(final IndexedGraph<N, E> indexedGraph, final N begin, final Set<N> ends, final double maximumCost)
+	{
+		final Map<N, List<E>> paths = new HashMap<N, List<E>>();
+		final int beginIndex = indexedGraph.getNodeIndex(begin);
+		if( beginIndex < 0 )
+			return paths;
+
+		final int[] endIndexes = new int[ends.size()];
+		int endCount = 0;
+		for(final N end : ends)
+		{
+			final int endIndex = indexedGraph.getNodeIndex(end);
+			if( (endIndex >= 0) && (endIndex != beginIndex) )
+				endIndexes[endCount++] = endIndex;
+		}
+		if( endCount == 0 )
+			return paths;
+
+		final int[] targets = Arrays.copyOf(endIndexes, endCount);
+		final int[] parentEntries = IndexedGraphKernels.shortestPathTree(indexedGraph, beginIndex, targets, maximumCost);
+		for(final int target : targets)
+		{
+			final List<E> path = toEdges(indexedGraph, IndexedGraphKernels.walkEntries(indexedGraph, parentEntries, beginIndex, target));
+			if( path != null )
+				paths.put(indexedGraph.getNode(target), path);
+		}
+		return paths;
+	}
+
+	/**
+	 * Converts the edge indexes of a path back to edges.
+	 *
+	 * @param indexedGraph the graph the indexes belong to.
+	 * @param path the edge indexes along the path, may be null.
+	 * @return the edges along the path, or null if the path was null.
+	 */
+	static <N, E extends TraversableCloud<N>> List<E> toEdges(final IndexedGraph<N, E> indexedGraph, final int[] path)
+	{
+		if( path == null )
+			return null;
+		final List<E> edges = new ArrayList<E>(path.length);
+		for(final int edgeIndex : path)
+			edges.add(indexedGraph.getEdge(edgeIndex));
+		return edges;
+	}
+
 	private List<E> pathedStepToWalk(final PathedStep endPathedStep)
 	{
 		final List<E> edges = new ArrayList<E>();
@@ -19,18 +19,22 @@
 package com.syncleus.dann.graph.search.pathfinding;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import com.syncleus.dann.graph.DirectedEdge;
 import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
 import com.syncleus.dann.graph.Weighted;
 
-public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements PathFinder<N, E>
+public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements PathFinder<N, E>, ShortestPathTreeFinder<N, E>
 {
 	private final Graph<N, E> graph;
 	private Map<N, PathedStep> pathedSteps;
+	private int[] indexedParentEntries;
 
 	public BellmanFordPathFinder(final Graph<N, E> graph)
 	{
@@ -47,8 +51,10 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 
 	public List<E> getBestPath(final N begin, final N end, final boolean refresh)
 	{
-		if( (refresh) || (this.pathedSteps == null) )
+		if( (refresh) || ((this.pathedSteps == null) && (this.indexedParentEntries == null)) )
 			this.calculateSteps(begin);
+		if( this.indexedParentEntries != null )
+			return this.indexedParentsToWalk((IndexedGraph<N, E>) this.graph, begin, end);
 		//construct a walk from the end node
 		final PathedStep endPathedStep = pathedSteps.get(end);
 		final PathedStep beginPathedStep = pathedSteps.get(begin);
@@ -58,6 +64,20 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 
 	public void calculateSteps(final N begin)
 	{
+		if( this.graph instanceof IndexedGraph )
+		{
+			final IndexedGraph<N, E> indexedGraph = (IndexedGraph<N, E>) this.graph;
+			final int beginIndex = indexedGraph.getNodeIndex(begin);
+			if( beginIndex < 0 )
+				throw new IllegalArgumentException("begin is not in the graph");
+			this.pathedSteps = null;
+			this.indexedParentEntries = IndexedGraphKernels.shortestPathEntries(indexedGraph, beginIndex);
+			if( this.indexedParentEntries == null )
+				throw new NegativeWeightCycleException("negative-weight cycle found in graph");
+			return;
+		}
+
+		this.indexedParentEntries = null;
 		final Set<? extends N> nodes = this.graph.getNodes();
 		final Set<? extends E> edges = this.graph.getEdges();
 		this.pathedSteps = new HashMap<N, PathedStep>(nodes.size());
@@ -66,7 +86,7 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 		{
 			for(final E edge : edges)
 			{
-				if( edge.getDestinationNode() == begin )
+				if( edge.getDestinationNode().equals(begin) )
 					continue;
 				PathedStep sourcePathedStep = pathedSteps.get(edge.getSourceNode());
 				if( sourcePathedStep == null )
@@ -86,7 +106,7 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 		//check for negative cycles
 		for(final E edge : edges)
 		{
-			if( edge.getDestinationNode() == begin )
+			if( edge.getDestinationNode().equals(begin) )
 				continue;
 			final PathedStep sourcePathedStep = pathedSteps.get(edge.getSourceNode());
 			final PathedStep destinationPathedStep = pathedSteps.get(edge.getDestinationNode());
@@ -96,6 +116,47 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 		}
 	}
 
+	/**
+	 * Calculates the cheapest path from the source to every node reachable
+	 * from it. Unlike getBestPath the result does not change when other
+	 * sources are calculated, so it can be kept and queried repeatedly.
+	 *
+	 * @param source the node every path begins at.
+	 * @return the tree of cheapest paths from the source.
+	 * @throws NegativeWeightCycleException if a negative-weight cycle is
+	 *   reachable from the source.
+	 * @since 2.2
+	 */
+	@Override
+	public ShortestPathTree<N, E> getShortestPathTree(final N source)
+	{
+		if( source == null )
+			throw new IllegalArgumentException("source can not be null");
+
+		if( this.graph instanceof IndexedGraph )
+		{
+			final IndexedGraph<N, E> indexedGraph = (IndexedGraph<N, E>) this.graph;
+			final int sourceIndex = indexedGraph.getNodeIndex(source);
+			if( sourceIndex < 0 )
+				throw new IllegalArgumentException("source is not in the graph");
+			final double[] pathWeights = new double[indexedGraph.getNodeCount()];
+			final int[] parentEntries = IndexedGraphKernels.shortestPathEntries(indexedGraph, sourceIndex, pathWeights);
+			if( parentEntries == null )
+				throw new NegativeWeightCycleException("negative-weight cycle found in graph");
+			return new IndexedShortestPathTree<N, E>(indexedGraph, sourceIndex, parentEntries, pathWeights);
+		}
+
+		this.calculateSteps(source);
+		final SimpleShortestPathTree<N, E> tree = new SimpleShortestPathTree<N, E>(source);
+		for(final PathedStep step : this.pathedSteps.values())
+		{
+			//steps which were never reached keep an infinite weight
+			if( (step.getParent() != null) && !Double.isInfinite(step.getCachedPathWeight()) && !step.getNode().equals(source) )
+				tree.setParent(step.getNode(), step.getParent().getNode(), step.getParentEdge(), step.getCachedPathWeight());
+		}
+		return tree;
+	}
+
 	@Override
 	public boolean isReachable(final N begin, final N end)
 	{
@@ -108,6 +169,25 @@ public class BellmanFordPathFinder<N, E extends DirectedEdge<N>> implements Path
 		return (this.getBestPath(begin, end) != null);
 	}
 
+	private List<E> indexedParentsToWalk(final IndexedGraph<N, E> indexedGraph, final N begin, final N end)
+	{
+		final int beginIndex = indexedGraph.getNodeIndex(begin);
+		final int endIndex = indexedGraph.getNodeIndex(end);
+		if( (endIndex < 0) || ((endIndex != beginIndex) && (this.indexedParentEntries[endIndex] < 0)) )
+			return null;
+
+		final List<E> edges = new ArrayList<E>();
+		int currentIndex = endIndex;
+		while( (currentIndex != beginIndex) && (this.indexedParentEntries[currentIndex] >= 0) )
+		{
+			final int parentEntry = this.indexedParentEntries[currentIndex];
+			edges.add(indexedGraph.getEdge(indexedGraph.getTraversableEdgeIndex(parentEntry)));
+			currentIndex = IndexedGraphKernels.getTraversableSource(indexedGraph, parentEntry);
+		}
+		Collections.reverse(edges);
+		return edges;
+	}
+
 	private List<E> pathedStepToWalk(final PathedStep endPathedStep)
 	{
 		final List<E> edges = new ArrayList<E>();
@@ -0,0 +1,263 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.syncleus.dann.graph.BidirectedEdge;
+import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import com.syncleus.dann.graph.IndexedPriorityHeap;
+import com.syncleus.dann.graph.Weighted;
+
+/**
+ * Finds the cheapest path between two nodes by running Dijkstra's algorithm
+ * from both ends at once, forward from the begin node along traversable edges
+ * and backward from the end node along in edges. The cheaper frontier is
+ * always expanded and the search stops once the two frontiers together can not
+ * improve on the cheapest path found where they meet. On large sparse graphs
+ * this settles far fewer nodes than a one way search. Paths cost the same as
+ * with DijkstraPathFinder: the weight of each edge, 0 if it is not weighted,
+ * plus the weight of each node stepped on to, 1 if it is not weighted.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class BidirectionalDijkstraPathFinder<N, E extends BidirectedEdge<N>> implements PathFinder<N, E>
+{
+	private final class SearchStep
+	{
+		private final N node;
+		private final int id;
+		private SearchStep parent;
+		private E parentEdge;
+		private double pathWeight = Double.POSITIVE_INFINITY;
+
+		public SearchStep(final N node, final int id)
+		{
+			this.node = node;
+			this.id = id;
+		}
+	}
+
+	/**
+	 * One direction of the search, steps are numbered as they are discovered.
+	 */
+	private final class Frontier
+	{
+		private final Map<N, SearchStep> nodeSteps = new HashMap<N, SearchStep>();
+		private final List<SearchStep> steps = new ArrayList<SearchStep>();
+		private final IndexedPriorityHeap candidates = new IndexedPriorityHeap();
+		private final BitSet settled = new BitSet();
+
+		public Frontier(final N root)
+		{
+			final SearchStep rootStep = this.getStep(root);
+			rootStep.pathWeight = 0.0;
+			this.candidates.offer(rootStep.id, 0.0);
+		}
+
+		public SearchStep getStep(final N node)
+		{
+			SearchStep step = this.nodeSteps.get(node);
+			if( step == null )
+			{
+				step = new SearchStep(node, this.steps.size());
+				this.nodeSteps.put(node, step);
+				this.steps.add(step);
+			}
+			return step;
+		}
+
+		public double getPathWeight(final N node)
+		{
+			final SearchStep step = this.nodeSteps.get(node);
+			return (step == null ? Double.POSITIVE_INFINITY : step.pathWeight);
+		}
+
+		public SearchStep settleNext()
+		{
+			final SearchStep step = this.steps.get(this.candidates.poll());
+			this.settled.set(step.id);
+			return step;
+		}
+
+		public void relax(final SearchStep parent, final E edge, final N node, final double stepWeight)
+		{
+			final SearchStep step = this.getStep(node);
+			if( !this.settled.get(step.id) && (parent.pathWeight + stepWeight < step.pathWeight) )
+			{
+				step.pathWeight = parent.pathWeight + stepWeight;
+				step.parent = parent;
+				step.parentEdge = edge;
+				this.candidates.offer(step.id, step.pathWeight);
+			}
+		}
+	}
+
+	private final BidirectedGraph<N, E> graph;
+
+	public BidirectionalDijkstraPathFinder(final BidirectedGraph<N, E> graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		this.graph = graph;
+	}
+
+	@Override
+	public List<E> getBestPath(final N begin, final N end)
+	{
+		return this.getBestPath(begin, end, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Finds the cheapest path between two nodes which costs no more than the
+	 * given maximum.
+	 *
+	 * @param begin the node to start from.
+	 * @param end the goal node.
+	 * @param maximumCost the most the path may cost.
+	 * @return the edges along the path, or null if there is no path within the
+	 *   maximum cost.
+	 */
+	public List<E> getBestPath(final N begin, final N end, final double maximumCost)
+	{
+		if( begin == null )
+			throw new IllegalArgumentException("begin can not be null");
+		if( end == null )
+			throw new IllegalArgumentException("end can not be null");
+		if( begin.equals(end) )
+			throw new IllegalArgumentException("begin can not be equal to end");
+
+		if( this.graph instanceof IndexedGraph )
+		{
+			final IndexedGraph<N, E> indexedGraph = (IndexedGraph<N, E>) this.graph;
+			final int beginIndex = indexedGraph.getNodeIndex(begin);
+			final int endIndex = indexedGraph.getNodeIndex(end);
+			if( (beginIndex < 0) || (endIndex < 0) )
+				return null;
+			return AstarPathFinder.toEdges(indexedGraph, IndexedGraphKernels.bidirectionalPath(indexedGraph, beginIndex, endIndex, maximumCost));
+		}
+
+		final Frontier forward = new Frontier(begin);
+		final Frontier backward = new Frontier(end);
+
+		//the cheapest meeting found so far, across meetEdge
+		double bestWeight = Double.POSITIVE_INFINITY;
+		SearchStep meetForward = null;
+		SearchStep meetBackward = null;
+		E meetEdge = null;
+		while( !forward.candidates.isEmpty() && !backward.candidates.isEmpty() )
+		{
+			final double frontierWeight = forward.candidates.peekPriority() + backward.candidates.peekPriority();
+			if( (frontierWeight >= bestWeight) || (frontierWeight > maximumCost) )
+				break;
+
+			if( forward.candidates.peekPriority() <= backward.candidates.peekPriority() )
+			{
+				final SearchStep currentStep = forward.settleNext();
+				for(final E edge : this.graph.getTraversableEdges(currentStep.node))
+				{
+					final N neighborNode = otherEndPoint(edge, currentStep.node);
+					if( (neighborNode == null) || neighborNode.equals(begin) )
+						continue;
+					final double stepWeight = getStepWeight(edge, neighborNode);
+					forward.relax(currentStep, edge, neighborNode, stepWeight);
+
+					final double meetWeight = currentStep.pathWeight + stepWeight + backward.getPathWeight(neighborNode);
+					if( meetWeight < bestWeight )
+					{
+						bestWeight = meetWeight;
+						meetForward = currentStep;
+						meetBackward = backward.nodeSteps.get(neighborNode);
+						meetEdge = edge;
+					}
+				}
+			}
+			else
+			{
+				final SearchStep currentStep = backward.settleNext();
+				for(final E edge : this.graph.getInEdges(currentStep.node))
+				{
+					final N neighborNode = otherEndPoint(edge, currentStep.node);
+					if( (neighborNode == null) || neighborNode.equals(end) )
+						continue;
+					final double stepWeight = getStepWeight(edge, currentStep.node);
+					backward.relax(currentStep, edge, neighborNode, stepWeight);
+
+					final double meetWeight = forward.getPathWeight(neighborNode) + stepWeight + currentStep.pathWeight;
+					if( meetWeight < bestWeight )
+					{
+						bestWeight = meetWeight;
+						meetForward = forward.nodeSteps.get(neighborNode);
+						meetBackward = currentStep;
+						meetEdge = edge;
+					}
+				}
+			}
+		}
+
+		if( (meetEdge == null) || (bestWeight > maximumCost) )
+			return null;
+
+		final List<E> path = new ArrayList<E>();
+		for(SearchStep step = meetForward; step.parentEdge != null; step = step.parent)
+			path.add(step.parentEdge);
+		Collections.reverse(path);
+		path.add(meetEdge);
+		for(SearchStep step = meetBackward; step.parentEdge != null; step = step.parent)
+			path.add(step.parentEdge);
+		return path;
+	}
+
+	@Override
+	public boolean isReachable(final N begin, final N end)
+	{
+		return (this.getBestPath(begin, end) != null);
+	}
+
+	@Override
+	public boolean isConnected(final N begin, final N end)
+	{
+		return (this.getBestPath(begin, end) != null);
+	}
+
+	/**
+	 * Gets the end point of the edge opposite the given node, or null if the
+	 * edge is a loop.
+	 */
+	private static <N> N otherEndPoint(final BidirectedEdge<N> edge, final N node)
+	{
+		final N otherNode = (edge.getLeftNode().equals(node) ? edge.getRightNode() : edge.getLeftNode());
+		return (otherNode.equals(node) ? null : otherNode);
+	}
+
+	private static double getStepWeight(final Object edge, final Object steppedOnNode)
+	{
+		final double edgeWeight = (edge instanceof Weighted ? ((Weighted) edge).getWeight() : 0.0);
+		final double nodeWeight = (steppedOnNode instanceof Weighted ? ((Weighted) steppedOnNode).getWeight() : 1.0);
+		return edgeWeight + nodeWeight;
+	}
+}
@@ -0,0 +1,196 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.GraphListener;
+import com.syncleus.dann.graph.ObservableGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * A path finder which answers queries from the shortest path trees of another
+ * finder, keeping the trees of the most recently used sources. Repeated
+ * queries from a few hot sources are then answered by walking a cached tree
+ * rather than searching the graph again. When created with the
+ * ObservableGraph being searched the cache is discarded whenever the graph
+ * changes, otherwise invalidate must be called after the graph is modified.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class CachingShortestPathTreeFinder<N, E extends TraversableCloud<? extends N>> implements PathFinder<N, E>, ShortestPathTreeFinder<N, E>
+{
+	private final ShortestPathTreeFinder<N, E> finder;
+	private final Map<N, ShortestPathTree<N, E>> trees;
+	// null unless registered with an observable graph
+	private volatile Invalidator<?, ?> invalidator;
+
+	/**
+	 * Creates a cache which must be invalidated manually when the graph
+	 * changes.
+	 *
+	 * @param finder the finder which calculates the trees.
+	 * @param capacity the most trees to keep at once.
+	 */
+	public CachingShortestPathTreeFinder(final ShortestPathTreeFinder<N, E> finder, final int capacity)
+	{
+		if( finder == null )
+			throw new IllegalArgumentException("finder can not be null");
+		if( capacity < 1 )
+			throw new IllegalArgumentException("capacity must be at least 1");
+
+		this.finder = finder;
+		this.trees = new LinkedHashMap<N, ShortestPathTree<N, E>>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = -2870462357149117623L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<N, ShortestPathTree<N, E>> eldest)
+			{
+				return this.size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Creates a cache which is invalidated automatically whenever the graph
+	 * changes. The cache stays registered with the graph until disposed.
+	 *
+	 * @param finder the finder which calculates the trees.
+	 * @param capacity the most trees to keep at once.
+	 * @param graph the graph the finder searches.
+	 */
+	public CachingShortestPathTreeFinder(final ShortestPathTreeFinder<N, E> finder, final int capacity, final ObservableGraph<?, ?> graph)
+	{
+		this(finder, capacity);
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		this.invalidator = createInvalidator(graph);
+	}
+
+	private <GN, GE extends TraversableCloud<GN>> Invalidator<GN, GE> createInvalidator(final ObservableGraph<GN, GE> graph)
+	{
+		final Invalidator<GN, GE> graphInvalidator = new Invalidator<GN, GE>(graph);
+		graph.addGraphListener(graphInvalidator);
+		return graphInvalidator;
+	}
+
+	/**
+	 * Discards the cached trees whenever the graph changes.
+	 */
+	private final class Invalidator<GN, GE extends TraversableCloud<GN>> implements GraphListener<GN, GE>
+	{
+		private final ObservableGraph<GN, GE> graph;
+
+		public Invalidator(final ObservableGraph<GN, GE> graph)
+		{
+			this.graph = graph;
+		}
+
+		public void unregister()
+		{
+			this.graph.removeGraphListener(this);
+		}
+
+		@Override
+		public void nodeAdded(final Graph<GN, GE> changedGraph, final GN node)
+		{
+			invalidate();
+		}
+
+		@Override
+		public void nodeRemoved(final Graph<GN, GE> changedGraph, final GN node)
+		{
+			invalidate();
+		}
+
+		@Override
+		public void edgeAdded(final Graph<GN, GE> changedGraph, final GE edge)
+		{
+			invalidate();
+		}
+
+		@Override
+		public void edgeRemoved(final Graph<GN, GE> changedGraph, final GE edge)
+		{
+			invalidate();
+		}
+	}
+
+	/**
+	 * Unregisters the cache from the graph it was created with so the graph no
+	 * longer holds a reference to it, and discards every cached tree. The cache
+	 * can still be used afterwards, but must then be invalidated manually.
+	 */
+	public synchronized void dispose()
+	{
+		final Invalidator<?, ?> registered = this.invalidator;
+		if( registered != null )
+		{
+			this.invalidator = null;
+			registered.unregister();
+		}
+		this.invalidate();
+	}
+
+	/**
+	 * Discards every cached tree.
+	 */
+	public synchronized void invalidate()
+	{
+		this.trees.clear();
+	}
+
+	@Override
+	public synchronized ShortestPathTree<N, E> getShortestPathTree(final N source)
+	{
+		if( source == null )
+			throw new IllegalArgumentException("source can not be null");
+
+		ShortestPathTree<N, E> tree = this.trees.get(source);
+		if( tree == null )
+		{
+			tree = this.finder.getShortestPathTree(source);
+			this.trees.put(source, tree);
+		}
+		return tree;
+	}
+
+	@Override
+	public List<E> getBestPath(final N begin, final N end)
+	{
+		return this.getShortestPathTree(begin).getBestPath(end);
+	}
+
+	@Override
+	public boolean isReachable(final N begin, final N end)
+	{
+		return this.getShortestPathTree(begin).isReachable(end);
+	}
+
+	@Override
+	public boolean isConnected(final N begin, final N end)
+	{
+		return this.getShortestPathTree(begin).isReachable(end);
+	}
+}
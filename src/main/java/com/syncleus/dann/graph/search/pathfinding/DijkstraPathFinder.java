@@ -18,10 +18,13 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.search.pathfinding;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import com.syncleus.dann.graph.TraversableCloud;
 import com.syncleus.dann.graph.Graph;
 
-public class DijkstraPathFinder<N, E extends TraversableCloud<N>> extends AstarPathFinder<N, E>
+public class DijkstraPathFinder<N, E extends TraversableCloud<N>> extends AstarPathFinder<N, E> implements ShortestPathTreeFinder<N, E>
 {
 	public static final class ZeroHeuristicPathCost<N> implements HeuristicPathCost<N>
 	{
@@ -48,4 +51,42 @@ public class DijkstraPathFinder<N, E extends TraversableCloud<N>> extends AstarP
 	{
 		super(graph, new ZeroHeuristicPathCost<N>());
 	}
+
+	/**
+	 * Finds the cheapest paths from one node to several others. Every end node
+	 * is settled in a single pass rather than one search per end node.
+	 *
+	 * @param begin the node to start from.
+	 * @param ends the nodes to find paths to.
+	 * @return the path to each end node which could be reached, end nodes
+	 *   which could not be reached are absent.
+	 * @since 2.2
+	 */
+	public Map<N, List<E>> getBestPaths(final N begin, final Set<N> ends)
+	{
+		return this.getBestPaths(begin, ends, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Finds the cheapest paths from one node to several others, ignoring any
+	 * path which would cost more than the given maximum.
+	 *
+	 * @param begin the node to start from.
+	 * @param ends the nodes to find paths to.
+	 * @param maximumCost the most a path may cost.
+	 * @return the path to each end node which could be reached within the
+	 *   maximum cost, end nodes which could not be reached are absent.
+	 * @since 2.2
+	 */
+	@Override
+	public Map<N, List<E>> getBestPaths(final N begin, final Set<N> ends, final double maximumCost)
+	{
+		return super.getBestPaths(begin, ends, maximumCost);
+	}
+
+	@Override
+	public ShortestPathTree<N, E> getShortestPathTree(final N source)
+	{
+		return this.calculateShortestPathTree(source);
+	}
 }
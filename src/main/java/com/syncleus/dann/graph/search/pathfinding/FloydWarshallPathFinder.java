@@ -19,134 +19,298 @@
 package com.syncleus.dann.graph.search.pathfinding;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-
-import com.syncleus.dann.graph.TraversableCloud;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
 import com.syncleus.dann.graph.Graph;
-import com.syncleus.dann.graph.Weighted;
-import com.syncleus.dann.graph.WeightedCloud;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
 
+/**
+ * An implementation of the
+ * <a href="http://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm">
+ *     Floyd-Warshall all pairs shortest path algorithm</a>. The weight of every
+ * pair of nodes is computed when the path finder is constructed, after which
+ * each path is walked in time proportional to its length. The walk weights
+ * are held in a flat n&sup2; matrix of doubles along side a matrix of next
+ * hops, and are relaxed in square tiles small enough to stay in the processor
+ * cache. When an executor is given the tiles of each phase are relaxed in
+ * parallel. Stepping along an edge costs the weight of the edge, or 1 if it is
+ * not weighted, plus the weight of the node stepped on to, if it is weighted.
+ * @author Jeffrey Phillips Freeman
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
 public class FloydWarshallPathFinder<N, E extends TraversableCloud<N>> implements PathFinder<N, E>
 {
-	private final Graph<N, E> graph;
-	private final Map<N, Map<N, Double>> walkWeight;
-	private final Map<N, Map<N, N>> nextNode;
+	private static final Logger LOGGER = Logger.getLogger(FloydWarshallPathFinder.class);
+	private static final int BLOCK_SIZE = 64;
+	private static final int NO_HOP = -1;
 
+	private final IndexedGraph<N, E> graph;
+	private final int nodeCount;
+	private final double[] walkWeight;
+	private final int[] nextNode;
+
+	/**
+	 * Computes the shortest paths between every pair of nodes in the given
+	 * graph on the calling thread.
+	 * @param graph The graph to find paths in
+	 */
 	public FloydWarshallPathFinder(final Graph<N, E> graph)
 	{
-		this.graph = graph;
+		this(graph, null);
+	}
 
-		//initialize
-		this.walkWeight = new HashMap<N, Map<N, Double>>(this.graph.getNodes().size());
-		this.nextNode = new HashMap<N, Map<N, N>>(this.graph.getNodes().size());
-		for(final N nodeX : this.graph.getNodes())
-		{
-			final Map<N, Double> weightMapX = new HashMap<N, Double>(this.graph.getNodes().size());
-			this.walkWeight.put(nodeX, weightMapX);
+	/**
+	 * Computes the shortest paths between every pair of nodes in the given
+	 * graph.
+	 * @param graph The graph to find paths in
+	 * @param threadExecutor The executor used to relax the tiles of each phase
+	 * in parallel, null to compute on the calling thread.
+	 * @since 2.2
+	 */
+	public FloydWarshallPathFinder(final Graph<N, E> graph, final ExecutorService threadExecutor)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
 
-			final Map<N, N> nodeMapX = new HashMap<N, N>(this.graph.getNodes().size());
-			this.nextNode.put(nodeX, nodeMapX);
+		if( graph instanceof IndexedGraph )
+			this.graph = (IndexedGraph<N, E>) graph;
+		else
+			this.graph = new CompressedAdjacencyGraph<N, E>(graph);
 
-			for(final N nodeY : this.graph.getNodes())
+		this.nodeCount = this.graph.getNodeCount();
+		if( ((long) this.nodeCount) * this.nodeCount > Integer.MAX_VALUE )
+			throw new IllegalArgumentException("graph has too many nodes to compute all pairs paths");
+
+		this.walkWeight = new double[this.nodeCount * this.nodeCount];
+		this.nextNode = new int[this.nodeCount * this.nodeCount];
+		this.initialize();
+		this.calculatePaths(threadExecutor);
+	}
+
+	private void initialize()
+	{
+		final int count = this.nodeCount;
+		for(int fromIndex = 0; fromIndex < count; fromIndex++)
+		{
+			final int row = fromIndex * count;
+			for(int toIndex = 0; toIndex < count; toIndex++)
 			{
-				double initialWeight = Double.POSITIVE_INFINITY;
+				this.walkWeight[row + toIndex] = Double.POSITIVE_INFINITY;
+				this.nextNode[row + toIndex] = NO_HOP;
+			}
 
-				if( nodeX.equals(nodeY) )
-					initialWeight = 0.0;
-				else if( this.graph.getTraversableNodes(nodeX).contains(nodeY) )
+			final int entryEnd = this.graph.getTraversableOffset(fromIndex + 1);
+			for(int entry = this.graph.getTraversableOffset(fromIndex); entry < entryEnd; entry++)
+			{
+				final int toIndex = this.graph.getTraversableNodeIndex(entry);
+				final double stepWeight = this.graph.getEdgeWeight(this.graph.getTraversableEdgeIndex(entry), 1.0) + this.graph.getNodeWeight(toIndex, 0.0);
+				// keep the cheapest of any parallel edges
+				if( stepWeight < this.walkWeight[row + toIndex] )
 				{
-					E connectedEdge = null;
-					for(final E edge : this.graph.getTraversableEdges(nodeX))
-						if( edge.getNodes().contains(nodeY) )
-							connectedEdge = edge;
-					assert connectedEdge != null;
-					initialWeight = (connectedEdge instanceof WeightedCloud ? ((WeightedCloud) connectedEdge).getWeight() : 1.0);
-					if( nodeY instanceof Weighted )
-						initialWeight += ((Weighted) nodeY).getWeight();
+					this.walkWeight[row + toIndex] = stepWeight;
+					this.nextNode[row + toIndex] = toIndex;
 				}
-
-				weightMapX.put(nodeY, initialWeight);
-				nodeMapX.put(nodeY, null);
 			}
+
+			this.walkWeight[row + fromIndex] = 0.0;
+			this.nextNode[row + fromIndex] = fromIndex;
 		}
+	}
 
-		this.calculatePaths();
+	private void calculatePaths(final ExecutorService threadExecutor)
+	{
+		final int blockCount = (this.nodeCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		for(int pivotBlock = 0; pivotBlock < blockCount; pivotBlock++)
+		{
+			// the pivot tile only depends on itself
+			this.relaxTile(pivotBlock, pivotBlock, pivotBlock);
+
+			// the tiles sharing a row or column with the pivot tile only depend
+			// on the pivot tile and themselves
+			final List<Callable<Void>> crossTiles = new ArrayList<Callable<Void>>(blockCount * 2);
+			for(int block = 0; block < blockCount; block++)
+			{
+				if( block == pivotBlock )
+					continue;
+				crossTiles.add(new RelaxTiles(pivotBlock, pivotBlock, block, block + 1, NO_HOP));
+				crossTiles.add(new RelaxTiles(pivotBlock, block, pivotBlock, pivotBlock + 1, NO_HOP));
+			}
+			this.execute(crossTiles, threadExecutor);
+
+			// all other tiles depend only on the cross tiles, one task relaxes a
+			// whole row of tiles
+			final List<Callable<Void>> remainingTiles = new ArrayList<Callable<Void>>(blockCount);
+			for(int rowBlock = 0; rowBlock < blockCount; rowBlock++)
+				if( rowBlock != pivotBlock )
+					remainingTiles.add(new RelaxTiles(pivotBlock, rowBlock, 0, blockCount, pivotBlock));
+			this.execute(remainingTiles, threadExecutor);
+		}
 	}
 
-	private void calculatePaths()
+	private void execute(final List<Callable<Void>> tasks, final ExecutorService threadExecutor)
 	{
-		for(final N nodeK : this.graph.getNodes())
-			for(final N nodeX : this.graph.getNodes())
-				for(final N nodeY : this.graph.getNodes())
+		if( (threadExecutor == null) || (tasks.size() <= 1) )
+		{
+			for(final Callable<Void> task : tasks)
+			{
+				try
 				{
-					if( !Double.isInfinite(this.walkWeight.get(nodeX).get(nodeK))
-							&& !Double.isInfinite(this.walkWeight.get(nodeK).get(nodeY))
-							&& this.walkWeight.get(nodeX).get(nodeK) + this.walkWeight.get(nodeK).get(nodeY) < this.walkWeight.get(nodeX).get(nodeY)
-							)
-					{
-						final double newWeight = this.walkWeight.get(nodeX).get(nodeK) + this.walkWeight.get(nodeK).get(nodeY);
-						this.walkWeight.get(nodeX).put(nodeY, newWeight);
-						this.nextNode.get(nodeX).put(nodeY, nodeK);
-					}
+					task.call();
+				}
+				catch(Exception caught)
+				{
+					throw new UnexpectedDannError("Relaxing tiles had an unexpected problem executing.", caught);
 				}
+			}
+			return;
+		}
+
+		try
+		{
+			for(final Future<Void> future : threadExecutor.invokeAll(tasks))
+				future.get();
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("relaxing tiles was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			LOGGER.error("relaxing tiles had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
 	}
 
-	public List<E> getBestPath(final N begin, final N end)
+	private void relaxTile(final int pivotBlock, final int rowBlock, final int columnBlock)
 	{
-		final List<N> nodePath = getIntermediatePath(begin, end);
-		if( nodePath.size() < 2 )
-			return null;
-		final List<E> edgePath = new ArrayList<E>(nodePath.size() - 1);
-		double overallWeight = 0.0;
-		for(int nodeIndex = 0; nodeIndex < nodePath.size() - 1; nodeIndex++)
+		final int count = this.nodeCount;
+		final double[] weights = this.walkWeight;
+		final int[] hops = this.nextNode;
+
+		final int pivotEnd = Math.min(count, (pivotBlock + 1) * BLOCK_SIZE);
+		final int rowEnd = Math.min(count, (rowBlock + 1) * BLOCK_SIZE);
+		final int columnStart = columnBlock * BLOCK_SIZE;
+		final int columnEnd = Math.min(count, columnStart + BLOCK_SIZE);
+		for(int pivot = pivotBlock * BLOCK_SIZE; pivot < pivotEnd; pivot++)
 		{
-			final N fromNode = nodePath.get(nodeIndex);
-			final N toNode = nodePath.get(nodeIndex + 1);
-			E stepEdge = null;
-			double stepEdgeWeight = Double.MAX_VALUE;
-			for(final E edge : this.graph.getTraversableEdges(fromNode))
+			final int pivotRow = pivot * count;
+			for(int fromIndex = rowBlock * BLOCK_SIZE; fromIndex < rowEnd; fromIndex++)
 			{
-				if( edge.getNodes().contains(toNode) )
+				final int row = fromIndex * count;
+				final double toPivotWeight = weights[row + pivot];
+				if( toPivotWeight == Double.POSITIVE_INFINITY )
+					continue;
+				final int toPivotHop = hops[row + pivot];
+				for(int toIndex = columnStart; toIndex < columnEnd; toIndex++)
 				{
-					if( stepEdge == null )
-						stepEdge = edge;
-					else if( edge instanceof WeightedCloud)
+					final double newWeight = toPivotWeight + weights[pivotRow + toIndex];
+					if( newWeight < weights[row + toIndex] )
 					{
-						if( ((WeightedCloud) edge).getWeight() < stepEdgeWeight )
-						{
-							stepEdge = edge;
-							stepEdgeWeight = ((WeightedCloud) edge).getWeight();
-						}
+						weights[row + toIndex] = newWeight;
+						hops[row + toIndex] = toPivotHop;
 					}
-					else
-						stepEdge = edge;
 				}
 			}
+		}
+	}
 
-			assert stepEdge != null;
-			edgePath.add(stepEdge);
+	private class RelaxTiles implements Callable<Void>
+	{
+		private final int pivotBlock;
+		private final int rowBlock;
+		private final int columnBlockStart;
+		private final int columnBlockEnd;
+		private final int skippedColumnBlock;
 
-			if( stepEdge instanceof WeightedCloud)
-				overallWeight += ((WeightedCloud) stepEdge).getWeight();
-			if( toNode instanceof Weighted )
-				overallWeight += ((Weighted) toNode).getWeight();
+		public RelaxTiles(final int pivotBlock, final int rowBlock, final int columnBlockStart, final int columnBlockEnd, final int skippedColumnBlock)
+		{
+			this.pivotBlock = pivotBlock;
+			this.rowBlock = rowBlock;
+			this.columnBlockStart = columnBlockStart;
+			this.columnBlockEnd = columnBlockEnd;
+			this.skippedColumnBlock = skippedColumnBlock;
 		}
 
+		@Override
+		public Void call()
+		{
+			for(int columnBlock = this.columnBlockStart; columnBlock < this.columnBlockEnd; columnBlock++)
+				if( columnBlock != this.skippedColumnBlock )
+					FloydWarshallPathFinder.this.relaxTile(this.pivotBlock, this.rowBlock, columnBlock);
+			return null;
+		}
+	}
+
+	public List<E> getBestPath(final N begin, final N end)
+	{
+		final int beginIndex = this.graph.getNodeIndex(begin);
+		final int endIndex = this.graph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) )
+			return null;
+		if( beginIndex == endIndex )
+			return Collections.emptyList();
+
+		if( this.nextNode[beginIndex * this.nodeCount + endIndex] == NO_HOP )
+			return null;
+
+		final List<E> edgePath = new ArrayList<E>();
+		int fromIndex = beginIndex;
+		while( fromIndex != endIndex )
+		{
+			final int toIndex = this.nextNode[fromIndex * this.nodeCount + endIndex];
+			edgePath.add(this.getStepEdge(fromIndex, toIndex));
+			fromIndex = toIndex;
+		}
 		return edgePath;
 	}
 
-	private List<N> getIntermediatePath(final N begin, final N end)
+	private E getStepEdge(final int fromIndex, final int toIndex)
+	{
+		int stepEdgeIndex = -1;
+		double stepEdgeWeight = Double.POSITIVE_INFINITY;
+		final int entryEnd = this.graph.getTraversableOffset(fromIndex + 1);
+		for(int entry = this.graph.getTraversableOffset(fromIndex); entry < entryEnd; entry++)
+		{
+			if( this.graph.getTraversableNodeIndex(entry) != toIndex )
+				continue;
+			final int edgeIndex = this.graph.getTraversableEdgeIndex(entry);
+			final double edgeWeight = this.graph.getEdgeWeight(edgeIndex, 1.0);
+			if( (stepEdgeIndex < 0) || (edgeWeight < stepEdgeWeight) )
+			{
+				stepEdgeIndex = edgeIndex;
+				stepEdgeWeight = edgeWeight;
+			}
+		}
+		assert stepEdgeIndex >= 0;
+		return this.graph.getEdge(stepEdgeIndex);
+	}
+
+	/**
+	 * Gets the total weight of the best path between two nodes.
+	 * @param begin The node the path starts at
+	 * @param end The node the path ends at
+	 * @return the weight of the best path, or positive infinity if end can not
+	 * be reached from begin.
+	 * @since 2.2
+	 */
+	public double getPathWeight(final N begin, final N end)
 	{
-		if( this.nextNode.get(begin).get(end) == null )
-			return new ArrayList<N>();
-
-		final List<N> nodePath = new ArrayList<N>();
-		nodePath.addAll(getIntermediatePath(begin, this.nextNode.get(begin).get(end)));
-		nodePath.add(this.nextNode.get(begin).get(end));
-		nodePath.addAll(getIntermediatePath(this.nextNode.get(begin).get(end), end));
-		return nodePath;
+		final int beginIndex = this.graph.getNodeIndex(begin);
+		final int endIndex = this.graph.getNodeIndex(end);
+		if( (beginIndex < 0) || (endIndex < 0) )
+			return Double.POSITIVE_INFINITY;
+		return this.walkWeight[beginIndex * this.nodeCount + endIndex];
 	}
 
 	public boolean isReachable(final N begin, final N end)
@@ -0,0 +1,133 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * A ShortestPathTree over the dense indexes of an IndexedGraph, keeping the
+ * parent and path weight of each node in arrays indexed by node.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class IndexedShortestPathTree<N, E extends TraversableCloud<N>> implements ShortestPathTree<N, E>
+{
+	private static final int UNREACHED = -1;
+
+	private final IndexedGraph<N, E> graph;
+	private final int sourceIndex;
+	private final int[] parentNodes;
+	private final int[] parentEdges;
+	private final double[] pathWeights;
+
+	/**
+	 * Creates a tree from the results of one of the IndexedGraphKernels.
+	 *
+	 * @param graph the graph the tree was calculated on.
+	 * @param sourceIndex the index of the source node.
+	 * @param parentEntries the traversable entry each node was reached
+	 *   through, negative for the source and unreached nodes.
+	 * @param pathWeights the cost of the path to each node, by node index.
+	 */
+	public IndexedShortestPathTree(final IndexedGraph<N, E> graph, final int sourceIndex, final int[] parentEntries, final double[] pathWeights)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( (parentEntries == null) || (parentEntries.length != graph.getNodeCount()) )
+			throw new IllegalArgumentException("parentEntries must hold an entry for every node");
+		if( (pathWeights == null) || (pathWeights.length != graph.getNodeCount()) )
+			throw new IllegalArgumentException("pathWeights must hold a weight for every node");
+
+		this.graph = graph;
+		this.sourceIndex = sourceIndex;
+		this.pathWeights = pathWeights;
+		//resolve the entries now so walking a path never has to search for them
+		this.parentNodes = new int[parentEntries.length];
+		this.parentEdges = new int[parentEntries.length];
+		for(int nodeIndex = 0; nodeIndex < parentEntries.length; nodeIndex++)
+		{
+			if( (parentEntries[nodeIndex] < 0) || (nodeIndex == sourceIndex) )
+			{
+				this.parentNodes[nodeIndex] = UNREACHED;
+				this.parentEdges[nodeIndex] = UNREACHED;
+			}
+			else
+			{
+				this.parentNodes[nodeIndex] = IndexedGraphKernels.getTraversableSource(graph, parentEntries[nodeIndex]);
+				this.parentEdges[nodeIndex] = graph.getTraversableEdgeIndex(parentEntries[nodeIndex]);
+			}
+		}
+	}
+
+	@Override
+	public N getSource()
+	{
+		return this.graph.getNode(this.sourceIndex);
+	}
+
+	private boolean isReachable(final int targetIndex)
+	{
+		return (targetIndex == this.sourceIndex) || ((targetIndex >= 0) && (this.parentEdges[targetIndex] != UNREACHED));
+	}
+
+	@Override
+	public boolean isReachable(final N target)
+	{
+		return this.isReachable(this.graph.getNodeIndex(target));
+	}
+
+	@Override
+	public double getPathWeight(final N target)
+	{
+		final int targetIndex = this.graph.getNodeIndex(target);
+		if( !this.isReachable(targetIndex) )
+			return Double.POSITIVE_INFINITY;
+		return (targetIndex == this.sourceIndex ? 0.0 : this.pathWeights[targetIndex]);
+	}
+
+	@Override
+	public E getParentEdge(final N target)
+	{
+		final int targetIndex = this.graph.getNodeIndex(target);
+		if( (targetIndex < 0) || (this.parentEdges[targetIndex] == UNREACHED) )
+			return null;
+		return this.graph.getEdge(this.parentEdges[targetIndex]);
+	}
+
+	@Override
+	public List<E> getBestPath(final N target)
+	{
+		final int targetIndex = this.graph.getNodeIndex(target);
+		if( !this.isReachable(targetIndex) )
+			return null;
+
+		final List<E> path = new ArrayList<E>();
+		for(int current = targetIndex; current != this.sourceIndex; current = this.parentNodes[current])
+			path.add(this.graph.getEdge(this.parentEdges[current]));
+		Collections.reverse(path);
+		return path;
+	}
+}
@@ -19,10 +19,16 @@
 package com.syncleus.dann.graph.search.pathfinding;
 
 import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
 import com.syncleus.dann.graph.WeightedDirectedEdge;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
-public class JohnsonPathFinder<N, E extends WeightedDirectedEdge<N>> implements PathFinder<N, WeightedDirectedEdge<N>>
+public class JohnsonPathFinder<N, E extends WeightedDirectedEdge<N>> implements PathFinder<N, WeightedDirectedEdge<N>>, ShortestPathTreeFinder<N, WeightedDirectedEdge<N>>
 {
 	private final BidirectedGraph<N, E> graph;
 	private final JohnsonGraphTransformer<N> transformer = new JohnsonGraphTransformer<N>();
@@ -45,6 +51,110 @@ public class JohnsonPathFinder<N, E extends WeightedDirectedEdge<N>> implements
 		return pathWalk;
 	}
 
+	/**
+	 * Calculates the cheapest path from the source to every node reachable
+	 * from it, reweighting the graph only once for all of them. As with
+	 * getBestPath the edges of the returned paths, and the path weights, belong
+	 * to the reweighted graph.
+	 *
+	 * @param source the node every path begins at.
+	 * @return the tree of cheapest paths from the source.
+	 * @since 2.2
+	 */
+	@Override
+	public ShortestPathTree<N, WeightedDirectedEdge<N>> getShortestPathTree(final N source)
+	{
+		final BidirectedGraph<N, WeightedDirectedEdge<N>> johnsonGraph = transformer.transform(this.graph);
+		final DijkstraPathFinder<N, WeightedDirectedEdge<N>> pathFinder = new DijkstraPathFinder<N, WeightedDirectedEdge<N>>(johnsonGraph);
+		return pathFinder.getShortestPathTree(source);
+	}
+
+	/**
+	 * Calculates the cheapest paths between every pair of nodes, reweighting
+	 * the graph once and then searching from every node. The paths are held on
+	 * the heap when they fit comfortably, otherwise in a temporary memory
+	 * mapped file which is deleted when the virtual machine exits. Unlike
+	 * getBestPath the returned paths are made of the graph's own edges, and
+	 * their weights are costs in the graph itself.
+	 *
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 * @return the paths between every pair of nodes.
+	 * @throws IOException if the temporary file can not be created or mapped.
+	 * @throws NegativeWeightCycleException if the graph has a negative-weight
+	 *   cycle.
+	 * @see AllPairsShortestPaths#isStoreInMemory(int)
+	 * @since 2.2
+	 */
+	public AllPairsShortestPaths<N, E> getAllPairsShortestPaths(final ExecutorService threadExecutor) throws IOException
+	{
+		final CompressedAdjacencyGraph<N, E> indexedGraph = this.compressGraph();
+		final double[] potentials = getPotentials(indexedGraph);
+		final double[] edgeWeights = getReweightedEdgeWeights(indexedGraph, potentials);
+		if( AllPairsShortestPaths.isStoreInMemory(indexedGraph.getNodeCount()) )
+			return new AllPairsShortestPaths<N, E>(indexedGraph, threadExecutor, edgeWeights, potentials);
+
+		final File storeFile = File.createTempFile("johnson", ".paths");
+		storeFile.deleteOnExit();
+		return new AllPairsShortestPaths<N, E>(indexedGraph, threadExecutor, storeFile, edgeWeights, potentials);
+	}
+
+	/**
+	 * Calculates the cheapest paths between every pair of nodes, holding them
+	 * in the given memory mapped file.
+	 *
+	 * @param threadExecutor The executor used to search from many sources in
+	 *   parallel, null to search on the calling thread.
+	 * @param storeFile the file to hold the paths in.
+	 * @return the paths between every pair of nodes.
+	 * @throws IOException if the file can not be mapped.
+	 * @throws NegativeWeightCycleException if the graph has a negative-weight
+	 *   cycle.
+	 * @see #getAllPairsShortestPaths(ExecutorService)
+	 * @since 2.2
+	 */
+	public AllPairsShortestPaths<N, E> getAllPairsShortestPaths(final ExecutorService threadExecutor, final File storeFile) throws IOException
+	{
+		final CompressedAdjacencyGraph<N, E> indexedGraph = this.compressGraph();
+		final double[] potentials = getPotentials(indexedGraph);
+		return new AllPairsShortestPaths<N, E>(indexedGraph, threadExecutor, storeFile, getReweightedEdgeWeights(indexedGraph, potentials), potentials);
+	}
+
+	private CompressedAdjacencyGraph<N, E> compressGraph()
+	{
+		for(final E edge : this.graph.getEdges())
+			if( Double.isInfinite(edge.getWeight()) )
+				throw new IllegalArgumentException("graph can not contain infinite weights");
+		return new CompressedAdjacencyGraph<N, E>(this.graph);
+	}
+
+	private static double[] getPotentials(final IndexedGraph<?, ?> indexedGraph)
+	{
+		final double[] potentials = IndexedGraphKernels.shortestPathPotentials(indexedGraph);
+		if( potentials == null )
+			throw new NegativeWeightCycleException("negative-weight cycle found in graph");
+		return potentials;
+	}
+
+	/**
+	 * Reweights every edge by the potentials of the nodes it joins, rounding
+	 * away any negative weight left over from floating point error.
+	 */
+	private static double[] getReweightedEdgeWeights(final IndexedGraph<?, ?> indexedGraph, final double[] potentials)
+	{
+		final double[] edgeWeights = new double[indexedGraph.getEdgeCount()];
+		for(int nodeIndex = 0; nodeIndex < indexedGraph.getNodeCount(); nodeIndex++)
+		{
+			for(int entry = indexedGraph.getTraversableOffset(nodeIndex); entry < indexedGraph.getTraversableOffset(nodeIndex + 1); entry++)
+			{
+				final int edgeIndex = indexedGraph.getTraversableEdgeIndex(entry);
+				final double edgeWeight = indexedGraph.getEdgeWeight(edgeIndex, 1.0) + potentials[nodeIndex] - potentials[indexedGraph.getTraversableNodeIndex(entry)];
+				edgeWeights[edgeIndex] = Math.max(0.0, edgeWeight);
+			}
+		}
+		return edgeWeights;
+	}
+
 	@Override
 	public boolean isReachable(final N begin, final N end)
 	{
@@ -0,0 +1,78 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.List;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * The cheapest paths from a single source node to every node reachable from
+ * it. A tree is calculated once and can then answer path queries from its
+ * source to any target in time proportional to the length of the path.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public interface ShortestPathTree<N, E extends TraversableCloud<? extends N>>
+{
+	/**
+	 * Gets the node every path in this tree begins at.
+	 *
+	 * @return the source node.
+	 * @since 2.2
+	 */
+	N getSource();
+	/**
+	 * Determines if the target can be reached from the source.
+	 *
+	 * @param target the node to check.
+	 * @return true if the tree holds a path to the target.
+	 * @since 2.2
+	 */
+	boolean isReachable(N target);
+	/**
+	 * Gets the cost of the cheapest path to the target, as measured by the
+	 * path finder which calculated the tree.
+	 *
+	 * @param target the node to get the cost of.
+	 * @return the cost of the path, or positive infinity if the target can not
+	 *   be reached.
+	 * @since 2.2
+	 */
+	double getPathWeight(N target);
+	/**
+	 * Gets the last edge on the cheapest path to the target.
+	 *
+	 * @param target the node to get the edge of.
+	 * @return the edge the target is reached through, or null for the source
+	 *   and for targets which can not be reached.
+	 * @since 2.2
+	 */
+	E getParentEdge(N target);
+	/**
+	 * Gets the cheapest path from the source to the target.
+	 *
+	 * @param target the node to find a path to.
+	 * @return the edges along the path, empty for the source itself, or null if
+	 *   the target can not be reached.
+	 * @since 2.2
+	 */
+	List<E> getBestPath(N target);
+}
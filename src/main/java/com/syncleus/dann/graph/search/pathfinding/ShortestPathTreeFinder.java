@@ -0,0 +1,41 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * A path finder which can calculate every cheapest path from a source at once.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public interface ShortestPathTreeFinder<N, E extends TraversableCloud<? extends N>>
+{
+	/**
+	 * Calculates the cheapest paths from the source to every node reachable
+	 * from it.
+	 *
+	 * @param source the node every path begins at.
+	 * @return the tree of cheapest paths from the source.
+	 * @since 2.2
+	 */
+	ShortestPathTree<N, E> getShortestPathTree(N source);
+}
@@ -0,0 +1,111 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * A ShortestPathTree which keeps the parent and path weight of each reached
+ * node in maps, for path finders working on any kind of graph.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class SimpleShortestPathTree<N, E extends TraversableCloud<? extends N>> implements ShortestPathTree<N, E>
+{
+	private final N source;
+	private final Map<N, N> parentNodes = new HashMap<N, N>();
+	private final Map<N, E> parentEdges = new HashMap<N, E>();
+	private final Map<N, Double> pathWeights = new HashMap<N, Double>();
+
+	public SimpleShortestPathTree(final N source)
+	{
+		if( source == null )
+			throw new IllegalArgumentException("source can not be null");
+		this.source = source;
+		this.pathWeights.put(source, 0.0);
+	}
+
+	/**
+	 * Records the cheapest path to a node. Path finders call this as each node
+	 * is settled.
+	 *
+	 * @param node the node which was reached.
+	 * @param parentNode the node it was reached from.
+	 * @param parentEdge the edge it was reached through.
+	 * @param pathWeight the cost of the path to the node.
+	 */
+	protected void setParent(final N node, final N parentNode, final E parentEdge, final double pathWeight)
+	{
+		if( node == null )
+			throw new IllegalArgumentException("node can not be null");
+		if( parentNode == null )
+			throw new IllegalArgumentException("parentNode can not be null");
+		if( parentEdge == null )
+			throw new IllegalArgumentException("parentEdge can not be null");
+
+		this.parentNodes.put(node, parentNode);
+		this.parentEdges.put(node, parentEdge);
+		this.pathWeights.put(node, pathWeight);
+	}
+
+	@Override
+	public N getSource()
+	{
+		return this.source;
+	}
+
+	@Override
+	public boolean isReachable(final N target)
+	{
+		return this.pathWeights.containsKey(target);
+	}
+
+	@Override
+	public double getPathWeight(final N target)
+	{
+		final Double pathWeight = this.pathWeights.get(target);
+		return (pathWeight == null ? Double.POSITIVE_INFINITY : pathWeight);
+	}
+
+	@Override
+	public E getParentEdge(final N target)
+	{
+		return this.parentEdges.get(target);
+	}
+
+	@Override
+	public List<E> getBestPath(final N target)
+	{
+		if( !this.isReachable(target) )
+			return null;
+
+		final List<E> path = new ArrayList<E>();
+		for(N current = target; this.parentEdges.containsKey(current); current = this.parentNodes.get(current))
+			path.add(this.parentEdges.get(current));
+		Collections.reverse(path);
+		return path;
+	}
+}
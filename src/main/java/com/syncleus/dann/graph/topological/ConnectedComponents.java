@@ -0,0 +1,141 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * A labeling of the nodes of an IndexedGraph by the connected component they
+ * belong to. Components are numbered densely from 0 and the labels are kept
+ * in an array by node index, so two nodes can be checked for a shared
+ * component in constant time.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ * @see Topography#getStronglyConnectedComponents(com.syncleus.dann.graph.Graph)
+ * @see Topography#getWeaklyConnectedComponents(com.syncleus.dann.graph.Graph)
+ */
+public class ConnectedComponents<N, E extends TraversableCloud<N>>
+{
+	private final IndexedGraph<N, E> graph;
+	private final int[] componentIds;
+	private final int componentCount;
+
+	/**
+	 * Creates a labeling from the results of one of the IndexedGraphKernels.
+	 *
+	 * @param graph the graph which was labeled.
+	 * @param componentIds the component of each node by node index, numbered
+	 *   densely from 0.
+	 */
+	public ConnectedComponents(final IndexedGraph<N, E> graph, final int[] componentIds)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( (componentIds == null) || (componentIds.length != graph.getNodeCount()) )
+			throw new IllegalArgumentException("componentIds must hold a component for every node");
+
+		this.graph = graph;
+		this.componentIds = componentIds;
+		int count = 0;
+		for(final int componentId : componentIds)
+			count = Math.max(count, componentId + 1);
+		this.componentCount = count;
+	}
+
+	/**
+	 * Gets the graph which was labeled.
+	 *
+	 * @return the graph which was labeled.
+	 */
+	public IndexedGraph<N, E> getGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Gets the number of components.
+	 *
+	 * @return the number of components, 0 for an empty graph.
+	 */
+	public int getComponentCount()
+	{
+		return this.componentCount;
+	}
+
+	/**
+	 * Gets the component a node belongs to.
+	 *
+	 * @param node the node to look up.
+	 * @return the component of the node, or -1 if it is not in the graph.
+	 */
+	public int getComponentId(final N node)
+	{
+		final int nodeIndex = this.graph.getNodeIndex(node);
+		return (nodeIndex < 0 ? -1 : this.componentIds[nodeIndex]);
+	}
+
+	/**
+	 * Gets the component of every node.
+	 *
+	 * @return a copy of the component of each node by node index.
+	 */
+	public int[] getComponentIds()
+	{
+		return this.componentIds.clone();
+	}
+
+	/**
+	 * Determines if two nodes belong to the same component.
+	 *
+	 * @param firstNode the first node.
+	 * @param secondNode the second node.
+	 * @return true if both nodes are in the graph and share a component.
+	 */
+	public boolean isSameComponent(final N firstNode, final N secondNode)
+	{
+		final int firstComponent = this.getComponentId(firstNode);
+		return (firstComponent >= 0) && (firstComponent == this.getComponentId(secondNode));
+	}
+
+	/**
+	 * Gets the nodes of every component.
+	 *
+	 * @return an unmodifiable list of the nodes in each component, by
+	 *   component id.
+	 */
+	public List<Set<N>> getComponentNodes()
+	{
+		final List<Set<N>> components = new ArrayList<Set<N>>(this.componentCount);
+		for(int componentId = 0; componentId < this.componentCount; componentId++)
+			components.add(new HashSet<N>());
+		for(int nodeIndex = 0; nodeIndex < this.componentIds.length; nodeIndex++)
+			components.get(this.componentIds[nodeIndex]).add(this.graph.getNode(nodeIndex));
+		for(int componentId = 0; componentId < this.componentCount; componentId++)
+			components.set(componentId, Collections.unmodifiableSet(components.get(componentId)));
+		return Collections.unmodifiableList(components);
+	}
+}
@@ -0,0 +1,538 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * Computes the node and edge connectivity of a graph, along with a minimum
+ * cut, from maximum flows. Each flow is found with Dinic's algorithm over an
+ * int indexed residual network in which every node is split into an inward
+ * and an outward half, and every edge is a node of its own joining the nodes
+ * it connects. Giving either the node halves or the edge nodes a capacity of
+ * one makes the maximum flow between two nodes equal to the number of nodes,
+ * or edges, which must be removed to separate them.
+ * <p/>
+ * Connectivity between two given nodes follows the direction of traversal,
+ * as isCut does. Connectivity of the whole graph treats every edge as
+ * undirected, counting what must be removed to increase the number of
+ * maximally connected components. Graphs which are not already an
+ * IndexedGraph are first copied into a CompressedAdjacencyGraph.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ * @see Topography#getNodeConnectivity(Graph)
+ * @see Topography#getEdgeConnectivity(Graph)
+ */
+public class FlowConnectivity<N, E extends TraversableCloud<N>>
+{
+	private static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private final IndexedGraph<N, E> graph;
+
+	/**
+	 * Creates a connectivity calculator for the given graph.
+	 *
+	 * @param graph the graph to calculate connectivity of.
+	 */
+	public FlowConnectivity(final Graph<N, E> graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( graph instanceof IndexedGraph )
+			this.graph = (IndexedGraph<N, E>) graph;
+		else
+			this.graph = new CompressedAdjacencyGraph<N, E>(graph);
+	}
+
+	/**
+	 * Gets the fewest edges which must be removed so that end can no longer be
+	 * traversed to from begin.
+	 *
+	 * @param begin the node paths start from.
+	 * @param end the node paths lead to.
+	 * @return the number of edges in a minimum edge cut between the nodes.
+	 * @throws IllegalArgumentException if begin and end are the same node.
+	 */
+	public int getEdgeConnectivity(final N begin, final N end)
+	{
+		return this.getMinimumEdgeCut(begin, end).size();
+	}
+
+	/**
+	 * Gets a smallest set of edges whose removal leaves no path from begin to
+	 * end.
+	 *
+	 * @param begin the node paths start from.
+	 * @param end the node paths lead to.
+	 * @return an unmodifiable minimum edge cut between the nodes, empty if
+	 *   there is already no path.
+	 * @throws IllegalArgumentException if begin and end are the same node.
+	 */
+	public Set<E> getMinimumEdgeCut(final N begin, final N end)
+	{
+		this.checkSeparateNodes(begin, end);
+		final FlowNetwork network = new FlowNetwork(this.graph, true, false);
+		final BitSet sourceSide = network.cut(this.checkNode(begin), this.checkNode(end));
+		return Collections.unmodifiableSet(this.getCutEdges(network, sourceSide));
+	}
+
+	/**
+	 * Gets the fewest nodes, other than begin and end, which must be removed
+	 * so that end can no longer be traversed to from begin.
+	 *
+	 * @param begin the node paths start from.
+	 * @param end the node paths lead to.
+	 * @return the number of nodes in a minimum node cut between the nodes.
+	 * @throws IllegalArgumentException if begin and end are the same node, or
+	 *   end is traversable directly from begin, since then no set of nodes
+	 *   separates them.
+	 */
+	public int getNodeConnectivity(final N begin, final N end)
+	{
+		return this.getMinimumNodeCut(begin, end).size();
+	}
+
+	/**
+	 * Gets a smallest set of nodes, not including begin and end, whose removal
+	 * leaves no path from begin to end.
+	 *
+	 * @param begin the node paths start from.
+	 * @param end the node paths lead to.
+	 * @return an unmodifiable minimum node cut between the nodes, empty if
+	 *   there is already no path.
+	 * @throws IllegalArgumentException if begin and end are the same node, or
+	 *   end is traversable directly from begin, since then no set of nodes
+	 *   separates them.
+	 */
+	public Set<N> getMinimumNodeCut(final N begin, final N end)
+	{
+		this.checkSeparateNodes(begin, end);
+		final int beginIndex = this.checkNode(begin);
+		final int endIndex = this.checkNode(end);
+		for(int entry = this.graph.getTraversableOffset(beginIndex); entry < this.graph.getTraversableOffset(beginIndex + 1); entry++)
+			if( this.graph.getTraversableNodeIndex(entry) == endIndex )
+				throw new IllegalArgumentException("end is adjacent to begin, no set of nodes separates them");
+
+		final FlowNetwork network = new FlowNetwork(this.graph, true, true);
+		final BitSet sourceSide = network.cut(beginIndex, endIndex);
+		return Collections.unmodifiableSet(this.getCutNodes(network, sourceSide));
+	}
+
+	/**
+	 * Gets the fewest edges which must be removed to increase the number of
+	 * maximally connected components, treating every edge as undirected.
+	 *
+	 * @return the edge connectivity of the graph, 0 if it is not weakly
+	 *   connected or has fewer than two nodes.
+	 */
+	public int getEdgeConnectivity()
+	{
+		return this.getMinimumEdgeCut().size();
+	}
+
+	/**
+	 * Gets a smallest set of edges whose removal increases the number of
+	 * maximally connected components. The cut is found by separating the first
+	 * node from each other node in turn.
+	 *
+	 * @return an unmodifiable minimum edge cut of the graph, empty if it is not
+	 *   weakly connected or has fewer than two nodes.
+	 */
+	public Set<E> getMinimumEdgeCut()
+	{
+		final int nodeCount = this.graph.getNodeCount();
+		Set<E> minimumCut = Collections.emptySet();
+		if( nodeCount < 2 )
+			return minimumCut;
+
+		final FlowNetwork network = new FlowNetwork(this.graph, false, false);
+		int minimumSize = UNLIMITED;
+		for(int end = 1; (end < nodeCount) && (minimumSize > 0); end++)
+		{
+			final BitSet sourceSide = network.cut(0, end);
+			if( network.getFlow() < minimumSize )
+			{
+				minimumSize = network.getFlow();
+				minimumCut = this.getCutEdges(network, sourceSide);
+			}
+		}
+		return Collections.unmodifiableSet(minimumCut);
+	}
+
+	/**
+	 * Gets the fewest nodes which must be removed to increase the number of
+	 * maximally connected components, treating every edge as undirected. A
+	 * complete graph can not be separated, by convention its connectivity is
+	 * one less than its number of nodes.
+	 *
+	 * @return the node connectivity of the graph, 0 if it is not weakly
+	 *   connected.
+	 */
+	public int getNodeConnectivity()
+	{
+		return this.getMinimumNodeCut().size();
+	}
+
+	/**
+	 * Gets a smallest set of nodes whose removal increases the number of
+	 * maximally connected components, using the method of Esfahanian and
+	 * Hakimi: only pairs involving a node of minimum degree, or two of its
+	 * neighbors, need to be separated. For a complete graph every node but one
+	 * is returned.
+	 *
+	 * @return an unmodifiable minimum node cut of the graph, empty if it is not
+	 *   weakly connected.
+	 */
+	public Set<N> getMinimumNodeCut()
+	{
+		final int nodeCount = this.graph.getNodeCount();
+		if( nodeCount < 2 )
+			return Collections.emptySet();
+
+		// start from a node of minimum degree
+		int center = 0;
+		int centerDegree = UNLIMITED;
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			final int degree = this.getAdjacentNodes(nodeIndex).cardinality();
+			if( degree < centerDegree )
+			{
+				center = nodeIndex;
+				centerDegree = degree;
+			}
+		}
+		final BitSet centerNeighbors = this.getAdjacentNodes(center);
+
+		final FlowNetwork network = new FlowNetwork(this.graph, false, true);
+		Set<N> minimumCut = null;
+		int minimumSize = UNLIMITED;
+		for(int other = 0; (other < nodeCount) && (minimumSize > 0); other++)
+		{
+			if( (other == center) || centerNeighbors.get(other) )
+				continue;
+			final BitSet sourceSide = network.cut(center, other);
+			if( network.getFlow() < minimumSize )
+			{
+				minimumSize = network.getFlow();
+				minimumCut = this.getCutNodes(network, sourceSide);
+			}
+		}
+		for(int first = centerNeighbors.nextSetBit(0); (first >= 0) && (minimumSize > 0); first = centerNeighbors.nextSetBit(first + 1))
+		{
+			final BitSet firstNeighbors = this.getAdjacentNodes(first);
+			for(int second = centerNeighbors.nextSetBit(first + 1); (second >= 0) && (minimumSize > 0); second = centerNeighbors.nextSetBit(second + 1))
+			{
+				if( firstNeighbors.get(second) )
+					continue;
+				final BitSet sourceSide = network.cut(first, second);
+				if( network.getFlow() < minimumSize )
+				{
+					minimumSize = network.getFlow();
+					minimumCut = this.getCutNodes(network, sourceSide);
+				}
+			}
+		}
+
+		if( minimumCut == null )
+		{
+			// a complete graph, only removing all but one node leaves it trivial
+			minimumCut = new HashSet<N>(nodeCount * 2);
+			for(int nodeIndex = 1; nodeIndex < nodeCount; nodeIndex++)
+				minimumCut.add(this.graph.getNode(nodeIndex));
+		}
+		return Collections.unmodifiableSet(minimumCut);
+	}
+
+	private void checkSeparateNodes(final N begin, final N end)
+	{
+		if( begin == null )
+			throw new IllegalArgumentException("begin can not be null");
+		if( begin.equals(end) )
+			throw new IllegalArgumentException("begin and end can not be the same node");
+	}
+
+	private int checkNode(final N node)
+	{
+		if( node == null )
+			throw new IllegalArgumentException("node can not be null");
+		final int nodeIndex = this.graph.getNodeIndex(node);
+		if( nodeIndex < 0 )
+			throw new IllegalArgumentException("node is not in the graph");
+		return nodeIndex;
+	}
+
+	private BitSet getAdjacentNodes(final int nodeIndex)
+	{
+		final BitSet adjacent = new BitSet(this.graph.getNodeCount());
+		for(int entry = this.graph.getAdjacentOffset(nodeIndex); entry < this.graph.getAdjacentOffset(nodeIndex + 1); entry++)
+			adjacent.set(this.graph.getAdjacentNodeIndex(entry));
+		adjacent.clear(nodeIndex);
+		return adjacent;
+	}
+
+	private Set<E> getCutEdges(final FlowNetwork network, final BitSet sourceSide)
+	{
+		final Set<E> cut = new HashSet<E>();
+		for(int edgeIndex = 0; edgeIndex < this.graph.getEdgeCount(); edgeIndex++)
+			if( sourceSide.get(network.getEdgeIn(edgeIndex)) && !sourceSide.get(network.getEdgeOut(edgeIndex)) )
+				cut.add(this.graph.getEdge(edgeIndex));
+		return cut;
+	}
+
+	private Set<N> getCutNodes(final FlowNetwork network, final BitSet sourceSide)
+	{
+		final Set<N> cut = new HashSet<N>();
+		for(int nodeIndex = 0; nodeIndex < this.graph.getNodeCount(); nodeIndex++)
+			if( sourceSide.get(network.getNodeIn(nodeIndex)) && !sourceSide.get(network.getNodeOut(nodeIndex)) )
+				cut.add(this.graph.getNode(nodeIndex));
+		return cut;
+	}
+
+	/**
+	 * A residual network with arcs stored in pairs, so the reverse of arc a is
+	 * a ^ 1. Node n becomes vertices 2n and 2n + 1, edge e becomes vertices
+	 * 2N + 2e and 2N + 2e + 1, where N is the number of nodes. Either the
+	 * node or the edge vertices are joined by an arc of capacity one, every
+	 * other arc is unlimited.
+	 */
+	private static final class FlowNetwork
+	{
+		private final int nodeCount;
+		private final int vertexCount;
+		private final int[] firstArcs;
+		private final int[] nextArcs;
+		private final int[] arcTargets;
+		private final int[] capacities;
+		private final int[] residuals;
+		private final boolean nodesLimited;
+		private int arcCount;
+		private int flow;
+
+		private final int[] levels;
+		private final int[] currentArcs;
+		private final int[] queue;
+		private final int[] pathArcs;
+
+		public FlowNetwork(final IndexedGraph<?, ?> graph, final boolean traversableOnly, final boolean nodesLimited)
+		{
+			this.nodeCount = graph.getNodeCount();
+			final int edgeCount = graph.getEdgeCount();
+			this.vertexCount = 2 * (this.nodeCount + edgeCount);
+			this.nodesLimited = nodesLimited;
+
+			final int connectionCount = (traversableOnly ? graph.getTraversableOffset(this.nodeCount) : graph.getAdjacentEdgeOffset(this.nodeCount));
+			final int maximumArcs = 2 * (this.nodeCount + edgeCount + 2 * connectionCount);
+			this.firstArcs = new int[this.vertexCount];
+			Arrays.fill(this.firstArcs, -1);
+			this.nextArcs = new int[maximumArcs];
+			this.arcTargets = new int[maximumArcs];
+			this.capacities = new int[maximumArcs];
+			this.residuals = new int[maximumArcs];
+
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++)
+				this.addArc(this.getNodeIn(nodeIndex), this.getNodeOut(nodeIndex), (nodesLimited ? 1 : UNLIMITED));
+			for(int edgeIndex = 0; edgeIndex < edgeCount; edgeIndex++)
+				this.addArc(this.getEdgeIn(edgeIndex), this.getEdgeOut(edgeIndex), (nodesLimited ? UNLIMITED : 1));
+
+			for(int nodeIndex = 0; nodeIndex < this.nodeCount; nodeIndex++)
+			{
+				if( traversableOnly )
+				{
+					for(int entry = graph.getTraversableOffset(nodeIndex); entry < graph.getTraversableOffset(nodeIndex + 1); entry++)
+					{
+						final int edgeIndex = graph.getTraversableEdgeIndex(entry);
+						this.addArc(this.getNodeOut(nodeIndex), this.getEdgeIn(edgeIndex), UNLIMITED);
+						this.addArc(this.getEdgeOut(edgeIndex), this.getNodeIn(graph.getTraversableNodeIndex(entry)), UNLIMITED);
+					}
+				}
+				else
+				{
+					for(int entry = graph.getAdjacentEdgeOffset(nodeIndex); entry < graph.getAdjacentEdgeOffset(nodeIndex + 1); entry++)
+					{
+						final int edgeIndex = graph.getAdjacentEdgeIndex(entry);
+						this.addArc(this.getNodeOut(nodeIndex), this.getEdgeIn(edgeIndex), UNLIMITED);
+						this.addArc(this.getEdgeOut(edgeIndex), this.getNodeIn(nodeIndex), UNLIMITED);
+					}
+				}
+			}
+
+			this.levels = new int[this.vertexCount];
+			this.currentArcs = new int[this.vertexCount];
+			this.queue = new int[this.vertexCount];
+			this.pathArcs = new int[this.vertexCount];
+		}
+
+		public int getNodeIn(final int nodeIndex)
+		{
+			return 2 * nodeIndex;
+		}
+
+		public int getNodeOut(final int nodeIndex)
+		{
+			return 2 * nodeIndex + 1;
+		}
+
+		public int getEdgeIn(final int edgeIndex)
+		{
+			return 2 * (this.nodeCount + edgeIndex);
+		}
+
+		public int getEdgeOut(final int edgeIndex)
+		{
+			return 2 * (this.nodeCount + edgeIndex) + 1;
+		}
+
+		public int getFlow()
+		{
+			return this.flow;
+		}
+
+		private void addArc(final int from, final int to, final int capacity)
+		{
+			this.arcTargets[this.arcCount] = to;
+			this.capacities[this.arcCount] = capacity;
+			this.nextArcs[this.arcCount] = this.firstArcs[from];
+			this.firstArcs[from] = this.arcCount++;
+
+			this.arcTargets[this.arcCount] = from;
+			this.capacities[this.arcCount] = 0;
+			this.nextArcs[this.arcCount] = this.firstArcs[to];
+			this.firstArcs[to] = this.arcCount++;
+		}
+
+		/**
+		 * Finds the maximum flow from the begin node to the end node and returns
+		 * the vertices left reachable from the begin node in the residual
+		 * network, the source side of a minimum cut.
+		 */
+		public BitSet cut(final int begin, final int end)
+		{
+			System.arraycopy(this.capacities, 0, this.residuals, 0, this.arcCount);
+			// the end points themselves can never be removed
+			if( this.nodesLimited )
+			{
+				this.residuals[this.getNodeArc(begin)] = UNLIMITED;
+				this.residuals[this.getNodeArc(end)] = UNLIMITED;
+			}
+
+			final int source = this.getNodeIn(begin);
+			final int sink = this.getNodeOut(end);
+			this.flow = 0;
+			while( this.levelVertices(source, sink) )
+			{
+				System.arraycopy(this.firstArcs, 0, this.currentArcs, 0, this.vertexCount);
+				int pushed;
+				while( (pushed = this.augment(source, sink)) > 0 )
+				{
+					if( pushed >= UNLIMITED - this.flow )
+						throw new IllegalStateException("begin and end can not be separated");
+					this.flow += pushed;
+				}
+			}
+
+			final BitSet sourceSide = new BitSet(this.vertexCount);
+			for(int vertex = 0; vertex < this.vertexCount; vertex++)
+				if( this.levels[vertex] >= 0 )
+					sourceSide.set(vertex);
+			return sourceSide;
+		}
+
+		private int getNodeArc(final int nodeIndex)
+		{
+			// the node arcs were added first, one forward and one reverse each
+			return 2 * nodeIndex;
+		}
+
+		private boolean levelVertices(final int source, final int sink)
+		{
+			Arrays.fill(this.levels, -1);
+			int head = 0;
+			int tail = 0;
+			this.queue[tail++] = source;
+			this.levels[source] = 0;
+			while( head < tail )
+			{
+				final int vertex = this.queue[head++];
+				for(int arc = this.firstArcs[vertex]; arc >= 0; arc = this.nextArcs[arc])
+				{
+					final int target = this.arcTargets[arc];
+					if( (this.residuals[arc] > 0) && (this.levels[target] < 0) )
+					{
+						this.levels[target] = this.levels[vertex] + 1;
+						this.queue[tail++] = target;
+					}
+				}
+			}
+			return this.levels[sink] >= 0;
+		}
+
+		/**
+		 * Pushes flow along one path of strictly increasing level, found with
+		 * an explicit stack so long paths can not overflow the call stack.
+		 */
+		private int augment(final int source, final int sink)
+		{
+			int depth = 0;
+			int vertex = source;
+			while( vertex != sink )
+			{
+				int arc = this.currentArcs[vertex];
+				while( (arc >= 0) && ((this.residuals[arc] <= 0) || (this.levels[this.arcTargets[arc]] != this.levels[vertex] + 1)) )
+					arc = this.nextArcs[arc];
+				this.currentArcs[vertex] = arc;
+
+				if( arc >= 0 )
+				{
+					this.pathArcs[depth++] = arc;
+					vertex = this.arcTargets[arc];
+				}
+				else
+				{
+					// dead end, never visit this vertex again in this phase
+					this.levels[vertex] = -1;
+					if( depth == 0 )
+						return 0;
+					final int previousArc = this.pathArcs[--depth];
+					vertex = this.arcTargets[previousArc ^ 1];
+					this.currentArcs[vertex] = this.nextArcs[previousArc];
+				}
+			}
+
+			int pushed = UNLIMITED;
+			for(int step = 0; step < depth; step++)
+				pushed = Math.min(pushed, this.residuals[this.pathArcs[step]]);
+			for(int step = 0; step < depth; step++)
+			{
+				this.residuals[this.pathArcs[step]] -= pushed;
+				this.residuals[this.pathArcs[step] ^ 1] += pushed;
+			}
+			return pushed;
+		}
+	}
+}
@@ -0,0 +1,622 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.GraphListener;
+import com.syncleus.dann.graph.ImmutableAdjacencyGraph;
+import com.syncleus.dann.graph.MutableGraph;
+import com.syncleus.dann.graph.ObservableGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import com.syncleus.dann.graph.xml.GraphXml;
+import com.syncleus.dann.xml.Namer;
+
+/**
+ * A mutable graph which keeps an index of its weakly connected components up to
+ * date as it changes, so that the weak connectivity queries dispatched by
+ * Topography are answered in near constant time. All other operations are
+ * delegated to the wrapped graph.
+ *
+ * <p>The index is a disjoint set forest over the nodes. Adding a node or an
+ * edge updates it in place; since a disjoint set forest can not be split,
+ * removing a node or an edge only marks the index stale and it is rebuilt in
+ * linear time the next time it is queried. If the wrapped graph is an
+ * ObservableGraph the index follows changes made to it directly as well,
+ * until disposed, otherwise all changes must be made through this graph.</p>
+ *
+ * <p>The cut and connectivity queries are not indexed and throw
+ * UnsupportedOperationException, which Topography treats as a request to use
+ * its general algorithms.</p>
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class IncrementalConnectivityGraph<N, E extends TraversableCloud<N>> implements MutableGraph<N, E>, WeakConnectivityOptimizedGraph<N, E>
+{
+	private static final long serialVersionUID = 3460818233128473652L;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final MutableGraph<N, E> graph;
+	// true while the index is registered with the wrapped graph
+	private volatile boolean observing;
+	private transient IndexUpdater updater;
+	private transient Map<N, Integer> nodeIndexes;
+	private transient int[] parents;
+	private transient int[] sizes;
+	private transient int[] edgeCounts;
+	private transient int nodeCount;
+	private transient int componentCount;
+
+	/**
+	 * Keeps the index up to date with changes made to an observable graph.
+	 */
+	private class IndexUpdater implements GraphListener<N, E>
+	{
+		@Override
+		public void nodeAdded(final Graph<N, E> changedGraph, final N node)
+		{
+			indexNode(node);
+		}
+
+		@Override
+		public void nodeRemoved(final Graph<N, E> changedGraph, final N node)
+		{
+			invalidate();
+		}
+
+		@Override
+		public void edgeAdded(final Graph<N, E> changedGraph, final E edge)
+		{
+			indexEdge(edge);
+		}
+
+		@Override
+		public void edgeRemoved(final Graph<N, E> changedGraph, final E edge)
+		{
+			invalidate();
+		}
+	}
+
+	/**
+	 * Creates a connectivity index over the given graph. The graph should not be
+	 * changed directly afterwards unless it is an ObservableGraph.
+	 *
+	 * @param graph the graph to index.
+	 */
+	public IncrementalConnectivityGraph(final MutableGraph<N, E> graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+
+		this.graph = graph;
+		this.observing = (graph instanceof ObservableGraph);
+		this.listen();
+	}
+
+	/**
+	 * Gets the graph this index wraps.
+	 *
+	 * @return the wrapped graph.
+	 */
+	public MutableGraph<N, E> getGraph()
+	{
+		return this.graph;
+	}
+
+	/**
+	 * Gets the number of weakly connected components.
+	 *
+	 * @return the number of weakly connected components, 0 for an empty graph.
+	 */
+	public synchronized int getComponentCount()
+	{
+		this.ensureIndexed();
+		return this.componentCount;
+	}
+
+	/**
+	 * Gets all nodes in the same weakly connected component as the given node.
+	 *
+	 * @param node the node whose component should be returned.
+	 * @return the nodes of the component, including the given node.
+	 * @throws IllegalArgumentException if the node is not in the graph.
+	 */
+	public synchronized Set<N> getComponentNodes(final N node)
+	{
+		final int root = this.find(this.getIndex(node));
+		final Set<N> componentNodes = new HashSet<N>(this.sizes[root] * 2);
+		for(final Map.Entry<N, Integer> nodeIndex : this.nodeIndexes.entrySet())
+			if( this.find(nodeIndex.getValue()) == root )
+				componentNodes.add(nodeIndex.getKey());
+		return Collections.unmodifiableSet(componentNodes);
+	}
+
+	@Override
+	public synchronized boolean isWeaklyConnected(final N firstNode, final N lastNode)
+	{
+		return (this.find(this.getIndex(firstNode)) == this.find(this.getIndex(lastNode)));
+	}
+
+	@Override
+	public synchronized boolean isWeaklyConnected()
+	{
+		this.ensureIndexed();
+		return (this.componentCount <= 1);
+	}
+
+	@Override
+	public synchronized Set<Graph<N, E>> getMaximallyConnectedComponents()
+	{
+		this.ensureIndexed();
+		final Map<Integer, Set<N>> componentNodes = new HashMap<Integer, Set<N>>(this.componentCount * 2);
+		final Map<Integer, Set<E>> componentEdges = new HashMap<Integer, Set<E>>(this.componentCount * 2);
+		for(final Map.Entry<N, Integer> nodeIndex : this.nodeIndexes.entrySet())
+		{
+			final Integer root = this.find(nodeIndex.getValue());
+			Set<N> nodes = componentNodes.get(root);
+			if( nodes == null )
+			{
+				nodes = new HashSet<N>();
+				componentNodes.put(root, nodes);
+				componentEdges.put(root, new HashSet<E>());
+			}
+			nodes.add(nodeIndex.getKey());
+		}
+		for(final E edge : this.graph.getEdges())
+		{
+			final Iterator<N> edgeNodes = edge.getNodes().iterator();
+			if( edgeNodes.hasNext() )
+				componentEdges.get(this.find(this.getIndex(edgeNodes.next()))).add(edge);
+		}
+
+		final Set<Graph<N, E>> components = new HashSet<Graph<N, E>>(this.componentCount * 2);
+		for(final Map.Entry<Integer, Set<N>> component : componentNodes.entrySet())
+			components.add(new ImmutableAdjacencyGraph<N, E>(component.getValue(), componentEdges.get(component.getKey())));
+		return Collections.unmodifiableSet(components);
+	}
+
+	/**
+	 * Determines if the subgraph is a union of whole weakly connected components
+	 * of this graph, including all of their edges. This is checked against the
+	 * size and edge count of each component, so it takes time proportional to
+	 * the size of the subgraph rather than this graph.
+	 *
+	 * @param subgraph A subgraph of this graph to be checked if maximally
+	 * connected.
+	 * @return true if the subgraph is maximal, false otherwise.
+	 */
+	@Override
+	public synchronized boolean isMaximalSubgraph(final Graph<N, E> subgraph)
+	{
+		this.ensureIndexed();
+		final Set<E> edges = this.graph.getEdges();
+		for(final E edge : subgraph.getEdges())
+			if( !edges.contains(edge) )
+				return false;
+
+		final Map<Integer, Integer> componentSizes = new HashMap<Integer, Integer>();
+		for(final N node : subgraph.getNodes())
+		{
+			final Integer nodeIndex = this.nodeIndexes.get(node);
+			if( nodeIndex == null )
+				return false;
+			final Integer root = this.find(nodeIndex);
+			final Integer size = componentSizes.get(root);
+			componentSizes.put(root, (size == null ? 1 : size + 1));
+		}
+
+		int expectedEdges = 0;
+		for(final Map.Entry<Integer, Integer> componentSize : componentSizes.entrySet())
+		{
+			if( componentSize.getValue() != this.sizes[componentSize.getKey()] )
+				return false;
+			expectedEdges += this.edgeCounts[componentSize.getKey()];
+		}
+		return (subgraph.getEdges().size() == expectedEdges);
+	}
+
+	@Override
+	public boolean isCut(final Set<N> nodes, final Set<E> edges)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final Set<E> edges)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final N node)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final E edge)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final Set<N> nodes, final Set<E> edges, final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final Set<E> edges, final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final N node, final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isCut(final E edge, final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public int getNodeConnectivity()
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public int getEdgeConnectivity()
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public int getNodeConnectivity(final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public int getEdgeConnectivity(final N begin, final N end)
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean isComplete()
+	{
+		throw new UnsupportedOperationException("This optimization is not supported");
+	}
+
+	@Override
+	public boolean add(final E newEdge)
+	{
+		if( !this.graph.add(newEdge) )
+			return false;
+		if( !this.observing )
+			this.indexEdge(newEdge);
+		return true;
+	}
+
+	@Override
+	public boolean add(final N newNode)
+	{
+		if( !this.graph.add(newNode) )
+			return false;
+		if( !this.observing )
+			this.indexNode(newNode);
+		return true;
+	}
+
+	@Override
+	public boolean remove(final E edgeToRemove)
+	{
+		if( !this.graph.remove(edgeToRemove) )
+			return false;
+		this.invalidate();
+		return true;
+	}
+
+	@Override
+	public boolean remove(final N nodeToRemove)
+	{
+		if( !this.graph.remove(nodeToRemove) )
+			return false;
+		this.invalidate();
+		return true;
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> newEdges)
+	{
+		if( newEdges == null )
+			throw new IllegalArgumentException("newEdges can not be null");
+
+		// an observed graph reports each added edge to the index itself
+		final List<E> absentEdges = new ArrayList<E>();
+		if( !this.observing )
+			for(final E newEdge : newEdges)
+				if( !this.graph.getEdges().contains(newEdge) )
+					absentEdges.add(newEdge);
+
+		if( !this.graph.addAll(newEdges) )
+			return false;
+		for(final E absentEdge : absentEdges)
+			if( this.graph.getEdges().contains(absentEdge) )
+				this.indexEdge(absentEdge);
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(final Collection<? extends E> edgesToRemove)
+	{
+		if( !this.graph.removeAll(edgesToRemove) )
+			return false;
+		this.invalidate();
+		return true;
+	}
+
+	@Override
+	public boolean clear()
+	{
+		final boolean removedSomething = this.graph.clear();
+		this.invalidate();
+		return removedSomething;
+	}
+
+	@Override
+	public Set<N> getNodes()
+	{
+		return this.graph.getNodes();
+	}
+
+	@Override
+	public Set<E> getEdges()
+	{
+		return this.graph.getEdges();
+	}
+
+	@Override
+	public List<N> getAdjacentNodes(final N node)
+	{
+		return this.graph.getAdjacentNodes(node);
+	}
+
+	@Override
+	public Set<E> getAdjacentEdges(final N node)
+	{
+		return this.graph.getAdjacentEdges(node);
+	}
+
+	@Override
+	public List<N> getTraversableNodes(final N node)
+	{
+		return this.graph.getTraversableNodes(node);
+	}
+
+	@Override
+	public Set<E> getTraversableEdges(final N node)
+	{
+		return this.graph.getTraversableEdges(node);
+	}
+
+	@Override
+	public boolean isContextEnabled()
+	{
+		return this.graph.isContextEnabled();
+	}
+
+	@Override
+	public GraphXml toXml()
+	{
+		return this.graph.toXml();
+	}
+
+	@Override
+	public GraphXml toXml(final Namer<Object> namer)
+	{
+		return this.graph.toXml(namer);
+	}
+
+	@Override
+	public void toXml(final GraphXml jaxbObject, final Namer<Object> namer)
+	{
+		this.graph.toXml(jaxbObject, namer);
+	}
+
+	/**
+	 * Unregisters the index from the wrapped graph so the graph no longer holds a
+	 * reference to it. This graph can still be used afterwards, but like an
+	 * index over a graph which is not observable all changes must then be made
+	 * through it.
+	 */
+	public synchronized void dispose()
+	{
+		if( this.updater != null )
+		{
+			((ObservableGraph<N, E>) this.graph).removeGraphListener(this.updater);
+			this.updater = null;
+		}
+		this.observing = false;
+		this.invalidate();
+	}
+
+	private synchronized void listen()
+	{
+		if( this.observing )
+		{
+			this.updater = new IndexUpdater();
+			((ObservableGraph<N, E>) this.graph).addGraphListener(this.updater);
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		// the listeners of the wrapped graph are not serialized
+		this.listen();
+	}
+
+	private synchronized void invalidate()
+	{
+		this.nodeIndexes = null;
+	}
+
+	private void ensureIndexed()
+	{
+		if( this.nodeIndexes != null )
+			return;
+
+		final Set<N> nodes = this.graph.getNodes();
+		this.nodeIndexes = new HashMap<N, Integer>(nodes.size() * 2);
+		final int capacity = Math.max(INITIAL_CAPACITY, nodes.size());
+		this.parents = new int[capacity];
+		this.sizes = new int[capacity];
+		this.edgeCounts = new int[capacity];
+		this.nodeCount = 0;
+		this.componentCount = 0;
+		for(final N node : nodes)
+			this.appendNode(node);
+		for(final E edge : this.graph.getEdges())
+		{
+			if( !this.unionEdge(edge) )
+			{
+				this.nodeIndexes = null;
+				throw new IllegalStateException("an edge of the graph is connected to a node which is not in the graph");
+			}
+		}
+	}
+
+	private synchronized void indexNode(final N node)
+	{
+		// a stale index will pick the node up when it is rebuilt
+		if( (this.nodeIndexes != null) && !this.nodeIndexes.containsKey(node) )
+			this.appendNode(node);
+	}
+
+	private synchronized void indexEdge(final E edge)
+	{
+		// the edge arrived ahead of one of its nodes, start over later
+		if( (this.nodeIndexes != null) && !this.unionEdge(edge) )
+			this.nodeIndexes = null;
+	}
+
+	private void appendNode(final N node)
+	{
+		if( this.nodeCount == this.parents.length )
+		{
+			final int capacity = this.parents.length * 2;
+			final int[] newParents = new int[capacity];
+			final int[] newSizes = new int[capacity];
+			final int[] newEdgeCounts = new int[capacity];
+			System.arraycopy(this.parents, 0, newParents, 0, this.nodeCount);
+			System.arraycopy(this.sizes, 0, newSizes, 0, this.nodeCount);
+			System.arraycopy(this.edgeCounts, 0, newEdgeCounts, 0, this.nodeCount);
+			this.parents = newParents;
+			this.sizes = newSizes;
+			this.edgeCounts = newEdgeCounts;
+		}
+
+		final int nodeIndex = this.nodeCount++;
+		this.nodeIndexes.put(node, nodeIndex);
+		this.parents[nodeIndex] = nodeIndex;
+		this.sizes[nodeIndex] = 1;
+		this.edgeCounts[nodeIndex] = 0;
+		this.componentCount++;
+	}
+
+	/**
+	 * Joins the components of the nodes of an edge, leaving the index untouched
+	 * if any of its nodes is not indexed.
+	 *
+	 * @return false if one of the edge's nodes is not indexed, true otherwise.
+	 */
+	private boolean unionEdge(final E edge)
+	{
+		final List<Integer> endIndexes = new ArrayList<Integer>(edge.getNodes().size());
+		for(final N node : edge.getNodes())
+		{
+			final Integer nodeIndex = this.nodeIndexes.get(node);
+			if( nodeIndex == null )
+				return false;
+			endIndexes.add(nodeIndex);
+		}
+		if( endIndexes.isEmpty() )
+			return true;
+
+		int root = this.find(endIndexes.get(0));
+		for(final int endIndex : endIndexes)
+			root = this.union(root, this.find(endIndex));
+		this.edgeCounts[root]++;
+		return true;
+	}
+
+	private int union(final int firstRoot, final int secondRoot)
+	{
+		if( firstRoot == secondRoot )
+			return firstRoot;
+
+		// union by size keeps the trees shallow
+		final int root = (this.sizes[firstRoot] >= this.sizes[secondRoot] ? firstRoot : secondRoot);
+		final int child = (root == firstRoot ? secondRoot : firstRoot);
+		this.parents[child] = root;
+		this.sizes[root] += this.sizes[child];
+		this.edgeCounts[root] += this.edgeCounts[child];
+		this.componentCount--;
+		return root;
+	}
+
+	private int find(final int nodeIndex)
+	{
+		int current = nodeIndex;
+		while( this.parents[current] != current )
+		{
+			// path halving
+			this.parents[current] = this.parents[this.parents[current]];
+			current = this.parents[current];
+		}
+		return current;
+	}
+
+	private int getIndex(final N node)
+	{
+		this.ensureIndexed();
+		final Integer nodeIndex = this.nodeIndexes.get(node);
+		if( nodeIndex == null )
+			throw new IllegalArgumentException("node is not in the graph");
+		return nodeIndex;
+	}
+}
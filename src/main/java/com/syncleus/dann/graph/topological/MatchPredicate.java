@@ -0,0 +1,55 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import com.syncleus.dann.graph.TraversableCloud;
+
+/**
+ * Decides which nodes and edges of a pattern graph may be matched to which
+ * nodes and edges of a target graph by a SubgraphMatcher, for example by
+ * comparing their labels or types. The structure of the graphs is always
+ * checked by the matcher, this only adds further restrictions.
+ *
+ * @since 2.2
+ * @param <PN> The node type of the pattern graph
+ * @param <PE> The edge type of the pattern graph
+ * @param <N> The node type of the target graph
+ * @param <E> The edge type of the target graph
+ */
+public interface MatchPredicate<PN, PE extends TraversableCloud<PN>, N, E extends TraversableCloud<N>>
+{
+	/**
+	 * Determines if a pattern node may be matched to a target node.
+	 *
+	 * @param patternNode the node of the pattern graph.
+	 * @param node the node of the target graph.
+	 * @return true if the nodes may be matched, false otherwise.
+	 */
+	boolean isNodeMatch(PN patternNode, N node);
+
+	/**
+	 * Determines if a pattern edge may be matched to a target edge. Only called
+	 * for edges whose end points are already matched.
+	 *
+	 * @param patternEdge the edge of the pattern graph.
+	 * @param edge the edge of the target graph.
+	 * @return true if the edges may be matched, false otherwise.
+	 */
+	boolean isEdgeMatch(PE patternEdge, E edge);
+}
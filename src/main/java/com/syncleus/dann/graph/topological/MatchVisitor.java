@@ -0,0 +1,42 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.Map;
+
+/**
+ * Receives the matches found by a SubgraphMatcher one at a time, so that
+ * every embedding of a pattern can be processed without holding all of them
+ * in memory. The visitor is never called by more than one thread at a time.
+ *
+ * @since 2.2
+ * @param <PN> The node type of the pattern graph
+ * @param <N> The node type of the target graph
+ * @see SubgraphMatcher#findMatches(MatchVisitor)
+ */
+public interface MatchVisitor<PN, N>
+{
+	/**
+	 * Called once for every match found.
+	 *
+	 * @param match maps every pattern node to the target node it matched.
+	 * @return true to continue searching, false to stop.
+	 */
+	boolean visit(Map<PN, N> match);
+}
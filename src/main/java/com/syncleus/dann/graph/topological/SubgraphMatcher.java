@@ -0,0 +1,685 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * Finds the embeddings of a pattern graph in a target graph using the
+ * <a href="http://dx.doi.org/10.1109/TPAMI.2004.75">VF2</a> state space
+ * search. Pattern nodes are matched one at a time in a fixed order, chosen
+ * breadth first from the highest degree node so that every node after the
+ * first of its component is adjacent to an earlier one, as in VF2++. The
+ * candidates for such a node are then only the neighbors of its earlier
+ * neighbor's match. A candidate pair is pruned unless the degrees of the target
+ * node cover those of the pattern node, the edges to every matched neighbor
+ * agree, and the target node has at least as many unmatched neighbors, both in
+ * total and adjacent to the matched nodes, as the pattern node.
+ *
+ * <p>Edges are followed in their traversable direction, so directed edges must
+ * match directed edges the same way around. Parallel edges are matched by
+ * count. When induced, an edge between two matched target nodes requires an
+ * edge between the pattern nodes as well, otherwise the pattern only has to be
+ * contained in the target. An optional MatchPredicate restricts which nodes and
+ * edges may be matched, each parallel pattern edge then needs its own
+ * compatible target edge.</p>
+ *
+ * <p>When an executor is given the candidates for the first pattern node are
+ * divided among parallel searches, each with its own search state. Graphs which
+ * are not already an IndexedGraph are first copied into a
+ * CompressedAdjacencyGraph.</p>
+ *
+ * @since 2.2
+ * @param <PN> The node type of the pattern graph
+ * @param <PE> The edge type of the pattern graph
+ * @param <N> The node type of the target graph
+ * @param <E> The edge type of the target graph
+ */
+public class SubgraphMatcher<PN, PE extends TraversableCloud<PN>, N, E extends TraversableCloud<N>>
+{
+	private static final Logger LOGGER = Logger.getLogger(SubgraphMatcher.class);
+	private static final int NO_NODE = -1;
+
+	private final IndexedGraph<PN, PE> pattern;
+	private final IndexedGraph<N, E> target;
+	private final boolean induced;
+	private final MatchPredicate<? super PN, ? super PE, ? super N, ? super E> predicate;
+	private final ExecutorService threadExecutor;
+	private final Runs patternOut;
+	private final Runs patternIn;
+	private final Runs targetOut;
+	private final Runs targetIn;
+	private final int[] order;
+	private final int[] parentDepths;
+	private final boolean[] parentOutward;
+
+	/**
+	 * Creates a matcher which searches on the calling thread without any
+	 * restriction on which nodes and edges may be matched.
+	 *
+	 * @param pattern the graph to search for.
+	 * @param target the graph to search in.
+	 * @param induced true if the edges between matched target nodes must all be
+	 *   matched by pattern edges.
+	 */
+	public SubgraphMatcher(final Graph<PN, PE> pattern, final Graph<N, E> target, final boolean induced)
+	{
+		this(pattern, target, induced, null, null);
+	}
+
+	/**
+	 * Creates a matcher.
+	 *
+	 * @param pattern the graph to search for.
+	 * @param target the graph to search in.
+	 * @param induced true if the edges between matched target nodes must all be
+	 *   matched by pattern edges.
+	 * @param predicate restricts which nodes and edges may be matched, null to
+	 *   match on structure alone.
+	 * @param threadExecutor The executor used to search in parallel, null to
+	 *   search on the calling thread.
+	 */
+	public SubgraphMatcher(final Graph<PN, PE> pattern, final Graph<N, E> target, final boolean induced, final MatchPredicate<? super PN, ? super PE, ? super N, ? super E> predicate, final ExecutorService threadExecutor)
+	{
+		if( pattern == null )
+			throw new IllegalArgumentException("pattern can not be null");
+		if( target == null )
+			throw new IllegalArgumentException("target can not be null");
+
+		this.pattern = toIndexedGraph(pattern);
+		this.target = toIndexedGraph(target);
+		this.induced = induced;
+		this.predicate = predicate;
+		this.threadExecutor = threadExecutor;
+		this.patternOut = new Runs(this.pattern, false);
+		this.patternIn = new Runs(this.pattern, true);
+		this.targetOut = new Runs(this.target, false);
+		this.targetIn = new Runs(this.target, true);
+
+		final int patternCount = this.pattern.getNodeCount();
+		this.order = new int[patternCount];
+		this.parentDepths = new int[patternCount];
+		this.parentOutward = new boolean[patternCount];
+		this.orderPattern();
+	}
+
+	/**
+	 * Determines if the pattern has at least one match.
+	 *
+	 * @return true if the pattern has a match, false otherwise.
+	 */
+	public boolean hasMatch()
+	{
+		return (this.findMatch() != null);
+	}
+
+	/**
+	 * Finds a single match of the pattern.
+	 *
+	 * @return maps every pattern node to the target node it matched, or null if
+	 *   the pattern has no match.
+	 */
+	public Map<PN, N> findMatch()
+	{
+		final List<Map<PN, N>> matches = new ArrayList<Map<PN, N>>(1);
+		this.findMatches(new MatchVisitor<PN, N>()
+		{
+			@Override
+			public boolean visit(final Map<PN, N> match)
+			{
+				matches.add(match);
+				return false;
+			}
+		});
+		return (matches.isEmpty() ? null : matches.get(0));
+	}
+
+	/**
+	 * Passes every match of the pattern to the visitor as soon as it is found,
+	 * stopping early if the visitor asks to. With an executor the order of the
+	 * matches is not defined.
+	 *
+	 * @param visitor receives each match.
+	 * @return false if the visitor stopped the search, true otherwise.
+	 */
+	public boolean findMatches(final MatchVisitor<PN, N> visitor)
+	{
+		if( visitor == null )
+			throw new IllegalArgumentException("visitor can not be null");
+
+		final AtomicBoolean stopped = new AtomicBoolean(false);
+		this.search(visitor, stopped);
+		return !stopped.get();
+	}
+
+	/**
+	 * Counts the matches of the pattern without building them.
+	 *
+	 * @return the number of matches.
+	 */
+	public long countMatches()
+	{
+		return this.search(null, new AtomicBoolean(false));
+	}
+
+	private long search(final MatchVisitor<PN, N> visitor, final AtomicBoolean stopped)
+	{
+		final int patternCount = this.pattern.getNodeCount();
+		final int targetCount = this.target.getNodeCount();
+		if( patternCount == 0 )
+		{
+			// the empty pattern matches exactly once
+			if( (visitor != null) && !visitor.visit(new HashMap<PN, N>()) )
+				stopped.set(true);
+			return 1L;
+		}
+		if( patternCount > targetCount )
+			return 0L;
+
+		final int taskCount = (this.threadExecutor == null ? 1 : Math.max(1, Math.min(targetCount, Runtime.getRuntime().availableProcessors())));
+		final List<Search> searches = new ArrayList<Search>(taskCount);
+		for(int task = 0; task < taskCount; task++)
+			searches.add(new Search(visitor, stopped, task, taskCount));
+
+		if( this.threadExecutor == null )
+			return searches.get(0).call();
+
+		try
+		{
+			long matchCount = 0L;
+			for(final Future<Long> future : this.threadExecutor.invokeAll(searches))
+				matchCount += future.get();
+			return matchCount;
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("searching for matches was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			if( caught.getCause() instanceof RuntimeException )
+				throw (RuntimeException) caught.getCause();
+			LOGGER.error("searching for matches had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	/**
+	 * Orders the pattern nodes breadth first, starting each component from its
+	 * highest degree node and visiting the neighbors of each node from the
+	 * highest degree down, and records which earlier neighbor every node will
+	 * take its candidates from.
+	 */
+	private void orderPattern()
+	{
+		final int patternCount = this.pattern.getNodeCount();
+		final int[] depths = new int[patternCount];
+		Arrays.fill(depths, NO_NODE);
+
+		final int[] byDegree = this.sortByDegree(allNodes(patternCount), patternCount);
+		int ordered = 0;
+		for(final int root : byDegree)
+		{
+			if( depths[root] != NO_NODE )
+				continue;
+
+			depths[root] = ordered;
+			this.order[ordered] = root;
+			this.parentDepths[ordered] = NO_NODE;
+			ordered++;
+			for(int position = ordered - 1; position < ordered; position++)
+			{
+				final int nodeIndex = this.order[position];
+				for(int pass = 0; pass < 2; pass++)
+				{
+					final boolean outward = (pass == 0);
+					final Runs runs = (outward ? this.patternOut : this.patternIn);
+					final int first = runs.slotOffsets[nodeIndex];
+					final int last = runs.slotOffsets[nodeIndex + 1];
+					final int[] neighbors = new int[last - first];
+					int neighborCount = 0;
+					for(int slot = first; slot < last; slot++)
+						if( depths[runs.slotNodes[slot]] == NO_NODE )
+							neighbors[neighborCount++] = runs.slotNodes[slot];
+					for(final int neighbor : this.sortByDegree(neighbors, neighborCount))
+					{
+						depths[neighbor] = ordered;
+						this.order[ordered] = neighbor;
+						this.parentDepths[ordered] = position;
+						this.parentOutward[ordered] = outward;
+						ordered++;
+					}
+				}
+			}
+		}
+	}
+
+	private static int[] allNodes(final int nodeCount)
+	{
+		final int[] nodes = new int[nodeCount];
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			nodes[nodeIndex] = nodeIndex;
+		return nodes;
+	}
+
+	private int[] sortByDegree(final int[] nodes, final int nodeCount)
+	{
+		// sort on the negated degree then the index, packed into one key
+		final long[] keys = new long[nodeCount];
+		for(int position = 0; position < nodeCount; position++)
+		{
+			final int nodeIndex = nodes[position];
+			final long degree = this.patternOut.getDegree(nodeIndex) + this.patternIn.getDegree(nodeIndex);
+			keys[position] = ((Integer.MAX_VALUE - degree) << 32) | nodeIndex;
+		}
+		Arrays.sort(keys);
+		final int[] sorted = new int[nodeCount];
+		for(int position = 0; position < nodeCount; position++)
+			sorted[position] = (int) keys[position];
+		return sorted;
+	}
+
+	private static <N, E extends TraversableCloud<N>> IndexedGraph<N, E> toIndexedGraph(final Graph<N, E> graph)
+	{
+		if( graph instanceof IndexedGraph )
+			return (IndexedGraph<N, E>) graph;
+		return new CompressedAdjacencyGraph<N, E>(graph);
+	}
+
+	/**
+	 * The neighbors of every node in one direction, sorted and with parallel
+	 * edges grouped into a single slot, so the edges between two nodes can be
+	 * found by a binary search.
+	 */
+	private static final class Runs
+	{
+		private final int[] slotOffsets;
+		private final int[] slotNodes;
+		private final int[] edgeOffsets;
+		private final int[] edges;
+
+		public Runs(final IndexedGraph<?, ?> graph, final boolean inward)
+		{
+			final int nodeCount = graph.getNodeCount();
+			final int entryCount = (inward ? graph.getInOffset(nodeCount) : graph.getTraversableOffset(nodeCount));
+			this.slotOffsets = new int[nodeCount + 1];
+			final int[] nodes = new int[entryCount];
+			final int[] offsets = new int[entryCount + 1];
+			this.edges = new int[entryCount];
+
+			int slotCount = 0;
+			int edgeCount = 0;
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			{
+				this.slotOffsets[nodeIndex] = slotCount;
+				final int first = (inward ? graph.getInOffset(nodeIndex) : graph.getTraversableOffset(nodeIndex));
+				final int last = (inward ? graph.getInOffset(nodeIndex + 1) : graph.getTraversableOffset(nodeIndex + 1));
+				final long[] keys = new long[last - first];
+				for(int entry = first; entry < last; entry++)
+				{
+					final int neighbor = (inward ? graph.getInNodeIndex(entry) : graph.getTraversableNodeIndex(entry));
+					final int edge = (inward ? graph.getInEdgeIndex(entry) : graph.getTraversableEdgeIndex(entry));
+					keys[entry - first] = (((long) neighbor) << 32) | edge;
+				}
+				Arrays.sort(keys);
+				for(int key = 0; key < keys.length; key++)
+				{
+					final int neighbor = (int) (keys[key] >>> 32);
+					if( (key == 0) || (nodes[slotCount - 1] != neighbor) )
+					{
+						nodes[slotCount] = neighbor;
+						offsets[slotCount] = edgeCount;
+						slotCount++;
+					}
+					this.edges[edgeCount++] = (int) keys[key];
+				}
+			}
+			this.slotOffsets[nodeCount] = slotCount;
+			offsets[slotCount] = edgeCount;
+			this.slotNodes = Arrays.copyOf(nodes, slotCount);
+			this.edgeOffsets = Arrays.copyOf(offsets, slotCount + 1);
+		}
+
+		public int getDegree(final int nodeIndex)
+		{
+			return this.edgeOffsets[this.slotOffsets[nodeIndex + 1]] - this.edgeOffsets[this.slotOffsets[nodeIndex]];
+		}
+
+		public int getCount(final int slot)
+		{
+			return this.edgeOffsets[slot + 1] - this.edgeOffsets[slot];
+		}
+
+		public int findSlot(final int nodeIndex, final int neighbor)
+		{
+			final int slot = Arrays.binarySearch(this.slotNodes, this.slotOffsets[nodeIndex], this.slotOffsets[nodeIndex + 1], neighbor);
+			return (slot < 0 ? NO_NODE : slot);
+		}
+	}
+
+	/**
+	 * One depth first search through the VF2 state space, covering every
+	 * stride-th candidate for the first pattern node.
+	 */
+	private final class Search implements Callable<Long>
+	{
+		private final MatchVisitor<PN, N> visitor;
+		private final AtomicBoolean stopped;
+		private final int firstRoot;
+		private final int rootStride;
+		private final int[] patternCore;
+		private final int[] targetCore;
+		private final int[] patternTerminal;
+		private final int[] targetTerminal;
+		private final int[] cursors;
+		private final int[] cursorEnds;
+		private final int[] matched;
+
+		public Search(final MatchVisitor<PN, N> visitor, final AtomicBoolean stopped, final int firstRoot, final int rootStride)
+		{
+			this.visitor = visitor;
+			this.stopped = stopped;
+			this.firstRoot = firstRoot;
+			this.rootStride = rootStride;
+			final int patternCount = pattern.getNodeCount();
+			final int targetCount = target.getNodeCount();
+			this.patternCore = new int[patternCount];
+			this.targetCore = new int[targetCount];
+			this.patternTerminal = new int[patternCount];
+			this.targetTerminal = new int[targetCount];
+			this.cursors = new int[patternCount];
+			this.cursorEnds = new int[patternCount];
+			this.matched = new int[patternCount];
+			Arrays.fill(this.patternCore, NO_NODE);
+			Arrays.fill(this.targetCore, NO_NODE);
+		}
+
+		@Override
+		public Long call()
+		{
+			final int lastDepth = pattern.getNodeCount() - 1;
+			long matchCount = 0L;
+			int depth = 0;
+			this.startCandidates(0);
+			while( (depth >= 0) && !this.stopped.get() )
+			{
+				if( this.matched[depth] != NO_NODE )
+					this.unmatch(depth);
+
+				final int candidate = this.nextCandidate(depth);
+				if( candidate == NO_NODE )
+				{
+					depth--;
+					continue;
+				}
+				if( !this.isFeasible(order[depth], candidate) )
+					continue;
+
+				this.match(depth, candidate);
+				if( depth < lastDepth )
+				{
+					depth++;
+					this.startCandidates(depth);
+				}
+				else
+				{
+					matchCount++;
+					if( this.visitor != null )
+						this.report();
+				}
+			}
+			return matchCount;
+		}
+
+		private void report()
+		{
+			final Map<PN, N> match = new HashMap<PN, N>(pattern.getNodeCount() * 2);
+			for(int patternIndex = 0; patternIndex < this.patternCore.length; patternIndex++)
+				match.put(pattern.getNode(patternIndex), target.getNode(this.patternCore[patternIndex]));
+			synchronized(this.stopped)
+			{
+				if( !this.stopped.get() && !this.visitor.visit(match) )
+					this.stopped.set(true);
+			}
+		}
+
+		private void startCandidates(final int depth)
+		{
+			this.matched[depth] = NO_NODE;
+			final int parentDepth = parentDepths[depth];
+			if( depth == 0 )
+			{
+				this.cursors[depth] = this.firstRoot;
+				this.cursorEnds[depth] = target.getNodeCount();
+			}
+			else if( parentDepth == NO_NODE )
+			{
+				this.cursors[depth] = 0;
+				this.cursorEnds[depth] = target.getNodeCount();
+			}
+			else
+			{
+				final Runs runs = (parentOutward[depth] ? targetOut : targetIn);
+				final int parentMatch = this.matched[parentDepth];
+				this.cursors[depth] = runs.slotOffsets[parentMatch];
+				this.cursorEnds[depth] = runs.slotOffsets[parentMatch + 1];
+			}
+		}
+
+		private int nextCandidate(final int depth)
+		{
+			final int parentDepth = parentDepths[depth];
+			while( this.cursors[depth] < this.cursorEnds[depth] )
+			{
+				final int candidate;
+				if( parentDepth == NO_NODE )
+				{
+					candidate = this.cursors[depth];
+					this.cursors[depth] += (depth == 0 ? this.rootStride : 1);
+				}
+				else
+					candidate = (parentOutward[depth] ? targetOut : targetIn).slotNodes[this.cursors[depth]++];
+				if( this.targetCore[candidate] == NO_NODE )
+					return candidate;
+			}
+			return NO_NODE;
+		}
+
+		private boolean isFeasible(final int patternIndex, final int targetIndex)
+		{
+			if( (patternOut.getDegree(patternIndex) > targetOut.getDegree(targetIndex))
+					|| (patternIn.getDegree(patternIndex) > targetIn.getDegree(targetIndex)) )
+				return false;
+			if( (predicate != null) && !predicate.isNodeMatch(pattern.getNode(patternIndex), target.getNode(targetIndex)) )
+				return false;
+
+			// every edge to a matched neighbor, or a loop, must be matched
+			if( !this.isEdgesMatched(patternOut, targetOut, patternIndex, targetIndex)
+					|| !this.isEdgesMatched(patternIn, targetIn, patternIndex, targetIndex) )
+				return false;
+			if( induced
+					&& (!this.isEdgesInduced(targetOut, patternOut, patternIndex, targetIndex)
+					|| !this.isEdgesInduced(targetIn, patternIn, patternIndex, targetIndex)) )
+				return false;
+
+			// look ahead one step, every unmatched neighbor of the pattern node
+			// needs its own unmatched neighbor of the target node
+			return (this.countUnmatched(patternOut, this.patternCore, this.patternTerminal, patternIndex, true) + this.countUnmatched(patternIn, this.patternCore, this.patternTerminal, patternIndex, true)
+					<= this.countUnmatched(targetOut, this.targetCore, this.targetTerminal, targetIndex, true) + this.countUnmatched(targetIn, this.targetCore, this.targetTerminal, targetIndex, true))
+					&& (this.countUnmatched(patternOut, this.patternCore, this.patternTerminal, patternIndex, false) + this.countUnmatched(patternIn, this.patternCore, this.patternTerminal, patternIndex, false)
+					<= this.countUnmatched(targetOut, this.targetCore, this.targetTerminal, targetIndex, false) + this.countUnmatched(targetIn, this.targetCore, this.targetTerminal, targetIndex, false));
+		}
+
+		private boolean isEdgesMatched(final Runs patternRuns, final Runs targetRuns, final int patternIndex, final int targetIndex)
+		{
+			for(int slot = patternRuns.slotOffsets[patternIndex]; slot < patternRuns.slotOffsets[patternIndex + 1]; slot++)
+			{
+				final int neighbor = patternRuns.slotNodes[slot];
+				final int neighborMatch = (neighbor == patternIndex ? targetIndex : this.patternCore[neighbor]);
+				if( neighborMatch == NO_NODE )
+					continue;
+
+				final int targetSlot = targetRuns.findSlot(targetIndex, neighborMatch);
+				if( targetSlot == NO_NODE )
+					return false;
+				final int patternCount = patternRuns.getCount(slot);
+				final int targetCount = targetRuns.getCount(targetSlot);
+				if( (induced ? (patternCount != targetCount) : (patternCount > targetCount)) )
+					return false;
+				if( (predicate != null) && !this.isEdgesCompatible(patternRuns, slot, targetRuns, targetSlot) )
+					return false;
+			}
+			return true;
+		}
+
+		private boolean isEdgesCompatible(final Runs patternRuns, final int patternSlot, final Runs targetRuns, final int targetSlot)
+		{
+			// parallel edges are matched one to one, each pattern edge claims a
+			// target edge and may take it from an earlier one which can move on
+			final int patternStart = patternRuns.edgeOffsets[patternSlot];
+			final int patternCount = patternRuns.edgeOffsets[patternSlot + 1] - patternStart;
+			final int targetCount = targetRuns.getCount(targetSlot);
+			final boolean[][] compatible = new boolean[patternCount][targetCount];
+			for(int patternEdge = 0; patternEdge < patternCount; patternEdge++)
+				for(int targetEdge = 0; targetEdge < targetCount; targetEdge++)
+					compatible[patternEdge][targetEdge] = predicate.isEdgeMatch(pattern.getEdge(patternRuns.edges[patternStart + patternEdge]), target.getEdge(targetRuns.edges[targetRuns.edgeOffsets[targetSlot] + targetEdge]));
+
+			final int[] owners = new int[targetCount];
+			Arrays.fill(owners, NO_NODE);
+			for(int patternEdge = 0; patternEdge < patternCount; patternEdge++)
+				if( !assignEdge(compatible, owners, patternEdge, new boolean[targetCount]) )
+					return false;
+			return true;
+		}
+
+		private boolean isEdgesInduced(final Runs targetRuns, final Runs patternRuns, final int patternIndex, final int targetIndex)
+		{
+			// the pattern side has already checked the counts of shared edges,
+			// so only edges the pattern lacks are left to find
+			for(int slot = targetRuns.slotOffsets[targetIndex]; slot < targetRuns.slotOffsets[targetIndex + 1]; slot++)
+			{
+				final int neighbor = targetRuns.slotNodes[slot];
+				final int neighborMatch = (neighbor == targetIndex ? patternIndex : this.targetCore[neighbor]);
+				if( (neighborMatch != NO_NODE) && (patternRuns.findSlot(patternIndex, neighborMatch) == NO_NODE) )
+					return false;
+			}
+			return true;
+		}
+
+		private int countUnmatched(final Runs runs, final int[] core, final int[] terminal, final int nodeIndex, final boolean terminalOnly)
+		{
+			int unmatched = 0;
+			for(int slot = runs.slotOffsets[nodeIndex]; slot < runs.slotOffsets[nodeIndex + 1]; slot++)
+			{
+				final int neighbor = runs.slotNodes[slot];
+				if( (neighbor != nodeIndex) && (core[neighbor] == NO_NODE) && (!terminalOnly || (terminal[neighbor] != 0)) )
+					unmatched += runs.getCount(slot);
+			}
+			return unmatched;
+		}
+
+		private void match(final int depth, final int targetIndex)
+		{
+			final int patternIndex = order[depth];
+			this.patternCore[patternIndex] = targetIndex;
+			this.targetCore[targetIndex] = patternIndex;
+			this.matched[depth] = targetIndex;
+			final int stamp = depth + 1;
+			markTerminal(patternOut, patternIn, this.patternTerminal, patternIndex, stamp);
+			markTerminal(targetOut, targetIn, this.targetTerminal, targetIndex, stamp);
+		}
+
+		private void unmatch(final int depth)
+		{
+			final int patternIndex = order[depth];
+			final int targetIndex = this.matched[depth];
+			final int stamp = depth + 1;
+			clearTerminal(patternOut, patternIn, this.patternTerminal, patternIndex, stamp);
+			clearTerminal(targetOut, targetIn, this.targetTerminal, targetIndex, stamp);
+			this.patternCore[patternIndex] = NO_NODE;
+			this.targetCore[targetIndex] = NO_NODE;
+			this.matched[depth] = NO_NODE;
+		}
+	}
+
+	/**
+	 * Finds a target edge for the pattern edge, moving the edges which already
+	 * own a target edge along an augmenting path where needed.
+	 */
+	private static boolean assignEdge(final boolean[][] compatible, final int[] owners, final int patternEdge, final boolean[] visited)
+	{
+		for(int targetEdge = 0; targetEdge < owners.length; targetEdge++)
+		{
+			if( !compatible[patternEdge][targetEdge] || visited[targetEdge] )
+				continue;
+			visited[targetEdge] = true;
+			if( (owners[targetEdge] == NO_NODE) || assignEdge(compatible, owners, owners[targetEdge], visited) )
+			{
+				owners[targetEdge] = patternEdge;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds a newly matched node and its neighbors to the terminal set, stamped
+	 * with the depth they were added at so they can be removed on backtracking.
+	 */
+	private static void markTerminal(final Runs outRuns, final Runs inRuns, final int[] terminal, final int nodeIndex, final int stamp)
+	{
+		if( terminal[nodeIndex] == 0 )
+			terminal[nodeIndex] = stamp;
+		for(int slot = outRuns.slotOffsets[nodeIndex]; slot < outRuns.slotOffsets[nodeIndex + 1]; slot++)
+			if( terminal[outRuns.slotNodes[slot]] == 0 )
+				terminal[outRuns.slotNodes[slot]] = stamp;
+		for(int slot = inRuns.slotOffsets[nodeIndex]; slot < inRuns.slotOffsets[nodeIndex + 1]; slot++)
+			if( terminal[inRuns.slotNodes[slot]] == 0 )
+				terminal[inRuns.slotNodes[slot]] = stamp;
+	}
+
+	private static void clearTerminal(final Runs outRuns, final Runs inRuns, final int[] terminal, final int nodeIndex, final int stamp)
+	{
+		if( terminal[nodeIndex] == stamp )
+			terminal[nodeIndex] = 0;
+		for(int slot = outRuns.slotOffsets[nodeIndex]; slot < outRuns.slotOffsets[nodeIndex + 1]; slot++)
+			if( terminal[outRuns.slotNodes[slot]] == stamp )
+				terminal[outRuns.slotNodes[slot]] = 0;
+		for(int slot = inRuns.slotOffsets[nodeIndex]; slot < inRuns.slotOffsets[nodeIndex + 1]; slot++)
+			if( terminal[inRuns.slotNodes[slot]] == stamp )
+				terminal[inRuns.slotNodes[slot]] = 0;
+	}
+}
@@ -18,25 +18,26 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.topological;
 
-import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import com.syncleus.dann.graph.BidirectedEdge;
 import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
 import com.syncleus.dann.graph.TraversableCloud;
 import com.syncleus.dann.graph.Graph;
 import com.syncleus.dann.graph.Hyperedge;
 import com.syncleus.dann.graph.HyperGraph;
 import com.syncleus.dann.graph.ImmutableAdjacencyGraph;
-import com.syncleus.dann.graph.ImmutableHyperedge;
-import com.syncleus.dann.math.counting.Counters;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import com.syncleus.dann.graph.search.BreadthFirstTraversal;
 
 public final class Topography
 {
@@ -126,12 +127,13 @@ public final class Topography
 			}
 		}
 
-		final Set<N> nodes = graph.getNodes();
-		for(final N fromNode : nodes)
-			for(final N toNode : nodes)
-				if( (toNode != fromNode) && (!Topography.isStronglyConnected(graph, toNode, fromNode)) )
-					return false;
-		return true;
+		// strongly connected when any one node reaches, and is reached by, every node
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		if( indexedGraph.getNodeCount() <= 1 )
+			return true;
+		final N root = indexedGraph.getNode(0);
+		return new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.OUTWARD).isSpanning(root)
+				&& new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.INWARD).isSpanning(root);
 	}
 
 	/**
@@ -159,16 +161,54 @@ public final class Topography
 			}
 		}
 
-		final List<N> remainingNodes = new ArrayList<N>(graph.getNodes());
-		while( remainingNodes.size() >= 2 )
-		{
-			final N fromNode = remainingNodes.get(0);
-			remainingNodes.remove(0);
-			for(final N toNode : remainingNodes)
-				if( (toNode != fromNode) && (!Topography.isWeaklyConnected(graph, toNode, fromNode)) )
-					return false;
-		}
-		return true;
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		if( indexedGraph.getNodeCount() <= 1 )
+			return true;
+		return new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.ADJACENT).isSpanning(indexedGraph.getNode(0));
+	}
+
+	/**
+	 * Labels every node with the strongly connected component it belongs to,
+	 * in time linear in the size of the graph. Two nodes share a component
+	 * when each can traverse to the other. Graphs which are not already an
+	 * IndexedGraph are first copied into a CompressedAdjacencyGraph.
+	 *
+	 * @param <N> The type of node allowed in the graph
+	 * @param <E> The type of edge allowed in the graph
+	 * @param graph The graph to label
+	 * @return the strongly connected components of the graph
+	 * @since 2.2
+	 */
+	public static <N, E extends TraversableCloud<N>> ConnectedComponents<N, E> getStronglyConnectedComponents(final Graph<N, E> graph)
+	{
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		return new ConnectedComponents<N, E>(indexedGraph, IndexedGraphKernels.stronglyConnectedComponents(indexedGraph));
+	}
+
+	/**
+	 * Labels every node with the weakly connected component it belongs to,
+	 * in time linear in the size of the graph. Two nodes share a component
+	 * when there is a path between them across adjacent nodes. Graphs which
+	 * are not already an IndexedGraph are first copied into a
+	 * CompressedAdjacencyGraph.
+	 *
+	 * @param <N> The type of node allowed in the graph
+	 * @param <E> The type of edge allowed in the graph
+	 * @param graph The graph to label
+	 * @return the weakly connected components of the graph
+	 * @since 2.2
+	 */
+	public static <N, E extends TraversableCloud<N>> ConnectedComponents<N, E> getWeaklyConnectedComponents(final Graph<N, E> graph)
+	{
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		return new ConnectedComponents<N, E>(indexedGraph, IndexedGraphKernels.weaklyConnectedComponents(indexedGraph));
+	}
+
+	private static <N, E extends TraversableCloud<N>> IndexedGraph<N, E> toIndexedGraph(final Graph<N, E> graph)
+	{
+		if( graph instanceof IndexedGraph )
+			return (IndexedGraph<N, E>) graph;
+		return new CompressedAdjacencyGraph<N, E>(graph);
 	}
 
 	/**
@@ -201,26 +241,9 @@ public final class Topography
 			}
 		}
 
-		final Set<N> visited = new HashSet<N>();
-		visited.add(leftNode);
-
-		final Set<N> toVisit = new HashSet<N>();
-		toVisit.addAll(graph.getAdjacentNodes(leftNode));
-
-		while( !toVisit.isEmpty() )
-		{
-			final N node = toVisit.iterator().next();
-			if( node.equals(rightNode) )
-				return true;
-
-			visited.add(node);
-			toVisit.remove(node);
-
-			toVisit.addAll(graph.getAdjacentNodes(node));
-			toVisit.removeAll(visited);
-		}
-
-		return false;
+		if( graph instanceof IndexedGraph )
+			return new BreadthFirstTraversal<N, E>(graph, BreadthFirstTraversal.Direction.ADJACENT).isReachable(leftNode, rightNode);
+		return isReachable(graph, leftNode, rightNode, false);
 	}
 
 	/**
@@ -253,32 +276,50 @@ public final class Topography
 			}
 		}
 
+		if( graph instanceof IndexedGraph )
+			return new BreadthFirstTraversal<N, E>(graph, BreadthFirstTraversal.Direction.OUTWARD).isReachable(leftNode, rightNode);
+		return isReachable(graph, leftNode, rightNode, true);
+	}
+
+	/**
+	 * A breadth first search which stops as soon as the right node is reached.
+	 * Indexing a graph which is not already an IndexedGraph costs time
+	 * proportional to the whole graph, so this only touches the nodes reached.
+	 * Like BreadthFirstTraversal a node only reaches itself around a cycle.
+	 */
+	private static <N, E extends TraversableCloud<N>> boolean isReachable(final Graph<N, E> graph, final N leftNode, final N rightNode, final boolean traversableOnly)
+	{
+		if( !graph.getNodes().contains(leftNode) || !graph.getNodes().contains(rightNode) )
+			return false;
+
 		final Set<N> visited = new HashSet<N>();
 		visited.add(leftNode);
-		final Set<N> toVisit = new HashSet<N>();
-		toVisit.addAll(graph.getTraversableNodes(leftNode));
+		final Queue<N> toVisit = new ArrayDeque<N>();
+		toVisit.add(leftNode);
 		while( !toVisit.isEmpty() )
 		{
-			final N node = toVisit.iterator().next();
-			if( node.equals(rightNode) )
-				return true;
-			visited.add(node);
-			toVisit.remove(node);
-			toVisit.addAll(graph.getTraversableNodes(node));
-			toVisit.removeAll(visited);
+			final N node = toVisit.poll();
+			for(final N neighbor : (traversableOnly ? graph.getTraversableNodes(node) : graph.getAdjacentNodes(node)))
+			{
+				if( neighbor.equals(rightNode) )
+					return true;
+				if( visited.add(neighbor) )
+					toVisit.add(neighbor);
+			}
 		}
 		return false;
 	}
 
 	/**
-	 * Gets the set of maximally-connected components from a graph. The maximally-connected
-	 * components are those with the most connections to other nodes.
-	 * NOTE: This method currently returns null.
+	 * Gets the set of maximally-connected components from a graph. A maximally-connected
+	 * component is a weakly connected subgraph to which no other node of the graph
+	 * can be added while remaining weakly connected, along with every edge between
+	 * its nodes.
 	 *
 	 * @param <N> The type of node allowed in the graph
 	 * @param <E> The type of edge allowed in the graph
 	 * @param graph The graph to check
-	 * @return <code>null</code>
+	 * @return an unmodifiable set of the maximally-connected components
 	 * @see com.syncleus.dann.graph.topological.Topography#getMaximallyConnectedComponents(Graph)
 	 */
 	public static <N, E extends TraversableCloud<N>> Set<Graph<N, E>> getMaximallyConnectedComponents(final Graph<N, E> graph)
@@ -296,8 +337,22 @@ public final class Topography
 			}
 		}
 
-		// TODO implement this
-		throw new UnsupportedOperationException();
+		final ConnectedComponents<N, E> components = Topography.getWeaklyConnectedComponents(graph);
+		final List<Set<N>> componentNodes = components.getComponentNodes();
+		final List<Set<E>> componentEdges = new ArrayList<Set<E>>(componentNodes.size());
+		for(int componentId = 0; componentId < componentNodes.size(); componentId++)
+			componentEdges.add(new HashSet<E>());
+		for(final E edge : graph.getEdges())
+		{
+			final Iterator<N> edgeNodes = edge.getNodes().iterator();
+			if( edgeNodes.hasNext() )
+				componentEdges.get(components.getComponentId(edgeNodes.next())).add(edge);
+		}
+
+		final Set<Graph<N, E>> maximallyConnectedComponents = new HashSet<Graph<N, E>>(componentNodes.size() * 2);
+		for(int componentId = 0; componentId < componentNodes.size(); componentId++)
+			maximallyConnectedComponents.add(new ImmutableAdjacencyGraph<N, E>(new HashSet<N>(componentNodes.get(componentId)), componentEdges.get(componentId)));
+		return Collections.unmodifiableSet(maximallyConnectedComponents);
 	}
 
 	/**
@@ -361,7 +416,10 @@ public final class Topography
 			}
 		}
 
-		return Topography.isStronglyConnected(Topography.deleteFromGraph(graph, cutNodes, cutEdges));
+		// a cut leaves more weakly connected components than there were before
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		final int componentCount = new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.ADJACENT).countComponents();
+		return (new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.ADJACENT, cutNodes, cutEdges, null).countComponents() > componentCount);
 	}
 
 	public static <N, E extends TraversableCloud<N>> boolean isCut(final Graph<N, E> graph, final Set<N> cutNodes, final Set<E> cutEdges, final N begin, final N end)
@@ -379,7 +437,10 @@ public final class Topography
 			}
 		}
 
-		return Topography.isStronglyConnected(Topography.deleteFromGraph(graph, cutNodes, cutEdges), begin, end);
+		final IndexedGraph<N, E> indexedGraph = toIndexedGraph(graph);
+		if( !new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.OUTWARD).isReachable(begin, end) )
+			throw new IllegalArgumentException("begin and end must be in the graph with a path between them");
+		return !new BreadthFirstTraversal<N, E>(indexedGraph, BreadthFirstTraversal.Direction.OUTWARD, cutNodes, cutEdges, null).isReachable(begin, end);
 	}
 
 	public static <N, E extends TraversableCloud<N>> boolean isCut(final Graph<N, E> graph, final Set<E> cutEdges)
@@ -505,13 +566,7 @@ public final class Topography
 			}
 		}
 
-		final Set<Set<N>> combinations = Counters.everyCombination(graph.getNodes());
-		final SortedSet<Set<N>> sortedCombinations = new TreeSet<Set<N>>(new SizeComparator());
-		sortedCombinations.addAll(combinations);
-		for(final Set<N> cutNodes : sortedCombinations)
-			if( Topography.isCut(graph, cutNodes, Collections.<E>emptySet()) )
-				return cutNodes.size();
-		return graph.getNodes().size();
+		return new FlowConnectivity<N, E>(graph).getNodeConnectivity();
 	}
 
 	public static <N, E extends TraversableCloud<N>> int getEdgeConnectivity(final Graph<N, E> graph)
@@ -529,13 +584,7 @@ public final class Topography
 			}
 		}
 
-		final Set<Set<E>> combinations = Counters.everyCombination(graph.getEdges());
-		final SortedSet<Set<E>> sortedCombinations = new TreeSet<Set<E>>(new SizeComparator());
-		sortedCombinations.addAll(combinations);
-		for(final Set<E> cutEdges : sortedCombinations)
-			if( Topography.isCut(graph, cutEdges) )
-				return cutEdges.size();
-		return graph.getEdges().size();
+		return new FlowConnectivity<N, E>(graph).getEdgeConnectivity();
 	}
 
 	public static <N, E extends TraversableCloud<N>> int getNodeConnectivity(final Graph<N, E> graph, final N begin, final N end)
@@ -553,13 +602,7 @@ public final class Topography
 			}
 		}
 
-		final Set<Set<N>> combinations = Counters.everyCombination(graph.getNodes());
-		final SortedSet<Set<N>> sortedCombinations = new TreeSet<Set<N>>(new SizeComparator());
-		sortedCombinations.addAll(combinations);
-		for(final Set<N> cutNodes : sortedCombinations)
-			if( Topography.isCut(graph, cutNodes, Collections.<E>emptySet(), begin, end) )
-				return cutNodes.size();
-		return graph.getNodes().size();
+		return new FlowConnectivity<N, E>(graph).getNodeConnectivity(begin, end);
 	}
 
 	public static <N, E extends TraversableCloud<N>> int getEdgeConnectivity(final Graph<N, E> graph, final N begin, final N end)
@@ -577,13 +620,7 @@ public final class Topography
 			}
 		}
 
-		final Set<Set<E>> combinations = Counters.everyCombination(graph.getEdges());
-		final SortedSet<Set<E>> sortedCombinations = new TreeSet<Set<E>>(new SizeComparator());
-		sortedCombinations.addAll(combinations);
-		for(final Set<E> cutEdges : sortedCombinations)
-			if( Topography.isCut(graph, cutEdges, begin, end) )
-				return cutEdges.size();
-		return graph.getEdges().size();
+		return new FlowConnectivity<N, E>(graph).getEdgeConnectivity(begin, end);
 	}
 
 	public static <N, E extends TraversableCloud<N>> boolean isComplete(final Graph<N, E> graph)
@@ -731,6 +768,52 @@ public final class Topography
 		return (Topography.isHomomorphic(graph, isomorphicGraph) && Topography.isHomomorphic(isomorphicGraph, graph));
 	}
 
+	/**
+	 * Determines if two graphs have the same structure, that is if there is a
+	 * one to one mapping between their nodes which preserves every edge along
+	 * with its direction and multiplicity. Unlike isIsomorphic the nodes of the
+	 * two graphs do not need to be equal, or even of the same type.
+	 *
+	 * @param <N> The type of node allowed in the first graph
+	 * @param <E> The type of edge allowed in the first graph
+	 * @param <ON> The type of node allowed in the other graph
+	 * @param <OE> The type of edge allowed in the other graph
+	 * @param graph The first graph to compare
+	 * @param otherGraph The other graph to compare
+	 * @return true if the nodes of the graphs can be mapped onto each other
+	 *         preserving all the edges, false otherwise.
+	 * @since 2.2
+	 * @see com.syncleus.dann.graph.topological.SubgraphMatcher
+	 */
+	public static <N, E extends TraversableCloud<N>, ON, OE extends TraversableCloud<ON>> boolean isStructurallyIsomorphic(final Graph<N, E> graph, final Graph<ON, OE> otherGraph)
+	{
+		if( (graph.getNodes().size() != otherGraph.getNodes().size())
+				|| (graph.getEdges().size() != otherGraph.getEdges().size()) )
+			return false;
+		return new SubgraphMatcher<ON, OE, N, E>(otherGraph, graph, true).hasMatch();
+	}
+
+	/**
+	 * Determines if the pattern graph is contained in the structure of graph,
+	 * that is if the nodes of the pattern can be mapped to distinct nodes of
+	 * graph so that every edge of the pattern has a matching edge in graph. The
+	 * nodes of the two graphs do not need to be equal, or even of the same type.
+	 *
+	 * @param <N> The type of node allowed in the graph
+	 * @param <E> The type of edge allowed in the graph
+	 * @param <PN> The type of node allowed in the pattern
+	 * @param <PE> The type of edge allowed in the pattern
+	 * @param graph The graph to search in
+	 * @param pattern The graph to search for
+	 * @return true if graph contains a copy of the pattern, false otherwise.
+	 * @since 2.2
+	 * @see com.syncleus.dann.graph.topological.SubgraphMatcher
+	 */
+	public static <N, E extends TraversableCloud<N>, PN, PE extends TraversableCloud<PN>> boolean isSubgraphIsomorphic(final Graph<N, E> graph, final Graph<PN, PE> pattern)
+	{
+		return new SubgraphMatcher<PN, PE, N, E>(pattern, graph, false).hasMatch();
+	}
+
 	public static <N, E extends TraversableCloud<N>> boolean isHomomorphic(final Graph<N, E> graph, final Graph<N, E> homomorphicGraph)
 	{
 		if( graph instanceof StructureOptimizedGraph )
@@ -1212,96 +1295,4 @@ public final class Topography
 		//TODO implement this
 		throw new UnsupportedOperationException();
 	}
-
-	/**
-	 * Removes a set of nodes and a set of edges from the given graph.
-	 * First, it removes all nodes from the graph.
-	 * Then, it removes all edges in the edges to remove that are not connected to the given node.
-	 *
-	 * @param <N> The type of node allowed in the graph
-	 * @param <E> The type of edge allowed in the graph
-	 * @param graph The graph to check
-	 * @param deleteNodes The nodes to remove
-	 * @param deleteEdges The edges to remove in addition to the nodes
-	 * @return an ImmutableAdjacencyGraph with the given nodes and edges removed
-	 */
-	private static <N, E extends TraversableCloud<N>> ImmutableAdjacencyGraph<N, TraversableCloud<N>> deleteFromGraph(final Graph<N, E> graph, final Set<N> deleteNodes, final Set<E> deleteEdges)
-	{
-		// remove the deleteNodes
-		final Set<N> cutNodes = graph.getNodes();
-		cutNodes.removeAll(deleteNodes);
-		// remove the deleteEdges
-		final Set<TraversableCloud<N>> cutEdges = new HashSet<TraversableCloud<N>>(deleteEdges);
-		for (final E edge : deleteEdges)
-			cutEdges.remove(edge);
-		// remove any remaining deleteEdges which connect to removed deleteNodes
-		// also replace deleteEdges that have one removed node but still have
-		// 2 or more remaining deleteNodes with a new edge.
-		final Set<TraversableCloud<N>> removeEdges = new HashSet<TraversableCloud<N>>();
-		final Set<TraversableCloud<N>> addEdges = new HashSet<TraversableCloud<N>>();
-		for(final TraversableCloud<N> cutEdge : cutEdges)
-		{
-			final Collection<N> cutEdgeNeighbors = cutEdge.getNodes();
-			cutEdgeNeighbors.removeAll(cutNodes);
-			if( cutEdgeNeighbors.size() != cutEdge.getNodes().size() )
-				removeEdges.add(cutEdge);
-			if( cutEdgeNeighbors.size() > 1 )
-				// TODO instead of ImmutableHyperedge implement clone or something
-				addEdges.add(new ImmutableHyperedge<N>(cutEdgeNeighbors));
-		}
-		for(final TraversableCloud<N> removeEdge : removeEdges)
-			cutEdges.remove(removeEdge);
-		cutEdges.addAll(addEdges);
-		// check if a graph from the new set of deleteEdges and deleteNodes is
-		// still connected
-		return new ImmutableAdjacencyGraph<N, TraversableCloud<N>>(cutNodes, cutEdges);
-	}
-
-	/**
-	 * A SizeComparator compares two collections solely based on size.
-	 */
-	private static class SizeComparator implements Comparator<Collection<?>>, Serializable
-	{
-		private static final long serialVersionUID = -4454396728238585057L;
-
-		/**
-		 * Compares the two collections based on their size.
-		 * @param first The first collection
-		 * @param second The second collection
-		 * @return Which collection is larger
-		 * @see java.util.Comparator#compare(Object, Object)
-		 */
-		@Override
-		public int compare(final Collection<?> first, final Collection<?> second)
-		{
-			if( first.size() < second.size() )
-				return -1;
-			else if( first.size() > second.size() )
-				return 1;
-			return 0;
-		}
-
-		/**
-		 * Returns true if the given object is a non-null SizeComparator. As this class
-		 * has no state, all SizeComparators are equal.
-		 * @param compareWith The object to compare with
-		 * @return If the object is a non-null SizeComparator
-		 */
-		@Override
-		public boolean equals(final Object compareWith)
-		{
-			if( compareWith == null )
-				return false;
-
-			return (compareWith instanceof SizeComparator);
-		}
-
-
-		@Override
-		public int hashCode()
-		{
-			//Method only implemented for checkstyle reasons.
-			return super.hashCode(); //Default implementation; may need to bring in line to equals
-		}
-	}
 }
@@ -19,86 +19,54 @@
 package com.syncleus.dann.graph.topological.sorter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
 import com.syncleus.dann.graph.DirectedEdge;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
 
+/**
+ * Ranks the nodes of a directed acyclic graph into topological levels using
+ * Kahn's algorithm. Each node keeps a counter of the inward edges from nodes
+ * not yet ranked, and a node joins the frontier as soon as its counter drops to
+ * zero, so ranking and sorting take time O(V + E). Graphs which are not already
+ * an IndexedGraph are first copied into a CompressedAdjacencyGraph.
+ *
+ * @param <N> The node type
+ */
 public class SimpleTopologicalRanker<N> implements TopologicalRanker<N>
 {
+	/**
+	 * Ranks the nodes of the graph. The first level holds every node without
+	 * an inward edge, each following level holds the nodes whose inward edges
+	 * all come from earlier levels.
+	 *
+	 * @param graph the graph to rank.
+	 * @return the nodes in each level, or null if the graph has a cycle.
+	 */
 	@Override
 	public List<Set<N>> rank(final BidirectedGraph<? extends N, ? extends DirectedEdge<? extends N>> graph)
 	{
-		//initialize data structures
-		final Set<N> remainingNodes = new HashSet<N>(graph.getNodes());
-		final Set<DirectedEdge<? extends N>> remainingEdges = new HashSet<DirectedEdge<? extends N>>(graph.getEdges());
-		final Map<N, Set<DirectedEdge<? extends N>>> remainingNeighborEdges = new HashMap<N, Set<DirectedEdge<? extends N>>>();
-
-		//construct the remainingNeighborEdges with the entire graphs adjacency
-		for(final DirectedEdge<? extends N> edge : remainingEdges )
-		{
-			for(final N edgeNode : edge.getNodes())
-			{
-				if( !remainingNodes.contains(edgeNode) )
-					throw new IllegalArgumentException("A node that is an end point in one of the edges was not in the nodes list");
-				java.util.Set<com.syncleus.dann.graph.DirectedEdge<? extends N>> startNeighborEdges = remainingNeighborEdges.get(edgeNode);
-				if( startNeighborEdges == null )
-				{
-					startNeighborEdges = new java.util.HashSet<com.syncleus.dann.graph.DirectedEdge<? extends N>>();
-					remainingNeighborEdges.put(edgeNode, startNeighborEdges);
-				}
-				startNeighborEdges.add(edge);
-			}
-		}
-
-		//pull all nodes of 0 degree then delete as long as nodes are left
-		final List<Set<N>> topologicalNodes = new ArrayList<Set<N>>();
-		while( !remainingNodes.isEmpty() )
-		{
-			//find all nodes current with a in degree of 0
-			final Set<N> currentRootNodes = new HashSet<N>();
-			for(final N node : remainingNodes )
-				if( getIndegree(remainingEdges, node) == 0 )
-					currentRootNodes.add(node);
-
-			//if no nodes were found yet some are still remaining then this cant be sorted
-			if( currentRootNodes.isEmpty() )
-				return null;
-
-			//now lets delete all the nodes we found
-			for(N node : currentRootNodes)
-			{
-				final Set<DirectedEdge<? extends N>> neighbors = remainingNeighborEdges.get(node);
-				for(final DirectedEdge<? extends N> neighbor : neighbors)
-				{
-					final List<N> adjacentNodes = new ArrayList<N>(neighbor.getNodes());
-					adjacentNodes.remove(node);
-					final N adjacentNode = adjacentNodes.get(0);
-
-					//delete the edge from the neighbor map
-					final Set<DirectedEdge<? extends N>> deleteFromEdges = remainingNeighborEdges.get(adjacentNode);
-					deleteFromEdges.remove(neighbor);
-
-					//delete the edge from edges
-					remainingEdges.remove(neighbor);
-				}
-				remainingNodes.remove(node);
-			}
-
-			//lets add the current root nodes and continue
-			topologicalNodes.add(currentRootNodes);
-		}
-
-		return topologicalNodes;
+		return rankIndexed(SimpleTopologicalRanker.<N>toIndexedGraph(graph));
 	}
 
+	/**
+	 * Sorts the nodes of the graph so every edge leads from an earlier node to
+	 * a later one.
+	 *
+	 * @param graph the graph to sort.
+	 * @return the sorted nodes, or null if the graph has a cycle.
+	 */
 	@Override
 	public List<N> sort(final BidirectedGraph<? extends N, ? extends DirectedEdge<? extends N>> graph)
 	{
 		final List<Set<N>> rankedNodes = this.rank(graph);
+		if( rankedNodes == null )
+			return null;
 
 		//convert ranked nodes into sorted nodes
 		final List<N> sortedNodes = new ArrayList<N>(graph.getNodes().size());
@@ -108,12 +76,30 @@ public class SimpleTopologicalRanker<N> implements TopologicalRanker<N>
 		return sortedNodes;
 	}
 
-	private int getIndegree(final Set<DirectedEdge<? extends N>> edges, final N node)
+	@SuppressWarnings("unchecked")
+	static <N> IndexedGraph<? extends N, ?> toIndexedGraph(final BidirectedGraph<? extends N, ? extends DirectedEdge<? extends N>> graph)
+	{
+		if( graph == null )
+			throw new IllegalArgumentException("graph can not be null");
+		if( graph instanceof IndexedGraph )
+			return (IndexedGraph<? extends N, ?>) graph;
+		return new CompressedAdjacencyGraph((Graph) graph);
+	}
+
+	private static <N> List<Set<N>> rankIndexed(final IndexedGraph<? extends N, ?> graph)
 	{
-		int inDegree = 0;
-		for(final DirectedEdge<? extends N> edge : edges)
-			if( edge.getDestinationNode() == node )
-				inDegree++;
-		return inDegree;
+		final int[][] levels = IndexedGraphKernels.topologicalLevels(graph);
+		if( levels == null )
+			return null;
+
+		final List<Set<N>> topologicalNodes = new ArrayList<Set<N>>(levels.length);
+		for(final int[] level : levels)
+		{
+			final Set<N> levelNodes = new HashSet<N>(level.length * 2);
+			for(final int nodeIndex : level)
+				levelNodes.add(graph.getNode(nodeIndex));
+			topologicalNodes.add(levelNodes);
+		}
+		return topologicalNodes;
 	}
 }
@@ -0,0 +1,185 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological.sorter;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.DirectedEdge;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.IndexedGraphKernels;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs a task for every node of a directed acyclic graph in dependency order:
+ * a node's task is only started once the tasks of all the nodes with an edge
+ * into it have finished. When an executor is given each node is submitted as
+ * soon as its last dependency completes, rather than waiting for the whole
+ * topological level before it, so independent chains of the graph proceed at
+ * their own pace. The bookkeeping is done by the calling thread with primitive
+ * in-degree counters, in time O(V + E). Without an executor the tasks are run
+ * on the calling thread in topological order.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ */
+public class TopologicalExecutor<N>
+{
+	private static final Logger LOGGER = Logger.getLogger(TopologicalExecutor.class);
+	private final ExecutorService threadExecutor;
+
+	/**
+	 * Creates an executor which runs every task on the calling thread.
+	 */
+	public TopologicalExecutor()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates an executor which runs the tasks on the given executor.
+	 *
+	 * @param threadExecutor The executor used to run the tasks, null to run
+	 *   them on the calling thread.
+	 */
+	public TopologicalExecutor(final ExecutorService threadExecutor)
+	{
+		this.threadExecutor = threadExecutor;
+	}
+
+	/**
+	 * Runs the task for every node of the graph, returning once all of them
+	 * have finished. If a task throws, no further tasks are started and the
+	 * exception is rethrown once the running tasks have finished.
+	 *
+	 * @param graph the graph whose nodes should be processed.
+	 * @param task the task to run for each node.
+	 * @throws IllegalArgumentException if the graph has a cycle.
+	 */
+	public void execute(final BidirectedGraph<? extends N, ? extends DirectedEdge<? extends N>> graph, final TopologicalTask<? super N> task)
+	{
+		if( task == null )
+			throw new IllegalArgumentException("task can not be null");
+
+		final IndexedGraph<? extends N, ?> indexedGraph = SimpleTopologicalRanker.<N>toIndexedGraph(graph);
+		final int[][] levels = IndexedGraphKernels.topologicalLevels(indexedGraph);
+		if( levels == null )
+			throw new IllegalArgumentException("graph can not have a cycle");
+
+		if( this.threadExecutor == null )
+		{
+			for(final int[] level : levels)
+				for(final int nodeIndex : level)
+					task.execute(indexedGraph.getNode(nodeIndex));
+			return;
+		}
+
+		final CompletionService<Integer> completions = new ExecutorCompletionService<Integer>(this.threadExecutor);
+		final int nodeCount = indexedGraph.getNodeCount();
+		final int[] remainingDependencies = new int[nodeCount];
+		int running = 0;
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+		{
+			remainingDependencies[nodeIndex] = indexedGraph.getInOffset(nodeIndex + 1) - indexedGraph.getInOffset(nodeIndex);
+			if( remainingDependencies[nodeIndex] == 0 )
+			{
+				completions.submit(new NodeTask<N>(indexedGraph, task, nodeIndex));
+				running++;
+			}
+		}
+
+		RuntimeException failure = null;
+		Error error = null;
+		while( running > 0 )
+		{
+			final int nodeIndex;
+			try
+			{
+				nodeIndex = completions.take().get();
+			}
+			catch(InterruptedException caught)
+			{
+				LOGGER.warn("waiting for node tasks was unexpectedly interrupted", caught);
+				throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+			}
+			catch(ExecutionException caught)
+			{
+				// let the running tasks drain but start no more
+				running--;
+				if( caught.getCause() instanceof RuntimeException )
+					failure = (RuntimeException) caught.getCause();
+				else if( caught.getCause() instanceof Error )
+					error = (Error) caught.getCause();
+				else
+				{
+					LOGGER.error("a node task had an unexpected problem executing.", caught);
+					failure = new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+				}
+				continue;
+			}
+			running--;
+
+			if( (failure != null) || (error != null) )
+				continue;
+			for(int entry = indexedGraph.getTraversableOffset(nodeIndex); entry < indexedGraph.getTraversableOffset(nodeIndex + 1); entry++)
+			{
+				final int dependentIndex = indexedGraph.getTraversableNodeIndex(entry);
+				if( --remainingDependencies[dependentIndex] == 0 )
+				{
+					completions.submit(new NodeTask<N>(indexedGraph, task, dependentIndex));
+					running++;
+				}
+			}
+		}
+
+		if( error != null )
+			throw error;
+		if( failure != null )
+			throw failure;
+	}
+
+	/**
+	 * Runs the task for one node and reports which node finished.
+	 */
+	private static final class NodeTask<N> implements Callable<Integer>
+	{
+		private final IndexedGraph<? extends N, ?> graph;
+		private final TopologicalTask<? super N> task;
+		private final int nodeIndex;
+
+		public NodeTask(final IndexedGraph<? extends N, ?> graph, final TopologicalTask<? super N> task, final int nodeIndex)
+		{
+			this.graph = graph;
+			this.task = task;
+			this.nodeIndex = nodeIndex;
+		}
+
+		@Override
+		public Integer call()
+		{
+			this.task.execute(this.graph.getNode(this.nodeIndex));
+			return this.nodeIndex;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological.sorter;
+
+/**
+ * Work to be done for each node of a directed acyclic graph by a
+ * TopologicalExecutor. A node's task is only run once the tasks of all the
+ * nodes with an edge into it have finished, but tasks of nodes which do not
+ * depend on each other may run at the same time on different threads.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ */
+public interface TopologicalTask<N>
+{
+	/**
+	 * Does the work for a single node.
+	 *
+	 * @param node the node to process.
+	 */
+	void execute(N node);
+}
@@ -0,0 +1,242 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.tree.mst;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import com.syncleus.dann.UnexpectedDannError;
+import com.syncleus.dann.UnexpectedInterruptedException;
+import com.syncleus.dann.graph.CompressedAdjacencyGraph;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.IndexedGraph;
+import com.syncleus.dann.graph.TraversableCloud;
+import org.apache.log4j.Logger;
+
+/**
+ * An implementation of
+ * <a href="http://en.wikipedia.org/wiki/Bor%C5%AFvka's_algorithm">
+ *     Bor&#367;vka's minimum spanning tree algorithm</a>.
+ * Each round finds the cheapest edge leaving every component and merges the
+ * components along them, at least halving the number of components, so there
+ * are at most log V rounds of O(E) work. The search for the cheapest edges is
+ * split across the nodes of the graph and, when an executor is given, run in
+ * parallel. Ties between edges of equal weight are broken by edge index so the
+ * chosen edges never form a cycle. Edges which are not weighted weigh 0. If
+ * the graph is not connected a minimum spanning forest is returned. Graphs
+ * which are not already an IndexedGraph are first copied into a
+ * CompressedAdjacencyGraph.
+ * @author Jeffrey Phillips Freeman
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class BoruvkaMinimumSpanningTreeFinder<N, E extends TraversableCloud<N>> implements MinimumSpanningTreeFinder<N, E>
+{
+	private static final Logger LOGGER = Logger.getLogger(BoruvkaMinimumSpanningTreeFinder.class);
+	private static final int NO_ENTRY = -1;
+
+	private final ExecutorService threadExecutor;
+
+	/**
+	 * Creates a finder which searches for the cheapest edges on the calling
+	 * thread.
+	 */
+	public BoruvkaMinimumSpanningTreeFinder()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a finder which searches for the cheapest edges of each round in
+	 * parallel.
+	 * @param threadExecutor The executor used to search for the cheapest edges
+	 * in parallel, null to search on the calling thread.
+	 */
+	public BoruvkaMinimumSpanningTreeFinder(final ExecutorService threadExecutor)
+	{
+		this.threadExecutor = threadExecutor;
+	}
+
+	@Override
+	public Set<E> findMinimumSpanningTree(final Graph<N, E> graph)
+	{
+		final IndexedGraph<N, E> indexedGraph;
+		if( graph instanceof IndexedGraph )
+			indexedGraph = (IndexedGraph<N, E>) graph;
+		else
+			indexedGraph = new CompressedAdjacencyGraph<N, E>(graph);
+
+		final int nodeCount = indexedGraph.getNodeCount();
+		final int[] parents = new int[nodeCount];
+		for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+			parents[nodeIndex] = nodeIndex;
+		final int[] components = new int[nodeCount];
+
+		final int taskCount = (this.threadExecutor == null ? 1 : Math.max(1, Math.min(nodeCount, Runtime.getRuntime().availableProcessors())));
+		final List<CheapestEdges> searches = new ArrayList<CheapestEdges>(taskCount);
+		for(int task = 0; task < taskCount; task++)
+			searches.add(new CheapestEdges(indexedGraph, components, (int) (((long) nodeCount) * task / taskCount), (int) (((long) nodeCount) * (task + 1) / taskCount)));
+
+		final Set<E> mst = new HashSet<E>();
+		boolean merged = true;
+		while( merged )
+		{
+			for(int nodeIndex = 0; nodeIndex < nodeCount; nodeIndex++)
+				components[nodeIndex] = find(parents, nodeIndex);
+
+			this.execute(searches);
+
+			// combine the cheapest edge each search found for every component
+			final CheapestEdges cheapest = searches.get(0);
+			for(int task = 1; task < taskCount; task++)
+				cheapest.merge(searches.get(task));
+
+			merged = false;
+			for(int component = 0; component < nodeCount; component++)
+			{
+				final int entry = cheapest.entries[component];
+				if( entry == NO_ENTRY )
+					continue;
+				final int sourceRoot = find(parents, cheapest.sources[component]);
+				final int targetRoot = find(parents, indexedGraph.getTraversableNodeIndex(entry));
+				if( sourceRoot == targetRoot )
+					continue;
+				parents[targetRoot] = sourceRoot;
+				mst.add(indexedGraph.getEdge(indexedGraph.getTraversableEdgeIndex(entry)));
+				merged = true;
+			}
+		}
+		return mst;
+	}
+
+	private static int find(final int[] parents, final int element)
+	{
+		int current = element;
+		while( parents[current] != current )
+		{
+			parents[current] = parents[parents[current]];
+			current = parents[current];
+		}
+		return current;
+	}
+
+	private void execute(final List<CheapestEdges> searches)
+	{
+		if( (this.threadExecutor == null) || (searches.size() <= 1) )
+		{
+			for(final CheapestEdges search : searches)
+				search.call();
+			return;
+		}
+
+		try
+		{
+			for(final Future<Void> future : this.threadExecutor.invokeAll(searches))
+				future.get();
+		}
+		catch(InterruptedException caught)
+		{
+			LOGGER.warn("searching for the cheapest edges was unexpectedly interrupted", caught);
+			throw new UnexpectedInterruptedException("Unexpected interruption. Get should block indefinitely", caught);
+		}
+		catch(ExecutionException caught)
+		{
+			LOGGER.error("searching for the cheapest edges had an unexpected problem executing.", caught);
+			throw new UnexpectedDannError("Unexpected execution exception. Get should block indefinitely", caught);
+		}
+	}
+
+	/**
+	 * Finds the cheapest edge leaving each component among the traversable
+	 * entries of a range of nodes. Every edge is seen from its source, so it is
+	 * offered to the components at both of its ends.
+	 */
+	private static final class CheapestEdges implements Callable<Void>
+	{
+		private final IndexedGraph<?, ?> graph;
+		private final int[] components;
+		private final int nodeStart;
+		private final int nodeEnd;
+		private final double[] weights;
+		private final int[] edges;
+		private final int[] entries;
+		private final int[] sources;
+
+		public CheapestEdges(final IndexedGraph<?, ?> graph, final int[] components, final int nodeStart, final int nodeEnd)
+		{
+			this.graph = graph;
+			this.components = components;
+			this.nodeStart = nodeStart;
+			this.nodeEnd = nodeEnd;
+			this.weights = new double[components.length];
+			this.edges = new int[components.length];
+			this.entries = new int[components.length];
+			this.sources = new int[components.length];
+		}
+
+		@Override
+		public Void call()
+		{
+			Arrays.fill(this.entries, NO_ENTRY);
+			for(int source = this.nodeStart; source < this.nodeEnd; source++)
+			{
+				final int sourceComponent = this.components[source];
+				final int entryEnd = this.graph.getTraversableOffset(source + 1);
+				for(int entry = this.graph.getTraversableOffset(source); entry < entryEnd; entry++)
+				{
+					final int targetComponent = this.components[this.graph.getTraversableNodeIndex(entry)];
+					if( targetComponent == sourceComponent )
+						continue;
+					final int edgeIndex = this.graph.getTraversableEdgeIndex(entry);
+					final double weight = this.graph.getEdgeWeight(edgeIndex, 0.0);
+					this.offer(sourceComponent, weight, edgeIndex, entry, source);
+					this.offer(targetComponent, weight, edgeIndex, entry, source);
+				}
+			}
+			return null;
+		}
+
+		private void offer(final int component, final double weight, final int edgeIndex, final int entry, final int source)
+		{
+			if( (this.entries[component] == NO_ENTRY)
+					|| (weight < this.weights[component])
+					|| ((weight == this.weights[component]) && (edgeIndex < this.edges[component])) )
+			{
+				this.weights[component] = weight;
+				this.edges[component] = edgeIndex;
+				this.entries[component] = entry;
+				this.sources[component] = source;
+			}
+		}
+
+		public void merge(final CheapestEdges other)
+		{
+			for(int component = 0; component < this.entries.length; component++)
+				if( other.entries[component] != NO_ENTRY )
+					this.offer(component, other.weights[component], other.edges[component], other.entries[component], other.sources[component]);
+		}
+	}
+}
@@ -18,16 +18,8 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.tree.mst;
 
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.PriorityQueue;
-import java.util.Queue;
 import java.util.Set;
 
 import com.syncleus.dann.graph.*;
@@ -35,6 +27,21 @@ import com.syncleus.dann.graph.TraversableCloud;
 import com.syncleus.dann.graph.topological.sorter.SimpleTopologicalRanker;
 import com.syncleus.dann.graph.topological.sorter.TopologicalSorter;
 
+/**
+ * An implementation of
+ * <a href="http://en.wikipedia.org/wiki/Prim's_algorithm">
+ *     Prim's minimum spanning tree algorithm</a>.
+ * The tree is grown along traversable edges from the start node, keeping each
+ * node not yet in the tree queued once on an indexed heap whose priority is
+ * lowered in place when a cheaper connecting edge is found. Graphs which are
+ * not already an IndexedGraph are first copied into a
+ * CompressedAdjacencyGraph. Nodes which can not be reached from the start
+ * node are spanned by trees of their own, so a minimum spanning forest is
+ * returned for disconnected graphs. The algorithm runs in time O(E log V).
+ * @author Jeffrey Phillips Freeman
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
 public class PrimMinimumSpanningTreeFinder<N, E extends TraversableCloud<N>> implements RootedMinimumSpanningTreeFinder<N, E>
 {
 	@SuppressWarnings("unchecked")
@@ -73,115 +80,19 @@ public class PrimMinimumSpanningTreeFinder<N, E extends TraversableCloud<N>> imp
 
 	private Set<E> primCalculate(final Graph<N, E> graph, final N startNode)
 	{
-		final Set<E> mst = new HashSet<E>();
-		final PrimMap<N, E> primMap = new PrimMap<N, E>();
-		for(final N node : graph.getNodes())
-			primMap.put(node, null);
-
-		N currentNode = null;
-		while( !primMap.isEmpty() )
-		{
-			if( currentNode == null )
-			{
-				primMap.remove(startNode);
-				currentNode = startNode;
-			}
-			else
-			{
-				final Entry<N, E> currentEntry = primMap.pop();
-				currentNode = currentEntry.getKey();
-				mst.add(currentEntry.getValue());
-			}
-
-			final Set<E> neighborEdges = graph.getTraversableEdges(currentNode);
-			for(final E neighborEdge : neighborEdges)
-			{
-				final List<N> neighborNodes = new ArrayList<N>(neighborEdge.getNodes());
-				//remove all occurrences of currentNode, not just the first
-				while( neighborNodes.remove(currentNode) )
-				{
-				}
-				for(final N neighborNode : neighborNodes)
-				{
-					if( primMap.containsKey(neighborNode)
-							&& primMap.isLess(neighborNode, neighborEdge) )
-					{
-						primMap.put(neighborNode, neighborEdge);
-						primMap.resort();
-					}
-				}
-			}
-		}
+		final IndexedGraph<N, E> indexedGraph;
+		if( graph instanceof IndexedGraph )
+			indexedGraph = (IndexedGraph<N, E>) graph;
+		else
+			indexedGraph = new CompressedAdjacencyGraph<N, E>(graph);
+
+		final int startIndex = indexedGraph.getNodeIndex(startNode);
+		if( startIndex < 0 )
+			throw new IllegalArgumentException("startNode is not in the graph");
+		final int[] spanningEdges = IndexedGraphKernels.primSpanningEdges(indexedGraph, startIndex);
+		final Set<E> mst = new HashSet<E>(spanningEdges.length * 2);
+		for(final int edgeIndex : spanningEdges)
+			mst.add(indexedGraph.getEdge(edgeIndex));
 		return mst;
 	}
-
-	private static class PrimMap<N, E> extends HashMap<N, E>
-	{
-		private static final long serialVersionUID = 6345120112273301259L;
-		private final Queue<Map.Entry<N, E>> weightedNodes = new PriorityQueue<Map.Entry<N, E>>(10, new EntryCompare());
-
-		public void resort()
-		{
-			weightedNodes.clear();
-			for(final Map.Entry<N, E> entry : this.entrySet())
-				weightedNodes.add(entry);
-		}
-
-		public double getWeight(final N node)
-		{
-			final E edge = this.get(node);
-			return edgeToWeight(edge);
-		}
-
-		public boolean isLess(final N node, final E edge)
-		{
-			if( edge == null )
-				throw new IllegalArgumentException("edge can not be null");
-			return edgeToWeight(edge) < getWeight(node);
-		}
-
-		private double edgeToWeight(final E edge)
-		{
-			if( edge == null )
-				return Double.MAX_VALUE;
-			if( edge instanceof Weighted )
-				return ((Weighted) edge).getWeight();
-			else
-				return 0;
-		}
-
-		public Map.Entry<N, E> pop()
-		{
-			final Map.Entry<N, E> poped = weightedNodes.poll();
-			if( poped != null )
-				this.remove(poped.getKey());
-			return poped;
-		}
-
-		private class EntryCompare implements Comparator<Map.Entry<N, E>>, Serializable
-		{
-			private static final long serialVersionUID = -4356537864223227850L;
-
-			@Override
-			public int compare(final Map.Entry<N, E> first, final Map.Entry<N, E> second)
-			{
-				double firstWeight = 0;
-				if( first.getValue() == null )
-					firstWeight = Double.MAX_VALUE;
-				else if( first.getValue() instanceof Weighted )
-					firstWeight = ((Weighted) first.getValue()).getWeight();
-				double secondWeight = 0;
-				if( second.getValue() == null )
-					secondWeight = Double.MAX_VALUE;
-				if( second.getValue() instanceof Weighted )
-					secondWeight = ((Weighted) second.getValue()).getWeight();
-				if( firstWeight < secondWeight )
-					return -1;
-				else if( firstWeight > secondWeight )
-					return 1;
-				else
-					return 0;
-			}
-		}
-	}
 }
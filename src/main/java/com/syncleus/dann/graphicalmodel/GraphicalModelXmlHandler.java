@@ -0,0 +1,50 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graphicalmodel;
+
+import com.syncleus.dann.graph.GraphXmlHandler;
+import com.syncleus.dann.graphicalmodel.xml.EvidenceMapXml;
+import com.syncleus.dann.xml.NamedValueXml;
+
+/**
+ * Receives the records of a GraphicalModel, BayesianNetwork or EvidenceMap
+ * document from a GraphicalModelXmlStreamReader in document order. The
+ * evidence of each node is passed on one influenced evidence at a time rather
+ * than as part of the node instance.
+ *
+ * @since 2.2
+ */
+public interface GraphicalModelXmlHandler extends GraphXmlHandler
+{
+	/**
+	 * Handles the instance of a named state.
+	 *
+	 * @param stateInstance the state name and its value.
+	 */
+	void handleStateInstance(NamedValueXml stateInstance);
+
+	/**
+	 * Handles the evidence learned for one combination of influencing states.
+	 *
+	 * @param nodeName the name of the node which learned the evidence, null
+	 *   when reading an EvidenceMap document.
+	 * @param evidence the influencing states and the evidence for them.
+	 */
+	void handleEvidence(String nodeName, EvidenceMapXml.InfluencedEvidences.InfluencedEvidence evidence);
+}
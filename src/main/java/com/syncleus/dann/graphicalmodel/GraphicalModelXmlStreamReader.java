@@ -0,0 +1,200 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graphicalmodel;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import com.syncleus.dann.graph.GraphXmlHandler;
+import com.syncleus.dann.graph.GraphXmlStreamReader;
+import com.syncleus.dann.graphicalmodel.xml.EvidenceMapXml;
+import com.syncleus.dann.graphicalmodel.xml.SimpleGraphicalModelNodeXml;
+import com.syncleus.dann.graphicalmodel.xml.StateEvidenceXml;
+import com.syncleus.dann.xml.XmlValueStreamer;
+
+/**
+ * Reads a GraphicalModel or BayesianNetwork document, or a lone EvidenceMap
+ * document, passing each record to a GraphicalModelXmlHandler as soon as it
+ * has been read. The value of a SimpleGraphicalModelNode instance is read
+ * directly, its evidence is passed to handleEvidence one influenced evidence
+ * at a time, before the node instance itself, and the SimpleGraphicalModelNodeXml
+ * given to handleNodeInstance holds no evidence. Other values are read by the
+ * value streamer.
+ *
+ * @since 2.2
+ */
+public class GraphicalModelXmlStreamReader extends GraphXmlStreamReader
+{
+	private static final QName SIMPLE_NODE_TYPE = new QName(GraphicalModelXmlStreamWriter.GRAPHICAL_MODEL_NAMESPACE, "SimpleGraphicalModelNode");
+
+	/**
+	 * Creates a reader which reads from the specified stream.
+	 *
+	 * @param reader the stream to read the document from.
+	 * @param valueStreamer reads the state instances and any nodes which can
+	 *   not be streamed.
+	 */
+	public GraphicalModelXmlStreamReader(final XMLStreamReader reader, final XmlValueStreamer valueStreamer)
+	{
+		super(reader, valueStreamer);
+	}
+
+	/**
+	 * Reads the graphical model element the stream is positioned on, or the
+	 * root element if it is at the start of the document.
+	 *
+	 * @param handler receives the records of the graphical model.
+	 * @throws XMLStreamException if the graphical model could not be read.
+	 */
+	public void read(final GraphicalModelXmlHandler handler) throws XMLStreamException
+	{
+		super.read(handler);
+	}
+
+	/**
+	 * Reads the evidence map element the stream is positioned on, or the root
+	 * element if it is at the start of the document.
+	 *
+	 * @param handler receives the evidence and instances of the map.
+	 * @throws XMLStreamException if the evidence map could not be read.
+	 */
+	public void readEvidenceMap(final GraphicalModelXmlHandler handler) throws XMLStreamException
+	{
+		if( handler == null )
+			throw new IllegalArgumentException("handler can not be null");
+
+		final XMLStreamReader reader = this.getReader();
+		if( !reader.isStartElement() )
+			reader.nextTag();
+		while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			if( "nodeInstances".equals(reader.getLocalName()) )
+			{
+				while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					handler.handleNodeInstance(this.readNamedValue(handler, true));
+			}
+			else
+				this.readSection(reader.getLocalName(), handler);
+		}
+	}
+
+	@Override
+	protected void readSection(final String section, final GraphXmlHandler handler) throws XMLStreamException
+	{
+		final XMLStreamReader reader = this.getReader();
+		if( "stateInstances".equals(section) && (handler instanceof GraphicalModelXmlHandler) )
+		{
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+				((GraphicalModelXmlHandler) handler).handleStateInstance(this.readNamedValue(handler, false));
+		}
+		else if( "influencedEvidences".equals(section) && (handler instanceof GraphicalModelXmlHandler) )
+			this.readInfluencedEvidences(null, (GraphicalModelXmlHandler) handler);
+		else
+			super.readSection(section, handler);
+	}
+
+	@Override
+	protected Object readNodeValue(final String nodeName, final GraphXmlHandler handler) throws XMLStreamException
+	{
+		if( !SIMPLE_NODE_TYPE.equals(this.getType()) || !(handler instanceof GraphicalModelXmlHandler) )
+			return super.readNodeValue(nodeName, handler);
+
+		final XMLStreamReader reader = this.getReader();
+		final SimpleGraphicalModelNodeXml node = new SimpleGraphicalModelNodeXml();
+		while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			final String element = reader.getLocalName();
+			if( "learnedStates".equals(element) )
+			{
+				node.setLearnedStates(new SimpleGraphicalModelNodeXml.LearnedStates());
+				while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					node.getLearnedStates().getStates().add(this.readName());
+			}
+			else if( "State".equals(element) )
+				node.setState(this.readName());
+			else if( "Evidence".equals(element) )
+			{
+				while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+				{
+					if( "influencedEvidences".equals(reader.getLocalName()) )
+						this.readInfluencedEvidences(nodeName, (GraphicalModelXmlHandler) handler);
+					else
+						this.skipElement();
+				}
+			}
+			else
+				this.skipElement();
+		}
+		return node;
+	}
+
+	private void readInfluencedEvidences(final String nodeName, final GraphicalModelXmlHandler handler) throws XMLStreamException
+	{
+		final XMLStreamReader reader = this.getReader();
+		while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			final EvidenceMapXml.InfluencedEvidences.InfluencedEvidence evidence = new EvidenceMapXml.InfluencedEvidences.InfluencedEvidence();
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+			{
+				if( "Influences".equals(reader.getLocalName()) )
+				{
+					evidence.setInfluences(new EvidenceMapXml.InfluencedEvidences.InfluencedEvidence.Influences());
+					while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+					{
+						final EvidenceMapXml.InfluencedEvidences.InfluencedEvidence.Influences.Influence influence = new EvidenceMapXml.InfluencedEvidences.InfluencedEvidence.Influences.Influence();
+						influence.setNode(reader.getAttributeValue(null, "node"));
+						influence.setState(reader.getAttributeValue(null, "state"));
+						this.skipElement();
+						evidence.getInfluences().getInfluences().add(influence);
+					}
+				}
+				else if( "StateEvidence".equals(reader.getLocalName()) )
+					evidence.setStateEvidence(this.readStateEvidence());
+				else
+					this.skipElement();
+			}
+			handler.handleEvidence(nodeName, evidence);
+		}
+	}
+
+	private StateEvidenceXml readStateEvidence() throws XMLStreamException
+	{
+		final XMLStreamReader reader = this.getReader();
+		final StateEvidenceXml stateEvidence = new StateEvidenceXml();
+		stateEvidence.setStates(new StateEvidenceXml.States());
+		while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+		{
+			if( !"States".equals(reader.getLocalName()) )
+			{
+				this.skipElement();
+				continue;
+			}
+			while( reader.nextTag() == XMLStreamConstants.START_ELEMENT )
+			{
+				final StateEvidenceXml.States.State state = new StateEvidenceXml.States.State();
+				state.setName(reader.getAttributeValue(null, "name"));
+				state.setCount(Integer.valueOf(reader.getAttributeValue(null, "count")));
+				this.skipElement();
+				stateEvidence.getStates().getStates().add(state);
+			}
+		}
+		return stateEvidence;
+	}
+}
@@ -0,0 +1,250 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graphicalmodel;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import com.syncleus.dann.graph.BidirectedEdge;
+import com.syncleus.dann.graph.Graph;
+import com.syncleus.dann.graph.GraphXmlStreamWriter;
+import com.syncleus.dann.graphicalmodel.bayesian.BayesianNetwork;
+import com.syncleus.dann.xml.Namer;
+import com.syncleus.dann.xml.XmlValueStreamer;
+
+/**
+ * Writes a graphical model as a GraphicalModel document, or a BayesianNetwork
+ * document for bayesian networks, in the same layout toXml produces but record
+ * by record. The evidence tables of SimpleGraphicalModelNodes are written
+ * straight from their EvidenceMaps one influenced evidence at a time, so the
+ * largest part of a model is never built as JAXB objects. Other nodes are
+ * written from their XML form through the value streamer.
+ *
+ * A lone EvidenceMap can also be written as an EvidenceMap document.
+ *
+ * @since 2.2
+ * @param <N> The node type
+ * @param <E> The type of edge for the given node type
+ */
+public class GraphicalModelXmlStreamWriter<N extends GraphicalModelNode, E extends BidirectedEdge<N>> extends GraphXmlStreamWriter<N, E>
+{
+	public static final String GRAPHICAL_MODEL_NAMESPACE = "http://127.0.0.1:8080/Aide/com/syncleus/dann/graphicalmodel/xml";
+	public static final String GRAPHICAL_MODEL_PREFIX = "graphicalmodel";
+	public static final String BAYESIAN_NAMESPACE = "http://127.0.0.1:8080/Aide/com/syncleus/dann/graphicalmodel/bayesian/xml";
+	public static final String BAYESIAN_PREFIX = "bayesian";
+
+	/**
+	 * Creates a writer which writes to the specified stream.
+	 *
+	 * @param writer the stream to write the document to.
+	 * @param valueStreamer writes the state instances and any nodes which can
+	 *   not be streamed.
+	 */
+	public GraphicalModelXmlStreamWriter(final XMLStreamWriter writer, final XmlValueStreamer valueStreamer)
+	{
+		super(writer, valueStreamer);
+	}
+
+	@Override
+	protected void writeStartRoot(final Graph<N, E> graph) throws XMLStreamException
+	{
+		if( graph instanceof BayesianNetwork )
+			this.getWriter().writeStartElement(BAYESIAN_PREFIX, "BayesianNetwork", BAYESIAN_NAMESPACE);
+		else
+			this.getWriter().writeStartElement(GRAPHICAL_MODEL_PREFIX, "GraphicalModel", GRAPHICAL_MODEL_NAMESPACE);
+		this.writeNamespaces();
+	}
+
+	@Override
+	protected void writeNamespaces() throws XMLStreamException
+	{
+		super.writeNamespaces();
+		this.getWriter().writeNamespace(GRAPHICAL_MODEL_PREFIX, GRAPHICAL_MODEL_NAMESPACE);
+		this.getWriter().writeNamespace(BAYESIAN_PREFIX, BAYESIAN_NAMESPACE);
+	}
+
+	/**
+	 * Writes the node instances followed by the instances of every learned and
+	 * current state.
+	 *
+	 * @param graph the graph being written.
+	 * @param namer names the nodes and states.
+	 * @throws XMLStreamException if the instances could not be written.
+	 */
+	@Override
+	protected void writeInstances(final Graph<N, E> graph, final Namer<Object> namer) throws XMLStreamException
+	{
+		super.writeInstances(graph, namer);
+
+		final XMLStreamWriter writer = this.getWriter();
+		final Set<Object> writtenStates = new HashSet<Object>();
+		writer.writeStartElement("stateInstances");
+		for(final N node : graph.getNodes())
+		{
+			for(final Object learnedState : node.getLearnedStates())
+				this.writeStateInstance(learnedState, writtenStates, namer);
+			this.writeStateInstance(node.getState(), writtenStates, namer);
+		}
+		writer.writeEndElement();
+	}
+
+	private void writeStateInstance(final Object state, final Set<Object> writtenStates, final Namer<Object> namer) throws XMLStreamException
+	{
+		//only add the state if it hasnt yet been added
+		if( !writtenStates.add(state) )
+			return;
+
+		this.getWriter().writeStartElement("learnedState");
+		this.getWriter().writeAttribute("name", namer.getNameOrCreate(state));
+		this.writeValue(state, namer);
+		this.getWriter().writeEndElement();
+	}
+
+	/**
+	 * Writes the value of a node instance, streaming the learned states, state
+	 * and evidence of a SimpleGraphicalModelNode directly.
+	 *
+	 * @param node the node to write.
+	 * @param namer names the nodes and states.
+	 * @throws XMLStreamException if the node could not be written.
+	 */
+	@Override
+	protected void writeNodeValue(final N node, final Namer<Object> namer) throws XMLStreamException
+	{
+		if( !(node instanceof SimpleGraphicalModelNode) )
+		{
+			super.writeNodeValue(node, namer);
+			return;
+		}
+
+		final XMLStreamWriter writer = this.getWriter();
+		writer.writeStartElement("value");
+		this.writeType(GRAPHICAL_MODEL_PREFIX, "SimpleGraphicalModelNode");
+
+		writer.writeStartElement("learnedStates");
+		for(final Object learnedState : node.getLearnedStates())
+			this.writeName("learnedState", namer.getNameOrCreate(learnedState));
+		writer.writeEndElement();
+		this.writeName("State", namer.getNameOrCreate(node.getState()));
+
+		final EvidenceMap<?> evidence = ((SimpleGraphicalModelNode<?>) node).getEvidence();
+		if( evidence != null )
+		{
+			writer.writeStartElement("Evidence");
+			this.writeInfluencedEvidences(evidence, namer);
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Writes the evidence map as a complete EvidenceMap document, including
+	 * the instances of its states and influencing nodes, and flushes the
+	 * stream.
+	 *
+	 * @param evidence the evidence to write.
+	 * @throws XMLStreamException if the evidence could not be written.
+	 */
+	public void writeEvidenceMap(final EvidenceMap<?> evidence) throws XMLStreamException
+	{
+		if( evidence == null )
+			throw new IllegalArgumentException("evidence can not be null");
+
+		final XMLStreamWriter writer = this.getWriter();
+		final Namer<Object> namer = new Namer<Object>();
+		writer.writeStartDocument();
+		writer.writeStartElement(GRAPHICAL_MODEL_PREFIX, "EvidenceMap", GRAPHICAL_MODEL_NAMESPACE);
+		this.writeNamespaces();
+		this.writeInfluencedEvidences(evidence, namer);
+
+		// the instances are gathered in a second pass over the evidence
+		final Set<Object> writtenStates = new HashSet<Object>();
+		writer.writeStartElement("stateInstances");
+		for(final Map.Entry<Map<GraphicalModelNode, Object>, ? extends StateEvidence<?>> entry : evidence.entrySet())
+		{
+			for(final Object influenceState : entry.getKey().values())
+				this.writeStateInstance(influenceState, writtenStates, namer);
+			for(final Object state : entry.getValue().keySet())
+				this.writeStateInstance(state, writtenStates, namer);
+		}
+		writer.writeEndElement();
+
+		final Set<GraphicalModelNode> writtenNodes = new HashSet<GraphicalModelNode>();
+		writer.writeStartElement("nodeInstances");
+		for(final Map<GraphicalModelNode, Object> influences : evidence.keySet())
+		{
+			for(final GraphicalModelNode node : influences.keySet())
+			{
+				if( !writtenNodes.add(node) )
+					continue;
+				writer.writeStartElement("node");
+				writer.writeAttribute("name", namer.getNameOrCreate(node));
+				this.writeNodeValue((N) node, namer);
+				writer.writeEndElement();
+			}
+		}
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.flush();
+	}
+
+	/**
+	 * Writes the influencedEvidences element of the EvidenceMap type, one
+	 * influenced evidence at a time.
+	 *
+	 * @param evidence the evidence to write.
+	 * @param namer names the nodes and states.
+	 * @throws XMLStreamException if the evidence could not be written.
+	 */
+	protected void writeInfluencedEvidences(final EvidenceMap<?> evidence, final Namer<Object> namer) throws XMLStreamException
+	{
+		final XMLStreamWriter writer = this.getWriter();
+		writer.writeStartElement("influencedEvidences");
+		for(final Map.Entry<Map<GraphicalModelNode, Object>, ? extends StateEvidence<?>> entry : evidence.entrySet())
+		{
+			writer.writeStartElement("influencedEvidence");
+
+			writer.writeStartElement("Influences");
+			for(final Map.Entry<GraphicalModelNode, Object> influence : entry.getKey().entrySet())
+			{
+				writer.writeEmptyElement("influence");
+				writer.writeAttribute("node", namer.getNameOrCreate(influence.getKey()));
+				writer.writeAttribute("state", namer.getNameOrCreate(influence.getValue()));
+			}
+			writer.writeEndElement();
+
+			writer.writeStartElement("StateEvidence");
+			writer.writeStartElement("States");
+			for(final Map.Entry<?, Integer> stateCount : entry.getValue().entrySet())
+			{
+				this.writeName("State", namer.getNameOrCreate(stateCount.getKey()));
+				writer.writeAttribute("count", stateCount.getValue().toString());
+			}
+			writer.writeEndElement();
+			writer.writeEndElement();
+
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+	}
+}
@@ -89,6 +89,17 @@ public class SimpleGraphicalModelNode<S> extends AbstractContextNode<GraphicalMo
 		return Collections.unmodifiableSet(this.learnedStates);
 	}
 
+	/**
+	 * Gets the evidence learned by this node, so it can be streamed without
+	 * building its XML form.
+	 *
+	 * @return the evidence, or null if the node is not part of a graph.
+	 */
+	EvidenceMap<S> getEvidence()
+	{
+		return this.evidence;
+	}
+
 	@Override
 	public void learnState()
 	{
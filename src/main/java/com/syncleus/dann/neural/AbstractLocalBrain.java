@@ -109,6 +109,7 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 		{
 			this.outMap.get(newSynapse.getSourceNode()).add(newSynapse);
 			this.inMap.get(newSynapse.getDestinationNode()).add(newSynapse);
+			this.fireEdgeAdded(newSynapse);
 			return true;
 		}
 
@@ -137,6 +138,7 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 				this.outputNeurons.add((ON)newNeuron);
 			if( newNeuron instanceof InputNeuron )
 				this.inputNeurons.add((IN) newNeuron);
+			this.fireNodeAdded(newNeuron);
 			return true;
 		}
 
@@ -159,10 +161,13 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 		if( newNeurons.size() <= 0 )
 			return false;
 
-		final boolean added = this.neurons.addAll(newNeurons);
-
+		boolean added = false;
 		for(final N newNeuron : newNeurons)
 		{
+			if( !this.neurons.add(newNeuron) )
+				continue;
+			added = true;
+
 			this.outMap.put(newNeuron, new HashSet<S>());
 			this.inMap.put(newNeuron, new HashSet<S>());
 			// TODO fix this, its bad typing
@@ -170,6 +175,7 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 				this.outputNeurons.add((ON) newNeuron);
 			if( newNeuron instanceof InputNeuron )
 				this.inputNeurons.add((IN) newNeuron);
+			this.fireNodeAdded(newNeuron);
 		}
 
 		return added;
@@ -232,6 +238,7 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 				this.outMap.get(removeSynapse.getSourceNode()).remove(removeSynapse);
 			if( this.inMap.containsKey(removeSynapse.getDestinationNode()) )
 				this.inMap.get(removeSynapse.getDestinationNode()).remove(removeSynapse);
+			this.fireEdgeRemoved(removeSynapse);
 			return true;
 		}
 		return false;
@@ -252,7 +259,7 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 
 		if( this.neurons.remove(removeNeuron) )
 		{
-			final Set<Synapse> removeEdges = new HashSet<Synapse>();
+			final Set<S> removeEdges = new HashSet<S>();
 			if( this.outMap.containsKey(removeNeuron) )
 				removeEdges.addAll(this.outMap.remove(removeNeuron));
 			if( this.inMap.containsKey(removeNeuron) )
@@ -264,6 +271,9 @@ public abstract class AbstractLocalBrain<IN extends InputNeuron, ON extends Outp
 			if( removeNeuron instanceof InputNeuron )
 				this.inputNeurons.remove(removeNeuron);
 
+			for(final S removeEdge : removeEdges)
+				this.fireEdgeRemoved(removeEdge);
+			this.fireNodeRemoved(removeNeuron);
 			return true;
 		}
 		return false;
@@ -0,0 +1,89 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.xml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes and reads values as JAXB fragments, one value at a time, so only the
+ * value being written or read is ever held as a JAXB object. The context must
+ * know every class that can appear as a value, the same as when marshalling a
+ * whole document. Like the marshallers it holds, a streamer should only be
+ * used by one thread at a time.
+ *
+ * @since 2.2
+ */
+public class JaxbValueStreamer implements XmlValueStreamer
+{
+	private static final QName VALUE_NAME = new QName("value");
+
+	private final Marshaller marshaller;
+	private final Unmarshaller unmarshaller;
+
+	/**
+	 * Creates a value streamer which binds values with the specified context.
+	 *
+	 * @param context the context which knows the classes of the values.
+	 * @throws JAXBException if a marshaller or unmarshaller could not be
+	 *   created.
+	 */
+	public JaxbValueStreamer(final JAXBContext context) throws JAXBException
+	{
+		if( context == null )
+			throw new IllegalArgumentException("context can not be null");
+
+		this.marshaller = context.createMarshaller();
+		this.marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+		this.unmarshaller = context.createUnmarshaller();
+	}
+
+	@Override
+	public void writeValue(final XMLStreamWriter writer, final Object value) throws XMLStreamException
+	{
+		try
+		{
+			this.marshaller.marshal(new JAXBElement<Object>(VALUE_NAME, Object.class, value), writer);
+		}
+		catch(JAXBException caught)
+		{
+			throw new XMLStreamException("could not marshal value", caught);
+		}
+	}
+
+	@Override
+	public Object readValue(final XMLStreamReader reader) throws XMLStreamException
+	{
+		try
+		{
+			return this.unmarshaller.unmarshal(reader, Object.class).getValue();
+		}
+		catch(JAXBException caught)
+		{
+			throw new XMLStreamException("could not unmarshal value", caught);
+		}
+	}
+}
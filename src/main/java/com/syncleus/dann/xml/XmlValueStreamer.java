@@ -0,0 +1,54 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.xml;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes and reads the instance values held by the value element of a
+ * NamedValue, which may be of any type. This lets the streaming readers and
+ * writers handle the structure of a document themselves while leaving the
+ * instances to whatever binding they were created with.
+ *
+ * @since 2.2
+ */
+public interface XmlValueStreamer
+{
+	/**
+	 * Writes the complete, unqualified value element holding the specified
+	 * value.
+	 *
+	 * @param writer the stream to write to.
+	 * @param value the value to write.
+	 * @throws XMLStreamException if the value could not be written.
+	 */
+	void writeValue(XMLStreamWriter writer, Object value) throws XMLStreamException;
+
+	/**
+	 * Reads the value element the reader is positioned on, leaving the reader on
+	 * its end element or on the event just after it.
+	 *
+	 * @param reader the stream to read from, on the start of a value element.
+	 * @return the value that was read.
+	 * @throws XMLStreamException if the value could not be read.
+	 */
+	Object readValue(XMLStreamReader reader) throws XMLStreamException;
+}
@@ -0,0 +1,143 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.*;
+import com.syncleus.dann.graph.cycle.ColoredDepthFirstSearchDetector;
+import org.junit.*;
+
+public class TestCompressedAdjacencyGraph
+{
+	private static <E extends TraversableCloud<Object>> void assertSameAdjacency(final Graph<Object, E> expected, final IndexedGraph<Object, E> actual)
+	{
+		Assert.assertEquals("node counts differ", expected.getNodes().size(), actual.getNodeCount());
+		Assert.assertEquals("edge counts differ", expected.getEdges().size(), actual.getEdgeCount());
+		Assert.assertEquals("nodes differ", expected.getNodes(), actual.getNodes());
+		Assert.assertEquals("edges differ", expected.getEdges(), actual.getEdges());
+		for(final Object node : expected.getNodes())
+		{
+			Assert.assertEquals("node index does not map back to the node", node, actual.getNode(actual.getNodeIndex(node)));
+			Assert.assertEquals("adjacent edges differ", new HashSet<Object>(expected.getAdjacentEdges(node)), new HashSet<Object>(actual.getAdjacentEdges(node)));
+			Assert.assertEquals("traversable edges differ", new HashSet<Object>(expected.getTraversableEdges(node)), new HashSet<Object>(actual.getTraversableEdges(node)));
+			Assert.assertEquals("adjacent node counts differ", expected.getAdjacentNodes(node).size(), actual.getAdjacentNodes(node).size());
+			Assert.assertEquals("traversable nodes differ", new HashSet<Object>(expected.getTraversableNodes(node)), new HashSet<Object>(actual.getTraversableNodes(node)));
+		}
+		for(final E edge : expected.getEdges())
+			Assert.assertEquals("edge index does not map back to the edge", edge, actual.getEdge(actual.getEdgeIndex(edge)));
+	}
+
+	@Test
+	public void testDirectedCopy()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		final Object centerNode = new Object();
+		nodes.add(centerNode);
+		final Object topNode = new Object();
+		nodes.add(topNode);
+		final Object leftNode = new Object();
+		nodes.add(leftNode);
+		final Object rightNode = new Object();
+		nodes.add(rightNode);
+
+		final Set<DirectedEdge<Object>> edges = new HashSet<DirectedEdge<Object>>();
+		final DirectedEdge<Object> centerTopEdge = new ImmutableDirectedEdge<Object>(centerNode, topNode);
+		edges.add(centerTopEdge);
+		final DirectedEdge<Object> centerLeftEdge = new ImmutableDirectedEdge<Object>(centerNode, leftNode);
+		edges.add(centerLeftEdge);
+		final DirectedEdge<Object> topRightEdge = new ImmutableDirectedEdge<Object>(topNode, rightNode);
+		edges.add(topRightEdge);
+		final DirectedEdge<Object> rightCenterEdge = new ImmutableDirectedEdge<Object>(rightNode, centerNode);
+		edges.add(rightCenterEdge);
+
+		final BidirectedGraph<Object, DirectedEdge<Object>> graph = new ImmutableDirectedAdjacencyGraph<Object, DirectedEdge<Object>>(nodes, edges);
+		final CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>> compressed = new CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>>(graph);
+
+		assertSameAdjacency(graph, compressed);
+		for(final Object node : nodes)
+			Assert.assertEquals("in edges differ", graph.getInEdges(node), compressed.getInEdges(node));
+		Assert.assertTrue("cycle not detected in compressed graph", new ColoredDepthFirstSearchDetector().hasCycle(compressed));
+	}
+
+	@Test
+	public void testUndirectedFromEdges()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		final Object centerNode = new Object();
+		nodes.add(centerNode);
+		final Object topNode = new Object();
+		nodes.add(topNode);
+		final Object leftNode = new Object();
+		nodes.add(leftNode);
+		final Object loneNode = new Object();
+		nodes.add(loneNode);
+
+		final Set<BidirectedEdge<Object>> edges = new HashSet<BidirectedEdge<Object>>();
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, topNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, leftNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(leftNode, leftNode));
+
+		final Graph<Object, BidirectedEdge<Object>> graph = new ImmutableAdjacencyGraph<Object, BidirectedEdge<Object>>(nodes, edges);
+		final CompressedAdjacencyGraph<Object, BidirectedEdge<Object>> compressed = new CompressedAdjacencyGraph<Object, BidirectedEdge<Object>>(nodes, edges);
+
+		assertSameAdjacency(graph, compressed);
+		Assert.assertTrue("lone node should have no neighbors", compressed.getAdjacentNodes(loneNode).isEmpty());
+		Assert.assertTrue("unknown node should have no neighbors", compressed.getAdjacentNodes(new Object()).isEmpty());
+		Assert.assertEquals("unknown node should have no index", -1, compressed.getNodeIndex(new Object()));
+	}
+
+	@Test
+	public void testHyperedgeInEdges()
+	{
+		// the hyperedge reaches the target from every source, so with several
+		// sources its inward entries can not all sit next to each other
+		final List<Object> hyperNodes = new ArrayList<Object>();
+		final Set<TraversableCloud<Object>> edges = new HashSet<TraversableCloud<Object>>();
+		final Object targetNode = new Object();
+		hyperNodes.add(targetNode);
+		for(int sourceIndex = 0; sourceIndex < 4; sourceIndex++)
+		{
+			final Object sourceNode = new Object();
+			hyperNodes.add(sourceNode);
+			edges.add(new ImmutableUndirectedEdge<Object>(sourceNode, targetNode));
+		}
+		edges.add(new ImmutableHyperedge<Object>(hyperNodes));
+		final Set<Object> nodes = new HashSet<Object>(hyperNodes);
+
+		final Graph<Object, TraversableCloud<Object>> graph = new ImmutableAdjacencyGraph<Object, TraversableCloud<Object>>(nodes, edges);
+		final CompressedAdjacencyGraph<Object, TraversableCloud<Object>> compressed = new CompressedAdjacencyGraph<Object, TraversableCloud<Object>>(nodes, edges);
+		assertSameAdjacency(graph, compressed);
+
+		final Set<TraversableCloud<Object>> inEdges = compressed.getInEdges(targetNode);
+		Assert.assertEquals("in edges should hold each edge once", edges.size(), inEdges.size());
+		final List<TraversableCloud<Object>> iterated = new ArrayList<TraversableCloud<Object>>(inEdges);
+		Assert.assertEquals("in edges iterated an edge more than once", edges.size(), iterated.size());
+		Assert.assertEquals("in edges differ", edges, new HashSet<TraversableCloud<Object>>(iterated));
+		for(final Object node : nodes)
+			Assert.assertEquals("in edge size does not match iteration", new ArrayList<TraversableCloud<Object>>(compressed.getInEdges(node)).size(), compressed.getInEdges(node).size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutable()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		nodes.add(new Object());
+		final CompressedAdjacencyGraph<Object, BidirectedEdge<Object>> compressed = new CompressedAdjacencyGraph<Object, BidirectedEdge<Object>>(nodes, Collections.<BidirectedEdge<Object>>emptySet());
+		compressed.getNodes().add(new Object());
+	}
+}
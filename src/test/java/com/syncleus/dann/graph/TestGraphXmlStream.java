@@ -0,0 +1,113 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import javax.xml.stream.*;
+import com.syncleus.dann.graph.xml.BidirectedEdgeXml;
+import com.syncleus.dann.graph.xml.EdgeXml;
+import com.syncleus.dann.xml.NameXml;
+import com.syncleus.dann.xml.NamedValueXml;
+import com.syncleus.dann.xml.XmlValueStreamer;
+import org.junit.*;
+
+public class TestGraphXmlStream
+{
+	private static class TextValueStreamer implements XmlValueStreamer
+	{
+		@Override
+		public void writeValue(final XMLStreamWriter writer, final Object value) throws XMLStreamException
+		{
+			writer.writeStartElement("value");
+			writer.writeCharacters(value.toString());
+			writer.writeEndElement();
+		}
+
+		@Override
+		public Object readValue(final XMLStreamReader reader) throws XMLStreamException
+		{
+			return reader.getElementText();
+		}
+	}
+
+	private static class RecordingHandler implements GraphXmlHandler
+	{
+		private final List<String> nodes = new ArrayList<String>();
+		private final List<EdgeXml> edges = new ArrayList<EdgeXml>();
+		private final Map<String, Object> instances = new HashMap<String, Object>();
+
+		@Override
+		public void handleNode(final NameXml node)
+		{
+			this.nodes.add(node.getName());
+		}
+
+		@Override
+		public void handleEdge(final EdgeXml edge)
+		{
+			this.edges.add(edge);
+		}
+
+		@Override
+		public void handleNodeInstance(final NamedValueXml nodeInstance)
+		{
+			this.instances.put(nodeInstance.getName(), nodeInstance.getValue());
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws XMLStreamException
+	{
+		final MutableAdjacencyGraph<String, BidirectedEdge<String>> graph = new MutableAdjacencyGraph<String, BidirectedEdge<String>>();
+		graph.add("alpha");
+		graph.add("beta");
+		graph.add("gamma");
+		graph.add(new ImmutableDirectedEdge<String>("alpha", "beta"));
+		graph.add(new ImmutableUndirectedEdge<String>("beta", "gamma"));
+
+		final StringWriter document = new StringWriter();
+		new GraphXmlStreamWriter<String, BidirectedEdge<String>>(XMLOutputFactory.newInstance().createXMLStreamWriter(document), new TextValueStreamer()).write(graph);
+		Assert.assertTrue("root element should be a Graph", document.toString().contains("<graph:Graph"));
+
+		final RecordingHandler handler = new RecordingHandler();
+		new GraphXmlStreamReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(document.toString())), new TextValueStreamer()).read(handler);
+
+		Assert.assertEquals("wrong number of nodes", 3, handler.nodes.size());
+		Assert.assertEquals("wrong number of node instances", 3, handler.instances.size());
+		Assert.assertEquals("node instances should hold the nodes", new HashSet<Object>(graph.getNodes()), new HashSet<Object>(handler.instances.values()));
+		Assert.assertEquals("wrong number of edges", 2, handler.edges.size());
+		for(final EdgeXml edge : handler.edges)
+		{
+			Assert.assertTrue("edges should be read as bidirected edges", edge instanceof BidirectedEdgeXml);
+			final BidirectedEdgeXml bidirectedEdge = (BidirectedEdgeXml) edge;
+			final String left = (String) handler.instances.get(bidirectedEdge.getLeftNode());
+			final String right = (String) handler.instances.get(bidirectedEdge.getRightNode());
+			Assert.assertEquals("wrong number of connections", 2, edge.getConnections().getNodes().size());
+			if( "alpha".equals(left) )
+			{
+				Assert.assertEquals("directed edge has the wrong destination", "beta", right);
+				Assert.assertEquals("directed edge has the wrong direction", "outward", bidirectedEdge.getRightDirection());
+			}
+			else
+				Assert.assertEquals("undirected edge has the wrong direction", "none", bidirectedEdge.getLeftDirection());
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.*;
+import com.syncleus.dann.graph.topological.Topography;
+import org.junit.*;
+
+public class TestIndexedGraphKernels
+{
+	@Test
+	public void testComponents()
+	{
+		final Set<Object> nodes = new LinkedHashSet<Object>();
+		final Object firstNode = "firstNode";
+		nodes.add(firstNode);
+		final Object secondNode = "secondNode";
+		nodes.add(secondNode);
+		final Object thirdNode = "thirdNode";
+		nodes.add(thirdNode);
+		final Object fourthNode = "fourthNode";
+		nodes.add(fourthNode);
+		final Object loneNode = "loneNode";
+		nodes.add(loneNode);
+
+		// first, second and third form a cycle which also leads to fourth
+		final Set<DirectedEdge<Object>> edges = new LinkedHashSet<DirectedEdge<Object>>();
+		edges.add(new ImmutableDirectedEdge<Object>(firstNode, secondNode));
+		edges.add(new ImmutableDirectedEdge<Object>(secondNode, thirdNode));
+		edges.add(new ImmutableDirectedEdge<Object>(thirdNode, firstNode));
+		edges.add(new ImmutableDirectedEdge<Object>(thirdNode, fourthNode));
+
+		final CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>> graph = new CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>>(new ImmutableDirectedAdjacencyGraph<Object, DirectedEdge<Object>>(nodes, edges));
+
+		final int[] strongComponents = IndexedGraphKernels.stronglyConnectedComponents(graph);
+		Assert.assertEquals("wrong number of strong components", 3, IndexedGraphKernels.countComponents(strongComponents));
+		Assert.assertEquals("cycle is not one strong component", strongComponents[graph.getNodeIndex(firstNode)], strongComponents[graph.getNodeIndex(thirdNode)]);
+		Assert.assertFalse("fourth node joined the cycle", strongComponents[graph.getNodeIndex(firstNode)] == strongComponents[graph.getNodeIndex(fourthNode)]);
+
+		final int[] weakComponents = IndexedGraphKernels.weaklyConnectedComponents(graph);
+		Assert.assertEquals("wrong number of weak components", 2, IndexedGraphKernels.countComponents(weakComponents));
+
+		Assert.assertEquals("breadth first search missed nodes", 4, IndexedGraphKernels.breadthFirstSearch(graph, graph.getNodeIndex(secondNode), true).length);
+		Assert.assertEquals("depth first search missed nodes", 4, IndexedGraphKernels.depthFirstSearch(graph, graph.getNodeIndex(secondNode), true).length);
+
+		Assert.assertTrue("fourth node should be reachable", Topography.isStronglyConnected(graph, firstNode, fourthNode));
+		Assert.assertFalse("first node should not be reachable", Topography.isStronglyConnected(graph, fourthNode, firstNode));
+		Assert.assertTrue("fourth node should be weakly connected", Topography.isWeaklyConnected(graph, fourthNode, firstNode));
+		Assert.assertFalse("graph should not be strongly connected", Topography.isStronglyConnected(graph));
+		Assert.assertFalse("graph should not be weakly connected", Topography.isWeaklyConnected(graph));
+	}
+}
@@ -0,0 +1,67 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.*;
+import org.junit.*;
+
+public class TestIndexedPriorityHeap
+{
+	private static final int VALUE_COUNT = 1000;
+	private static final long SEED = 8712347L;
+
+	@Test
+	public void testOrdering()
+	{
+		final Random random = new Random(SEED);
+		final IndexedPriorityHeap heap = new IndexedPriorityHeap(4);
+		final double[] priorities = new double[VALUE_COUNT];
+		for(int value = 0; value < VALUE_COUNT; value++)
+		{
+			priorities[value] = random.nextDouble();
+			Assert.assertTrue("value was already queued", heap.offer(value, priorities[value]));
+		}
+
+		// decrease some keys, increase others and remove a few
+		for(int value = 0; value < VALUE_COUNT; value += 3)
+		{
+			priorities[value] = random.nextDouble() * 2.0 - 0.5;
+			Assert.assertFalse("value was not queued", heap.offer(value, priorities[value]));
+		}
+		for(int value = 1; value < VALUE_COUNT; value += 10)
+		{
+			Assert.assertTrue("value could not be removed", heap.remove(value));
+			priorities[value] = Double.NaN;
+		}
+
+		double lastPriority = Double.NEGATIVE_INFINITY;
+		int polledCount = 0;
+		while( !heap.isEmpty() )
+		{
+			final double priority = heap.peekPriority();
+			final int value = heap.poll();
+			Assert.assertFalse("removed value was polled", heap.contains(value) || Double.isNaN(priorities[value]));
+			Assert.assertEquals("wrong priority for value", priorities[value], priority, 0.0);
+			Assert.assertTrue("values polled out of order", priority >= lastPriority);
+			lastPriority = priority;
+			polledCount++;
+		}
+		Assert.assertEquals("wrong number of values polled", VALUE_COUNT - (VALUE_COUNT / 10), polledCount);
+	}
+}
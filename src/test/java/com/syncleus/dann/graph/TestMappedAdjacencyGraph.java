@@ -0,0 +1,133 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.io.*;
+import java.util.*;
+import com.syncleus.dann.graph.topological.Topography;
+import org.junit.*;
+
+public class TestMappedAdjacencyGraph
+{
+	private static CompressedAdjacencyGraph<String, BidirectedEdge<String>> createGraph()
+	{
+		final Set<String> nodes = new HashSet<String>(Arrays.asList("a", "b", "c", "d", "e"));
+		final Set<BidirectedEdge<String>> edges = new HashSet<BidirectedEdge<String>>();
+		edges.add(new ImmutableWeightedDirectedEdge<String>("a", "b", 1.5));
+		edges.add(new ImmutableWeightedDirectedEdge<String>("b", "c", 2.5));
+		edges.add(new ImmutableUndirectedEdge<String>("c", "d"));
+		edges.add(new ImmutableUndirectedEdge<String>("d", "d"));
+		edges.add(new ImmutableDirectedEdge<String>("a", "c"));
+		return new CompressedAdjacencyGraph<String, BidirectedEdge<String>>(nodes, edges);
+	}
+
+	private static File writeSnapshot(final Graph<String, BidirectedEdge<String>> graph) throws IOException
+	{
+		final File snapshotFile = File.createTempFile("testMapped", ".graph");
+		snapshotFile.deleteOnExit();
+		MappedAdjacencyGraph.write(graph, snapshotFile);
+		return snapshotFile;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		final CompressedAdjacencyGraph<String, BidirectedEdge<String>> graph = createGraph();
+		final MappedAdjacencyGraph mapped = new MappedAdjacencyGraph(writeSnapshot(graph));
+
+		Assert.assertEquals("node counts differ", graph.getNodeCount(), mapped.getNodeCount());
+		Assert.assertEquals("edge counts differ", graph.getEdgeCount(), mapped.getEdgeCount());
+		for(int nodeIndex = 0; nodeIndex < graph.getNodeCount(); nodeIndex++)
+		{
+			final String node = graph.getNode(nodeIndex);
+			Assert.assertEquals("adjacent node counts differ", graph.getAdjacentNodes(node).size(), mapped.getAdjacentNodes(nodeIndex).size());
+			Assert.assertEquals("traversable edge counts differ", graph.getTraversableEdges(node).size(), mapped.getTraversableEdges(nodeIndex).size());
+			for(int entry = graph.getTraversableOffset(nodeIndex); entry < graph.getTraversableOffset(nodeIndex + 1); entry++)
+				Assert.assertEquals("traversable nodes differ", graph.getTraversableNodeIndex(entry), mapped.getTraversableNodeIndex(entry));
+		}
+		for(int edgeIndex = 0; edgeIndex < graph.getEdgeCount(); edgeIndex++)
+		{
+			final BidirectedEdge<String> edge = graph.getEdge(edgeIndex);
+			final BidirectedEdge<Integer> mappedEdge = mapped.getEdge(edgeIndex);
+			Assert.assertEquals("edge weights differ", graph.getEdgeWeight(edgeIndex, -1.0), mapped.getEdgeWeight(edgeIndex, -1.0), 0.0);
+			Assert.assertEquals("edge directions differ", edge.isDirected(), mappedEdge.isDirected());
+			Assert.assertEquals("left nodes differ", edge.getLeftNode(), graph.getNode(mappedEdge.getLeftNode()));
+			Assert.assertSame("edges should be created once", mappedEdge, mapped.getEdge(edgeIndex));
+			Assert.assertEquals("edge index does not map back to the edge", edgeIndex, mapped.getEdgeIndex(mappedEdge));
+		}
+
+		Assert.assertTrue("mapped graph should have the same structure", Topography.isStructurallyIsomorphic(graph, mapped));
+		Assert.assertTrue("mapped graph should contain its edges", mapped.getEdges().containsAll(mapped.getInEdges(2)));
+	}
+
+	@Test
+	public void testSerialize() throws IOException, ClassNotFoundException
+	{
+		final MappedAdjacencyGraph mapped = new MappedAdjacencyGraph(writeSnapshot(createGraph()));
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream output = new ObjectOutputStream(bytes);
+		output.writeObject(mapped);
+		output.close();
+		final Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+		Assert.assertTrue("mapped graph should serialize as a compressed graph", copy instanceof CompressedBidirectedAdjacencyGraph);
+		Assert.assertEquals("serialized graph lost nodes", mapped.getNodes(), ((Graph) copy).getNodes());
+	}
+
+	@Test
+	public void testInvalidSnapshots() throws IOException
+	{
+		final File snapshotFile = writeSnapshot(createGraph());
+		final RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw");
+		try
+		{
+			file.setLength(file.length() - 4);
+		}
+		finally
+		{
+			file.close();
+		}
+
+		try
+		{
+			new MappedAdjacencyGraph(snapshotFile);
+			Assert.fail("truncated snapshot should not open");
+		}
+		catch(IOException caught)
+		{
+			// expected
+		}
+
+		final File textFile = File.createTempFile("testMapped", ".txt");
+		textFile.deleteOnExit();
+		final Writer writer = new FileWriter(textFile);
+		writer.write("this is not a graph snapshot at all");
+		writer.close();
+		try
+		{
+			new MappedAdjacencyGraph(textFile);
+			Assert.fail("text file should not open");
+		}
+		catch(IOException caught)
+		{
+			// expected
+		}
+	}
+}
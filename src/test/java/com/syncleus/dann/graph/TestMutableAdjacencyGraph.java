@@ -0,0 +1,195 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.*;
+
+public class TestMutableAdjacencyGraph
+{
+	private static final int NODE_COUNT = 512;
+	private static final int EDGE_COUNT = 3 * 4096;
+
+	private static List<Object> createNodes(final int count)
+	{
+		final List<Object> nodes = new ArrayList<Object>(count);
+		for(int nodeIndex = 0; nodeIndex < count; nodeIndex++)
+			nodes.add(new Object());
+		return nodes;
+	}
+
+	private static List<UndirectedEdge<Object>> createEdges(final List<Object> nodes, final int count)
+	{
+		final Random random = new Random(42);
+		final List<UndirectedEdge<Object>> edges = new ArrayList<UndirectedEdge<Object>>(count);
+		for(int edgeIndex = 0; edgeIndex < count; edgeIndex++)
+			edges.add(new ImmutableUndirectedEdge<Object>(nodes.get(random.nextInt(nodes.size())), nodes.get(random.nextInt(nodes.size())), true, true));
+		return edges;
+	}
+
+	private static MutableAdjacencyGraph<Object, UndirectedEdge<Object>> createGraph(final List<Object> nodes)
+	{
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> graph = new MutableAdjacencyGraph<Object, UndirectedEdge<Object>>();
+		for(final Object node : nodes)
+			graph.add(node);
+		return graph;
+	}
+
+	private static void assertSameAdjacency(final Graph<Object, UndirectedEdge<Object>> expected, final Graph<Object, UndirectedEdge<Object>> actual)
+	{
+		Assert.assertEquals("nodes differ", expected.getNodes(), actual.getNodes());
+		Assert.assertEquals("edges differ", expected.getEdges(), actual.getEdges());
+		for(final Object node : expected.getNodes())
+		{
+			Assert.assertEquals("adjacent edges differ", expected.getAdjacentEdges(node), actual.getAdjacentEdges(node));
+			final List<Object> expectedNeighbors = new ArrayList<Object>(expected.getAdjacentNodes(node));
+			final List<Object> actualNeighbors = new ArrayList<Object>(actual.getAdjacentNodes(node));
+			Assert.assertEquals("adjacent node counts differ", expectedNeighbors.size(), actualNeighbors.size());
+			for(final Object neighbor : expectedNeighbors)
+				Assert.assertTrue("adjacent nodes differ", actualNeighbors.remove(neighbor));
+		}
+	}
+
+	@Test
+	public void testAddAll()
+	{
+		final List<Object> nodes = createNodes(NODE_COUNT);
+		final List<UndirectedEdge<Object>> edges = createEdges(nodes, EDGE_COUNT);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> expected = createGraph(nodes);
+		for(final UndirectedEdge<Object> edge : edges)
+			expected.add(edge);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> actual = createGraph(nodes);
+		final List<UndirectedEdge<Object>> addedEdges = new ArrayList<UndirectedEdge<Object>>();
+		actual.addGraphListener(new GraphListener<Object, UndirectedEdge<Object>>()
+		{
+			@Override
+			public void nodeAdded(final Graph<Object, UndirectedEdge<Object>> graph, final Object node)
+			{
+			}
+
+			@Override
+			public void nodeRemoved(final Graph<Object, UndirectedEdge<Object>> graph, final Object node)
+			{
+			}
+
+			@Override
+			public void edgeAdded(final Graph<Object, UndirectedEdge<Object>> graph, final UndirectedEdge<Object> edge)
+			{
+				addedEdges.add(edge);
+			}
+
+			@Override
+			public void edgeRemoved(final Graph<Object, UndirectedEdge<Object>> graph, final UndirectedEdge<Object> edge)
+			{
+			}
+		});
+
+		// the second half repeats edges which are already present
+		final List<UndirectedEdge<Object>> batch = new ArrayList<UndirectedEdge<Object>>(edges);
+		batch.addAll(edges.subList(0, EDGE_COUNT / 2));
+		Assert.assertTrue("bulk add did not change the graph", actual.addAll(batch));
+		assertSameAdjacency(expected, actual);
+		Assert.assertEquals("each added edge should be announced exactly once", EDGE_COUNT, addedEdges.size());
+		Assert.assertFalse("adding present edges should not change the graph", actual.addAll(edges));
+	}
+
+	@Test
+	public void testParallelAddAll()
+	{
+		final List<Object> nodes = createNodes(NODE_COUNT);
+		final List<UndirectedEdge<Object>> edges = createEdges(nodes, EDGE_COUNT);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> expected = createGraph(nodes);
+		expected.addAll(edges);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> actual = createGraph(nodes);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			Assert.assertTrue("parallel bulk add did not change the graph", actual.addAll(edges, executor));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		assertSameAdjacency(expected, actual);
+	}
+
+	@Test
+	public void testRemoveAll()
+	{
+		final List<Object> nodes = createNodes(NODE_COUNT);
+		final List<UndirectedEdge<Object>> edges = createEdges(nodes, EDGE_COUNT);
+		final List<UndirectedEdge<Object>> removedEdges = new ArrayList<UndirectedEdge<Object>>();
+		for(int edgeIndex = 0; edgeIndex < EDGE_COUNT; edgeIndex += 3)
+			removedEdges.add(edges.get(edgeIndex));
+		// edges which are not in the graph are skipped
+		removedEdges.add(new ImmutableUndirectedEdge<Object>(nodes.get(0), nodes.get(1), true, true));
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> expected = createGraph(nodes);
+		expected.addAll(edges);
+		for(final UndirectedEdge<Object> edge : removedEdges)
+			expected.remove(edge);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> actual = createGraph(nodes);
+		actual.addAll(edges);
+		Assert.assertTrue("bulk remove did not change the graph", actual.removeAll(removedEdges));
+		assertSameAdjacency(expected, actual);
+		Assert.assertFalse("removing absent edges should not change the graph", actual.removeAll(removedEdges));
+	}
+
+	@Test
+	public void testAddAllContext()
+	{
+		final List<Object> nodes = createNodes(3);
+		final UndirectedEdge<Object> sharedEdge = new ImmutableUndirectedEdge<Object>(nodes.get(0), nodes.get(1), false, true);
+		final UndirectedEdge<Object> freeEdge = new ImmutableUndirectedEdge<Object>(nodes.get(1), nodes.get(2), false, true);
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> owner = createGraph(nodes);
+		Assert.assertTrue("edge could not join its first graph", owner.add(sharedEdge));
+
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> graph = createGraph(nodes);
+		Assert.assertTrue("bulk add did not change the graph", graph.addAll(Arrays.asList(sharedEdge, freeEdge)));
+		Assert.assertFalse("edge joined a second graph against its context", graph.getEdges().contains(sharedEdge));
+		Assert.assertTrue("free edge was not added", graph.getEdges().contains(freeEdge));
+		Assert.assertEquals("refused edge left adjacency behind", 0, graph.getAdjacentNodes(nodes.get(0)).size());
+	}
+
+	@Test
+	public void testAddAllOutsideGraph()
+	{
+		final List<Object> nodes = createNodes(2);
+		final MutableAdjacencyGraph<Object, UndirectedEdge<Object>> graph = createGraph(nodes);
+		final UndirectedEdge<Object> insideEdge = new ImmutableUndirectedEdge<Object>(nodes.get(0), nodes.get(1), true, true);
+		final UndirectedEdge<Object> outsideEdge = new ImmutableUndirectedEdge<Object>(nodes.get(0), new Object(), true, true);
+		try
+		{
+			graph.addAll(Arrays.asList(insideEdge, outsideEdge));
+			Assert.fail("edge with an end point outside the graph was accepted");
+		}
+		catch(IllegalArgumentException caught)
+		{
+			Assert.assertTrue("graph was changed by a rejected batch", graph.getEdges().isEmpty());
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.util.*;
+import org.junit.*;
+
+public class TestMutableHyperAdjacencyGraph
+{
+	private static final int NODE_COUNT = 6;
+
+	private static final class CountingListener implements GraphListener<Object, Hyperedge<Object>>
+	{
+		private final List<Object> nodes;
+		private int addedEdges;
+		private int removedEdges;
+
+		public CountingListener(final List<Object> nodes)
+		{
+			this.nodes = nodes;
+		}
+
+		@Override
+		public void nodeAdded(final Graph<Object, Hyperedge<Object>> graph, final Object node)
+		{
+		}
+
+		@Override
+		public void nodeRemoved(final Graph<Object, Hyperedge<Object>> graph, final Object node)
+		{
+		}
+
+		@Override
+		public void edgeAdded(final Graph<Object, Hyperedge<Object>> graph, final Hyperedge<Object> edge)
+		{
+			this.addedEdges++;
+		}
+
+		@Override
+		public void edgeRemoved(final Graph<Object, Hyperedge<Object>> graph, final Hyperedge<Object> edge)
+		{
+			this.removedEdges++;
+			// the graph must look as it would after a plain removal
+			Assert.assertFalse("removed edge is still in the graph", graph.getEdges().contains(edge));
+			assertRebuiltAdjacency(this.nodes, graph);
+		}
+	}
+
+	private static List<Object> createNodes()
+	{
+		final List<Object> nodes = new ArrayList<Object>(NODE_COUNT);
+		for(int nodeIndex = 0; nodeIndex < NODE_COUNT; nodeIndex++)
+			nodes.add("node" + nodeIndex);
+		return nodes;
+	}
+
+	private static MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> createGraph(final List<Object> nodes)
+	{
+		final MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> graph = new MutableHyperAdjacencyGraph<Object, Hyperedge<Object>>();
+		for(final Object node : nodes)
+			graph.add(node);
+		return graph;
+	}
+
+	/**
+	 * Checks the adjacency of a graph changed in place against a graph the
+	 * same edges were added to from scratch.
+	 */
+	private static void assertRebuiltAdjacency(final List<Object> nodes, final Graph<Object, Hyperedge<Object>> actual)
+	{
+		// mutable edges can only join one graph, so the rebuilt graph gets copies
+		final MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> expected = createGraph(nodes);
+		for(final Hyperedge<Object> edge : actual.getEdges())
+			expected.add(new ImmutableHyperedge<Object>(edge.getNodes()));
+		Assert.assertEquals("edge counts differ", expected.getEdges().size(), actual.getEdges().size());
+		for(final Object node : nodes)
+		{
+			Assert.assertEquals("adjacent edge counts differ", expected.getAdjacentEdges(node).size(), actual.getAdjacentEdges(node).size());
+			for(final Hyperedge<Object> edge : actual.getAdjacentEdges(node))
+				Assert.assertTrue("adjacent edge does not connect the node", edge.getNodes().contains(node));
+			final List<Object> actualNeighbors = new ArrayList<Object>(actual.getAdjacentNodes(node));
+			Assert.assertEquals("adjacent node counts differ", expected.getAdjacentNodes(node).size(), actualNeighbors.size());
+			for(final Object neighbor : expected.getAdjacentNodes(node))
+				Assert.assertTrue("adjacent nodes differ", actualNeighbors.remove(neighbor));
+		}
+	}
+
+	@Test
+	public void testInPlace()
+	{
+		final List<Object> nodes = createNodes();
+		final MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> graph = createGraph(nodes);
+		final MutableHyperedge<Object> edge = new MutableHyperedge<Object>(nodes.get(0), nodes.get(1), nodes.get(2));
+		Assert.assertTrue("edge was not added", graph.add(edge));
+		Assert.assertTrue("edge was not added", graph.add(new ImmutableHyperedge<Object>(nodes.get(2), nodes.get(3))));
+
+		// without listeners only the changed adjacency is patched
+		Assert.assertSame("connected edge should change in place", edge, graph.connect(edge, nodes.get(5)));
+		assertRebuiltAdjacency(nodes, graph);
+		Assert.assertSame("disconnected edge should change in place", edge, graph.disconnect(edge, nodes.get(5)));
+		assertRebuiltAdjacency(nodes, graph);
+
+		final CountingListener listener = new CountingListener(nodes);
+		graph.addGraphListener(listener);
+
+		Assert.assertSame("connected edge should change in place", edge, graph.connect(edge, nodes.get(4)));
+		Assert.assertTrue("edge was not connected", edge.getNodes().contains(nodes.get(4)));
+		assertRebuiltAdjacency(nodes, graph);
+
+		Assert.assertSame("disconnected edge should change in place", edge, graph.disconnect(edge, nodes.get(0)));
+		Assert.assertFalse("edge was not disconnected", edge.getNodes().contains(nodes.get(0)));
+		Assert.assertTrue("disconnected node still has the edge", graph.getAdjacentEdges(nodes.get(0)).isEmpty());
+		assertRebuiltAdjacency(nodes, graph);
+
+		Assert.assertEquals("each change should be announced as a removal", 2, listener.removedEdges);
+		Assert.assertEquals("each change should be announced as an addition", 2, listener.addedEdges);
+	}
+
+	@Test
+	public void testCopying()
+	{
+		final List<Object> nodes = createNodes();
+		final MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> graph = createGraph(nodes);
+		final Hyperedge<Object> edge = new ImmutableHyperedge<Object>(nodes.get(0), nodes.get(1), nodes.get(2));
+		Assert.assertTrue("edge was not added", graph.add(edge));
+
+		final Hyperedge<Object> connected = graph.connect(edge, nodes.get(5));
+		Assert.assertNotSame("immutable edge should be replaced", edge, connected);
+		Assert.assertFalse("replaced edge is still in the graph", graph.getEdges().contains(edge));
+		Assert.assertEquals("immutable edge should not change", 3, edge.getNodes().size());
+		Assert.assertTrue("copy was not connected", connected.getNodes().contains(nodes.get(5)));
+		assertRebuiltAdjacency(nodes, graph);
+	}
+
+	@Test
+	public void testDetachedEdge()
+	{
+		final List<Object> nodes = createNodes();
+		final MutableHyperedge<Object> edge = new MutableHyperedge<Object>(nodes.get(0), nodes.get(1));
+		Assert.assertSame("detached edge should change in place", edge, edge.connect(nodes.get(2)));
+		Assert.assertEquals("edge was not connected", 3, edge.getDegree());
+		Assert.assertSame("detached edge should change in place", edge, edge.disconnect(nodes.get(0)));
+		Assert.assertEquals("edge was not disconnected", Arrays.asList(nodes.get(1), nodes.get(2)), new ArrayList<Object>(edge.getNodes()));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testConnectOutsideGraph()
+	{
+		final List<Object> nodes = createNodes();
+		final MutableHyperAdjacencyGraph<Object, Hyperedge<Object>> graph = createGraph(nodes);
+		final MutableHyperedge<Object> edge = new MutableHyperedge<Object>(nodes.get(0), nodes.get(1));
+		graph.add(edge);
+		graph.connect(edge, "outside");
+	}
+}
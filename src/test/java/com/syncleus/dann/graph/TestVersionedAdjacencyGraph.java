@@ -0,0 +1,233 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.*;
+
+public class TestVersionedAdjacencyGraph
+{
+	private static final int NODE_COUNT = 200;
+	private static final int OPERATION_COUNT = 5000;
+
+	/**
+	 * A node whose hash collides with many others, so the tries have to keep
+	 * colliding keys apart.
+	 */
+	private static final class CollidingNode implements Serializable
+	{
+		private static final long serialVersionUID = 2938170022591447218L;
+		private final int id;
+
+		public CollidingNode(final int id)
+		{
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.id % 7;
+		}
+
+		@Override
+		public boolean equals(final Object other)
+		{
+			return (other instanceof CollidingNode) && (((CollidingNode) other).id == this.id);
+		}
+	}
+
+	private static List<CollidingNode> createNodes()
+	{
+		final List<CollidingNode> nodes = new ArrayList<CollidingNode>(NODE_COUNT);
+		for(int nodeIndex = 0; nodeIndex < NODE_COUNT; nodeIndex++)
+			nodes.add(new CollidingNode(nodeIndex));
+		return nodes;
+	}
+
+	private static void assertSameAdjacency(final Graph<CollidingNode, UndirectedEdge<CollidingNode>> expected, final Graph<CollidingNode, UndirectedEdge<CollidingNode>> actual)
+	{
+		Assert.assertEquals("nodes differ", expected.getNodes(), actual.getNodes());
+		Assert.assertEquals("edges differ", expected.getEdges(), actual.getEdges());
+		for(final CollidingNode node : expected.getNodes())
+		{
+			Assert.assertEquals("adjacent edges differ", expected.getAdjacentEdges(node), actual.getAdjacentEdges(node));
+			final List<CollidingNode> actualNeighbors = new ArrayList<CollidingNode>(actual.getAdjacentNodes(node));
+			Assert.assertEquals("adjacent node counts differ", expected.getAdjacentNodes(node).size(), actualNeighbors.size());
+			for(final CollidingNode neighbor : expected.getAdjacentNodes(node))
+				Assert.assertTrue("adjacent nodes differ", actualNeighbors.remove(neighbor));
+			Assert.assertEquals("traversable edges differ", expected.getTraversableEdges(node), actual.getTraversableEdges(node));
+		}
+	}
+
+	@Test
+	public void testMatchesMutableGraph()
+	{
+		final List<CollidingNode> nodes = createNodes();
+		final MutableAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> expected = new MutableAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>();
+		final VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> actual = new VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>();
+		for(final CollidingNode node : nodes)
+		{
+			expected.add(node);
+			actual.add(node);
+		}
+
+		final Random random = new Random(7);
+		final List<UndirectedEdge<CollidingNode>> edges = new ArrayList<UndirectedEdge<CollidingNode>>();
+		for(int operation = 0; operation < OPERATION_COUNT; operation++)
+		{
+			if( edges.isEmpty() || (random.nextInt(3) != 0) )
+			{
+				final UndirectedEdge<CollidingNode> edge = new ImmutableUndirectedEdge<CollidingNode>(nodes.get(random.nextInt(NODE_COUNT)), nodes.get(random.nextInt(NODE_COUNT)), true, true);
+				Assert.assertEquals("edge addition differs", expected.add(edge), actual.add(edge));
+				edges.add(edge);
+			}
+			else
+			{
+				final UndirectedEdge<CollidingNode> edge = edges.remove(random.nextInt(edges.size()));
+				Assert.assertEquals("edge removal differs", expected.remove(edge), actual.remove(edge));
+			}
+		}
+		assertSameAdjacency(expected, actual);
+
+		final List<UndirectedEdge<CollidingNode>> removedEdges = edges.subList(0, edges.size() / 2);
+		Assert.assertEquals("bulk removal differs", expected.removeAll(removedEdges), actual.removeAll(removedEdges));
+		assertSameAdjacency(expected, actual);
+	}
+
+	@Test
+	public void testSnapshotIsolation()
+	{
+		final List<CollidingNode> nodes = createNodes();
+		final VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> graph = new VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>();
+		for(final CollidingNode node : nodes)
+			graph.add(node);
+		final List<UndirectedEdge<CollidingNode>> ring = new ArrayList<UndirectedEdge<CollidingNode>>();
+		for(int nodeIndex = 0; nodeIndex < NODE_COUNT; nodeIndex++)
+			ring.add(new ImmutableUndirectedEdge<CollidingNode>(nodes.get(nodeIndex), nodes.get((nodeIndex + 1) % NODE_COUNT), true, true));
+		final long beforeRing = graph.getVersion();
+		Assert.assertTrue("ring was not added", graph.addAll(ring));
+		Assert.assertEquals("a bulk add should publish a single version", beforeRing + 1, graph.getVersion());
+
+		final SnapshotAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> snapshot = graph.getSnapshot();
+		final MutableAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> copy = new MutableAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>();
+		for(final CollidingNode node : nodes)
+			copy.add(node);
+		copy.addAll(ring);
+
+		final CollidingNode removedNode = nodes.get(0);
+		Assert.assertTrue("node was not removed", graph.remove(removedNode));
+		Assert.assertTrue("chord was not added", graph.add(new ImmutableUndirectedEdge<CollidingNode>(nodes.get(10), nodes.get(20), true, true)));
+
+		Assert.assertFalse("graph still has the removed node", graph.getNodes().contains(removedNode));
+		for(final UndirectedEdge<CollidingNode> edge : graph.getEdges())
+			Assert.assertFalse("graph still has an edge to the removed node", edge.getNodes().contains(removedNode));
+		Assert.assertEquals("snapshot changed its version", beforeRing + 1, snapshot.getVersion());
+		assertSameAdjacency(copy, snapshot);
+		Assert.assertTrue("snapshot lost the removed node", snapshot.getNodes().contains(removedNode));
+	}
+
+	@Test
+	public void testConcurrentReaders() throws InterruptedException
+	{
+		final List<CollidingNode> nodes = createNodes();
+		final VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> graph = new VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>(false);
+		for(final CollidingNode node : nodes)
+			graph.add(node);
+
+		final AtomicReference<String> failure = new AtomicReference<String>();
+		final Thread[] readers = new Thread[3];
+		final Thread writer = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				final Random random = new Random(11);
+				for(int operation = 0; operation < OPERATION_COUNT; operation++)
+					graph.add(new ImmutableUndirectedEdge<CollidingNode>(nodes.get(random.nextInt(NODE_COUNT)), nodes.get(random.nextInt(NODE_COUNT))));
+			}
+		};
+		for(int readerIndex = 0; readerIndex < readers.length; readerIndex++)
+		{
+			readers[readerIndex] = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					long lastVersion = -1;
+					while( writer.isAlive() || (lastVersion < graph.getVersion()) )
+					{
+						final SnapshotAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> snapshot = graph.getSnapshot();
+						if( snapshot.getVersion() < lastVersion )
+							failure.compareAndSet(null, "versions went backwards");
+						lastVersion = snapshot.getVersion();
+
+						int endPoints = 0;
+						for(final CollidingNode node : snapshot.getNodes())
+							endPoints += snapshot.getAdjacentEdges(node).size();
+						int expectedEndPoints = 0;
+						for(final UndirectedEdge<CollidingNode> edge : snapshot.getEdges())
+						{
+							expectedEndPoints += (edge.getLeftNode().equals(edge.getRightNode()) ? 1 : 2);
+							if( !snapshot.getAdjacentEdges(edge.getLeftNode()).contains(edge) )
+								failure.compareAndSet(null, "snapshot edge is missing from its end point");
+						}
+						if( endPoints != expectedEndPoints )
+							failure.compareAndSet(null, "snapshot adjacency does not match its edges");
+					}
+				}
+			};
+			readers[readerIndex].start();
+		}
+		writer.start();
+		writer.join();
+		for(final Thread reader : readers)
+			reader.join();
+
+		Assert.assertNull(failure.get(), failure.get());
+		Assert.assertEquals("every addition should publish a version", NODE_COUNT + graph.getEdges().size(), graph.getVersion());
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException
+	{
+		final List<CollidingNode> nodes = createNodes();
+		final VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> graph = new VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>(false);
+		for(final CollidingNode node : nodes)
+			graph.add(node);
+		for(int nodeIndex = 1; nodeIndex < NODE_COUNT; nodeIndex++)
+			graph.add(new ImmutableUndirectedEdge<CollidingNode>(nodes.get(nodeIndex / 2), nodes.get(nodeIndex), true, false));
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(graph);
+		out.writeObject(graph.getSnapshot());
+		out.close();
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		final VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>> readGraph = (VersionedAdjacencyGraph<CollidingNode, UndirectedEdge<CollidingNode>>) in.readObject();
+		final Graph<CollidingNode, UndirectedEdge<CollidingNode>> readSnapshot = (Graph<CollidingNode, UndirectedEdge<CollidingNode>>) in.readObject();
+
+		Assert.assertEquals("node counts differ", NODE_COUNT, readGraph.getNodes().size());
+		Assert.assertEquals("edge counts differ", NODE_COUNT - 1, readGraph.getEdges().size());
+		Assert.assertEquals("snapshot node counts differ", NODE_COUNT, readSnapshot.getNodes().size());
+		Assert.assertEquals("snapshot edge counts differ", NODE_COUNT - 1, readSnapshot.getEdges().size());
+	}
+}
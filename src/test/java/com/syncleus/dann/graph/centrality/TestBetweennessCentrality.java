@@ -0,0 +1,105 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.*;
+import java.util.concurrent.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestBetweennessCentrality
+{
+	private static final double TOLERANCE = 1.0e-9;
+
+	private static MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>> createPath(final int nodeCount)
+	{
+		final MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>> graph = new MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+			graph.add(node);
+		for(int node = 1; node < nodeCount; node++)
+			graph.add(new ImmutableUndirectedEdge<Integer>(node - 1, node));
+		return graph;
+	}
+
+	@Test
+	public void testPath()
+	{
+		final Map<Integer, Double> centralities = new BetweennessCentrality<Integer, UndirectedEdge<Integer>>(createPath(5)).getCentralities();
+		Assert.assertEquals("ends of a path lie on no paths", 0.0, centralities.get(0), TOLERANCE);
+		Assert.assertEquals("ends of a path lie on no paths", 0.0, centralities.get(4), TOLERANCE);
+		Assert.assertEquals("wrong betweenness next to the end", 6.0, centralities.get(1), TOLERANCE);
+		Assert.assertEquals("wrong betweenness in the middle", 8.0, centralities.get(2), TOLERANCE);
+	}
+
+	@Test
+	public void testSplitPaths()
+	{
+		// two equally short paths from 0 to 3, through 1 and through 2
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 4; node++)
+			graph.add(node);
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 2));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 3));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 3));
+
+		final Map<Integer, Double> centralities = new BetweennessCentrality<Integer, DirectedEdge<Integer>>(graph).getCentralities();
+		Assert.assertEquals("each middle node should carry half the paths", 0.5, centralities.get(1), TOLERANCE);
+		Assert.assertEquals("each middle node should carry half the paths", 0.5, centralities.get(2), TOLERANCE);
+	}
+
+	@Test
+	public void testWeighted()
+	{
+		// the direct edge from 0 to 2 is longer than the detour through 1
+		final MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>> graph = new MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>>();
+		for(int node = 0; node < 3; node++)
+			graph.add(node);
+		graph.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 1, 1.0));
+		graph.add(new ImmutableWeightedUndirectedEdge<Integer>(1, 2, 1.0));
+		graph.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 2, 5.0));
+
+		Assert.assertEquals("direct edge should be shortest by steps", 0.0, new BetweennessCentrality<Integer, UndirectedEdge<Integer>>(graph).getCentralities().get(1), TOLERANCE);
+		Assert.assertEquals("detour should be shortest by weight", 2.0, new BetweennessCentrality<Integer, UndirectedEdge<Integer>>(graph, true, null).getCentralities().get(1), TOLERANCE);
+	}
+
+	@Test
+	public void testParallelMatchesSerial()
+	{
+		final Random random = new Random(5L);
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 300; node++)
+			graph.add(node);
+		for(int edge = 0; edge < 1200; edge++)
+			graph.add(new ImmutableDirectedEdge<Integer>(random.nextInt(300), random.nextInt(300)));
+
+		final double[] serial = new BetweennessCentrality<Integer, DirectedEdge<Integer>>(graph).computeCentralities();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			final double[] parallel = new BetweennessCentrality<Integer, DirectedEdge<Integer>>(graph, false, executor).computeCentralities();
+			for(int nodeIndex = 0; nodeIndex < serial.length; nodeIndex++)
+				Assert.assertEquals("parallel betweenness differs from serial betweenness", serial[nodeIndex], parallel[nodeIndex], TOLERANCE * Math.max(1.0, serial[nodeIndex]));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestClosenessCentrality
+{
+	private static final double TOLERANCE = 1.0e-9;
+
+	@Test
+	public void testPathAndLoneNode()
+	{
+		// a path 0 - 1 - 2 and a lone node 3
+		final MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>> graph = new MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>>();
+		for(int node = 0; node < 4; node++)
+			graph.add(node);
+		graph.add(new ImmutableUndirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableUndirectedEdge<Integer>(1, 2));
+
+		final Map<Integer, Double> centralities = new ClosenessCentrality<Integer, UndirectedEdge<Integer>>(graph).getCentralities();
+		Assert.assertEquals("wrong closeness for the middle of the path", (2.0 / 2.0) * (2.0 / 3.0), centralities.get(1), TOLERANCE);
+		Assert.assertEquals("wrong closeness for the end of the path", (2.0 / 3.0) * (2.0 / 3.0), centralities.get(0), TOLERANCE);
+		Assert.assertEquals("lone node should have no closeness", 0.0, centralities.get(3), TOLERANCE);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveWeights()
+	{
+		final MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>> graph = new MutableAdjacencyGraph<Integer, UndirectedEdge<Integer>>();
+		graph.add(0);
+		graph.add(1);
+		graph.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 1, -1.0));
+		new ClosenessCentrality<Integer, UndirectedEdge<Integer>>(graph, true, null);
+	}
+}
@@ -0,0 +1,104 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.centrality;
+
+import java.util.*;
+import java.util.concurrent.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestPageRank
+{
+	private static final double TOLERANCE = 1.0e-8;
+
+	private static MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> createRandomGraph(final int nodeCount, final int edgeCount, final long seed)
+	{
+		final Random random = new Random(seed);
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+			graph.add(node);
+		for(int edge = 0; edge < edgeCount; edge++)
+			graph.add(new ImmutableDirectedEdge<Integer>(random.nextInt(nodeCount), random.nextInt(nodeCount)));
+		return graph;
+	}
+
+	@Test
+	public void testCycle()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 3; node++)
+			graph.add(node);
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 2));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 0));
+
+		final Map<Integer, Double> ranks = new PageRank<Integer, DirectedEdge<Integer>>(graph).getRanks();
+		for(int node = 0; node < 3; node++)
+			Assert.assertEquals("every node of a cycle should rank equally", 1.0 / 3.0, ranks.get(node), TOLERANCE);
+	}
+
+	@Test
+	public void testStarAndDanglingNodes()
+	{
+		// every leaf links to the hub, which links nowhere
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 5; node++)
+			graph.add(node);
+		for(int leaf = 1; leaf < 5; leaf++)
+			graph.add(new ImmutableDirectedEdge<Integer>(leaf, 0));
+
+		final PageRank<Integer, DirectedEdge<Integer>> pageRank = new PageRank<Integer, DirectedEdge<Integer>>(graph);
+		final Map<Integer, Double> ranks = pageRank.getRanks();
+		double total = 0.0;
+		for(final double rank : ranks.values())
+			total += rank;
+		Assert.assertEquals("ranks should sum to 1", 1.0, total, TOLERANCE);
+		for(int leaf = 1; leaf < 5; leaf++)
+			Assert.assertTrue("hub should outrank every leaf", ranks.get(0) > ranks.get(leaf));
+
+		final Map<Integer, Double> personalized = pageRank.getPersonalizedRanks(Collections.singletonMap(1, 1.0));
+		Assert.assertTrue("preferred leaf should outrank the other leaves", personalized.get(1) > personalized.get(2));
+		Assert.assertTrue("preferred leaf should gain rank", personalized.get(1) > ranks.get(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownPreference()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createRandomGraph(10, 20, 3L);
+		new PageRank<Integer, DirectedEdge<Integer>>(graph).getPersonalizedRanks(Collections.singletonMap(42, 1.0));
+	}
+
+	@Test
+	public void testParallelMatchesSerial()
+	{
+		final IndexedGraph<Integer, DirectedEdge<Integer>> graph = new CompressedAdjacencyGraph<Integer, DirectedEdge<Integer>>(createRandomGraph(20000, 100000, 11L));
+		final double[] serial = new PageRank<Integer, DirectedEdge<Integer>>(graph).computeRanks(null);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			final double[] parallel = new PageRank<Integer, DirectedEdge<Integer>>(graph, PageRank.DEFAULT_DAMPING_FACTOR, PageRank.DEFAULT_TOLERANCE, PageRank.DEFAULT_MAXIMUM_ITERATIONS, executor).computeRanks(null);
+			for(int nodeIndex = 0; nodeIndex < serial.length; nodeIndex++)
+				Assert.assertEquals("parallel rank differs from serial rank", serial[nodeIndex], parallel[nodeIndex], TOLERANCE);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.context;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.syncleus.dann.graph.xml.EdgeXml;
+import com.syncleus.dann.xml.Namer;
+import org.junit.*;
+
+public class TestSignalDispatcher
+{
+	private static final class RelayNode extends AbstractSignalContextNode<RelayNode, RelayEdge, Integer>
+	{
+		private static final long serialVersionUID = 2380582345127703617L;
+		private final int limit;
+		private final AtomicInteger received = new AtomicInteger();
+		private volatile Integer lastReceived;
+
+		public RelayNode(final int limit)
+		{
+			this.limit = limit;
+		}
+
+		public void changeState(final int state)
+		{
+			this.setState(state);
+		}
+
+		@Override
+		public void neighborNodeStateChanged(final RelayEdge edge, final RelayNode node, final Integer newState)
+		{
+			this.received.incrementAndGet();
+			this.lastReceived = newState;
+			if( newState < this.limit )
+				this.setState(newState + 1);
+		}
+	}
+
+	private static final class RelayEdge extends AbstractSignalingContextCloud<RelayNode, Integer>
+	{
+		private static final long serialVersionUID = -6121934123086934512L;
+		private final RelayNode source;
+		private final RelayNode destination;
+
+		public RelayEdge(final RelayNode source, final RelayNode destination)
+		{
+			this.source = source;
+			this.destination = destination;
+			source.connectingEdge(this);
+			destination.connectingEdge(this);
+		}
+
+		@Override
+		public boolean isTraversable(final RelayNode node)
+		{
+			return (node == this.source);
+		}
+
+		@Override
+		public Collection<RelayNode> getTraversableNodes(final RelayNode node)
+		{
+			return (node == this.source ? Collections.singletonList(this.destination) : Collections.<RelayNode>emptyList());
+		}
+
+		@Override
+		public Collection<RelayNode> getNodes()
+		{
+			return Arrays.asList(this.source, this.destination);
+		}
+
+		@Override
+		public RelayEdge disconnect(final RelayNode node)
+		{
+			return null;
+		}
+
+		@Override
+		public RelayEdge disconnect(final List<RelayNode> nodes)
+		{
+			return null;
+		}
+
+		@Override
+		public RelayEdge clone()
+		{
+			return this;
+		}
+
+		@Override
+		public boolean isContextEnabled()
+		{
+			return true;
+		}
+
+		@Override
+		public EdgeXml toXml()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public EdgeXml toXml(final Namer<Object> namer)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void toXml(final EdgeXml jaxbObject, final Namer<Object> namer)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static List<RelayNode> createChain(final int length, final int limit, final SignalDispatcher<RelayNode, Integer> dispatcher)
+	{
+		final List<RelayNode> chain = new ArrayList<RelayNode>(length);
+		for(int index = 0; index < length; index++)
+		{
+			final RelayNode node = new RelayNode(limit);
+			node.setSignalDispatcher(dispatcher);
+			chain.add(node);
+			if( index > 0 )
+				new RelayEdge(chain.get(index - 1), node);
+		}
+		return chain;
+	}
+
+	@Test
+	public void testImmediateWithoutDispatcher()
+	{
+		final List<RelayNode> chain = createChain(3, 100, null);
+		chain.get(0).changeState(1);
+		Assert.assertEquals("signal should cross the chain before setState returns", Integer.valueOf(3), chain.get(2).getState());
+	}
+
+	@Test
+	public void testTicks()
+	{
+		final SignalDispatcher<RelayNode, Integer> dispatcher = new SignalDispatcher<RelayNode, Integer>();
+		final List<RelayNode> chain = createChain(3, 100, dispatcher);
+
+		chain.get(0).changeState(1);
+		chain.get(0).changeState(5);
+		Assert.assertNull("nothing should be delivered before a tick", chain.get(1).getState());
+		Assert.assertFalse("a change should be held", dispatcher.isQuiescent());
+
+		Assert.assertEquals("repeated changes should be coalesced into one signal", 1, dispatcher.tick());
+		Assert.assertEquals("only the latest state should be delivered", Integer.valueOf(5), chain.get(1).lastReceived);
+		Assert.assertNull("signal should only cross one edge per tick", chain.get(2).getState());
+
+		Assert.assertEquals("second tick should deliver to the end of the chain", 1, dispatcher.tick());
+		Assert.assertEquals("end of the chain should relay the signal", Integer.valueOf(7), chain.get(2).getState());
+		Assert.assertEquals("end of the chain has no edges to signal", 0, dispatcher.tick());
+		Assert.assertTrue("dispatcher should be quiescent", dispatcher.isQuiescent());
+		Assert.assertEquals("wrong tick count", 3L, dispatcher.getTickCount());
+	}
+
+	@Test
+	public void testCycleDoesNotRecurse()
+	{
+		// without a dispatcher this cycle would relay until the stack overflowed
+		final SignalDispatcher<RelayNode, Integer> dispatcher = new SignalDispatcher<RelayNode, Integer>();
+		final List<RelayNode> cycle = createChain(2, Integer.MAX_VALUE, dispatcher);
+		new RelayEdge(cycle.get(1), cycle.get(0));
+
+		cycle.get(0).changeState(0);
+		Assert.assertEquals("cycle should keep signaling", 100000, dispatcher.run(100000));
+		Assert.assertEquals("every tick should cross one edge", 50000, cycle.get(0).received.get());
+	}
+
+	@Test
+	public void testParallelDelivery()
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			final SignalDispatcher<RelayNode, Integer> dispatcher = new SignalDispatcher<RelayNode, Integer>(executor, 64);
+			final RelayNode hub = new RelayNode(0);
+			hub.setSignalDispatcher(dispatcher);
+			final List<RelayNode> leaves = new ArrayList<RelayNode>();
+			for(int index = 0; index < 5000; index++)
+			{
+				final RelayNode leaf = new RelayNode(0);
+				leaf.setSignalDispatcher(dispatcher);
+				new RelayEdge(hub, leaf);
+				leaves.add(leaf);
+			}
+
+			hub.changeState(0);
+			Assert.assertEquals("every leaf should be signaled", 5000, dispatcher.tick());
+			for(final RelayNode leaf : leaves)
+				Assert.assertEquals("every leaf should be signaled once", 1, leaf.received.get());
+			Assert.assertTrue("leaves should not relay past their limit", dispatcher.isQuiescent());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -172,4 +172,25 @@ public class TestColoredDepthFirstSearchDetector
 		final CycleDetector detector = new ColoredDepthFirstSearchDetector();
 		Assert.assertTrue("cycle not detected when there should be one.", detector.hasCycle(graph));
 	}
+
+	@Test
+	public void testDeepChain()
+	{
+		// deep enough to overflow the call stack of a recursive search
+		final int nodeCount = 100000;
+		final Set<Integer> nodes = new HashSet<Integer>();
+		final Set<DirectedEdge<Integer>> edges = new HashSet<DirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+		{
+			nodes.add(node);
+			if( node > 0 )
+				edges.add(new ImmutableDirectedEdge<Integer>(node - 1, node));
+		}
+
+		final CycleDetector detector = new ColoredDepthFirstSearchDetector();
+		Assert.assertFalse("cycle detected when there should be none.", detector.hasCycle(new ImmutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>(nodes, edges)));
+
+		edges.add(new ImmutableDirectedEdge<Integer>(nodeCount - 1, 0));
+		Assert.assertTrue("cycle not detected when there should be one.", detector.hasCycle(new ImmutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>(nodes, edges)));
+	}
 }
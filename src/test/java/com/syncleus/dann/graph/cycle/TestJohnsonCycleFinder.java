@@ -0,0 +1,211 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.cycle;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestJohnsonCycleFinder
+{
+	@Test
+	public void testDirectedWithCycles()
+	{
+		final Set<String> nodes = new HashSet<String>(Arrays.asList("tippyTop", "top", "left", "right", "bottom"));
+		final Set<DirectedEdge<String>> edges = new HashSet<DirectedEdge<String>>();
+		edges.add(new ImmutableDirectedEdge<String>("bottom", "left"));
+		edges.add(new ImmutableDirectedEdge<String>("left", "right"));
+		edges.add(new ImmutableDirectedEdge<String>("right", "bottom"));
+		edges.add(new ImmutableDirectedEdge<String>("left", "top"));
+		edges.add(new ImmutableDirectedEdge<String>("top", "right"));
+		edges.add(new ImmutableDirectedEdge<String>("left", "tippyTop"));
+		edges.add(new ImmutableDirectedEdge<String>("tippyTop", "right"));
+		final Graph<String, DirectedEdge<String>> graph = new ImmutableDirectedAdjacencyGraph<String, DirectedEdge<String>>(nodes, edges);
+
+		final JohnsonCycleFinder<String, DirectedEdge<String>> finder = new JohnsonCycleFinder<String, DirectedEdge<String>>();
+		Assert.assertEquals("wrong number of cycles", 3, finder.cycleCount(graph));
+		Assert.assertEquals("wrong number of distinct cycles", 3, finder.findCycles(graph).size());
+		Assert.assertEquals("wrong girth", 3, finder.girth(graph));
+		Assert.assertEquals("wrong circumference", 4, finder.circumference(graph));
+		for(final Cycle<String, DirectedEdge<String>> cycle : finder.findCycles(graph))
+			Assert.assertTrue("cycle should be closed", cycle.isClosed());
+	}
+
+	@Test
+	public void testUndirected()
+	{
+		final Set<String> nodes = new HashSet<String>(Arrays.asList("center", "top", "left", "right"));
+		final Set<BidirectedEdge<String>> edges = new HashSet<BidirectedEdge<String>>();
+		edges.add(new ImmutableUndirectedEdge<String>("center", "top"));
+		edges.add(new ImmutableUndirectedEdge<String>("center", "left"));
+		edges.add(new ImmutableUndirectedEdge<String>("center", "right"));
+		final JohnsonCycleFinder<String, BidirectedEdge<String>> finder = new JohnsonCycleFinder<String, BidirectedEdge<String>>();
+		Assert.assertEquals("tree should have no cycles", 0, finder.cycleCount(new ImmutableAdjacencyGraph<String, BidirectedEdge<String>>(nodes, edges)));
+		Assert.assertEquals("tree should have no girth", -1, finder.girth(new ImmutableAdjacencyGraph<String, BidirectedEdge<String>>(nodes, edges)));
+
+		// a second edge between the same nodes forms a cycle of length two
+		edges.add(new ImmutableUndirectedEdge<String>("center", "right"));
+		final Graph<String, BidirectedEdge<String>> graph = new ImmutableAdjacencyGraph<String, BidirectedEdge<String>>(nodes, edges);
+		Assert.assertEquals("wrong number of cycles", 1, finder.cycleCount(graph));
+		Assert.assertEquals("wrong girth", 2, finder.girth(graph));
+		Assert.assertEquals("wrong circumference", 2, finder.circumference(graph));
+	}
+
+	@Test
+	public void testStreaming()
+	{
+		final JohnsonCycleFinder<Integer, BidirectedEdge<Integer>> finder = new JohnsonCycleFinder<Integer, BidirectedEdge<Integer>>();
+		final Graph<Integer, BidirectedEdge<Integer>> graph = createUndirected(6, complete(6));
+		final int[] visited = new int[1];
+		final boolean finished = finder.findCycles(graph, new CycleVisitor<Integer, BidirectedEdge<Integer>>()
+		{
+			@Override
+			public boolean visit(final Cycle<Integer, BidirectedEdge<Integer>> cycle)
+			{
+				visited[0]++;
+				return (visited[0] < 10);
+			}
+		});
+		Assert.assertFalse("visitor should have stopped the enumeration", finished);
+		Assert.assertEquals("wrong number of cycles visited", 10, visited[0]);
+
+		int iterated = 0;
+		final Iterator<Cycle<Integer, BidirectedEdge<Integer>>> cycles = finder.iterateCycles(graph);
+		while( cycles.hasNext() )
+		{
+			Assert.assertTrue("cycle should be closed", cycles.next().isClosed());
+			iterated++;
+		}
+		// the complete graph on six nodes has 197 cycles
+		Assert.assertEquals("wrong number of cycles iterated", 197, iterated);
+		Assert.assertTrue("complete graph should be pancyclic", finder.isPancyclic(graph));
+	}
+
+	@Test
+	public void testAgainstBacktracking()
+	{
+		final Random random = new Random(0);
+		for(int trial = 0; trial < 30; trial++)
+		{
+			final int nodeCount = 7;
+			final boolean[][] arcs = new boolean[nodeCount][nodeCount];
+			final Set<Integer> nodes = new HashSet<Integer>();
+			for(int node = 0; node < nodeCount; node++)
+				nodes.add(node);
+
+			final Set<DirectedEdge<Integer>> directedEdges = new HashSet<DirectedEdge<Integer>>();
+			final List<int[]> connections = new ArrayList<int[]>();
+			for(int source = 0; source < nodeCount; source++)
+				for(int destination = 0; destination < nodeCount; destination++)
+					if( (source != destination) && (random.nextInt(4) == 0) )
+					{
+						arcs[source][destination] = true;
+						directedEdges.add(new ImmutableDirectedEdge<Integer>(source, destination));
+						if( source < destination )
+							connections.add(new int[] {source, destination});
+					}
+
+			final int[] expected = backtrack(arcs, false);
+			final JohnsonCycleFinder<Integer, DirectedEdge<Integer>> directedFinder = new JohnsonCycleFinder<Integer, DirectedEdge<Integer>>();
+			final Graph<Integer, DirectedEdge<Integer>> directedGraph = new ImmutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>(nodes, directedEdges);
+			Assert.assertEquals("directed cycle count differs", expected[0], directedFinder.cycleCount(directedGraph));
+			Assert.assertEquals("directed girth differs", expected[1], directedFinder.girth(directedGraph));
+			Assert.assertEquals("directed circumference differs", expected[2], directedFinder.circumference(directedGraph));
+
+			final boolean[][] symmetric = new boolean[nodeCount][nodeCount];
+			for(final int[] connection : connections)
+			{
+				symmetric[connection[0]][connection[1]] = true;
+				symmetric[connection[1]][connection[0]] = true;
+			}
+			final int[] expectedUndirected = backtrack(symmetric, true);
+			final JohnsonCycleFinder<Integer, BidirectedEdge<Integer>> undirectedFinder = new JohnsonCycleFinder<Integer, BidirectedEdge<Integer>>();
+			final Graph<Integer, BidirectedEdge<Integer>> undirectedGraph = createUndirected(nodeCount, connections.toArray(new int[connections.size()][]));
+			// every undirected cycle is walked in both directions by the backtracking
+			Assert.assertEquals("undirected cycle count differs", expectedUndirected[0] / 2, undirectedFinder.cycleCount(undirectedGraph));
+			Assert.assertEquals("undirected girth differs", expectedUndirected[1], undirectedFinder.girth(undirectedGraph));
+			Assert.assertEquals("undirected circumference differs", expectedUndirected[2], undirectedFinder.circumference(undirectedGraph));
+		}
+	}
+
+	@Test
+	public void testCycles()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> graph = createUndirected(5, new int[][] {{0, 1}, {1, 2}, {2, 0}, {2, 3}, {3, 4}});
+		Assert.assertEquals("wrong cycle count", 1, Cycles.getCycleCount(graph));
+		Assert.assertTrue("graph should be unicyclic", Cycles.isUnicyclic(graph));
+		Assert.assertEquals("wrong girth", 3, Cycles.getGirth(graph));
+		Assert.assertEquals("wrong circumference", 3, Cycles.getCircumference(graph));
+	}
+
+	private static Graph<Integer, BidirectedEdge<Integer>> createUndirected(final int nodeCount, final int[][] connections)
+	{
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<BidirectedEdge<Integer>> edges = new HashSet<BidirectedEdge<Integer>>();
+		for(final int[] connection : connections)
+			edges.add(new ImmutableUndirectedEdge<Integer>(connection[0], connection[1]));
+		return new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges);
+	}
+
+	private static int[][] complete(final int nodeCount)
+	{
+		final List<int[]> connections = new ArrayList<int[]>();
+		for(int first = 0; first < nodeCount; first++)
+			for(int second = first + 1; second < nodeCount; second++)
+				connections.add(new int[] {first, second});
+		return connections.toArray(new int[connections.size()][]);
+	}
+
+	/**
+	 * Counts the simple cycles of a digraph without self loops by plain
+	 * backtracking from the lowest node of each cycle. When the arcs stand for
+	 * undirected edges walking straight back along an edge is not counted.
+	 * Returns the count, the girth and the circumference, -1 if acyclic.
+	 */
+	private static int[] backtrack(final boolean[][] arcs, final boolean symmetric)
+	{
+		final int[] results = {0, -1, -1};
+		for(int start = 0; start < arcs.length; start++)
+			backtrack(arcs, symmetric, start, start, 1, new boolean[arcs.length], results);
+		return results;
+	}
+
+	private static void backtrack(final boolean[][] arcs, final boolean symmetric, final int start, final int node, final int length, final boolean[] onPath, final int[] results)
+	{
+		onPath[node] = true;
+		for(int next = start; next < arcs.length; next++)
+		{
+			if( !arcs[node][next] )
+				continue;
+			if( next == start )
+			{
+				if( symmetric && (length < 3) )
+					continue;
+				results[0]++;
+				results[1] = (results[1] < 0 ? length : Math.min(results[1], length));
+				results[2] = Math.max(results[2], length);
+			}
+			else if( !onPath[next] )
+				backtrack(arcs, symmetric, start, next, length + 1, onPath, results);
+		}
+		onPath[node] = false;
+	}
+}
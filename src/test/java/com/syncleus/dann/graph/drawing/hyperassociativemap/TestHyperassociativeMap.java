@@ -49,6 +49,11 @@ public class TestHyperassociativeMap
 		{
 			super(brain, dimensions, executor);
 		}
+
+		public TestMap(final AbstractLocalBrain brain, final int dimensions, final boolean cache)
+		{
+			super(brain, dimensions, 1.0, true, null, cache);
+		}
 	}
 
 	@Test
@@ -84,4 +89,41 @@ public class TestHyperassociativeMap
 			executor.shutdown();
 		}
 	}
+
+	@Test
+	public void testCacheInvalidation() throws InvalidConnectionTypeDannException
+	{
+		final TestBrain testBrain = new TestBrain();
+
+		final SimpleBackpropNeuron neuron1 = new SimpleBackpropNeuron(testBrain);
+		final SimpleBackpropNeuron neuron2 = new SimpleBackpropNeuron(testBrain);
+
+		testBrain.add(neuron1);
+		testBrain.add(neuron2);
+		testBrain.connect(new SimpleSynapse<BackpropNeuron>(neuron1, neuron2), true);
+
+		Assert.assertFalse("map should not cache neighbors unless asked to", new TestMap(testBrain, 3, null).isCached());
+
+		final TestMap testMap = new TestMap(testBrain, 3, true);
+		Assert.assertTrue("map should be caching neighbors of an observable graph", testMap.isCached());
+		testMap.align();
+
+		// the cached neighbors must be discarded once the brain changes
+		final SimpleBackpropNeuron neuron3 = new SimpleBackpropNeuron(testBrain);
+		testBrain.add(neuron3);
+		testBrain.connect(new SimpleSynapse<BackpropNeuron>(neuron2, neuron3), true);
+		testMap.align();
+
+		Assert.assertTrue("neuron3 is not in the map", testMap.getCoordinates().containsKey(neuron3));
+		Assert.assertTrue("neuron3 is not associated to neuron2", testMap.getNeighbors(neuron3).containsKey(neuron2));
+
+		// a disposed map stops caching but still follows the brain
+		testMap.dispose();
+		Assert.assertFalse("disposed map should not be caching", testMap.isCached());
+		final SimpleBackpropNeuron neuron4 = new SimpleBackpropNeuron(testBrain);
+		testBrain.add(neuron4);
+		testBrain.connect(new SimpleSynapse<BackpropNeuron>(neuron3, neuron4), true);
+		testMap.align();
+		Assert.assertTrue("neuron4 is not in the map", testMap.getCoordinates().containsKey(neuron4));
+	}
 }
@@ -0,0 +1,152 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search;
+
+import java.util.*;
+import java.util.concurrent.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestBreadthFirstTraversal
+{
+	private static MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> createChain()
+	{
+		// 0 -> 1 -> 2 -> 3 with a shortcut 0 -> 2 and a lone node 4
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 5; node++)
+			graph.add(node);
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 2));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 3));
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 2));
+		return graph;
+	}
+
+	private static MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> createRandomGraph(final int nodeCount, final int edgeCount, final long seed)
+	{
+		final Random random = new Random(seed);
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+			graph.add(node);
+		for(int edge = 0; edge < edgeCount; edge++)
+			graph.add(new ImmutableDirectedEdge<Integer>(random.nextInt(nodeCount), random.nextInt(nodeCount)));
+		return graph;
+	}
+
+	@Test
+	public void testDepths()
+	{
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> outward = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(createChain(), BreadthFirstTraversal.Direction.OUTWARD);
+		final IndexedGraph<Integer, DirectedEdge<Integer>> graph = outward.getIndexedGraph();
+		final int[] depths = outward.traverse(Collections.singleton(0), null);
+		Assert.assertEquals("root should have depth 0", 0, depths[graph.getNodeIndex(0)]);
+		Assert.assertEquals("shortcut should be followed", 1, depths[graph.getNodeIndex(2)]);
+		Assert.assertEquals("wrong depth for the end of the chain", 2, depths[graph.getNodeIndex(3)]);
+		Assert.assertEquals("lone node should not be reached", BreadthFirstTraversal.UNREACHED, depths[graph.getNodeIndex(4)]);
+
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> inward = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.INWARD);
+		Assert.assertEquals("every chain node leads to the end of the chain", 4, inward.countReachable(3));
+		Assert.assertEquals("nothing leads to the start of the chain", 1, inward.countReachable(0));
+
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> adjacent = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.ADJACENT);
+		Assert.assertEquals("chain and lone node should be two components", 2, adjacent.countComponents());
+		Assert.assertFalse("lone node should not be spanning", adjacent.isSpanning(4));
+	}
+
+	@Test
+	public void testReachability()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createChain();
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> outward = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.OUTWARD);
+		Assert.assertTrue("end of the chain should be reachable", outward.isReachable(0, 3));
+		Assert.assertFalse("start of the chain should not be reachable from its end", outward.isReachable(3, 0));
+		Assert.assertFalse("a node without a cycle should not reach itself", outward.isReachable(1, 1));
+		Assert.assertFalse("unknown nodes should not be reachable", outward.isReachable(0, 42));
+
+		graph.add(new ImmutableDirectedEdge<Integer>(3, 1));
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> cyclic = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.OUTWARD);
+		Assert.assertTrue("a node on a cycle should reach itself", cyclic.isReachable(1, 1));
+
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> withoutTwo = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.OUTWARD, Collections.singleton(2), null, null);
+		Assert.assertFalse("excluded node should break the chain", withoutTwo.isReachable(0, 3));
+		Assert.assertEquals("excluded node should not be counted", 2, withoutTwo.countReachable(0));
+
+		DirectedEdge<Integer> shortcut = null;
+		for(final DirectedEdge<Integer> edge : graph.getEdges())
+			if( edge.getSourceNode().equals(0) && edge.getDestinationNode().equals(2) )
+				shortcut = edge;
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> withoutShortcut = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(graph, BreadthFirstTraversal.Direction.ADJACENT, null, Collections.singleton(shortcut), null);
+		Assert.assertEquals("excluding the shortcut should not disconnect anything", 2, withoutShortcut.countComponents());
+		final int[] depths = withoutShortcut.traverse(Collections.singleton(0), null);
+		Assert.assertEquals("excluded edge should not be followed", 2, depths[withoutShortcut.getIndexedGraph().getNodeIndex(2)]);
+	}
+
+	@Test
+	public void testVisitorStops()
+	{
+		final List<Integer> visited = new ArrayList<Integer>();
+		final BreadthFirstTraversal<Integer, DirectedEdge<Integer>> outward = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(createChain(), BreadthFirstTraversal.Direction.OUTWARD);
+		outward.traverse(Collections.singleton(0), new BreadthFirstVisitor<Integer>()
+		{
+			@Override
+			public boolean visit(final Integer node, final int depth)
+			{
+				visited.add(node);
+				return (depth < 1);
+			}
+		});
+		Assert.assertEquals("visitor should have stopped at the first node of depth 1", 2, visited.size());
+		Assert.assertEquals("root should be visited first", Integer.valueOf(0), visited.get(0));
+	}
+
+	@Test
+	public void testParallelMatchesSerial()
+	{
+		// dense enough that the middle levels are expanded bottom up
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createRandomGraph(20000, 120000, 7L);
+		final IndexedGraph<Integer, DirectedEdge<Integer>> indexedGraph = new CompressedAdjacencyGraph<Integer, DirectedEdge<Integer>>(graph);
+		final int root = 0;
+
+		final int[] serialDepths = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(indexedGraph, BreadthFirstTraversal.Direction.OUTWARD).traverse(Collections.singleton(root), null);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			for(final BreadthFirstTraversal.Direction direction : BreadthFirstTraversal.Direction.values())
+			{
+				final int[] expected = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(indexedGraph, direction).traverse(Collections.singleton(root), null);
+				final int[] parallel = new BreadthFirstTraversal<Integer, DirectedEdge<Integer>>(indexedGraph, direction, null, null, executor).traverse(Collections.singleton(root), null);
+				Assert.assertTrue("parallel depths differ from serial depths following " + direction, Arrays.equals(expected, parallel));
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		// the reached nodes must agree with a plain breadth first search
+		final int[] reached = IndexedGraphKernels.breadthFirstSearch(indexedGraph, indexedGraph.getNodeIndex(root), true);
+		int reachedCount = 0;
+		for(final int depth : serialDepths)
+			if( depth != BreadthFirstTraversal.UNREACHED )
+				reachedCount++;
+		Assert.assertEquals("wrong number of nodes reached", reached.length, reachedCount);
+		for(final int nodeIndex : reached)
+			Assert.assertTrue("node reachable by breadth first search was not reached", serialDepths[nodeIndex] != BreadthFirstTraversal.UNREACHED);
+	}
+}
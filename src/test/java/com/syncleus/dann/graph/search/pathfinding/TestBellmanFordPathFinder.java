@@ -117,4 +117,19 @@ public class TestBellmanFordPathFinder
 
 		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, EASY_GRID_SOLUTION));
 	}
+
+	@Test
+	public void testIndexedHardGrid()
+	{
+		final DirectedGrid hardGrid = new DirectedGrid(HARD_GRID);
+		final CompressedBidirectedAdjacencyGraph<GridNode, DirectedEdge<GridNode>> indexedGrid = new CompressedBidirectedAdjacencyGraph<GridNode, DirectedEdge<GridNode>>(hardGrid);
+		final BellmanFordPathFinder<GridNode, DirectedEdge<GridNode>> pathFinder = new BellmanFordPathFinder<GridNode, DirectedEdge<GridNode>>(indexedGrid);
+
+		final GridNode startNode = hardGrid.getNode(HARD_GRID_START[0], HARD_GRID_START[1]);
+		final GridNode endNode = hardGrid.getNode(HARD_GRID_END[0], HARD_GRID_END[1]);
+
+		final List<DirectedEdge<GridNode>> path = pathFinder.getBestPath(startNode, endNode);
+
+		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, HARD_GRID_SOLUTION));
+	}
 }
@@ -0,0 +1,130 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.List;
+import com.syncleus.dann.graph.BidirectedEdge;
+import com.syncleus.dann.graph.BidirectedGraph;
+import com.syncleus.dann.graph.CompressedBidirectedAdjacencyGraph;
+import com.syncleus.dann.graph.search.*;
+import org.junit.*;
+
+public class TestBidirectionalDijkstraPathFinder
+{
+	private static final double INF = Double.POSITIVE_INFINITY;
+	private static final double[][] HARD_GRID =
+			{
+					{1.0, 1.0, 1000.0, 1.0, 1.0, 1.0, 1.0, 1.0},
+					{1.0, 1.0, 1.0, 1.0, 10.0, 10.0, 1.0, 1.0},
+					{INF, INF, INF, INF, INF, 1.0, 1.0, 1.0},
+					{11.0, 1.0, 1.0, 1.0, 1.0, 10.0, 2.0, 1.0},
+					{1.0, 10.0, INF, 1.0, INF, INF, INF, INF},
+					{1.0, INF, INF, INF, INF, 1.0, 1.0, 1.0},
+					{1.0, INF, 1.0, 1.0, 1.0, 1.0, INF, 1.0},
+					{1.0, 1.0, 1.0, INF, INF, 4.0, 1.0, 1.0}
+			};
+	private static final int[] HARD_GRID_START = {1, 0};
+	private static final int[] HARD_GRID_END = {7, 7};
+	private static final int[][] HARD_GRID_SOLUTION =
+			{
+					{1, 0}, {1, 1}, {2, 1}, {3, 1}, {3, 0}, {4, 0}, {5, 0}, {6, 0}, {6, 1}, {6, 2}, {5, 2},
+					{5, 3}, {4, 3}, {3, 3}, {2, 3}, {1, 3}, {1, 4}, {0, 4}, {0, 5}, {0, 6}, {0, 7}, {1, 7},
+					{2, 7}, {2, 6}, {3, 6}, {4, 6}, {5, 6}, {5, 5}, {6, 5}, {7, 5}, {7, 6}, {7, 7}
+			};
+	private static final double[][] EASY_GRID =
+			{
+					{INF, INF, INF, 1.0, 1.0, 1.0, 1.0, INF},
+					{INF, 1.0, 1.0, 1.0, INF, INF, 1.0, INF},
+					{INF, INF, INF, INF, INF, 1.0, 1.0, INF},
+					{INF, 1.0, 1.0, 1.0, 1.0, 10.0, INF, INF},
+					{1.0, 10.0, INF, INF, INF, INF, INF, INF},
+					{1.0, INF, INF, INF, INF, 1.0, 1.0, 1.0},
+					{1.0, INF, 1.0, 1.0, 1.0, 1.0, INF, 1.0},
+					{1.0, 1.0, 1.0, INF, INF, INF, INF, 1.0}
+			};
+	private static final int[] EASY_GRID_START = {1, 0};
+	private static final int[] EASY_GRID_END = {7, 7};
+	private static final int[][] EASY_GRID_SOLUTION =
+			{
+					{1, 0}, {1, 1}, {2, 1}, {3, 1}, {3, 0}, {4, 0}, {5, 0}, {6, 0}, {6, 1}, {6, 2}, {5, 2},
+					{5, 3}, {4, 3}, {3, 3}, {2, 3}, {1, 3}, {1, 4}, {0, 4}, {0, 5}, {0, 6}, {0, 7}, {1, 7},
+					{2, 7}, {2, 6}, {3, 6}, {4, 6}, {5, 6}, {5, 5}, {6, 5}, {7, 5}, {7, 6}, {7, 7}
+			};
+
+	private static boolean checkNode(final GridNode node, final int[] coords)
+	{
+		return ((node.getX() == coords[0]) && (node.getY() == coords[1]));
+	}
+
+	private static boolean checkSolution(final GridNode start, final List<BidirectedEdge<GridNode>> path, final int[][] solution)
+	{
+		int solutionIndex = 0;
+		GridNode lastNode = start;
+		if( !checkNode(lastNode, solution[solutionIndex]) )
+			return false;
+
+		for(final BidirectedEdge<GridNode> edge : path)
+		{
+			solutionIndex++;
+
+			final GridNode currentNode = (edge.getLeftNode().equals(lastNode) ? edge.getRightNode() : edge.getLeftNode());
+			if( !checkNode(currentNode, solution[solutionIndex]) )
+				return false;
+			lastNode = currentNode;
+		}
+
+		return true;
+	}
+
+	private static void checkGrid(final double[][] weights, final int[] start, final int[] end, final int[][] solution, final boolean indexed)
+	{
+		final Grid grid = new Grid(weights);
+		final BidirectedGraph<GridNode, BidirectedEdge<GridNode>> graph;
+		if( indexed )
+			graph = new CompressedBidirectedAdjacencyGraph<GridNode, BidirectedEdge<GridNode>>(grid);
+		else
+			graph = grid;
+		final BidirectionalDijkstraPathFinder<GridNode, BidirectedEdge<GridNode>> pathFinder = new BidirectionalDijkstraPathFinder<GridNode, BidirectedEdge<GridNode>>(graph);
+
+		final GridNode startNode = grid.getNode(start[0], start[1]);
+		final GridNode endNode = grid.getNode(end[0], end[1]);
+
+		final List<BidirectedEdge<GridNode>> path = pathFinder.getBestPath(startNode, endNode);
+		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, solution));
+		Assert.assertNull("path found below the maximum cost", pathFinder.getBestPath(startNode, endNode, solution.length - 2));
+	}
+
+	@Test
+	public void testHardGrid()
+	{
+		checkGrid(HARD_GRID, HARD_GRID_START, HARD_GRID_END, HARD_GRID_SOLUTION, false);
+	}
+
+	@Test
+	public void testInfinityGrid()
+	{
+		checkGrid(EASY_GRID, EASY_GRID_START, EASY_GRID_END, EASY_GRID_SOLUTION, false);
+	}
+
+	@Test
+	public void testIndexedHardGrid()
+	{
+		checkGrid(HARD_GRID, HARD_GRID_START, HARD_GRID_END, HARD_GRID_SOLUTION, true);
+	}
+}
@@ -18,8 +18,9 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.search.pathfinding;
 
-import java.util.List;
+import java.util.*;
 import com.syncleus.dann.graph.BidirectedEdge;
+import com.syncleus.dann.graph.CompressedBidirectedAdjacencyGraph;
 import com.syncleus.dann.graph.search.*;
 import org.junit.*;
 
@@ -117,5 +118,45 @@ public class TestDijkstraPathFinder
 
 		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, EASY_GRID_SOLUTION));
 	}
-}
 
+	@Test
+	public void testIndexedHardGrid()
+	{
+		final Grid hardGrid = new Grid(HARD_GRID);
+		final CompressedBidirectedAdjacencyGraph<GridNode, BidirectedEdge<GridNode>> indexedGrid = new CompressedBidirectedAdjacencyGraph<GridNode, BidirectedEdge<GridNode>>(hardGrid);
+		final DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>> pathFinder = new DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>>(indexedGrid);
+
+		final GridNode startNode = hardGrid.getNode(HARD_GRID_START[0], HARD_GRID_START[1]);
+		final GridNode endNode = hardGrid.getNode(HARD_GRID_END[0], HARD_GRID_END[1]);
+
+		final List<BidirectedEdge<GridNode>> path = pathFinder.getBestPath(startNode, endNode);
+
+		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, HARD_GRID_SOLUTION));
+	}
+
+	@Test
+	public void testOneToMany()
+	{
+		final Grid hardGrid = new Grid(HARD_GRID);
+		final DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>> pathFinder = new DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>>(hardGrid);
+		final DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>> indexedPathFinder = new DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>>(new CompressedBidirectedAdjacencyGraph<GridNode, BidirectedEdge<GridNode>>(hardGrid));
+
+		final GridNode startNode = hardGrid.getNode(HARD_GRID_START[0], HARD_GRID_START[1]);
+		final GridNode endNode = hardGrid.getNode(HARD_GRID_END[0], HARD_GRID_END[1]);
+		final GridNode nearNode = hardGrid.getNode(1, 1);
+		final GridNode walledNode = hardGrid.getNode(0, 2);
+		final Set<GridNode> ends = new HashSet<GridNode>(Arrays.asList(endNode, nearNode, walledNode));
+
+		for(final DijkstraPathFinder<GridNode, BidirectedEdge<GridNode>> finder : Arrays.asList(pathFinder, indexedPathFinder))
+		{
+			final Map<GridNode, List<BidirectedEdge<GridNode>>> paths = finder.getBestPaths(startNode, ends);
+			Assert.assertTrue("incorrect path found!", checkSolution(startNode, paths.get(endNode), HARD_GRID_SOLUTION));
+			Assert.assertEquals("near node should be one step away", 1, paths.get(nearNode).size());
+
+			final Map<GridNode, List<BidirectedEdge<GridNode>>> nearPaths = finder.getBestPaths(startNode, ends, 5.0);
+			Assert.assertTrue("near node should be within the maximum cost", nearPaths.containsKey(nearNode));
+			Assert.assertFalse("end node should be beyond the maximum cost", nearPaths.containsKey(endNode));
+			Assert.assertNull("end node should be beyond the maximum cost", finder.getBestPath(startNode, endNode, 5.0));
+		}
+	}
+}
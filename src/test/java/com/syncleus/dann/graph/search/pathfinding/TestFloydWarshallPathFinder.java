@@ -19,6 +19,9 @@
 package com.syncleus.dann.graph.search.pathfinding;
 
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.syncleus.dann.graph.*;
 import com.syncleus.dann.graph.search.*;
 import org.junit.*;
@@ -101,6 +104,7 @@ public class TestFloydWarshallPathFinder
 
 		final List<DirectedEdge<GridNode>> path = pathFinder.getBestPath(startNode, endNode);
 
+		Assert.assertEquals("incorrect path length!", HARD_GRID_SOLUTION.length - 1, path.size());
 		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, HARD_GRID_SOLUTION));
 	}
 
@@ -117,4 +121,52 @@ public class TestFloydWarshallPathFinder
 
 		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, EASY_GRID_SOLUTION));
 	}
+
+	@Test
+	public void testParallelTiles()
+	{
+		// enough nodes to span several tiles, including a partial one
+		final int nodeCount = 150;
+		final Random random = new Random(0);
+		final MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+			graph.add(node);
+		for(int edge = 0; edge < nodeCount * 4; edge++)
+			graph.add(new ImmutableWeightedDirectedEdge<Integer>(random.nextInt(nodeCount), random.nextInt(nodeCount), 1.0 + random.nextInt(20)));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			final FloydWarshallPathFinder<Integer, WeightedDirectedEdge<Integer>> sequential = new FloydWarshallPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph);
+			final FloydWarshallPathFinder<Integer, WeightedDirectedEdge<Integer>> parallel = new FloydWarshallPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph, executor);
+			for(int begin = 0; begin < nodeCount; begin += 7)
+			{
+				final ShortestPathTree<Integer, WeightedDirectedEdge<Integer>> tree = new BellmanFordPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph).getShortestPathTree(begin);
+				for(int end = 0; end < nodeCount; end++)
+				{
+					Assert.assertEquals("sequential weight differs from bellman-ford", tree.getPathWeight(end), sequential.getPathWeight(begin, end), 0.0001);
+					Assert.assertEquals("parallel weight differs from bellman-ford", tree.getPathWeight(end), parallel.getPathWeight(begin, end), 0.0001);
+
+					final List<WeightedDirectedEdge<Integer>> path = parallel.getBestPath(begin, end);
+					Assert.assertEquals("path found to an unreachable node", tree.isReachable(end), path != null);
+					if( path == null )
+						continue;
+					double pathWeight = 0.0;
+					Integer lastNode = begin;
+					for(final WeightedDirectedEdge<Integer> edge : path)
+					{
+						Assert.assertEquals("path is not continuous", lastNode, edge.getSourceNode());
+						pathWeight += edge.getWeight();
+						lastNode = edge.getDestinationNode();
+					}
+					Assert.assertEquals("path does not end at the destination", Integer.valueOf(end), lastNode);
+					Assert.assertEquals("path weight differs from the computed weight", parallel.getPathWeight(begin, end), pathWeight, 0.0001);
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
 }
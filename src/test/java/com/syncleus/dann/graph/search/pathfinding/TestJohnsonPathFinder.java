@@ -18,7 +18,13 @@
  ******************************************************************************/
 package com.syncleus.dann.graph.search.pathfinding;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.syncleus.dann.graph.*;
 import com.syncleus.dann.graph.search.*;
 import org.junit.*;
@@ -117,4 +123,113 @@ public class TestJohnsonPathFinder
 
 		Assert.assertTrue("incorrect path found!", checkSolution(startNode, path, EASY_GRID_SOLUTION));
 	}
+
+	private static void checkAllPairWeights(final BidirectedGraph<GridNode, WeightedDirectedEdge<GridNode>> graph, final AllPairsShortestPaths<GridNode, WeightedDirectedEdge<GridNode>> allPairs)
+	{
+		final FloydWarshallPathFinder<GridNode, WeightedDirectedEdge<GridNode>> pathFinder = new FloydWarshallPathFinder<GridNode, WeightedDirectedEdge<GridNode>>(graph);
+		for(final GridNode source : graph.getNodes())
+		{
+			for(final GridNode target : graph.getNodes())
+			{
+				final double expectedWeight = pathFinder.getPathWeight(source, target);
+				Assert.assertEquals("all pairs weight differs from Floyd-Warshall", expectedWeight, allPairs.getPathWeight(source, target), 0.0001);
+				final List<WeightedDirectedEdge<GridNode>> path = allPairs.getBestPath(source, target);
+				Assert.assertEquals("all pairs reachability differs from Floyd-Warshall", !Double.isInfinite(expectedWeight), path != null);
+				if( (path != null) && !path.isEmpty() )
+				{
+					Assert.assertEquals("path does not end at the target", target, path.get(path.size() - 1).getDestinationNode());
+					double pathWeight = 0.0;
+					for(final WeightedDirectedEdge<GridNode> edge : path)
+					{
+						Assert.assertTrue("path edge is not an edge of the graph", graph.getEdges().contains(edge));
+						pathWeight += edge.getWeight() + edge.getDestinationNode().getWeight();
+					}
+					Assert.assertEquals("path weight does not match its edges", pathWeight, allPairs.getPathWeight(source, target), 0.0001);
+				}
+			}
+		}
+	}
+
+	private static void checkAllPairs(final WeightedDirectedGrid grid, final AllPairsShortestPaths<GridNode, WeightedDirectedEdge<GridNode>> allPairs)
+	{
+		final GridNode startNode = grid.getNode(HARD_GRID_START[0], HARD_GRID_START[1]);
+		final GridNode endNode = grid.getNode(HARD_GRID_END[0], HARD_GRID_END[1]);
+		Assert.assertTrue("incorrect path found!", checkSolution(startNode, allPairs.getBestPath(startNode, endNode), HARD_GRID_SOLUTION));
+		checkAllPairWeights(grid, allPairs);
+	}
+
+	@Test
+	public void testAllPairs() throws IOException
+	{
+		final WeightedDirectedGrid hardGrid = new WeightedDirectedGrid(HARD_GRID);
+		final JohnsonPathFinder<GridNode, WeightedDirectedEdge<GridNode>> pathFinder = new JohnsonPathFinder<GridNode, WeightedDirectedEdge<GridNode>>(hardGrid);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			final AllPairsShortestPaths<GridNode, WeightedDirectedEdge<GridNode>> allPairs = pathFinder.getAllPairsShortestPaths(executor);
+			checkAllPairs(hardGrid, allPairs);
+			allPairs.close();
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMappedAllPairs() throws IOException
+	{
+		final WeightedDirectedGrid hardGrid = new WeightedDirectedGrid(HARD_GRID);
+		final JohnsonPathFinder<GridNode, WeightedDirectedEdge<GridNode>> pathFinder = new JohnsonPathFinder<GridNode, WeightedDirectedEdge<GridNode>>(hardGrid);
+
+		final File storeFile = File.createTempFile("testJohnson", ".paths");
+		storeFile.deleteOnExit();
+		final AllPairsShortestPaths<GridNode, WeightedDirectedEdge<GridNode>> allPairs = pathFinder.getAllPairsShortestPaths(null, storeFile);
+		try
+		{
+			checkAllPairs(hardGrid, allPairs);
+		}
+		finally
+		{
+			allPairs.close();
+		}
+	}
+
+	@Test
+	public void testNegativeAllPairs() throws IOException
+	{
+		final GridNode[] nodes = new GridNode[5];
+		final Set<GridNode> nodeSet = new HashSet<GridNode>();
+		for(int nodeIndex = 0; nodeIndex < nodes.length; nodeIndex++)
+		{
+			nodes[nodeIndex] = new GridNode(nodeIndex, 0, 0.0);
+			nodeSet.add(nodes[nodeIndex]);
+		}
+		final Set<WeightedDirectedEdge<GridNode>> edges = new HashSet<WeightedDirectedEdge<GridNode>>();
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[0], nodes[1], 3.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[0], nodes[2], 8.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[0], nodes[4], -4.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[1], nodes[3], 1.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[1], nodes[4], 7.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[2], nodes[1], 4.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[3], nodes[0], 2.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[3], nodes[2], -5.0));
+		edges.add(new SimpleWeightedDirectedEdge<GridNode>(nodes[4], nodes[3], 6.0));
+		final MutableDirectedAdjacencyGraph<GridNode, WeightedDirectedEdge<GridNode>> graph = new MutableDirectedAdjacencyGraph<GridNode, WeightedDirectedEdge<GridNode>>(nodeSet, edges);
+
+		final AllPairsShortestPaths<GridNode, WeightedDirectedEdge<GridNode>> allPairs = new JohnsonPathFinder<GridNode, WeightedDirectedEdge<GridNode>>(graph).getAllPairsShortestPaths(null);
+		try
+		{
+			checkAllPairWeights(graph, allPairs);
+			Assert.assertEquals("incorrect negative path weight", -4.0 + 6.0 - 5.0 + 4.0, allPairs.getPathWeight(nodes[0], nodes[1]), 0.0001);
+			final ShortestPathTree<GridNode, WeightedDirectedEdge<GridNode>> tree = new BellmanFordPathFinder<GridNode, WeightedDirectedEdge<GridNode>>(graph).getShortestPathTree(nodes[0]);
+			for(final GridNode target : nodes)
+				Assert.assertEquals("all pairs weight differs from Bellman-Ford", tree.getPathWeight(target), allPairs.getShortestPathTree(nodes[0]).getPathWeight(target), 0.0001);
+		}
+		finally
+		{
+			allPairs.close();
+		}
+	}
 }
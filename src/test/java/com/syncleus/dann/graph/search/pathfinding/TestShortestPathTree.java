@@ -0,0 +1,103 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.search.pathfinding;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestShortestPathTree
+{
+	private static final int CHAIN_LENGTH = 6;
+
+	private static MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> createChain()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>>();
+		for(int node = 0; node < CHAIN_LENGTH; node++)
+			graph.add(node);
+		for(int node = 1; node < CHAIN_LENGTH; node++)
+			graph.add(new ImmutableWeightedDirectedEdge<Integer>(node - 1, node, 2.0));
+		// a shortcut which costs more than walking the chain
+		graph.add(new ImmutableWeightedDirectedEdge<Integer>(0, CHAIN_LENGTH - 1, 100.0));
+		return graph;
+	}
+
+	private static void checkChainTree(final ShortestPathTree<Integer, WeightedDirectedEdge<Integer>> tree, final double stepWeight)
+	{
+		Assert.assertEquals("wrong source", Integer.valueOf(0), tree.getSource());
+		Assert.assertTrue("empty path expected to the source", tree.getBestPath(0).isEmpty());
+		for(int node = 1; node < CHAIN_LENGTH; node++)
+		{
+			Assert.assertTrue("node should be reachable", tree.isReachable(node));
+			Assert.assertEquals("path has the wrong length", node, tree.getBestPath(node).size());
+			Assert.assertEquals("path has the wrong weight", node * stepWeight, tree.getPathWeight(node), 0.0001);
+			Assert.assertEquals("wrong parent edge", Integer.valueOf(node - 1), tree.getParentEdge(node).getSourceNode());
+		}
+	}
+
+	@Test
+	public void testDijkstraTree()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> graph = createChain();
+		// dijkstra also pays 1 for stepping on to each unweighted node
+		checkChainTree(new DijkstraPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph).getShortestPathTree(0), 3.0);
+		checkChainTree(new DijkstraPathFinder<Integer, WeightedDirectedEdge<Integer>>(new CompressedBidirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>>(graph)).getShortestPathTree(0), 3.0);
+
+		final ShortestPathTree<Integer, WeightedDirectedEdge<Integer>> reverseTree = new DijkstraPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph).getShortestPathTree(CHAIN_LENGTH - 1);
+		Assert.assertFalse("the chain can not be walked backwards", reverseTree.isReachable(0));
+		Assert.assertNull("the chain can not be walked backwards", reverseTree.getBestPath(0));
+		Assert.assertTrue("no weight for unreachable nodes", Double.isInfinite(reverseTree.getPathWeight(0)));
+	}
+
+	@Test
+	public void testBellmanFordTree()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> graph = createChain();
+		checkChainTree(new BellmanFordPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph).getShortestPathTree(0), 2.0);
+		checkChainTree(new BellmanFordPathFinder<Integer, WeightedDirectedEdge<Integer>>(new CompressedBidirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>>(graph)).getShortestPathTree(0), 2.0);
+	}
+
+	@Test
+	public void testCache()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, WeightedDirectedEdge<Integer>> graph = createChain();
+		final CachingShortestPathTreeFinder<Integer, WeightedDirectedEdge<Integer>> cache = new CachingShortestPathTreeFinder<Integer, WeightedDirectedEdge<Integer>>(new DijkstraPathFinder<Integer, WeightedDirectedEdge<Integer>>(graph), 2, graph);
+
+		final ShortestPathTree<Integer, WeightedDirectedEdge<Integer>> firstTree = cache.getShortestPathTree(0);
+		Assert.assertSame("tree was not cached", firstTree, cache.getShortestPathTree(0));
+		Assert.assertEquals("wrong path from cached tree", CHAIN_LENGTH - 1, cache.getBestPath(0, CHAIN_LENGTH - 1).size());
+
+		// filling the cache evicts the least recently used tree
+		cache.getShortestPathTree(1);
+		cache.getShortestPathTree(0);
+		cache.getShortestPathTree(2);
+		Assert.assertSame("recently used tree was evicted", firstTree, cache.getShortestPathTree(0));
+
+		// changing the graph discards the cached trees
+		graph.add(new ImmutableWeightedDirectedEdge<Integer>(0, CHAIN_LENGTH - 1, 0.0));
+		Assert.assertNotSame("tree was not invalidated", firstTree, cache.getShortestPathTree(0));
+		Assert.assertEquals("new edge was not used", 1, cache.getBestPath(0, CHAIN_LENGTH - 1).size());
+
+		// a disposed cache is no longer invalidated by the graph
+		cache.dispose();
+		final ShortestPathTree<Integer, WeightedDirectedEdge<Integer>> disposedTree = cache.getShortestPathTree(0);
+		graph.add(new ImmutableWeightedDirectedEdge<Integer>(1, CHAIN_LENGTH - 1, 0.0));
+		Assert.assertSame("disposed cache was invalidated by the graph", disposedTree, cache.getShortestPathTree(0));
+	}
+}
@@ -0,0 +1,202 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestFlowConnectivity
+{
+	private static Graph<Integer, BidirectedEdge<Integer>> createUndirected(final int nodeCount, final int[][] connections)
+	{
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<BidirectedEdge<Integer>> edges = new HashSet<BidirectedEdge<Integer>>();
+		for(final int[] connection : connections)
+			edges.add(new ImmutableUndirectedEdge<Integer>(connection[0], connection[1]));
+		return new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges);
+	}
+
+	private static int[][] complete(final int nodeCount)
+	{
+		final List<int[]> connections = new ArrayList<int[]>();
+		for(int first = 0; first < nodeCount; first++)
+			for(int second = first + 1; second < nodeCount; second++)
+				connections.add(new int[] {first, second});
+		return connections.toArray(new int[connections.size()][]);
+	}
+
+	@Test
+	public void testCycle()
+	{
+		final FlowConnectivity<Integer, BidirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, BidirectedEdge<Integer>>(createUndirected(6, new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}, {5, 0}}));
+		Assert.assertEquals("wrong edge connectivity", 2, connectivity.getEdgeConnectivity());
+		Assert.assertEquals("wrong node connectivity", 2, connectivity.getNodeConnectivity());
+		Assert.assertEquals("wrong s-t node connectivity", 2, connectivity.getNodeConnectivity(0, 3));
+		Assert.assertEquals("wrong s-t edge connectivity", 2, connectivity.getEdgeConnectivity(0, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSameNodeEdgeCut()
+	{
+		new FlowConnectivity<Integer, BidirectedEdge<Integer>>(createUndirected(3, complete(3))).getMinimumEdgeCut(1, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSameNodeNodeCut()
+	{
+		new FlowConnectivity<Integer, BidirectedEdge<Integer>>(createUndirected(3, new int[][] {{0, 1}})).getNodeConnectivity(2, 2);
+	}
+
+	@Test
+	public void testBridge()
+	{
+		// two complete graphs of four nodes joined by a single edge
+		final int[][] connections =
+				{
+						{0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3},
+						{4, 5}, {4, 6}, {4, 7}, {5, 6}, {5, 7}, {6, 7},
+						{3, 4}
+				};
+		final Graph<Integer, BidirectedEdge<Integer>> graph = createUndirected(8, connections);
+		final FlowConnectivity<Integer, BidirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, BidirectedEdge<Integer>>(graph);
+
+		final Set<BidirectedEdge<Integer>> edgeCut = connectivity.getMinimumEdgeCut();
+		Assert.assertEquals("bridge should be the only cut edge", 1, edgeCut.size());
+		final BidirectedEdge<Integer> bridge = edgeCut.iterator().next();
+		Assert.assertTrue("wrong cut edge", bridge.getNodes().contains(3) && bridge.getNodes().contains(4));
+
+		final Set<Integer> nodeCut = connectivity.getMinimumNodeCut();
+		Assert.assertEquals("an end of the bridge should be the only cut node", 1, nodeCut.size());
+		Assert.assertTrue("wrong cut node", nodeCut.contains(3) || nodeCut.contains(4));
+
+		Assert.assertEquals("topography should agree on edge connectivity", 1, Topography.getEdgeConnectivity(graph));
+		Assert.assertEquals("topography should agree on node connectivity", 1, Topography.getNodeConnectivity(graph));
+		Assert.assertEquals("wrong s-t edge connectivity within a side", 3, Topography.getEdgeConnectivity(graph, 0, 1));
+	}
+
+	@Test
+	public void testComplete()
+	{
+		final FlowConnectivity<Integer, BidirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, BidirectedEdge<Integer>>(createUndirected(5, complete(5)));
+		Assert.assertEquals("wrong edge connectivity", 4, connectivity.getEdgeConnectivity());
+		Assert.assertEquals("wrong node connectivity", 4, connectivity.getNodeConnectivity());
+	}
+
+	@Test
+	public void testDisconnected()
+	{
+		final FlowConnectivity<Integer, BidirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, BidirectedEdge<Integer>>(createUndirected(4, new int[][] {{0, 1}, {2, 3}}));
+		Assert.assertEquals("wrong edge connectivity", 0, connectivity.getEdgeConnectivity());
+		Assert.assertEquals("wrong node connectivity", 0, connectivity.getNodeConnectivity());
+		Assert.assertTrue("no cut is needed", connectivity.getMinimumEdgeCut().isEmpty());
+	}
+
+	@Test
+	public void testDirected()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 5; node++)
+			graph.add(node);
+		// 0 reaches 4 through 1 and through 2, 3 only feeds into 1
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 2));
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 3));
+		graph.add(new ImmutableDirectedEdge<Integer>(3, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 4));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 4));
+
+		final FlowConnectivity<Integer, DirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, DirectedEdge<Integer>>(graph);
+		Assert.assertEquals("wrong s-t edge connectivity", 2, connectivity.getEdgeConnectivity(0, 4));
+		Assert.assertEquals("wrong s-t node cut", new HashSet<Integer>(Arrays.asList(1, 2)), connectivity.getMinimumNodeCut(0, 4));
+		Assert.assertEquals("edges can not be traversed backwards", 0, connectivity.getEdgeConnectivity(4, 0));
+	}
+
+	@Test
+	public void testAgainstEnumeration()
+	{
+		final Random random = new Random(0);
+		for(int trial = 0; trial < 20; trial++)
+		{
+			final int nodeCount = 7;
+			final List<int[]> connections = new ArrayList<int[]>();
+			for(final int[] connection : complete(nodeCount))
+				if( random.nextInt(3) > 0 )
+					connections.add(connection);
+			final Graph<Integer, BidirectedEdge<Integer>> graph = createUndirected(nodeCount, connections.toArray(new int[connections.size()][]));
+			final FlowConnectivity<Integer, BidirectedEdge<Integer>> connectivity = new FlowConnectivity<Integer, BidirectedEdge<Integer>>(graph);
+
+			Assert.assertEquals("edge connectivity differs from enumeration", enumerateEdgeConnectivity(nodeCount, connections), connectivity.getEdgeConnectivity());
+			Assert.assertEquals("node connectivity differs from enumeration", enumerateNodeConnectivity(nodeCount, connections), connectivity.getNodeConnectivity());
+		}
+	}
+
+	private static int enumerateEdgeConnectivity(final int nodeCount, final List<int[]> connections)
+	{
+		int best = connections.size();
+		for(int removed = 0; removed < (1 << connections.size()); removed++)
+			if( (Integer.bitCount(removed) < best) && !isConnected(nodeCount, 0, connections, removed) )
+				best = Integer.bitCount(removed);
+		return best;
+	}
+
+	private static int enumerateNodeConnectivity(final int nodeCount, final List<int[]> connections)
+	{
+		int best = nodeCount - 1;
+		for(int removed = 0; removed < (1 << nodeCount); removed++)
+			if( (Integer.bitCount(removed) < best) && !isConnected(nodeCount, removed, connections, 0) )
+				best = Integer.bitCount(removed);
+		return best;
+	}
+
+	private static boolean isConnected(final int nodeCount, final int removedNodes, final List<int[]> connections, final int removedConnections)
+	{
+		final int[] parents = new int[nodeCount];
+		for(int node = 0; node < nodeCount; node++)
+			parents[node] = node;
+		for(int index = 0; index < connections.size(); index++)
+		{
+			final int[] connection = connections.get(index);
+			if( ((removedConnections >> index) & 1) == 1 || ((removedNodes >> connection[0]) & 1) == 1 || ((removedNodes >> connection[1]) & 1) == 1 )
+				continue;
+			parents[find(parents, connection[0])] = find(parents, connection[1]);
+		}
+		int root = -1;
+		for(int node = 0; node < nodeCount; node++)
+		{
+			if( ((removedNodes >> node) & 1) == 1 )
+				continue;
+			if( root < 0 )
+				root = find(parents, node);
+			else if( find(parents, node) != root )
+				return false;
+		}
+		return true;
+	}
+
+	private static int find(final int[] parents, final int node)
+	{
+		int current = node;
+		while( parents[current] != current )
+			current = parents[current];
+		return current;
+	}
+}
@@ -0,0 +1,133 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestIncrementalConnectivityGraph
+{
+	@Test
+	public void testMutations()
+	{
+		final IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>> graph = new IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>>(new MutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>());
+		for(int node = 0; node < 4; node++)
+			graph.add(node);
+		Assert.assertEquals("every node should start alone", 4, graph.getComponentCount());
+
+		final BidirectedEdge<Integer> bridge = new ImmutableUndirectedEdge<Integer>(1, 2);
+		graph.add(new ImmutableUndirectedEdge<Integer>(0, 1));
+		graph.add(bridge);
+		graph.add(new ImmutableUndirectedEdge<Integer>(2, 3));
+		Assert.assertTrue("graph should be connected", graph.isWeaklyConnected());
+		Assert.assertTrue("topography should use the index", Topography.isWeaklyConnected(graph));
+
+		graph.remove(bridge);
+		Assert.assertFalse("removing the bridge should split the graph", graph.isWeaklyConnected(0, 3));
+		Assert.assertEquals("wrong component", new HashSet<Integer>(Arrays.asList(2, 3)), graph.getComponentNodes(3));
+		Assert.assertEquals("wrong component count", 2, Topography.getMaximallyConnectedComponents(graph).size());
+
+		graph.add(4);
+		graph.add(new ImmutableUndirectedEdge<Integer>(3, 4));
+		graph.remove(Integer.valueOf(1));
+		Assert.assertEquals("wrong component count after removing a node", 2, graph.getComponentCount());
+		Assert.assertTrue("nodes 2 and 4 should be connected", graph.isWeaklyConnected(2, 4));
+	}
+
+	@Test
+	public void testDirectChanges()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> wrapped = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		final IncrementalConnectivityGraph<Integer, DirectedEdge<Integer>> graph = new IncrementalConnectivityGraph<Integer, DirectedEdge<Integer>>(wrapped);
+		wrapped.add(0);
+		wrapped.add(1);
+		Assert.assertFalse("nodes should not be connected yet", graph.isWeaklyConnected(0, 1));
+
+		// changes to an observable graph reach the index directly
+		final DirectedEdge<Integer> edge = new ImmutableDirectedEdge<Integer>(1, 0);
+		wrapped.add(edge);
+		Assert.assertTrue("edge direction should not matter", graph.isWeaklyConnected(0, 1));
+		wrapped.remove(edge);
+		Assert.assertFalse("removed edge should be forgotten", graph.isWeaklyConnected(0, 1));
+
+		// once disposed only changes made through the index are followed
+		graph.dispose();
+		Assert.assertEquals("disposed index should still be usable", 2, graph.getComponentCount());
+		wrapped.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		Assert.assertFalse("disposed index should not follow the wrapped graph", graph.isWeaklyConnected(0, 1));
+		graph.add(2);
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 2));
+		Assert.assertTrue("disposed index should follow its own changes", graph.isWeaklyConnected(1, 2));
+	}
+
+	@Test
+	public void testMaximalSubgraph()
+	{
+		final IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>> graph = new IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>>(new MutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>());
+		for(int node = 0; node < 5; node++)
+			graph.add(node);
+		final BidirectedEdge<Integer> first = new ImmutableUndirectedEdge<Integer>(0, 1);
+		final BidirectedEdge<Integer> second = new ImmutableUndirectedEdge<Integer>(1, 2);
+		graph.add(first);
+		graph.add(second);
+		graph.add(new ImmutableUndirectedEdge<Integer>(3, 4));
+
+		final Set<Integer> nodes = new HashSet<Integer>(Arrays.asList(0, 1, 2));
+		final Set<BidirectedEdge<Integer>> edges = new HashSet<BidirectedEdge<Integer>>(Arrays.asList(first, second));
+		Assert.assertTrue("whole component should be maximal", graph.isMaximalSubgraph(new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges)));
+
+		edges.remove(second);
+		Assert.assertFalse("component missing an edge should not be maximal", graph.isMaximalSubgraph(new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges)));
+
+		nodes.remove(2);
+		Assert.assertFalse("partial component should not be maximal", graph.isMaximalSubgraph(new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges)));
+
+		for(final Graph<Integer, BidirectedEdge<Integer>> component : graph.getMaximallyConnectedComponents())
+			Assert.assertTrue("components should be maximal", Topography.isMaximalSubgraph(graph, component));
+	}
+
+	@Test
+	public void testAgainstLabeling()
+	{
+		final Random random = new Random(0);
+		final MutableAdjacencyGraph<Integer, BidirectedEdge<Integer>> wrapped = new MutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>();
+		final IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>> graph = new IncrementalConnectivityGraph<Integer, BidirectedEdge<Integer>>(wrapped);
+		final List<BidirectedEdge<Integer>> edges = new ArrayList<BidirectedEdge<Integer>>();
+		for(int node = 0; node < 50; node++)
+			graph.add(node);
+		for(int step = 0; step < 300; step++)
+		{
+			if( edges.isEmpty() || random.nextInt(3) > 0 )
+			{
+				final BidirectedEdge<Integer> edge = new ImmutableUndirectedEdge<Integer>(random.nextInt(50), random.nextInt(50));
+				if( graph.add(edge) )
+					edges.add(edge);
+			}
+			else
+				graph.remove(edges.remove(random.nextInt(edges.size())));
+
+			final ConnectedComponents<Integer, BidirectedEdge<Integer>> expected = Topography.getWeaklyConnectedComponents(wrapped);
+			Assert.assertEquals("component count differs from labeling", expected.getComponentCount(), graph.getComponentCount());
+			final int first = random.nextInt(50);
+			final int second = random.nextInt(50);
+			Assert.assertEquals("connectivity differs from labeling", expected.isSameComponent(first, second), graph.isWeaklyConnected(first, second));
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestSubgraphMatcher
+{
+	private static Graph<Integer, BidirectedEdge<Integer>> undirected(final int nodeCount, final int[][] pairs)
+	{
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<BidirectedEdge<Integer>> edges = new HashSet<BidirectedEdge<Integer>>();
+		for(final int[] pair : pairs)
+			edges.add(new ImmutableUndirectedEdge<Integer>(pair[0], pair[1]));
+		return new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges);
+	}
+
+	private static Graph<Integer, BidirectedEdge<Integer>> directed(final int nodeCount, final int[][] pairs)
+	{
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<BidirectedEdge<Integer>> edges = new HashSet<BidirectedEdge<Integer>>();
+		for(final int[] pair : pairs)
+			edges.add(new ImmutableDirectedEdge<Integer>(pair[0], pair[1]));
+		return new ImmutableAdjacencyGraph<Integer, BidirectedEdge<Integer>>(nodes, edges);
+	}
+
+	private static Graph<Integer, BidirectedEdge<Integer>> complete(final int nodeCount)
+	{
+		final List<int[]> pairs = new ArrayList<int[]>();
+		for(int left = 0; left < nodeCount; left++)
+			for(int right = left + 1; right < nodeCount; right++)
+				pairs.add(new int[] {left, right});
+		return undirected(nodeCount, pairs.toArray(new int[pairs.size()][]));
+	}
+
+	@Test
+	public void testTriangles()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> triangle = undirected(3, new int[][] {{0, 1}, {1, 2}, {2, 0}});
+		final Graph<Integer, BidirectedEdge<Integer>> path = undirected(3, new int[][] {{0, 1}, {1, 2}});
+		final Graph<Integer, BidirectedEdge<Integer>> completeGraph = complete(4);
+
+		// 4 triangles in K4, each matched 6 ways
+		Assert.assertEquals("wrong triangle count", 24L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(triangle, completeGraph, false).countMatches());
+		Assert.assertEquals("wrong induced triangle count", 24L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(triangle, completeGraph, true).countMatches());
+		Assert.assertEquals("wrong path count", 24L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(path, completeGraph, false).countMatches());
+		Assert.assertEquals("paths in K4 are never induced", 0L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(path, completeGraph, true).countMatches());
+		Assert.assertNull("triangle should not be found in a path", new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(triangle, path, false).findMatch());
+
+		final Map<Integer, Integer> match = new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(path, undirected(5, new int[][] {{3, 4}, {4, 1}}), true).findMatch();
+		Assert.assertNotNull("path should be found", match);
+		Assert.assertEquals("middle of the path should match node 4", Integer.valueOf(4), match.get(1));
+	}
+
+	@Test
+	public void testDirected()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> cycle = directed(3, new int[][] {{0, 1}, {1, 2}, {2, 0}});
+		final Graph<Integer, BidirectedEdge<Integer>> target = directed(5, new int[][] {{0, 1}, {1, 2}, {2, 0}, {2, 3}, {3, 4}, {4, 2}, {0, 3}});
+
+		Assert.assertEquals("wrong directed cycle count", 6L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(cycle, target, false).countMatches());
+		Assert.assertEquals("reversed edges should not match", 0L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(cycle, directed(3, new int[][] {{0, 1}, {1, 2}, {0, 2}}), false).countMatches());
+	}
+
+	@Test
+	public void testPredicate()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> edge = undirected(2, new int[][] {{0, 1}});
+		final Graph<Integer, BidirectedEdge<Integer>> target = undirected(4, new int[][] {{0, 1}, {1, 2}, {2, 3}});
+		final MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>> parity = new MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>()
+		{
+			@Override
+			public boolean isNodeMatch(final Integer patternNode, final Integer node)
+			{
+				return (patternNode % 2) == (node % 2);
+			}
+
+			@Override
+			public boolean isEdgeMatch(final BidirectedEdge<Integer> patternEdge, final BidirectedEdge<Integer> edge)
+			{
+				return !edge.getNodes().contains(3);
+			}
+		};
+
+		final List<Map<Integer, Integer>> matches = new ArrayList<Map<Integer, Integer>>();
+		final boolean completed = new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(edge, target, false, parity, null).findMatches(new MatchVisitor<Integer, Integer>()
+		{
+			@Override
+			public boolean visit(final Map<Integer, Integer> match)
+			{
+				matches.add(match);
+				return true;
+			}
+		});
+		Assert.assertTrue("search should not have been stopped", completed);
+		Assert.assertEquals("wrong number of labeled matches", 2, matches.size());
+		for(final Map<Integer, Integer> match : matches)
+			Assert.assertEquals("node 0 should match an even node", 0, match.get(0) % 2);
+	}
+
+	@Test
+	public void testParallelEdgePredicate()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> doubled = undirected(2, new int[][] {{0, 1}, {0, 1}});
+		final Graph<Integer, BidirectedEdge<Integer>> target = undirected(2, new int[][] {{0, 1}, {0, 1}});
+		final BidirectedEdge<Integer> onlyEdge = target.getEdges().iterator().next();
+		final MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>> single = new MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>()
+		{
+			@Override
+			public boolean isNodeMatch(final Integer patternNode, final Integer node)
+			{
+				return true;
+			}
+
+			@Override
+			public boolean isEdgeMatch(final BidirectedEdge<Integer> patternEdge, final BidirectedEdge<Integer> edge)
+			{
+				return edge == onlyEdge;
+			}
+		};
+		final MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>> any = new MatchPredicate<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>()
+		{
+			@Override
+			public boolean isNodeMatch(final Integer patternNode, final Integer node)
+			{
+				return true;
+			}
+
+			@Override
+			public boolean isEdgeMatch(final BidirectedEdge<Integer> patternEdge, final BidirectedEdge<Integer> edge)
+			{
+				return true;
+			}
+		};
+
+		// both pattern edges can not share the one compatible target edge
+		Assert.assertFalse("parallel pattern edges matched the same target edge", new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(doubled, target, false, single, null).hasMatch());
+		Assert.assertEquals("wrong number of parallel matches", 2L, new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(doubled, target, false, any, null).countMatches());
+	}
+
+	@Test
+	public void testParallel()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> square = undirected(4, new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 0}});
+		final Graph<Integer, BidirectedEdge<Integer>> target = complete(7);
+		final long sequential = new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(square, target, false).countMatches();
+		Assert.assertEquals("wrong square count", 7L * 6L * 5L * 4L, sequential);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try
+		{
+			final SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>> matcher = new SubgraphMatcher<Integer, BidirectedEdge<Integer>, Integer, BidirectedEdge<Integer>>(square, target, false, null, executor);
+			Assert.assertEquals("parallel count should match sequential count", sequential, matcher.countMatches());
+
+			final Set<Map<Integer, Integer>> matches = new HashSet<Map<Integer, Integer>>();
+			matcher.findMatches(new MatchVisitor<Integer, Integer>()
+			{
+				@Override
+				public boolean visit(final Map<Integer, Integer> match)
+				{
+					matches.add(match);
+					return true;
+				}
+			});
+			Assert.assertEquals("parallel matches should all be distinct", sequential, matches.size());
+			Assert.assertTrue("parallel search should find a match", matcher.hasMatch());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testTopography()
+	{
+		final Graph<Integer, BidirectedEdge<Integer>> cycle = undirected(5, new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 0}});
+		final Graph<Integer, BidirectedEdge<Integer>> relabeled = undirected(5, new int[][] {{0, 2}, {2, 4}, {4, 1}, {1, 3}, {3, 0}});
+		final Graph<Integer, BidirectedEdge<Integer>> star = undirected(5, new int[][] {{0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 2}});
+
+		Assert.assertTrue("relabeled cycle should be isomorphic", Topography.isStructurallyIsomorphic(cycle, relabeled));
+		Assert.assertFalse("graphs with different degrees should not be isomorphic", Topography.isStructurallyIsomorphic(cycle, star));
+		Assert.assertTrue("K5 should contain the cycle", Topography.isSubgraphIsomorphic(complete(5), cycle));
+		Assert.assertFalse("the cycle should not contain a triangle", Topography.isSubgraphIsomorphic(cycle, complete(3)));
+	}
+}
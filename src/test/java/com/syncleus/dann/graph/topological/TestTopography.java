@@ -0,0 +1,128 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological;
+
+import java.util.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestTopography
+{
+	private static MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> createGraph()
+	{
+		// two cycles joined by a one way edge, and a lone node
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		for(int node = 0; node < 6; node++)
+			graph.add(node);
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 2));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 0));
+		graph.add(new ImmutableDirectedEdge<Integer>(2, 3));
+		graph.add(new ImmutableDirectedEdge<Integer>(3, 4));
+		graph.add(new ImmutableDirectedEdge<Integer>(4, 3));
+		return graph;
+	}
+
+	@Test
+	public void testStronglyConnectedComponents()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createGraph();
+		final ConnectedComponents<Integer, DirectedEdge<Integer>> components = Topography.getStronglyConnectedComponents(graph);
+
+		Assert.assertEquals("wrong number of strong components", 3, components.getComponentCount());
+		Assert.assertTrue("cycle members should share a component", components.isSameComponent(0, 2));
+		Assert.assertTrue("cycle members should share a component", components.isSameComponent(3, 4));
+		Assert.assertFalse("one way edge should not join components", components.isSameComponent(2, 3));
+		Assert.assertEquals("unknown nodes have no component", -1, components.getComponentId(42));
+		Assert.assertFalse("graph should not be strongly connected", Topography.isStronglyConnected(graph));
+
+		Assert.assertTrue("node 4 should be reachable from node 0", Topography.isStronglyConnected(graph, 0, 4));
+		Assert.assertFalse("node 0 should not be reachable from node 4", Topography.isStronglyConnected(graph, 4, 0));
+
+		graph.add(new ImmutableDirectedEdge<Integer>(4, 5));
+		graph.add(new ImmutableDirectedEdge<Integer>(5, 0));
+		Assert.assertTrue("graph should now be strongly connected", Topography.isStronglyConnected(graph));
+	}
+
+	@Test
+	public void testWeaklyConnectedComponents()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createGraph();
+		final ConnectedComponents<Integer, DirectedEdge<Integer>> components = Topography.getWeaklyConnectedComponents(graph);
+
+		Assert.assertEquals("wrong number of weak components", 2, components.getComponentCount());
+		Assert.assertTrue("one way edge should join weak components", components.isSameComponent(0, 4));
+		Assert.assertFalse("lone node should be its own component", components.isSameComponent(0, 5));
+		Assert.assertFalse("graph should not be weakly connected", Topography.isWeaklyConnected(graph));
+		Assert.assertTrue("node 0 should be weakly connected to node 4", Topography.isWeaklyConnected(graph, 4, 0));
+		Assert.assertFalse("node 0 should not be weakly connected to node 5", Topography.isWeaklyConnected(graph, 0, 5));
+	}
+
+	@Test
+	public void testMaximallyConnectedComponents()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createGraph();
+		final Set<Graph<Integer, DirectedEdge<Integer>>> components = Topography.getMaximallyConnectedComponents(graph);
+
+		Assert.assertEquals("wrong number of maximally connected components", 2, components.size());
+		int nodeCount = 0;
+		int edgeCount = 0;
+		for(final Graph<Integer, DirectedEdge<Integer>> component : components)
+		{
+			Assert.assertTrue("component should be weakly connected", Topography.isWeaklyConnected(component));
+			Assert.assertTrue("component should be maximal", Topography.isMaximalSubgraph(graph, component));
+			nodeCount += component.getNodes().size();
+			edgeCount += component.getEdges().size();
+		}
+		Assert.assertEquals("components should hold every node", graph.getNodes().size(), nodeCount);
+		Assert.assertEquals("components should hold every edge", graph.getEdges().size(), edgeCount);
+	}
+
+	@Test
+	public void testCuts()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = createGraph();
+		DirectedEdge<Integer> bridge = null;
+		DirectedEdge<Integer> backEdge = null;
+		for(final DirectedEdge<Integer> edge : graph.getEdges())
+		{
+			if( edge.getSourceNode().equals(2) && edge.getDestinationNode().equals(3) )
+				bridge = edge;
+			else if( edge.getSourceNode().equals(2) && edge.getDestinationNode().equals(0) )
+				backEdge = edge;
+		}
+
+		Assert.assertTrue("node joining the cycles should be a cut node", Topography.isCut(graph, 2));
+		Assert.assertFalse("node on a cycle should not be a cut node", Topography.isCut(graph, 0));
+		Assert.assertTrue("one way edge joining the cycles should be a cut edge", Topography.isCut(graph, bridge));
+		Assert.assertFalse("edge on a cycle should not be a cut edge", Topography.isCut(graph, backEdge));
+
+		Assert.assertTrue("node 1 should separate node 0 from node 4", Topography.isCut(graph, 1, 0, 4));
+		Assert.assertFalse("back edge should not separate node 0 from node 4", Topography.isCut(graph, backEdge, 0, 4));
+		try
+		{
+			Topography.isCut(graph, 1, 4, 0);
+			Assert.fail("nodes without a path between them should be rejected");
+		}
+		catch(IllegalArgumentException caught)
+		{
+			// expected
+		}
+	}
+}
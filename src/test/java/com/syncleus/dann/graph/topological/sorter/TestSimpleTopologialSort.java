@@ -57,4 +57,39 @@ public class TestSimpleTopologialSort
 		Assert.assertTrue("center node is not the first node!", sortedNodes.get(0) == centerNode);
 		Assert.assertTrue("left node is not before leftiest node!", sortedNodes.indexOf(leftNode) < sortedNodes.indexOf(leftiestNode));
 	}
+
+	@Test
+	public void testIndexedTopologicalSort()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		final Object centerNode = "centerNode";
+		nodes.add(centerNode);
+		final Object topNode = "topNode";
+		nodes.add(topNode);
+		final Object leftNode = "leftNode";
+		nodes.add(leftNode);
+		final Object leftiestNode = "leftiestNode";
+		nodes.add(leftiestNode);
+		final Object rightNode = "rightNode";
+		nodes.add(rightNode);
+
+		final Set<DirectedEdge<Object>> edges = new HashSet<DirectedEdge<Object>>();
+		edges.add(new ImmutableDirectedEdge<Object>(centerNode, topNode));
+		edges.add(new ImmutableDirectedEdge<Object>(centerNode, leftNode));
+		edges.add(new ImmutableDirectedEdge<Object>(leftNode, leftiestNode));
+		edges.add(new ImmutableDirectedEdge<Object>(centerNode, rightNode));
+
+		final BidirectedGraph<Object, DirectedEdge<Object>> graph = new CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>>(new ImmutableDirectedAdjacencyGraph<Object, DirectedEdge<Object>>(nodes, edges));
+
+		final TopologicalRanker<Object> ranker = new SimpleTopologicalRanker<Object>();
+		final List<Set<Object>> rankedNodes = ranker.rank(graph);
+
+		Assert.assertEquals("wrong number of levels", 3, rankedNodes.size());
+		Assert.assertEquals("center node is not alone in the first level", Collections.singleton(centerNode), rankedNodes.get(0));
+		Assert.assertTrue("leftiest node is not in the last level", rankedNodes.get(2).contains(leftiestNode));
+
+		edges.add(new ImmutableDirectedEdge<Object>(leftiestNode, centerNode));
+		final BidirectedGraph<Object, DirectedEdge<Object>> cyclicGraph = new CompressedBidirectedAdjacencyGraph<Object, DirectedEdge<Object>>(new ImmutableDirectedAdjacencyGraph<Object, DirectedEdge<Object>>(nodes, edges));
+		Assert.assertNull("cyclic graph should not be ranked", ranker.rank(cyclicGraph));
+	}
 }
@@ -0,0 +1,139 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.topological.sorter;
+
+import java.util.*;
+import java.util.concurrent.*;
+import com.syncleus.dann.graph.*;
+import org.junit.*;
+
+public class TestTopologicalExecutor
+{
+	private static BidirectedGraph<Integer, DirectedEdge<Integer>> createLayered(final int layers, final int width)
+	{
+		// every node depends on every node of the layer before it
+		final Set<Integer> nodes = new HashSet<Integer>();
+		final Set<DirectedEdge<Integer>> edges = new HashSet<DirectedEdge<Integer>>();
+		for(int layer = 0; layer < layers; layer++)
+			for(int position = 0; position < width; position++)
+			{
+				final int node = layer * width + position;
+				nodes.add(node);
+				if( layer > 0 )
+					for(int previous = 0; previous < width; previous++)
+						edges.add(new ImmutableDirectedEdge<Integer>((layer - 1) * width + previous, node));
+			}
+		return new ImmutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>(nodes, edges);
+	}
+
+	private static void assertOrdered(final BidirectedGraph<Integer, DirectedEdge<Integer>> graph, final List<Integer> order)
+	{
+		Assert.assertEquals("every node should run once", graph.getNodes().size(), order.size());
+		Assert.assertEquals("no node should run twice", graph.getNodes().size(), new HashSet<Integer>(order).size());
+		for(final DirectedEdge<Integer> edge : graph.getEdges())
+			Assert.assertTrue("dependency ran after its dependent", order.indexOf(edge.getSourceNode()) < order.indexOf(edge.getDestinationNode()));
+	}
+
+	@Test
+	public void testSequential()
+	{
+		final BidirectedGraph<Integer, DirectedEdge<Integer>> graph = createLayered(4, 3);
+		final List<Integer> order = new ArrayList<Integer>();
+		new TopologicalExecutor<Integer>().execute(graph, new TopologicalTask<Integer>()
+		{
+			@Override
+			public void execute(final Integer node)
+			{
+				order.add(node);
+			}
+		});
+		assertOrdered(graph, order);
+	}
+
+	@Test
+	public void testParallel()
+	{
+		final BidirectedGraph<Integer, DirectedEdge<Integer>> graph = createLayered(6, 8);
+		final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			new TopologicalExecutor<Integer>(executor).execute(graph, new TopologicalTask<Integer>()
+			{
+				@Override
+				public void execute(final Integer node)
+				{
+					order.add(node);
+				}
+			});
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		assertOrdered(graph, order);
+	}
+
+	@Test
+	public void testFailure()
+	{
+		final BidirectedGraph<Integer, DirectedEdge<Integer>> graph = createLayered(3, 2);
+		final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			new TopologicalExecutor<Integer>(executor).execute(graph, new TopologicalTask<Integer>()
+			{
+				@Override
+				public void execute(final Integer node)
+				{
+					if( node == 0 )
+						throw new IllegalStateException("failed");
+					order.add(node);
+				}
+			});
+			Assert.fail("failure of a task should have been rethrown");
+		}
+		catch(IllegalStateException caught)
+		{
+			Assert.assertFalse("dependents of a failed task should not run", order.contains(2));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCycle()
+	{
+		final MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>> graph = new MutableDirectedAdjacencyGraph<Integer, DirectedEdge<Integer>>();
+		graph.add(0);
+		graph.add(1);
+		graph.add(new ImmutableDirectedEdge<Integer>(0, 1));
+		graph.add(new ImmutableDirectedEdge<Integer>(1, 0));
+		new TopologicalExecutor<Integer>().execute(graph, new TopologicalTask<Integer>()
+		{
+			@Override
+			public void execute(final Integer node)
+			{
+			}
+		});
+	}
+}
@@ -0,0 +1,104 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graph.tree.mst;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.syncleus.dann.graph.*;
+import com.syncleus.dann.graph.cycle.*;
+import com.syncleus.dann.graph.topological.Topography;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBoruvkaMinimumSpanningTreeFinder
+{
+	private static double totalWeight(final Set<? extends WeightedBidirectedEdge<Integer>> edges)
+	{
+		double weight = 0.0;
+		for(final WeightedBidirectedEdge<Integer> edge : edges)
+			weight += edge.getWeight();
+		return weight;
+	}
+
+	private static Graph<Integer, WeightedBidirectedEdge<Integer>> createGraph(final int nodeCount, final int chordCount)
+	{
+		final Random random = new Random(0);
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<WeightedBidirectedEdge<Integer>> edges = new HashSet<WeightedBidirectedEdge<Integer>>();
+		for(int node = 0; node < nodeCount; node++)
+			edges.add(new ImmutableWeightedUndirectedEdge<Integer>(node, (node + 1) % nodeCount, 50.0 + random.nextInt(50)));
+		// few distinct weights so that many edges tie
+		for(int chord = 0; chord < chordCount; chord++)
+			edges.add(new ImmutableWeightedUndirectedEdge<Integer>(random.nextInt(nodeCount), random.nextInt(nodeCount), random.nextInt(10)));
+		return new ImmutableAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(nodes, edges);
+	}
+
+	@Test
+	public void testUndirected()
+	{
+		final Graph<Integer, WeightedBidirectedEdge<Integer>> graph = createGraph(300, 900);
+		final Set<WeightedBidirectedEdge<Integer>> kruskalEdges = new KruskalMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph);
+		final Set<WeightedBidirectedEdge<Integer>> mstEdges = new BoruvkaMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph);
+
+		final TreeGraph<Integer, WeightedBidirectedEdge<Integer>> mst = new ImmutableTreeAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(graph.getNodes(), mstEdges);
+		final CycleDetector detector = new ColoredDepthFirstSearchDetector();
+		Assert.assertEquals("mst has the wrong number of edges", graph.getNodes().size() - 1, mstEdges.size());
+		Assert.assertTrue("mst was not acyclic", !detector.hasCycle(mst));
+		Assert.assertTrue("mst was not connected", Topography.isStronglyConnected(mst));
+		Assert.assertEquals("boruvka and kruskal disagree on the weight of the mst", totalWeight(kruskalEdges), totalWeight(mstEdges), 0.0001);
+	}
+
+	@Test
+	public void testParallel()
+	{
+		final Graph<Integer, WeightedBidirectedEdge<Integer>> graph = createGraph(500, 2000);
+		final Set<WeightedBidirectedEdge<Integer>> kruskalEdges = new KruskalMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			final Set<WeightedBidirectedEdge<Integer>> mstEdges = new BoruvkaMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>(executor).findMinimumSpanningTree(new CompressedAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(graph));
+			Assert.assertEquals("mst has the wrong number of edges", graph.getNodes().size() - 1, mstEdges.size());
+			Assert.assertEquals("boruvka and kruskal disagree on the weight of the mst", totalWeight(kruskalEdges), totalWeight(mstEdges), 0.0001);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testForest()
+	{
+		final Set<Integer> nodes = new HashSet<Integer>(Arrays.asList(0, 1, 2, 3, 4));
+		final Set<WeightedBidirectedEdge<Integer>> edges = new HashSet<WeightedBidirectedEdge<Integer>>();
+		edges.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 1, 2.0));
+		edges.add(new ImmutableWeightedUndirectedEdge<Integer>(1, 2, 1.0));
+		edges.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 2, 3.0));
+		edges.add(new ImmutableWeightedUndirectedEdge<Integer>(3, 4, 5.0));
+		final Graph<Integer, WeightedBidirectedEdge<Integer>> graph = new ImmutableAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(nodes, edges);
+
+		final Set<WeightedBidirectedEdge<Integer>> forestEdges = new BoruvkaMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph);
+		Assert.assertEquals("forest has the wrong number of edges", 3, forestEdges.size());
+		Assert.assertEquals("forest has the wrong weight", 8.0, totalWeight(forestEdges), 0.0001);
+	}
+}
@@ -130,4 +130,76 @@ public class TestKruskalMinimumSpanningTreeFinder
 		Assert.assertTrue("Linked mst was not connected", Topography.isStronglyConnected(mst));
 		Assert.assertTrue("Linked mst did not contain all the nodes of the paret graph", mst.getNodes().containsAll(graph.getNodes()));
 	}
+
+	@Test
+	public void testIndexedUndirected()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		final Object centerNode = "centerNode";
+		nodes.add(centerNode);
+		final Object topNode = "topNode";
+		nodes.add(topNode);
+		final Object leftNode = "leftNode";
+		nodes.add(leftNode);
+		final Object rightNode = "rightNode";
+		nodes.add(rightNode);
+
+		final Set<BidirectedEdge<Object>> edges = new HashSet<BidirectedEdge<Object>>();
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, topNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, leftNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, rightNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(topNode, rightNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(rightNode, leftNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(leftNode, topNode));
+
+		final Graph<Object, BidirectedEdge<Object>> graph = new CompressedAdjacencyGraph<Object, BidirectedEdge<Object>>(nodes, edges);
+
+		final MinimumSpanningTreeFinder<Object, BidirectedEdge<Object>> finder = new KruskalMinimumSpanningTreeFinder<Object, BidirectedEdge<Object>>();
+		final Set<BidirectedEdge<Object>> mstEdges = finder.findMinimumSpanningTree(graph);
+		final TreeGraph<Object, BidirectedEdge<Object>> mst = new ImmutableTreeAdjacencyGraph<Object, BidirectedEdge<Object>>(graph.getNodes(), mstEdges);
+
+		final CycleDetector detector = new ColoredDepthFirstSearchDetector();
+		Assert.assertEquals("mst has the wrong number of edges", nodes.size() - 1, mstEdges.size());
+		Assert.assertTrue("mst was not acyclic", !detector.hasCycle(mst));
+		Assert.assertTrue("mst was not connected", Topography.isStronglyConnected(mst));
+	}
+
+	private static double totalWeight(final Set<? extends WeightedBidirectedEdge<Integer>> edges)
+	{
+		double weight = 0.0;
+		for(final WeightedBidirectedEdge<Integer> edge : edges)
+			weight += edge.getWeight();
+		return weight;
+	}
+
+	@Test
+	public void testWeightedUndirected()
+	{
+		final int nodeCount = 200;
+		final Random random = new Random(0);
+		final Set<Integer> nodes = new HashSet<Integer>();
+		for(int node = 0; node < nodeCount; node++)
+			nodes.add(node);
+		final Set<WeightedBidirectedEdge<Integer>> edges = new HashSet<WeightedBidirectedEdge<Integer>>();
+		// a ring keeps the graph connected, random chords give it cheaper options
+		for(int node = 0; node < nodeCount; node++)
+			edges.add(new ImmutableWeightedUndirectedEdge<Integer>(node, (node + 1) % nodeCount, 50.0 + random.nextInt(50)));
+		for(int chord = 0; chord < nodeCount * 3; chord++)
+			edges.add(new ImmutableWeightedUndirectedEdge<Integer>(random.nextInt(nodeCount), random.nextInt(nodeCount), random.nextInt(100)));
+
+		final Graph<Integer, WeightedBidirectedEdge<Integer>> graph = new ImmutableAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(nodes, edges);
+		final Set<WeightedBidirectedEdge<Integer>> kruskalEdges = new KruskalMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph);
+		final Set<WeightedBidirectedEdge<Integer>> primEdges = new PrimMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(graph, 0);
+
+		Assert.assertEquals("mst has the wrong number of edges", nodeCount - 1, kruskalEdges.size());
+		Assert.assertEquals("kruskal and prim disagree on the weight of the mst", totalWeight(primEdges), totalWeight(kruskalEdges), 0.0001);
+		final TreeGraph<Integer, WeightedBidirectedEdge<Integer>> mst = new ImmutableTreeAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(graph.getNodes(), kruskalEdges);
+		Assert.assertTrue("mst was not connected", Topography.isStronglyConnected(mst));
+
+		// a single edge leaves the other nodes unreachable
+		final Set<WeightedBidirectedEdge<Integer>> isolatingEdges = new HashSet<WeightedBidirectedEdge<Integer>>();
+		isolatingEdges.add(new ImmutableWeightedUndirectedEdge<Integer>(0, 1, 1.0));
+		final Graph<Integer, WeightedBidirectedEdge<Integer>> disconnected = new ImmutableAdjacencyGraph<Integer, WeightedBidirectedEdge<Integer>>(nodes, isolatingEdges);
+		Assert.assertNull("disconnected graphs have no spanning tree", new KruskalMinimumSpanningTreeFinder<Integer, WeightedBidirectedEdge<Integer>>().findMinimumSpanningTree(disconnected));
+	}
 }
@@ -76,4 +76,37 @@ public class TestPrimMinimumSpanningTreeFinder
 		Assert.assertTrue("mst was not connected", Topography.isStronglyConnected(mst));
 		Assert.assertTrue("mst did not contain all the nodes of the paret graph", mst.getNodes().containsAll(graph.getNodes()));
 	}
+
+	@Test
+	public void testIndexedUndirected()
+	{
+		final Set<Object> nodes = new HashSet<Object>();
+		final Object centerNode = "centerNode";
+		nodes.add(centerNode);
+		final Object topNode = "topNode";
+		nodes.add(topNode);
+		final Object leftNode = "leftNode";
+		nodes.add(leftNode);
+		final Object rightNode = "rightNode";
+		nodes.add(rightNode);
+
+		final Set<BidirectedEdge<Object>> edges = new HashSet<BidirectedEdge<Object>>();
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, topNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, leftNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(centerNode, rightNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(topNode, rightNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(rightNode, leftNode));
+		edges.add(new ImmutableUndirectedEdge<Object>(leftNode, topNode));
+
+		final Graph<Object, BidirectedEdge<Object>> graph = new CompressedAdjacencyGraph<Object, BidirectedEdge<Object>>(nodes, edges);
+
+		final MinimumSpanningTreeFinder<Object, BidirectedEdge<Object>> finder = new PrimMinimumSpanningTreeFinder<Object, BidirectedEdge<Object>>();
+		final Set<BidirectedEdge<Object>> mstEdges = finder.findMinimumSpanningTree(graph);
+		final TreeGraph<Object, BidirectedEdge<Object>> mst = new ImmutableTreeAdjacencyGraph<Object, BidirectedEdge<Object>>(graph.getNodes(), mstEdges);
+
+		final CycleDetector detector = new ColoredDepthFirstSearchDetector();
+		Assert.assertEquals("mst has the wrong number of edges", nodes.size() - 1, mstEdges.size());
+		Assert.assertTrue("mst was not acyclic", !detector.hasCycle(mst));
+		Assert.assertTrue("mst was not connected", Topography.isStronglyConnected(mst));
+	}
 }
@@ -0,0 +1,167 @@
+/******************************************************************************
+ *                                                                             *
+ *  Copyright: (c) Syncleus, Inc.                                              *
+ *                                                                             *
+ *  You may redistribute and modify this source code under the terms and       *
+ *  conditions of the Open Source Community License - Type C version 1.0       *
+ *  or any later version as published by Syncleus, Inc. at www.syncleus.com.   *
+ *  There should be a copy of the license included with this file. If a copy   *
+ *  of the license is not included you are granted no right to distribute or   *
+ *  otherwise use this file except through a legal and valid license. You      *
+ *  should also contact Syncleus, Inc. at the information below if you cannot  *
+ *  find a license:                                                            *
+ *                                                                             *
+ *  Syncleus, Inc.                                                             *
+ *  2604 South 12th Street                                                     *
+ *  Philadelphia, PA 19148                                                     *
+ *                                                                             *
+ ******************************************************************************/
+package com.syncleus.dann.graphicalmodel;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import javax.xml.stream.*;
+import com.syncleus.dann.graph.*;
+import com.syncleus.dann.graph.xml.EdgeXml;
+import com.syncleus.dann.graphicalmodel.bayesian.MutableBayesianAdjacencyNetwork;
+import com.syncleus.dann.graphicalmodel.xml.EvidenceMapXml;
+import com.syncleus.dann.graphicalmodel.xml.SimpleGraphicalModelNodeXml;
+import com.syncleus.dann.graphicalmodel.xml.StateEvidenceXml;
+import com.syncleus.dann.xml.NameXml;
+import com.syncleus.dann.xml.NamedValueXml;
+import com.syncleus.dann.xml.XmlValueStreamer;
+import org.junit.*;
+
+public class TestGraphicalModelXmlStream
+{
+	private static enum BooleanState
+	{
+		TRUE, FALSE
+	}
+
+	private static class TextValueStreamer implements XmlValueStreamer
+	{
+		@Override
+		public void writeValue(final XMLStreamWriter writer, final Object value) throws XMLStreamException
+		{
+			writer.writeStartElement("value");
+			writer.writeCharacters(value.toString());
+			writer.writeEndElement();
+		}
+
+		@Override
+		public Object readValue(final XMLStreamReader reader) throws XMLStreamException
+		{
+			return reader.getElementText();
+		}
+	}
+
+	private static class RecordingHandler implements GraphicalModelXmlHandler
+	{
+		private int nodeCount;
+		private int edgeCount;
+		private final Map<String, Object> nodeInstances = new HashMap<String, Object>();
+		private final Map<String, Object> stateInstances = new HashMap<String, Object>();
+		private final Map<String, Integer> evidenceCounts = new HashMap<String, Integer>();
+		private final Set<String> nodesWithInstances = new HashSet<String>();
+
+		@Override
+		public void handleNode(final NameXml node)
+		{
+			this.nodeCount++;
+		}
+
+		@Override
+		public void handleEdge(final EdgeXml edge)
+		{
+			this.edgeCount++;
+		}
+
+		@Override
+		public void handleNodeInstance(final NamedValueXml nodeInstance)
+		{
+			this.nodeInstances.put(nodeInstance.getName(), nodeInstance.getValue());
+		}
+
+		@Override
+		public void handleStateInstance(final NamedValueXml stateInstance)
+		{
+			this.stateInstances.put(stateInstance.getName(), stateInstance.getValue());
+		}
+
+		@Override
+		public void handleEvidence(final String nodeName, final EvidenceMapXml.InfluencedEvidences.InfluencedEvidence evidence)
+		{
+			Assert.assertFalse("evidence should be read before its node instance", this.nodeInstances.containsKey(nodeName));
+			int total = 0;
+			for(final StateEvidenceXml.States.State state : evidence.getStateEvidence().getStates().getStates())
+				total += state.getCount();
+			final Integer previous = this.evidenceCounts.get(nodeName);
+			this.evidenceCounts.put(nodeName, (previous == null ? 0 : previous) + total);
+		}
+	}
+
+	private final MutableBayesianAdjacencyNetwork<GraphicalModelNode, DirectedEdge<GraphicalModelNode>> network = new MutableBayesianAdjacencyNetwork();
+	private final SimpleGraphicalModelNode<BooleanState> rain = new SimpleGraphicalModelNode<BooleanState>(BooleanState.FALSE);
+	private final SimpleGraphicalModelNode<BooleanState> sprinkler = new SimpleGraphicalModelNode<BooleanState>(BooleanState.FALSE);
+	private final SimpleGraphicalModelNode<BooleanState> wet = new SimpleGraphicalModelNode<BooleanState>(BooleanState.FALSE);
+
+	private void learnNetwork()
+	{
+		this.network.add(this.rain);
+		this.network.add(this.sprinkler);
+		this.network.add(this.wet);
+		this.network.add(new ImmutableDirectedEdge<GraphicalModelNode>(this.rain, this.wet));
+		this.network.add(new ImmutableDirectedEdge<GraphicalModelNode>(this.sprinkler, this.wet));
+
+		final Random random = new Random(0);
+		for(int sample = 0; sample < 20; sample++)
+		{
+			this.rain.setState(random.nextBoolean() ? BooleanState.TRUE : BooleanState.FALSE);
+			this.sprinkler.setState(random.nextBoolean() ? BooleanState.TRUE : BooleanState.FALSE);
+			this.wet.setState(((this.rain.getState() == BooleanState.TRUE) || (this.sprinkler.getState() == BooleanState.TRUE)) ? BooleanState.TRUE : BooleanState.FALSE);
+			this.network.learnStates();
+		}
+	}
+
+	@Test
+	public void testNetworkRoundTrip() throws XMLStreamException
+	{
+		this.learnNetwork();
+		final StringWriter document = new StringWriter();
+		new GraphicalModelXmlStreamWriter<GraphicalModelNode, DirectedEdge<GraphicalModelNode>>(XMLOutputFactory.newInstance().createXMLStreamWriter(document), new TextValueStreamer()).write(this.network);
+		Assert.assertTrue("root element should be a BayesianNetwork", document.toString().contains("<bayesian:BayesianNetwork"));
+
+		final RecordingHandler handler = new RecordingHandler();
+		new GraphicalModelXmlStreamReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(document.toString())), new TextValueStreamer()).read(handler);
+
+		Assert.assertEquals("wrong number of nodes", 3, handler.nodeCount);
+		Assert.assertEquals("wrong number of edges", 2, handler.edgeCount);
+		Assert.assertEquals("wrong number of node instances", 3, handler.nodeInstances.size());
+		Assert.assertEquals("states should be named once each", new HashSet<Object>(Arrays.asList("TRUE", "FALSE")), new HashSet<Object>(handler.stateInstances.values()));
+		for(final Map.Entry<String, Object> nodeInstance : handler.nodeInstances.entrySet())
+		{
+			Assert.assertTrue("node should be read as a simple node", nodeInstance.getValue() instanceof SimpleGraphicalModelNodeXml);
+			final SimpleGraphicalModelNodeXml node = (SimpleGraphicalModelNodeXml) nodeInstance.getValue();
+			Assert.assertTrue("current state should be a named state", handler.stateInstances.containsKey(node.getState().getName()));
+			Assert.assertEquals("every sample should be in the evidence", Integer.valueOf(20), handler.evidenceCounts.get(nodeInstance.getKey()));
+		}
+	}
+
+	@Test
+	public void testEvidenceMapRoundTrip() throws XMLStreamException
+	{
+		this.learnNetwork();
+		final EvidenceMap<BooleanState> evidence = this.wet.getEvidence();
+		final StringWriter document = new StringWriter();
+		new GraphicalModelXmlStreamWriter<GraphicalModelNode, DirectedEdge<GraphicalModelNode>>(XMLOutputFactory.newInstance().createXMLStreamWriter(document), new TextValueStreamer()).writeEvidenceMap(evidence);
+
+		final RecordingHandler handler = new RecordingHandler();
+		new GraphicalModelXmlStreamReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(document.toString())), new TextValueStreamer()).readEvidenceMap(handler);
+
+		Assert.assertEquals("every sample should be in the evidence", Integer.valueOf(20), handler.evidenceCounts.get(null));
+		Assert.assertEquals("both influencing nodes should have instances", 2, handler.nodeInstances.size());
+		Assert.assertEquals("states should be named once each", 2, handler.stateInstances.size());
+	}
+}